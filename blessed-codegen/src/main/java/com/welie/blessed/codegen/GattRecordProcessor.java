@@ -0,0 +1,327 @@
+package com.welie.blessed.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates straight-line decoders for classes annotated with com.welie.blessed.schema.GattRecord.
+ * <p>
+ * The annotations are matched by name, so this processor does not depend on the blessed library that defines them.
+ */
+public final class GattRecordProcessor extends AbstractProcessor {
+    static final String GATT_RECORD = "com.welie.blessed.schema.GattRecord";
+    static final String GATT_FIELD = "com.welie.blessed.schema.GattField";
+    static final String GATT_FLAGS = "com.welie.blessed.schema.GattFlags";
+    static final String DECODER_SUFFIX = "Decoder";
+    static final String PRESENT_SUFFIX = "Present";
+
+    /**
+     * The formats of com.welie.blessed.schema.GattFormat with the parser method that reads them
+     */
+    enum Format {
+        UINT8("getUInt8()", TypeKind.INT),
+        UINT16("getUInt16()", TypeKind.INT),
+        UINT24("getUInt24()", TypeKind.INT),
+        UINT32("getUInt32()", TypeKind.LONG),
+        SINT8("getSInt8()", TypeKind.INT),
+        SINT16("getSInt16()", TypeKind.INT),
+        SINT32("getSInt32()", TypeKind.INT),
+        SFLOAT("getSFloat()", TypeKind.FLOAT),
+        FLOAT("getFloat()", TypeKind.FLOAT),
+        DATE_TIME("getDateTimeMillis()", TypeKind.LONG);
+
+        final String getter;
+        final TypeKind kind;
+
+        Format(String getter, TypeKind kind) {
+            this.getter = getter;
+            this.kind = kind;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GATT_RECORD);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS || ((TypeElement) element).getNestingKind() != NestingKind.TOP_LEVEL) {
+                    error(element, "@GattRecord can only be used on top level classes");
+                    continue;
+                }
+                processRecord((TypeElement) element);
+            }
+        }
+        return true;
+    }
+
+    private void processRecord(TypeElement record) {
+        final String source = generateDecoder(record);
+        if (source == null) return;
+
+        final String decoderName = record.getQualifiedName() + DECODER_SUFFIX;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(decoderName, record).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            error(record, "could not write " + decoderName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generate the source of the decoder
+     *
+     * @return the source or null if the record contains errors, which have been reported
+     */
+    private String generateDecoder(TypeElement record) {
+        final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(record);
+        final String recordName = record.getSimpleName().toString();
+        final String decoderName = recordName + DECODER_SUFFIX;
+        final String visibility = record.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+        final String uuid = (String) annotationValues(findAnnotation(record, GATT_RECORD)).get("uuid");
+
+        final Map<String, VariableElement> fields = new HashMap<>();
+        for (Element enclosed : record.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.FIELD) {
+                fields.put(enclosed.getSimpleName().toString(), (VariableElement) enclosed);
+            }
+        }
+
+        final StringBuilder body = new StringBuilder();
+        boolean valid = true;
+        boolean hasFlags = false;
+        for (Element enclosed : record.getEnclosedElements()) {
+            if (enclosed.getKind() != ElementKind.FIELD) continue;
+
+            final VariableElement field = (VariableElement) enclosed;
+            final AnnotationMirror flagsAnnotation = findAnnotation(field, GATT_FLAGS);
+            final AnnotationMirror fieldAnnotation = findAnnotation(field, GATT_FIELD);
+            if (flagsAnnotation == null && fieldAnnotation == null) continue;
+
+            if (!isAssignable(field)) {
+                valid = false;
+                continue;
+            }
+
+            final String name = field.getSimpleName().toString();
+            if (flagsAnnotation != null) {
+                final Format format = enumValue(annotationValues(flagsAnnotation).get("value"));
+                if (field.asType().getKind() != TypeKind.INT || format.kind == TypeKind.FLOAT || format == Format.DATE_TIME) {
+                    error(field, "@GattFlags must be an int field with an integer format");
+                    valid = false;
+                    continue;
+                }
+                body.append(String.format("        flags = %s;%n", read(format, TypeKind.INT)));
+                body.append(String.format("        record.%s = flags;%n", name));
+                hasFlags = true;
+                continue;
+            }
+
+            final Map<String, Object> values = annotationValues(fieldAnnotation);
+            final Format format = enumValue(values.get("value"));
+            final Format alternate = enumValue(values.get("alternate"));
+            final int presentWhen = (Integer) values.get("presentWhen");
+            final int absentWhen = (Integer) values.get("absentWhen");
+            final int alternateWhen = (Integer) values.get("alternateWhen");
+            final TypeKind kind = field.asType().getKind();
+
+            if (!isConvertible(format, kind, field) || (alternateWhen != 0 && !isConvertible(alternate, kind, field))) {
+                valid = false;
+                continue;
+            }
+            if (!hasFlags && (presentWhen != 0 || absentWhen != 0 || alternateWhen != 0)) {
+                error(field, "a conditional @GattField must be declared after the @GattFlags field");
+                valid = false;
+                continue;
+            }
+
+            final VariableElement presentField = fields.get(name + PRESENT_SUFFIX);
+            final boolean hasPresentField = presentField != null && presentField.asType().getKind() == TypeKind.BOOLEAN && isAssignable(presentField);
+            final String condition = condition(presentWhen, absentWhen);
+            final String indent = condition == null ? "        " : "            ";
+            if (condition != null) {
+                body.append(String.format("        if (%s) {%n", condition));
+            }
+
+            if (alternateWhen != 0) {
+                body.append(String.format("%sif (%s) {%n", indent, allSet(alternateWhen)));
+                body.append(String.format("%s    record.%s = %s;%n", indent, name, read(alternate, kind)));
+                body.append(String.format("%s} else {%n", indent));
+                body.append(String.format("%s    record.%s = %s;%n", indent, name, read(format, kind)));
+                body.append(String.format("%s}%n", indent));
+            } else {
+                body.append(String.format("%srecord.%s = %s;%n", indent, name, read(format, kind)));
+            }
+
+            if (hasPresentField) {
+                body.append(String.format("%srecord.%s%s = true;%n", indent, name, PRESENT_SUFFIX));
+            }
+            if (condition != null) {
+                body.append(String.format("        } else {%n"));
+                body.append(String.format("            record.%s = %s;%n", name, absentValue(kind)));
+                if (hasPresentField) {
+                    body.append(String.format("            record.%s%s = false;%n", name, PRESENT_SUFFIX));
+                }
+                body.append(String.format("        }%n"));
+            }
+        }
+
+        if (!valid) return null;
+
+        final StringBuilder source = new StringBuilder();
+        if (!packageElement.isUnnamed()) {
+            source.append(String.format("package %s;%n%n", packageElement.getQualifiedName()));
+        }
+        source.append(String.format("import com.welie.blessed.BluetoothBufferParser;%n%n"));
+        source.append(String.format("import java.nio.ByteBuffer;%n"));
+        source.append(String.format("import java.util.UUID;%n%n"));
+        source.append(String.format("/**%n * Decoder for {@link %s}, generated from its schema by %s. Do not edit.%n */%n", recordName, GattRecordProcessor.class.getSimpleName()));
+        source.append(String.format("%sfinal class %s {%n", visibility, decoderName));
+        if (uuid != null && !uuid.isEmpty()) {
+            source.append(String.format("%n    /**%n     * The characteristic decoded by this decoder%n     */%n"));
+            source.append(String.format("    public static final UUID CHARACTERISTIC_UUID = UUID.fromString(\"%s\");%n", uuid));
+        }
+        source.append(String.format("%n    // Not BluetoothBufferParser.local(), so a parser the caller got from there keeps its state%n"));
+        source.append(String.format("    private static final ThreadLocal<BluetoothBufferParser> PARSER = ThreadLocal.withInitial(BluetoothBufferParser::new);%n"));
+        source.append(String.format("%n    private %s() {%n    }%n", decoderName));
+
+        source.append(String.format("%n    /**%n     * Decode a value into the record, using a parser of the current thread.%n"));
+        source.append(String.format("     *%n     * @param value  the value, from its position to its limit%n     * @param record the record to decode into%n     * @return the record%n"));
+        source.append(String.format("     * @throws IndexOutOfBoundsException if the value is too short%n     */%n"));
+        source.append(String.format("    public static %s decode(ByteBuffer value, %s record) {%n", recordName, recordName));
+        source.append(String.format("        return decode(PARSER.get().wrap(value), record);%n    }%n"));
+
+        source.append(String.format("%n    /**%n     * Decode a value into the record, using a parser of the current thread.%n"));
+        source.append(String.format("     *%n     * @param value  the value%n     * @param record the record to decode into%n     * @return the record%n"));
+        source.append(String.format("     * @throws IndexOutOfBoundsException if the value is too short%n     */%n"));
+        source.append(String.format("    public static %s decode(byte[] value, %s record) {%n", recordName, recordName));
+        source.append(String.format("        return decode(PARSER.get().wrap(value), record);%n    }%n"));
+
+        source.append(String.format("%n    /**%n     * Decode a value into the record, starting at the offset of the parser.%n"));
+        source.append(String.format("     *%n     * @param parser the parser wrapped around the value%n     * @param record the record to decode into%n     * @return the record%n"));
+        source.append(String.format("     * @throws IndexOutOfBoundsException if the value is too short%n     */%n"));
+        source.append(String.format("    public static %s decode(BluetoothBufferParser parser, %s record) {%n", recordName, recordName));
+        if (hasFlags) {
+            source.append(String.format("        int flags;%n"));
+        }
+        source.append(body);
+        source.append(String.format("        return record;%n    }%n}%n"));
+        return source.toString();
+    }
+
+    private boolean isAssignable(VariableElement field) {
+        final Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+            error(field, "fields of a @GattRecord must not be private, final or static");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isConvertible(Format format, TypeKind kind, VariableElement field) {
+        final boolean convertible;
+        if (format == Format.DATE_TIME) {
+            convertible = kind == TypeKind.LONG;
+        } else {
+            convertible = kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.FLOAT || kind == TypeKind.DOUBLE;
+        }
+        if (!convertible) {
+            error(field, String.format("a %s cannot be decoded into a field of type %s", format, field.asType()));
+        }
+        return convertible;
+    }
+
+    /**
+     * The expression that reads the format, with a cast if the value has to be narrowed to fit the field
+     */
+    private static String read(Format format, TypeKind kind) {
+        final String expression = "parser." + format.getter;
+        final boolean narrowing = (kind == TypeKind.INT && format.kind != TypeKind.INT)
+                || (kind == TypeKind.LONG && format.kind == TypeKind.FLOAT);
+        return narrowing ? String.format("(%s) %s", kind.name().toLowerCase(Locale.ENGLISH), expression) : expression;
+    }
+
+    private static String absentValue(TypeKind kind) {
+        switch (kind) {
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "Float.NaN";
+            case DOUBLE:
+                return "Double.NaN";
+            default:
+                return "0";
+        }
+    }
+
+    private static String condition(int presentWhen, int absentWhen) {
+        if (presentWhen != 0 && absentWhen != 0) {
+            return allSet(presentWhen) + " && " + allClear(absentWhen);
+        } else if (presentWhen != 0) {
+            return allSet(presentWhen);
+        } else if (absentWhen != 0) {
+            return allClear(absentWhen);
+        }
+        return null;
+    }
+
+    private static String allSet(int mask) {
+        return String.format("(flags & 0x%02X) == 0x%02X", mask, mask);
+    }
+
+    private static String allClear(int mask) {
+        return String.format("(flags & 0x%02X) == 0", mask);
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Object> annotationValues(AnnotationMirror mirror) {
+        final Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return values;
+    }
+
+    private static Format enumValue(Object value) {
+        return Format.valueOf(((VariableElement) value).getSimpleName().toString());
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,54 @@
+package com.welie.blessed;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+
+/**
+ * Compares the boxed getIntValue/getFloatValue with the primitive getters on a typical measurement:
+ * flags, three SFLOAT values and a 16-bit counter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BluetoothBytesParserBenchmark {
+
+    private final byte[] value = new byte[]{0x1E, 0x72, (byte) 0xF0, 0x4F, (byte) 0xF0, 0x6E, (byte) 0xF0, 0x34, 0x12};
+    private final BluetoothBytesParser parser = new BluetoothBytesParser(value);
+
+    @Benchmark
+    public void boxed(Blackhole blackhole) {
+        parser.setOffset(0);
+        blackhole.consume(parser.getIntValue(FORMAT_UINT8));
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT));
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT));
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT));
+        blackhole.consume(parser.getIntValue(FORMAT_UINT16));
+    }
+
+    @Benchmark
+    public void primitive(Blackhole blackhole) {
+        parser.setOffset(0);
+        blackhole.consume(parser.getUInt8());
+        blackhole.consume(parser.getSFloat());
+        blackhole.consume(parser.getSFloat());
+        blackhole.consume(parser.getSFloat());
+        blackhole.consume(parser.getUInt16());
+    }
+
+    @Benchmark
+    public void primitiveByFormat(Blackhole blackhole) {
+        parser.setOffset(0);
+        blackhole.consume(parser.getInt(FORMAT_UINT8));
+        blackhole.consume(parser.getFloat(FORMAT_SFLOAT));
+        blackhole.consume(parser.getFloat(FORMAT_SFLOAT));
+        blackhole.consume(parser.getFloat(FORMAT_SFLOAT));
+        blackhole.consume(parser.getInt(FORMAT_UINT16));
+    }
+}
@@ -0,0 +1,84 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding a characteristic of a connected peripheral, by service and characteristic UUID as the API does and
+ * by object path as every notification does, depending on the number of services. Every service has four
+ * characteristics and the last characteristic of the last service is looked up.
+ * <p>
+ * The peripheral is connected to a {@link SimulatedBluez}, so properties that are read during the lookup come from
+ * in-memory objects instead of D-Bus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// The handler threads of the central are not daemon threads, so don't wait for them when the fork is done. The
+// simulated Bluez uses Mockito, which needs the experimental ByteBuddy support to mock on Java 16 and later.
+@Fork(value = 1, jvmArgsAppend = {"-Djmh.shutdownTimeout=1", "-Dnet.bytebuddy.experimental=true"})
+@State(Scope.Benchmark)
+public class CharacteristicLookupBenchmark {
+
+    private static final String DEVICE_ADDRESS = "12:34:56:00:00:01";
+    private static final int CHARACTERISTICS_PER_SERVICE = 4;
+
+    @Param({"1", "5", "20"})
+    public int serviceCount;
+
+    private SimulatedBluez bluez;
+    private BluetoothPeripheral peripheral;
+    private UUID serviceUuid;
+    private UUID characteristicUuid;
+    private String characteristicPath;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        bluez = new SimulatedBluez();
+        final SimulatedDevice device = bluez.addDevice(DEVICE_ADDRESS)
+                .setConnectLatency(0)
+                .setServicesResolveDelay(0);
+        for (int s = 0; s < serviceCount; s++) {
+            serviceUuid = BluetoothUUID.fromString(String.format("%04x", 0x1800 + s));
+            final SimulatedGattService service = device.addService(serviceUuid);
+            for (int c = 0; c < CHARACTERISTICS_PER_SERVICE; c++) {
+                characteristicUuid = BluetoothUUID.fromString(String.format("%04x", 0x2A00 + s * CHARACTERISTICS_PER_SERVICE + c));
+                characteristicPath = service.addCharacteristic(characteristicUuid, "read", "notify").getObjectPath();
+            }
+        }
+
+        final CountDownLatch servicesDiscovered = new CountDownLatch(1);
+        final BluetoothCentral central = new BluetoothCentral(new BluetoothCentralCallback() {}, Collections.emptySet(), bluez.getAdapter());
+        peripheral = central.getPeripheral(DEVICE_ADDRESS);
+        central.connectPeripheral(peripheral, new BluetoothPeripheralCallback() {
+            @Override
+            public void onServicesDiscovered(@NotNull BluetoothPeripheral peripheral) {
+                servicesDiscovered.countDown();
+            }
+        });
+        if (!servicesDiscovered.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("services not discovered");
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        bluez.close();
+    }
+
+    @Benchmark
+    public BluetoothGattCharacteristic byUuid() {
+        return peripheral.getCharacteristic(serviceUuid, characteristicUuid);
+    }
+
+    @Benchmark
+    public BluetoothGattCharacteristic byPath() {
+        return peripheral.getCharacteristicFromPath(characteristicPath);
+    }
+}
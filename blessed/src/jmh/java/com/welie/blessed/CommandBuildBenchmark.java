@@ -0,0 +1,60 @@
+package com.welie.blessed;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+
+/**
+ * Measures building a control point command with an opcode, a sequence number and a payload, up to the array that is
+ * handed to Bluez. The parser baseline merges arrays and is copied again by writeCharacteristic, the writer builds
+ * the value in a pooled buffer that is copied once. Run with -PjmhProfiler=gc to see the allocated bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandBuildBenchmark {
+
+    @Param({"16", "244"})
+    public int payloadLength;
+
+    private byte[] payload;
+    private int sequenceNumber;
+
+    @Setup
+    public void setup() {
+        payload = new byte[payloadLength];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+    }
+
+    @Benchmark
+    public byte[] bytesParser() {
+        final BluetoothBytesParser parser = new BluetoothBytesParser();
+        parser.setIntValue(0x01, FORMAT_UINT8);
+        parser.setIntValue(sequenceNumber++ & 0xFFFF, FORMAT_UINT16);
+        final byte[] command = mergeArrays(parser.getValue(), payload);
+        return Arrays.copyOf(command, command.length);
+    }
+
+    @Benchmark
+    public byte[] bytesWriter() {
+        final ByteBuffer command = BluetoothBytesWriter.local()
+                .start(3 + payload.length)
+                .putUInt8(0x01)
+                .putUInt16(sequenceNumber++ & 0xFFFF)
+                .putBytes(payload)
+                .finish();
+        final byte[] bytesToWrite = new byte[command.remaining()];
+        command.get(bytesToWrite);
+        BluetoothBufferPool.shared().release(command);
+        return bytesToWrite;
+    }
+}
@@ -0,0 +1,108 @@
+package com.welie.blessed;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding a command to a peripheral's command queue and completing one, with one and with many threads using
+ * the same queue. Every thread adds a command and completes the executing one, like the producers and callbacks of a
+ * busy peripheral do. The synchronized queue is the previous implementation: a concurrent queue, a volatile busy flag
+ * and a lock around starting the next command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandQueueBenchmark {
+
+    @Param({"lockFree", "synchronized"})
+    public String queueType;
+
+    private Commands queue;
+
+    // Completing fails when another thread completed the executing command and didn't start the next one yet, so the
+    // queue can grow a little. Start every iteration with an empty queue.
+    @Setup(Level.Iteration)
+    public void setup() {
+        queue = queueType.equals("lockFree") ? new LockFreeCommands() : new SynchronizedCommands();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneThread() {
+        addAndComplete();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightThreads() {
+        addAndComplete();
+    }
+
+    private void addAndComplete() {
+        queue.add(this);
+        queue.next();
+        queue.completed();
+        queue.next();
+    }
+
+    private interface Commands {
+        void add(Object command);
+
+        void next();
+
+        void completed();
+    }
+
+    private static final class LockFreeCommands implements Commands {
+        private final CommandQueue<Object> queue = new CommandQueue<>(command -> {
+        });
+
+        @Override
+        public void add(Object command) {
+            queue.add(command);
+        }
+
+        @Override
+        public void next() {
+            queue.next();
+        }
+
+        @Override
+        public void completed() {
+            queue.completed();
+        }
+    }
+
+    private static final class SynchronizedCommands implements Commands {
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private volatile boolean busy;
+
+        @Override
+        public void add(Object command) {
+            queue.add(command);
+        }
+
+        @Override
+        public void next() {
+            synchronized (this) {
+                if (busy) return;
+                if (queue.peek() != null) {
+                    busy = true;
+                }
+            }
+        }
+
+        @Override
+        public void completed() {
+            if (!busy) return;
+            queue.poll();
+            busy = false;
+        }
+    }
+}
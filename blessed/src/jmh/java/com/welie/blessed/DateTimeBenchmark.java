@@ -0,0 +1,65 @@
+package com.welie.blessed;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding a 7 byte DateTime and encoding a 10 byte Current Time. The 'calendar' benchmarks use
+ * GregorianCalendar like BluetoothBytesParser did before, as a baseline. Run with -PjmhProfiler=gc to see the
+ * allocated bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeBenchmark {
+
+    // 2020-11-29 17:08:39
+    private final byte[] dateTime = new byte[]{(byte) 0xE4, 0x07, 0x0B, 0x1D, 0x11, 0x08, 0x27};
+    private final byte[] currentTime = new byte[10];
+    private final BluetoothBufferParser parser = new BluetoothBufferParser();
+    private long now;
+
+    @Setup
+    public void setup() {
+        now = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public Date decodeCalendar() {
+        final int year = (dateTime[0] & 0xFF) | ((dateTime[1] & 0xFF) << 8);
+        return new GregorianCalendar(year, dateTime[2] - 1, dateTime[3], dateTime[4], dateTime[5], dateTime[6]).getTime();
+    }
+
+    @Benchmark
+    public long decodeMillis() {
+        return parser.wrap(dateTime).getDateTimeMillis();
+    }
+
+    @Benchmark
+    public LocalDateTime decodeLocalDateTime() {
+        return parser.wrap(dateTime).getLocalDateTime();
+    }
+
+    @Benchmark
+    public byte[] encodeCalendar() {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        final BluetoothBytesParser bytesParser = new BluetoothBytesParser();
+        bytesParser.setCurrentTime(calendar);
+        return bytesParser.getValue();
+    }
+
+    @Benchmark
+    public byte[] encodeMillis() {
+        parser.wrap(currentTime).putCurrentTime(now, 1);
+        return currentTime;
+    }
+}
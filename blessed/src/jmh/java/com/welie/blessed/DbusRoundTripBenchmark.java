@@ -0,0 +1,246 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothGattCharacteristic.WriteType.withResponse;
+
+/**
+ * End-to-end benchmarks over real D-Bus without Bluetooth hardware. A simulated Bluez is exported as org.bluez on a
+ * private dbus-daemon and the central talks to it through a {@link BluezAdapterProvider} for that bus, so every
+ * operation includes the dbus-java marshalling, the daemon and the signal dispatching of the library.
+ * <p>
+ * Connecting includes the connect delay of 300 ms of the central. Requires dbus-daemon on the PATH.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// The handler threads of the central are not daemon threads, so don't wait for them when the fork is done
+@Fork(value = 1, jvmArgsAppend = "-Djmh.shutdownTimeout=1")
+public class DbusRoundTripBenchmark {
+
+    private static final UUID HRS_SERVICE_UUID = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+    private static final UUID HRM_MEASUREMENT_CHARACTERISTIC_UUID = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
+    private static final UUID BODY_SENSOR_LOCATION_CHARACTERISTIC_UUID = UUID.fromString("00002A38-0000-1000-8000-00805f9b34fb");
+    private static final UUID HRM_CONTROL_POINT_CHARACTERISTIC_UUID = UUID.fromString("00002A39-0000-1000-8000-00805f9b34fb");
+    private static final String DEVICE_ADDRESS = "5C:00:00:00:00:01";
+    private static final int ADVERTISERS = 100;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * A simulated Bluez on a private bus with one connectable heart rate monitor and {@value ADVERTISERS} devices that
+     * only advertise when the benchmark tells them to
+     */
+    @State(Scope.Benchmark)
+    public static class Bus {
+        PrivateDbusDaemon daemon;
+        SimulatedBluez bluez;
+        SimulatedDevice[] advertisers = new SimulatedDevice[ADVERTISERS];
+        SimulatedGattCharacteristic measurement;
+        BluezAdapterProvider provider;
+        BluetoothCentral central;
+        final Semaphore discovered = new Semaphore(0);
+        final Semaphore connected = new Semaphore(0);
+        final Semaphore disconnected = new Semaphore(0);
+        final Semaphore completed = new Semaphore(0);
+
+        final BluetoothPeripheralCallback peripheralCallback = new BluetoothPeripheralCallback() {
+            @Override
+            public void onServicesDiscovered(@NotNull BluetoothPeripheral peripheral) {
+                connected.release();
+            }
+
+            @Override
+            public void onNotificationStateUpdate(@NotNull BluetoothPeripheral peripheral, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+                completed.release();
+            }
+
+            @Override
+            public void onCharacteristicUpdate(@NotNull BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+                completed.release();
+            }
+
+            @Override
+            public void onCharacteristicWrite(@NotNull BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+                completed.release();
+            }
+        };
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            daemon = new PrivateDbusDaemon();
+            bluez = new SimulatedBluez(daemon.getAddress(), 42L);
+            final SimulatedGattService service = bluez.addDevice(DEVICE_ADDRESS)
+                    .setName("Sim-bus")
+                    .setAdvertisingInterval(0)
+                    .setConnectLatency(0)
+                    .setServicesResolveDelay(0)
+                    .addService(HRS_SERVICE_UUID);
+            measurement = service.addCharacteristic(HRM_MEASUREMENT_CHARACTERISTIC_UUID, "notify").setNotifications(0, () -> new byte[]{0x00, 0x48});
+            service.addCharacteristic(BODY_SENSOR_LOCATION_CHARACTERISTIC_UUID, "read").setValue(new byte[]{0x01});
+            service.addCharacteristic(HRM_CONTROL_POINT_CHARACTERISTIC_UUID, "write");
+            for (int i = 0; i < ADVERTISERS; i++) {
+                advertisers[i] = bluez.addDevice(String.format("5C:00:00:01:%02X:%02X", i >> 8, i & 0xFF))
+                        .setName("Sim-" + i)
+                        .setAdvertisingInterval(0)
+                        .setManufacturerData(0x00E0, new byte[]{(byte) i});
+            }
+
+            provider = new BluezAdapterProvider(daemon.getAddress());
+            central = new BluetoothCentral(new BluetoothCentralCallback() {
+                @Override
+                public void onDiscoveredPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull ScanResult scanResult) {
+                    discovered.release();
+                }
+
+                @Override
+                public void onDisconnectedPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull BluetoothCommandStatus status) {
+                    disconnected.release();
+                }
+            }, Collections.emptySet(), Objects.requireNonNull(provider.adapter, "simulated adapter not found"));
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            if (provider.dBusConnection != null) provider.dBusConnection.disconnect();
+            bluez.close();
+            daemon.close();
+        }
+
+        BluetoothPeripheral connect() throws InterruptedException {
+            final BluetoothPeripheral peripheral = central.getPeripheral(DEVICE_ADDRESS);
+            central.connectPeripheral(peripheral, peripheralCallback);
+            await(connected, 1);
+            return peripheral;
+        }
+
+        void disconnect(@NotNull BluetoothPeripheral peripheral) throws InterruptedException {
+            central.cancelConnection(peripheral);
+            await(disconnected, 1);
+        }
+    }
+
+    /**
+     * The bus with the heart rate monitor connected and notifying
+     */
+    @State(Scope.Benchmark)
+    public static class Connected {
+        BluetoothPeripheral peripheral;
+        BluetoothGattCharacteristic bodySensorLocation;
+        BluetoothGattCharacteristic controlPoint;
+        final byte[] command = new byte[]{0x01};
+
+        @Setup(Level.Trial)
+        public void setup(Bus bus) throws InterruptedException {
+            peripheral = bus.connect();
+            bodySensorLocation = Objects.requireNonNull(peripheral.getCharacteristic(HRS_SERVICE_UUID, BODY_SENSOR_LOCATION_CHARACTERISTIC_UUID));
+            controlPoint = Objects.requireNonNull(peripheral.getCharacteristic(HRS_SERVICE_UUID, HRM_CONTROL_POINT_CHARACTERISTIC_UUID));
+            peripheral.setNotify(HRS_SERVICE_UUID, HRM_MEASUREMENT_CHARACTERISTIC_UUID, true);
+            await(bus.completed, 1);
+        }
+    }
+
+    /**
+     * The bus with the central scanning and every advertiser announced
+     */
+    @State(Scope.Benchmark)
+    public static class Scanning {
+        Bus bus;
+
+        @Setup(Level.Trial)
+        public void setup(Bus bus) throws InterruptedException {
+            this.bus = bus;
+            bus.central.scanForPeripherals();
+            // The connectable device is announced too
+            await(bus.discovered, ADVERTISERS + 1);
+        }
+
+        /**
+         * The central scans for 6 s and pauses for 2 s, and drops advertisements while it stops. Only send a batch in
+         * the first half of a scan window.
+         */
+        @Setup(Level.Invocation)
+        public void awaitScanWindow() throws InterruptedException {
+            final SimulatedAdapter adapter = bus.bluez.getSimulatedAdapter();
+            while (!bus.central.isScanning || adapter.getDiscoveryMillis() < 0 || adapter.getDiscoveryMillis() > 3000) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static void await(@NotNull Semaphore semaphore, int permits) throws InterruptedException {
+        if (!semaphore.tryAcquire(permits, TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("no reply from the simulated Bluez");
+        }
+    }
+
+    /**
+     * Advertisements from the simulated Bluez to onDiscoveredPeripheral, per advertisement
+     */
+    @Benchmark
+    @OperationsPerInvocation(ADVERTISERS)
+    public void scanIngest(Bus bus, Scanning scanning) throws InterruptedException {
+        for (SimulatedDevice advertiser : bus.advertisers) {
+            advertiser.advertise();
+        }
+        // Every advertisement is an RSSI and a manufacturer data signal
+        await(bus.discovered, 2 * ADVERTISERS);
+    }
+
+    /**
+     * Disconnects the heart rate monitor after every connect, outside the measurement
+     */
+    @State(Scope.Benchmark)
+    public static class Reconnecting {
+        @TearDown(Level.Invocation)
+        public void disconnect(Bus bus) throws InterruptedException {
+            bus.disconnect(bus.central.getPeripheral(DEVICE_ADDRESS));
+        }
+    }
+
+    /**
+     * connectPeripheral to onServicesDiscovered
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 20)
+    public BluetoothPeripheral connectToServicesDiscovered(Bus bus, Reconnecting reconnecting) throws InterruptedException {
+        return bus.connect();
+    }
+
+    /**
+     * readCharacteristic to onCharacteristicUpdate
+     */
+    @Benchmark
+    public void readRoundTrip(Bus bus, Connected connected) throws InterruptedException {
+        connected.peripheral.readCharacteristic(connected.bodySensorLocation);
+        await(bus.completed, 1);
+    }
+
+    /**
+     * writeCharacteristic with response to onCharacteristicWrite
+     */
+    @Benchmark
+    public void writeRoundTrip(Bus bus, Connected connected) throws InterruptedException {
+        connected.peripheral.writeCharacteristic(connected.controlPoint, connected.command, withResponse);
+        await(bus.completed, 1);
+    }
+
+    /**
+     * A notification of the simulated Bluez to onCharacteristicUpdate
+     */
+    @Benchmark
+    public void notifyRoundTrip(Bus bus, Connected connected) throws InterruptedException {
+        bus.measurement.notifyValue();
+        await(bus.completed, 1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.welie.blessed;
+
+import com.welie.blessed.schema.health.BloodPressureMeasurementRecord;
+import com.welie.blessed.schema.health.BloodPressureMeasurementRecordDecoder;
+import com.welie.blessed.schema.health.HeartRateMeasurementRecord;
+import com.welie.blessed.schema.health.HeartRateMeasurementRecordDecoder;
+import com.welie.blessed.schema.health.PulseOximeterContinuousMeasurementRecord;
+import com.welie.blessed.schema.health.PulseOximeterContinuousMeasurementRecordDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+
+/**
+ * Compares the generated decoders with hand-written decoders in the style of the ones in testapp,
+ * which use the boxed getters of BluetoothBytesParser and create a Date for the timestamp.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GattRecordDecoderBenchmark {
+
+    private final byte[] bloodPressure = new byte[]{0x1E, 0x79, 0x00, 0x50, 0x00, 0x5E, 0x00, (byte) 0xE4, 0x07, 0x0A, 0x13, 0x0E, 0x1E, 0x2D, 0x48, 0x00, 0x01, 0x02, 0x00};
+    private final byte[] heartRate = new byte[]{0x09, 0x2C, 0x01, 0x10, 0x00};
+    private final byte[] pulseOximeter = new byte[]{0x1C, 0x62, 0x00, 0x48, 0x00, 0x01, 0x00, 0x03, 0x02, 0x01, 0x15, (byte) 0xF0};
+    private final ByteBuffer bloodPressureBuffer = ByteBuffer.allocateDirect(bloodPressure.length);
+
+    private final BloodPressureMeasurementRecord bloodPressureRecord = new BloodPressureMeasurementRecord();
+    private final HeartRateMeasurementRecord heartRateRecord = new HeartRateMeasurementRecord();
+    private final PulseOximeterContinuousMeasurementRecord pulseOximeterRecord = new PulseOximeterContinuousMeasurementRecord();
+
+    @Setup
+    public void setup() {
+        bloodPressureBuffer.put(bloodPressure).flip();
+    }
+
+    @Benchmark
+    public void bloodPressureHandWritten(Blackhole blackhole) {
+        BluetoothBytesParser parser = new BluetoothBytesParser(bloodPressure);
+        int flags = parser.getIntValue(FORMAT_UINT8);
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT));
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT));
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT));
+        Date timestamp = (flags & 0x02) > 0 ? parser.getDateTime() : new Date();
+        blackhole.consume(timestamp);
+        blackhole.consume((flags & 0x04) > 0 ? parser.getFloatValue(FORMAT_SFLOAT) : null);
+        blackhole.consume((flags & 0x08) > 0 ? parser.getIntValue(FORMAT_UINT8) : null);
+        blackhole.consume((flags & 0x10) > 0 ? parser.getIntValue(FORMAT_UINT16) : null);
+    }
+
+    @Benchmark
+    public BloodPressureMeasurementRecord bloodPressureGenerated() {
+        return BloodPressureMeasurementRecordDecoder.decode(bloodPressure, bloodPressureRecord);
+    }
+
+    @Benchmark
+    public BloodPressureMeasurementRecord bloodPressureGeneratedDirectBuffer() {
+        return BloodPressureMeasurementRecordDecoder.decode(bloodPressureBuffer, bloodPressureRecord);
+    }
+
+    @Benchmark
+    public void heartRateHandWritten(Blackhole blackhole) {
+        BluetoothBytesParser parser = new BluetoothBytesParser(heartRate);
+        int flags = parser.getIntValue(FORMAT_UINT8);
+        blackhole.consume((flags & 0x01) == 0 ? parser.getIntValue(FORMAT_UINT8) : parser.getIntValue(FORMAT_UINT16));
+        blackhole.consume((flags & 0x08) > 0 ? parser.getIntValue(FORMAT_UINT16) : null);
+    }
+
+    @Benchmark
+    public HeartRateMeasurementRecord heartRateGenerated() {
+        return HeartRateMeasurementRecordDecoder.decode(heartRate, heartRateRecord);
+    }
+
+    @Benchmark
+    public void pulseOximeterHandWritten(Blackhole blackhole) {
+        BluetoothBytesParser parser = new BluetoothBytesParser(pulseOximeter);
+        int flags = parser.getIntValue(FORMAT_UINT8);
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT).intValue());
+        blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT).intValue());
+        if ((flags & 0x01) > 0) {
+            blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT).intValue());
+            blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT).intValue());
+        }
+        if ((flags & 0x02) > 0) {
+            blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT).intValue());
+            blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT).intValue());
+        }
+        if ((flags & 0x04) > 0) {
+            blackhole.consume(parser.getIntValue(FORMAT_UINT16));
+        }
+        if ((flags & 0x08) > 0) {
+            blackhole.consume(parser.getIntValue(FORMAT_UINT16));
+            blackhole.consume(parser.getIntValue(FORMAT_UINT8));
+        }
+        if ((flags & 0x10) > 0) {
+            blackhole.consume(parser.getFloatValue(FORMAT_SFLOAT));
+        }
+    }
+
+    @Benchmark
+    public PulseOximeterContinuousMeasurementRecord pulseOximeterGenerated() {
+        return PulseOximeterContinuousMeasurementRecordDecoder.decode(pulseOximeter, pulseOximeterRecord);
+    }
+}
@@ -0,0 +1,111 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.welie.blessed.BluetoothGattCharacteristic.NotifyType;
+
+/**
+ * Soak test of sustained notification streaming from an acquired notify socket, through the same path as a real
+ * peripheral: a {@link SimulatedBluez} device writes every value to the socket, the reader thread of the peripheral
+ * copies it out of its reused receive buffer and posts it to the callback thread, which decodes it. Compares a new
+ * byte array per value with pooled slabs. At most a window of notifications is in flight, so the benchmark measures
+ * the throughput of the whole path. The measurement runs for a minute per parameter, run with -PjmhProfiler=gc to see
+ * the bytes allocated per notification on all threads and the number of young collections.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 6, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationPoolingBenchmark {
+
+    private static final UUID SERVICE_UUID = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+    private static final UUID CHARACTERISTIC_UUID = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
+    private static final int WINDOW = 32;
+
+    @Param({"20", "244"})
+    public int valueLength;
+
+    @Param({"byteArray", "pooled"})
+    public String delivery;
+
+    private SimulatedBluez bluez;
+    private BluetoothCentral central;
+    private SimulatedGattCharacteristic characteristic;
+    private final AtomicLong delivered = new AtomicLong();
+    private long sent;
+    private volatile int sink;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        final byte[] value = new byte[valueLength];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) i;
+        }
+
+        bluez = new SimulatedBluez();
+        final SimulatedDevice device = bluez.addDevice("5A:06:00:00:00:00").setName("Sim").setServiceUuids(SERVICE_UUID);
+        characteristic = device.addService(SERVICE_UUID).addCharacteristic(CHARACTERISTIC_UUID, "notify").setNotifications(0, () -> value);
+
+        final CountDownLatch notifying = new CountDownLatch(1);
+        final BluetoothPeripheralCallback peripheralCallback = new BluetoothPeripheralCallback() {
+            @Override
+            public void onServicesDiscovered(@NotNull BluetoothPeripheral peripheral) {
+                peripheral.setPooledNotifications(delivery.equals("pooled"));
+                peripheral.setNotify(peripheral.getCharacteristic(SERVICE_UUID, CHARACTERISTIC_UUID), true, NotifyType.acquired);
+            }
+
+            @Override
+            public void onNotificationStateUpdate(@NotNull BluetoothPeripheral peripheral, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+                if (status == BluetoothCommandStatus.COMMAND_SUCCESS) notifying.countDown();
+            }
+
+            @Override
+            public void onCharacteristicUpdate(@NotNull BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+                sink = BluetoothBufferParser.local().wrap(value).getUInt16();
+                delivered.incrementAndGet();
+            }
+
+            @Override
+            public boolean onPooledCharacteristicValue(@NotNull BluetoothPeripheral peripheral, @NotNull PooledValue value, @NotNull BluetoothGattCharacteristic characteristic) {
+                sink = BluetoothBufferParser.local().wrap(value.getValue()).getUInt16();
+                delivered.incrementAndGet();
+                return true;
+            }
+        };
+        central = new BluetoothCentral(new BluetoothCentralCallback() {
+            @Override
+            public void onDiscoveredPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull ScanResult scanResult) {
+                central.stopScan();
+                central.connectPeripheral(peripheral, peripheralCallback);
+            }
+        }, Collections.emptySet(), bluez.getAdapter());
+        central.scanForPeripherals();
+
+        if (!notifying.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("notify was not acquired");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        bluez.close();
+    }
+
+    @Benchmark
+    public void notification() {
+        characteristic.notifyValue();
+        sent++;
+        while (sent - delivered.get() > WINDOW) {
+            Thread.yield();
+        }
+    }
+}
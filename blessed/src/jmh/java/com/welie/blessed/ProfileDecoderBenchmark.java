@@ -0,0 +1,104 @@
+package com.welie.blessed;
+
+import com.welie.blessed.profiles.*;
+import com.welie.blessed.schema.fitness.*;
+import com.welie.blessed.schema.health.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding a fully populated value of every standard profile, directly into a record and through the registry
+ * lookup that notification dispatch uses. Run with -PjmhProfiler=gc to check that decoding does not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProfileDecoderBenchmark {
+
+    private static final byte[] DATE_TIME = new byte[]{(byte) 0xE4, 0x07, 0x0A, 0x13, 0x0E, 0x1E, 0x2D};
+
+    @Param({"HeartRate", "BloodPressure", "Temperature", "PlxSpotCheck", "PlxContinuous", "Weight", "Glucose", "Csc", "Rsc"})
+    public String profile;
+
+    private final ProfileRegistry registry = ProfileRegistry.standard();
+    private final BluetoothBufferParser parser = new BluetoothBufferParser();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+    private UUID uuid;
+    private ProfileRecord record;
+
+    @Setup
+    public void setup() {
+        final byte[] value;
+        switch (profile) {
+            case "HeartRate":
+                uuid = HeartRateMeasurement.CHARACTERISTIC_UUID;
+                record = new HeartRateMeasurement();
+                value = new byte[]{0x19, 0x48, 0x00, 0x10, 0x00, 0x00, 0x04, 0x00, 0x02, 0x10, 0x03, 0x20, 0x03};
+                break;
+            case "BloodPressure":
+                uuid = BloodPressureMeasurementRecordDecoder.CHARACTERISTIC_UUID;
+                record = new BloodPressureMeasurementRecord();
+                value = merge(new byte[]{0x1E, 0x79, 0x00, 0x50, 0x00, 0x5E, 0x00}, DATE_TIME, new byte[]{0x48, 0x00, 0x01, 0x02, 0x00});
+                break;
+            case "Temperature":
+                uuid = TemperatureMeasurementRecordDecoder.CHARACTERISTIC_UUID;
+                record = new TemperatureMeasurementRecord();
+                value = merge(new byte[]{0x06, 0x6D, 0x01, 0x00, (byte) 0xFF}, DATE_TIME, new byte[]{0x02});
+                break;
+            case "PlxSpotCheck":
+                uuid = PulseOximeterSpotMeasurementRecordDecoder.CHARACTERISTIC_UUID;
+                record = new PulseOximeterSpotMeasurementRecord();
+                value = merge(new byte[]{0x0F, 0x62, 0x00, 0x48, 0x00}, DATE_TIME, new byte[]{0x00, 0x01, 0x01, 0x02, 0x03, 0x32, (byte) 0xF0});
+                break;
+            case "PlxContinuous":
+                uuid = PulseOximeterContinuousMeasurementRecordDecoder.CHARACTERISTIC_UUID;
+                record = new PulseOximeterContinuousMeasurementRecord();
+                value = new byte[]{0x1F, 0x62, 0x00, 0x48, 0x00, 0x61, 0x00, 0x49, 0x00, 0x60, 0x00, 0x47, 0x00, 0x20, 0x00, 0x00, 0x00, 0x01, 0x32, (byte) 0xF0};
+                break;
+            case "Weight":
+                uuid = WeightMeasurementRecordDecoder.CHARACTERISTIC_UUID;
+                record = new WeightMeasurementRecord();
+                value = merge(new byte[]{0x0E, (byte) 0x80, 0x3E}, DATE_TIME, new byte[]{0x01, (byte) 0xF5, 0x00, 0x08, 0x07});
+                break;
+            case "Glucose":
+                uuid = GlucoseMeasurement.CHARACTERISTIC_UUID;
+                record = new GlucoseMeasurement();
+                value = merge(new byte[]{0x1B, 0x05, 0x00}, DATE_TIME, new byte[]{(byte) 0xE2, (byte) 0xFF, 0x5F, (byte) 0xB0, 0x21, 0x02, 0x00});
+                break;
+            case "Csc":
+                uuid = CscMeasurementRecordDecoder.CHARACTERISTIC_UUID;
+                record = new CscMeasurementRecord();
+                value = new byte[]{0x03, 0x10, 0x27, 0x00, 0x00, 0x00, 0x04, 0x0A, 0x00, 0x00, 0x08};
+                break;
+            case "Rsc":
+                uuid = RscMeasurementRecordDecoder.CHARACTERISTIC_UUID;
+                record = new RscMeasurementRecord();
+                value = new byte[]{0x07, (byte) 0x80, 0x03, (byte) 0xAA, 0x78, 0x00, 0x39, 0x30, 0x00, 0x00};
+                break;
+            default:
+                throw new IllegalArgumentException(profile);
+        }
+        buffer.put(value).flip();
+    }
+
+    @Benchmark
+    public ProfileRecord decodeDirect() {
+        record.decode(parser.wrap(buffer));
+        return record;
+    }
+
+    @Benchmark
+    public ProfileRecord decodeRegistry() {
+        return registry.decode(uuid, buffer);
+    }
+
+    private static byte[] merge(byte[]... arrays) {
+        return BluetoothBytesParser.mergeArrays(arrays);
+    }
+}
@@ -0,0 +1,83 @@
+package com.welie.blessed;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothBytesParser.FORMAT_SINT16;
+
+/**
+ * Measures sample throughput for a notification with 20 int16 ECG samples and for a 244 byte notification with int24
+ * samples. The scores are in samples per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SampleDecodingBenchmark {
+
+    private static final int ECG_SAMPLES = 20;
+    private static final int INT24_SAMPLES = 81;
+
+    private final byte[] ecg = new byte[ECG_SAMPLES * 2];
+    private final ByteBuffer ecgDirect = ByteBuffer.allocateDirect(ECG_SAMPLES * 2);
+    private final byte[] int24 = new byte[244];
+    private final short[] shortSamples = new short[ECG_SAMPLES];
+    private final int[] intSamples = new int[INT24_SAMPLES + 1];
+    private final BluetoothBufferParser parser = new BluetoothBufferParser();
+    private final BluetoothSampleStream int24Stream = new BluetoothSampleStream(BluetoothSampleStream.SampleFormat.SINT24);
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        random.nextBytes(ecg);
+        random.nextBytes(int24);
+        ecgDirect.put(ecg).flip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ECG_SAMPLES)
+    public short[] int16Boxed() {
+        final BluetoothBytesParser bytesParser = new BluetoothBytesParser(ecg);
+        for (int i = 0; i < ECG_SAMPLES; i++) {
+            shortSamples[i] = bytesParser.getIntValue(FORMAT_SINT16).shortValue();
+        }
+        return shortSamples;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ECG_SAMPLES)
+    public short[] int16PerSample() {
+        parser.wrap(ecg);
+        for (int i = 0; i < ECG_SAMPLES; i++) {
+            shortSamples[i] = (short) parser.getSInt16();
+        }
+        return shortSamples;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ECG_SAMPLES)
+    public short[] int16Bulk() {
+        parser.wrap(ecg).getSInt16Samples(shortSamples, 0, ECG_SAMPLES);
+        return shortSamples;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ECG_SAMPLES)
+    public short[] int16BulkDirectBuffer() {
+        parser.wrap(ecgDirect).getSInt16Samples(shortSamples, 0, ECG_SAMPLES);
+        return shortSamples;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INT24_SAMPLES)
+    public int[] int24Stream() {
+        int24Stream.reset();
+        int24Stream.decode(ByteBuffer.wrap(int24), intSamples, 0);
+        return intSamples;
+    }
+}
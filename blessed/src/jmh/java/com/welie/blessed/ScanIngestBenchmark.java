@@ -0,0 +1,110 @@
+package com.welie.blessed;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothPeripheral.BLUEZ_DEVICE_INTERFACE;
+import static com.welie.blessed.BluetoothPeripheral.PROPERTY_RSSI;
+
+/**
+ * Measures how many advertisements the central ingests while scanning, from the signal to onDiscoveredPeripheral, for
+ * new devices (InterfacesAdded) and for devices that were seen before (PropertiesChanged with a new RSSI).
+ * <p>
+ * The devices are in-memory objects of a {@link SimulatedBluez}, so the property reads of the central don't include
+ * D-Bus round trips, see {@link DbusRoundTripBenchmark} for those.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// The handler threads of the central are not daemon threads, so don't wait for them when the fork is done. The
+// simulated Bluez uses Mockito, which needs the experimental ByteBuddy support to mock on Java 16 and later.
+@Fork(value = 1, jvmArgsAppend = {"-Djmh.shutdownTimeout=1", "-Dnet.bytebuddy.experimental=true"})
+@State(Scope.Benchmark)
+public class ScanIngestBenchmark {
+
+    private static final int DEVICES = 500;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private SimulatedBluez bluez;
+    private BluetoothCentral central;
+    private final Semaphore discovered = new Semaphore(0);
+    private final String[] paths = new String[DEVICES];
+    @SuppressWarnings("unchecked")
+    private final Map<String, Variant<?>>[] announcements = new Map[DEVICES];
+    private final Properties.PropertiesChanged[] advertisements = new Properties.PropertiesChanged[DEVICES];
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException, DBusException {
+        bluez = new SimulatedBluez();
+        for (int i = 0; i < DEVICES; i++) {
+            final SimulatedDevice device = bluez.addDevice(String.format("12:34:56:00:%02X:%02X", i >> 8, i & 0xFF))
+                    .setName("Sim-" + i)
+                    .setAdvertisingInterval(0)
+                    .setManufacturerData(0x00E0, new byte[]{(byte) i});
+            paths[i] = device.getObjectPath();
+            announcements[i] = new HashMap<>(device.getProperties());
+            advertisements[i] = new Properties.PropertiesChanged(paths[i], BLUEZ_DEVICE_INTERFACE,
+                    Collections.singletonMap(PROPERTY_RSSI, new Variant<>((short) -60)), Collections.emptyList());
+        }
+
+        central = new BluetoothCentral(new BluetoothCentralCallback() {
+            @Override
+            public void onDiscoveredPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull ScanResult scanResult) {
+                discovered.release();
+            }
+        }, Collections.emptySet(), bluez.getAdapter());
+        central.scanForPeripherals();
+        await(DEVICES);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        bluez.close();
+    }
+
+    /**
+     * The central scans for 6 s and pauses for 2 s, and drops advertisements while it stops. Only send a batch in
+     * the first half of a scan window.
+     */
+    @Setup(Level.Invocation)
+    public void awaitScanWindow() throws InterruptedException {
+        final SimulatedAdapter adapter = bluez.getSimulatedAdapter();
+        while (!central.isScanning || adapter.getDiscoveryMillis() < 0 || adapter.getDiscoveryMillis() > 3000) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void await(int permits) throws InterruptedException {
+        if (!discovered.tryAcquire(permits, TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("advertisements were dropped");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEVICES)
+    public void interfacesAdded() throws InterruptedException {
+        for (int i = 0; i < DEVICES; i++) {
+            central.handleInterfaceAddedForDevice(paths[i], announcements[i]);
+        }
+        await(DEVICES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEVICES)
+    public void propertiesChanged() throws InterruptedException {
+        for (int i = 0; i < DEVICES; i++) {
+            central.handleSignal(advertisements[i]);
+        }
+        await(DEVICES);
+    }
+}
@@ -0,0 +1,60 @@
+package com.welie.blessed;
+
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.Variant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothPeripheral.BLUEZ_CHARACTERISTIC_INTERFACE;
+import static com.welie.blessed.BluetoothPeripheral.PROPERTY_VALUE;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures how long {@link BluezSignalHandler} takes to route a characteristic value to its peripheral, depending on
+ * the number of connected peripherals. The peripherals are Mockito stubs that drop the signal, so the score is the
+ * routing plus one stub call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Mockito needs the experimental ByteBuddy support to mock on Java 16 and later
+@Fork(value = 1, jvmArgsAppend = "-Dnet.bytebuddy.experimental=true")
+@State(Scope.Thread)
+public class SignalDispatchBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int peripheralCount;
+
+    private BluezSignalHandler signalHandler;
+    private Properties.PropertiesChanged signal;
+
+    @Setup
+    public void setup() throws DBusException {
+        signalHandler = BluezSignalHandler.createInstance(mock(DBusConnection.class, withSettings().stubOnly()));
+        for (int i = 0; i < peripheralCount; i++) {
+            signalHandler.addPeripheral(address(i), mock(BluetoothPeripheral.class, withSettings().stubOnly()));
+        }
+        signal = valueChanged(address(peripheralCount - 1));
+    }
+
+    private static String address(int index) {
+        return String.format("12:34:56:00:%02X:%02X", index >> 8, index & 0xFF);
+    }
+
+    private static Properties.PropertiesChanged valueChanged(String address) throws DBusException {
+        final String path = String.format("/org/bluez/hci0/dev_%s/service0010/char0011", address.replace(":", "_"));
+        final Variant<byte[]> value = new Variant<>(new byte[]{0x00, 0x48}, "ay");
+        return new Properties.PropertiesChanged(path, BLUEZ_CHARACTERISTIC_INTERFACE, Collections.singletonMap(PROPERTY_VALUE, value), Collections.emptyList());
+    }
+
+    @Benchmark
+    public void characteristicValue() {
+        signalHandler.signalHandler.handle(signal);
+    }
+}
@@ -0,0 +1,32 @@
+package com.welie.blessed;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting the UUID strings Bluez reports, a 16-bit SIG UUID and a 128-bit vendor UUID, with
+ * UUID.fromString as the baseline. Run with -PjmhProfiler=gc to see the allocated bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UuidBenchmark {
+
+    @Param({"0000180d-0000-1000-8000-00805f9b34fb", "6e400001-b5a3-f393-e0a9-e50e24dcca9e"})
+    public String value;
+
+    @Benchmark
+    public UUID uuidFromString() {
+        return UUID.fromString(value);
+    }
+
+    @Benchmark
+    public UUID bluetoothUuidFromString() {
+        return BluetoothUUID.fromString(value);
+    }
+}
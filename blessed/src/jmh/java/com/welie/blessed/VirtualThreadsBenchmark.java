@@ -0,0 +1,102 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects 1000 simulated peripherals and compares the platform threads and heap that the handlers of the central and
+ * its peripherals use, with and without virtual threads. The footprint is reported as the secondary results
+ * platformThreads and heapMegabytes.
+ * <p>
+ * Virtual threads need the classes for Java 21 from the multi-release jar, so run it on a JDK 21 with for example
+ * {@code gradle :blessed:jmh -PjmhInclude=VirtualThreadsBenchmark -Pjdk21Home=<jdk> -PjmhJavaHome=<jdk>}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+// The handler threads of the central are not daemon threads, so don't wait for them when the fork is done. The
+// simulated Bluez uses Mockito, which needs the experimental ByteBuddy support to mock on Java 16 and later.
+@Fork(value = 1, jvmArgsAppend = {"-Djmh.shutdownTimeout=1", "-Dnet.bytebuddy.experimental=true"})
+@State(Scope.Benchmark)
+public class VirtualThreadsBenchmark {
+
+    private static final int PERIPHERALS = 1000;
+    private static final long TIMEOUT_SECONDS = 60;
+    private static final UUID HRS_SERVICE_UUID = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+    private static final UUID HRM_MEASUREMENT_CHARACTERISTIC_UUID = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private SimulatedBluez bluez;
+    private BluetoothCentral central;
+    private final CountDownLatch connected = new CountDownLatch(PERIPHERALS);
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long platformThreads;
+        public long heapMegabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty(VirtualThreads.PROPERTY, Boolean.toString(virtualThreads));
+        if (virtualThreads && !VirtualThreads.isEnabled()) {
+            throw new IllegalStateException("virtual threads need Java 21 and the multi-release jar");
+        }
+
+        bluez = new SimulatedBluez();
+        for (int i = 0; i < PERIPHERALS; i++) {
+            final SimulatedDevice device = bluez.addDevice(address(i))
+                    .setName("Sim-" + i)
+                    .setConnectLatency(0)
+                    .setServicesResolveDelay(0);
+            device.addService(HRS_SERVICE_UUID)
+                    .addCharacteristic(HRM_MEASUREMENT_CHARACTERISTIC_UUID, "notify");
+        }
+
+        central = new BluetoothCentral(new BluetoothCentralCallback() {
+            @Override
+            public void onConnectedPeripheral(@NotNull BluetoothPeripheral peripheral) {
+                connected.countDown();
+            }
+        }, Collections.emptySet(), bluez.getAdapter());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        bluez.close();
+    }
+
+    private static String address(int i) {
+        return String.format("12:34:56:00:%02X:%02X", i >> 8, i & 0xFF);
+    }
+
+    /**
+     * Connect all peripherals directly, without the connect delay of the central, and measure the footprint once they
+     * are all connected
+     */
+    @Benchmark
+    public void connectAll(Footprint footprint) throws InterruptedException {
+        for (int i = 0; i < PERIPHERALS; i++) {
+            central.getPeripheral(address(i)).connect();
+        }
+        if (!connected.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(String.format("%d peripherals not connected", connected.getCount()));
+        }
+
+        System.gc();
+        final MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        footprint.platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        footprint.heapMegabytes = heap.getUsed() / (1024 * 1024);
+    }
+}
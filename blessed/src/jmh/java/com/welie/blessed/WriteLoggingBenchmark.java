@@ -0,0 +1,95 @@
+package com.welie.blessed;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothGattCharacteristic.WriteType;
+
+/**
+ * Measures the cost of logging a 512 byte write, with INFO disabled and enabled.
+ * <p>
+ * Run with -PjmhProfiler=gc to see the allocated bytes per operation. The 'formatted' benchmarks use the
+ * String.format based hex conversion and eager formatting that was used before, as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WriteLoggingBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(BluetoothPeripheral.class.getSimpleName());
+
+    @Param({"OFF", "INFO"})
+    public String level;
+
+    private final UUID uuid = UUID.fromString("00002a35-0000-1000-8000-00805f9b34fb");
+    private final WriteType writeType = WriteType.withoutResponse;
+    private final byte[] value = new byte[512];
+
+    /**
+     * Formats every event like a real appender would, without doing any I/O.
+     */
+    private static final class FormattingAppender extends AppenderBase<ILoggingEvent> {
+        volatile String lastMessage;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            lastMessage = event.getFormattedMessage();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        new Random(42).nextBytes(value);
+
+        final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        final ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        final FormattingAppender appender = new FormattingAppender();
+        appender.setContext(context);
+        appender.start();
+        root.addAppender(appender);
+        context.getLogger(logger.getName()).setLevel(Level.toLevel(level));
+    }
+
+    @Benchmark
+    public String hexFormatted() {
+        return formattedBytes2String(value);
+    }
+
+    @Benchmark
+    public String hexTable() {
+        return BluetoothBytesParser.bytes2String(value);
+    }
+
+    @Benchmark
+    public void logWriteFormatted() {
+        logger.info(String.format("writing %s <%s> to characteristic <%s>", writeType, formattedBytes2String(value), uuid));
+    }
+
+    @Benchmark
+    public void logWriteParameterized() {
+        if (logger.isInfoEnabled()) {
+            logger.info("writing {} <{}> to characteristic <{}>", writeType, BluetoothBytesParser.bytes2String(value), uuid);
+        }
+    }
+
+    private static String formattedBytes2String(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+}
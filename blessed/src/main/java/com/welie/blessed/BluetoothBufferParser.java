@@ -0,0 +1,792 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Parser and encoder for Bluetooth data types that works on a region of a {@link ByteBuffer} or byte array.
+ * <p>
+ * Unlike {@link BluetoothBytesParser} it does not own the bytes: it is a flyweight that can be pointed at any heap or
+ * direct buffer with {@link #wrap(ByteBuffer, int, int)} and reused for the next value, so decoding a notification
+ * does not copy the payload or allocate anything. The position, limit and byte order of the wrapped buffer are never changed.
+ * <p>
+ * A parser is not threadsafe. Use {@link #local()} to get a parser that is reused for all values decoded on the current thread.
+ */
+public final class BluetoothBufferParser {
+
+    private static final ThreadLocal<BluetoothBufferParser> LOCAL = ThreadLocal.withInitial(BluetoothBufferParser::new);
+
+    private ByteBuffer buffer;
+    private byte[] array;
+    private int arrayOffset;
+    private int start;
+    private int end;
+    private int position;
+    private ByteOrder byteOrder = LITTLE_ENDIAN;
+    private final int[] timeFields = new int[8];
+
+    /**
+     * Get the parser of the current thread. The parser is not reset, so it should be wrapped around a buffer before it is used.
+     *
+     * @return the parser of the current thread
+     */
+    public static @NotNull BluetoothBufferParser local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Point the parser at the remaining bytes of the buffer and reset the offset and byte order.
+     *
+     * @param buffer the buffer to parse or encode into
+     * @return this parser
+     */
+    public @NotNull BluetoothBufferParser wrap(@NotNull ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "no valid buffer provided");
+        return wrap(buffer, buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Point the parser at a region of the buffer and reset the offset and byte order.
+     *
+     * @param buffer the buffer to parse or encode into
+     * @param offset the absolute index in the buffer where the region starts
+     * @param length the length of the region
+     * @return this parser
+     * @throws IndexOutOfBoundsException if the region is not within the limit of the buffer
+     */
+    public @NotNull BluetoothBufferParser wrap(@NotNull ByteBuffer buffer, int offset, int length) {
+        Objects.requireNonNull(buffer, "no valid buffer provided");
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new IndexOutOfBoundsException(String.format("region at offset %d with length %d is outside the buffer limit %d", offset, length, buffer.limit()));
+        }
+        if (buffer.hasArray()) {
+            // Reading the backing array directly is faster than going through the buffer
+            this.array = buffer.array();
+            this.arrayOffset = buffer.arrayOffset();
+            this.buffer = null;
+        } else {
+            this.array = null;
+            this.arrayOffset = 0;
+            this.buffer = buffer;
+        }
+        this.start = offset;
+        this.end = offset + length;
+        this.position = offset;
+        this.byteOrder = LITTLE_ENDIAN;
+        return this;
+    }
+
+    /**
+     * Point the parser at a byte array and reset the offset and byte order.
+     *
+     * @param value the byte array to parse or encode into
+     * @return this parser
+     */
+    public @NotNull BluetoothBufferParser wrap(@NotNull byte[] value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        return wrap(value, 0, value.length);
+    }
+
+    /**
+     * Point the parser at a region of a byte array and reset the offset and byte order.
+     *
+     * @param value  the byte array to parse or encode into
+     * @param offset the index in the array where the region starts
+     * @param length the length of the region
+     * @return this parser
+     * @throws IndexOutOfBoundsException if the region is not within the array
+     */
+    public @NotNull BluetoothBufferParser wrap(@NotNull byte[] value, int offset, int length) {
+        Objects.requireNonNull(value, "no valid value provided");
+        if (offset < 0 || length < 0 || offset + length > value.length) {
+            throw new IndexOutOfBoundsException(String.format("region at offset %d with length %d is outside the array length %d", offset, length, value.length));
+        }
+        this.buffer = null;
+        this.array = value;
+        this.arrayOffset = 0;
+        this.start = offset;
+        this.end = offset + length;
+        this.position = offset;
+        this.byteOrder = LITTLE_ENDIAN;
+        return this;
+    }
+
+    /**
+     * Move the offset back to the start of the region so it can be parsed again.
+     */
+    public void reset() {
+        position = start;
+    }
+
+    /**
+     * Forget the wrapped buffer, so a pooled buffer is not kept alive by this parser.
+     */
+    public void clear() {
+        buffer = null;
+        array = null;
+        arrayOffset = 0;
+        start = 0;
+        end = 0;
+        position = 0;
+    }
+
+    /**
+     * Set the byte order used for all following values. Wrapping a buffer resets it to LITTLE_ENDIAN.
+     *
+     * @param byteOrder the byte order, either LITTLE_ENDIAN or BIG_ENDIAN
+     * @return this parser
+     */
+    public @NotNull BluetoothBufferParser order(@NotNull ByteOrder byteOrder) {
+        this.byteOrder = Objects.requireNonNull(byteOrder, "no valid byte order provided");
+        return this;
+    }
+
+    /**
+     * Get the current byte order
+     *
+     * @return the current byte order
+     */
+    public @NotNull ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * Get the offset relative to the start of the region
+     *
+     * @return the current offset
+     */
+    public int getOffset() {
+        return position - start;
+    }
+
+    /**
+     * Set the offset relative to the start of the region
+     *
+     * @param offset the offset value
+     * @throws IndexOutOfBoundsException if the offset is outside the region
+     */
+    public void setOffset(int offset) {
+        if (offset < 0 || start + offset > end) {
+            throw new IndexOutOfBoundsException(String.format("offset %d is outside the region of %d bytes", offset, end - start));
+        }
+        position = start + offset;
+    }
+
+    /**
+     * Skip a number of bytes
+     *
+     * @param length the number of bytes to skip
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public void skip(int length) {
+        checkRemaining(length);
+        position += length;
+    }
+
+    /**
+     * Get the number of bytes between the offset and the end of the region
+     *
+     * @return the number of bytes that can still be read or written
+     */
+    public int remaining() {
+        return end - position;
+    }
+
+    /**
+     * Check if a value of the specified format can still be read or written
+     *
+     * @param formatType the format type
+     * @return true if there are enough bytes left
+     */
+    public boolean hasRemaining(int formatType) {
+        return remaining() >= (formatType & 0xF);
+    }
+
+    /**
+     * Return an unsigned 8-bit value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getUInt8() {
+        checkRemaining(1);
+        return byteAt(position++) & 0xFF;
+    }
+
+    /**
+     * Return a signed 8-bit value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getSInt8() {
+        checkRemaining(1);
+        return byteAt(position++);
+    }
+
+    /**
+     * Return an unsigned 16-bit value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getUInt16() {
+        checkRemaining(2);
+        final int result = uint16At(position);
+        position += 2;
+        return result;
+    }
+
+    /**
+     * Return a signed 16-bit value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getSInt16() {
+        checkRemaining(2);
+        final int result = (short) uint16At(position);
+        position += 2;
+        return result;
+    }
+
+    /**
+     * Return an unsigned 24-bit value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getUInt24() {
+        checkRemaining(3);
+        final int b0 = byteAt(position) & 0xFF;
+        final int b1 = byteAt(position + 1) & 0xFF;
+        final int b2 = byteAt(position + 2) & 0xFF;
+        position += 3;
+        return byteOrder == LITTLE_ENDIAN ? b0 | (b1 << 8) | (b2 << 16) : b2 | (b1 << 8) | (b0 << 16);
+    }
+
+    /**
+     * Return an unsigned 32-bit value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public long getUInt32() {
+        checkRemaining(4);
+        final long result = int32At(position) & 0xFFFFFFFFL;
+        position += 4;
+        return result;
+    }
+
+    /**
+     * Return a signed 32-bit value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getSInt32() {
+        checkRemaining(4);
+        final int result = int32At(position);
+        position += 4;
+        return result;
+    }
+
+    /**
+     * Return an integer value of the specified type, see {@link BluetoothBytesParser#getInt(int)}.
+     *
+     * @param formatType the format type used to interpret the byte(s) value
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     * @throws IllegalArgumentException if the format type is not an integer format
+     */
+    public int getInt(int formatType) {
+        switch (formatType) {
+            case FORMAT_UINT8:
+                return getUInt8();
+            case FORMAT_SINT8:
+                return getSInt8();
+            case FORMAT_UINT16:
+                return getUInt16();
+            case FORMAT_SINT16:
+                return getSInt16();
+            case FORMAT_UINT32:
+                return (int) getUInt32();
+            case FORMAT_SINT32:
+                return getSInt32();
+            default:
+                throw new IllegalArgumentException(String.format("format type 0x%02x is not an integer format", formatType));
+        }
+    }
+
+    /**
+     * Return a 16-bit IEEE-11073 SFLOAT value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public float getSFloat() {
+        checkRemaining(2);
+        final int raw = uint16At(position);
+        position += 2;
+        return BluetoothBytesParser.sfloatToFloat(raw);
+    }
+
+    /**
+     * Return a 32-bit IEEE-11073 FLOAT value.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public float getFloat() {
+        checkRemaining(4);
+        final int raw = int32At(position);
+        position += 4;
+        return BluetoothBytesParser.floatToFloat(raw);
+    }
+
+    /**
+     * Return a float value of the specified format.
+     *
+     * @param formatType either {@link BluetoothBytesParser#FORMAT_SFLOAT} or {@link BluetoothBytesParser#FORMAT_FLOAT}
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     * @throws IllegalArgumentException if the format type is not a float format
+     */
+    public float getFloat(int formatType) {
+        switch (formatType) {
+            case FORMAT_SFLOAT:
+                return getSFloat();
+            case FORMAT_FLOAT:
+                return getFloat();
+            default:
+                throw new IllegalArgumentException(String.format("format type 0x%02x is not a float format", formatType));
+        }
+    }
+
+    /**
+     * Return a 7 byte DateTime (year, month, day, hours, minutes, seconds) as milliseconds since the epoch, interpreting it
+     * in the default time zone like {@link BluetoothBytesParser#getDateTime()} does. A DateTime is always little endian.
+     * An unknown month or day (0) is treated as 1.
+     *
+     * @return the milliseconds since the epoch
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     * @see BluetoothDateTime
+     */
+    public long getDateTimeMillis() {
+        checkRemaining(7);
+        final long result = dateTimeMillisAt(position, 0);
+        position += 7;
+        return result;
+    }
+
+    /**
+     * Return a 10 byte Current Time (DateTime, day of week, fractions256, adjust reason) as milliseconds since the epoch,
+     * interpreting it in the default time zone. The fractions are included, the day of week and adjust reason are skipped.
+     *
+     * @return the milliseconds since the epoch
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public long getCurrentTimeMillis() {
+        checkRemaining(10);
+        final int millis = ((byteAt(position + 8) & 0xFF) * 1000) >> 8;
+        final long result = dateTimeMillisAt(position, millis);
+        position += 10;
+        return result;
+    }
+
+    /**
+     * Return a 7 byte DateTime as a LocalDateTime. An unknown month or day (0) is treated as 1.
+     *
+     * @return the date and time
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public @NotNull LocalDateTime getLocalDateTime() {
+        checkRemaining(7);
+        final LocalDateTime result = localDateTimeAt(position, 0);
+        position += 7;
+        return result;
+    }
+
+    /**
+     * Return a 10 byte Current Time as a LocalDateTime, including the fractions.
+     *
+     * @return the date and time
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public @NotNull LocalDateTime getCurrentLocalDateTime() {
+        checkRemaining(10);
+        final int millis = ((byteAt(position + 8) & 0xFF) * 1000) >> 8;
+        final LocalDateTime result = localDateTimeAt(position, millis);
+        position += 10;
+        return result;
+    }
+
+    /**
+     * Decode signed 16-bit samples into an array, for example packed ECG samples.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSInt16Samples(@NotNull short[] destination, int offset, int count) {
+        checkSamples(destination.length, offset, count, 2);
+        int index = position;
+        final int end = offset + count;
+        if (array != null) {
+            final byte[] bytes = array;
+            int i = arrayOffset + index;
+            if (byteOrder == LITTLE_ENDIAN) {
+                for (int j = offset; j < end; j++, i += 2) {
+                    destination[j] = (short) ((bytes[i] & 0xFF) | (bytes[i + 1] << 8));
+                }
+            } else {
+                for (int j = offset; j < end; j++, i += 2) {
+                    destination[j] = (short) ((bytes[i + 1] & 0xFF) | (bytes[i] << 8));
+                }
+            }
+        } else {
+            for (int j = offset; j < end; j++, index += 2) {
+                destination[j] = (short) uint16At(index);
+            }
+        }
+        position += count * 2;
+    }
+
+    /**
+     * Decode signed 24-bit samples into an array.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSInt24Samples(@NotNull int[] destination, int offset, int count) {
+        checkSamples(destination.length, offset, count, 3);
+        int index = position;
+        final int end = offset + count;
+        if (array != null) {
+            final byte[] bytes = array;
+            int i = arrayOffset + index;
+            if (byteOrder == LITTLE_ENDIAN) {
+                for (int j = offset; j < end; j++, i += 3) {
+                    destination[j] = (bytes[i] & 0xFF) | ((bytes[i + 1] & 0xFF) << 8) | (bytes[i + 2] << 16);
+                }
+            } else {
+                for (int j = offset; j < end; j++, i += 3) {
+                    destination[j] = (bytes[i + 2] & 0xFF) | ((bytes[i + 1] & 0xFF) << 8) | (bytes[i] << 16);
+                }
+            }
+        } else {
+            for (int j = offset; j < end; j++, index += 3) {
+                final int b0 = byteAt(index) & 0xFF;
+                final int b1 = byteAt(index + 1) & 0xFF;
+                final int b2 = byteAt(index + 2);
+                destination[j] = byteOrder == LITTLE_ENDIAN ? b0 | (b1 << 8) | (b2 << 16) : ((b0 << 24) >> 8) | (b1 << 8) | (b2 & 0xFF);
+            }
+        }
+        position += count * 3;
+    }
+
+    /**
+     * Decode signed 32-bit samples into an array.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSInt32Samples(@NotNull int[] destination, int offset, int count) {
+        checkSamples(destination.length, offset, count, 4);
+        int index = position;
+        final int end = offset + count;
+        for (int j = offset; j < end; j++, index += 4) {
+            destination[j] = int32At(index);
+        }
+        position += count * 4;
+    }
+
+    /**
+     * Decode 16-bit IEEE-11073 SFLOAT samples into an array.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSFloatSamples(@NotNull float[] destination, int offset, int count) {
+        checkSamples(destination.length, offset, count, 2);
+        int index = position;
+        final int end = offset + count;
+        for (int j = offset; j < end; j++, index += 2) {
+            destination[j] = BluetoothBytesParser.sfloatToFloat(uint16At(index));
+        }
+        position += count * 2;
+    }
+
+    /**
+     * Copy bytes into the destination array.
+     *
+     * @param destination the array to fill completely
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public void getBytes(@NotNull byte[] destination) {
+        Objects.requireNonNull(destination, "no valid destination provided");
+        checkRemaining(destination.length);
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = byteAt(position++);
+        }
+    }
+
+    /**
+     * Write an integer value of the specified type.
+     *
+     * @param value      the value
+     * @param formatType the integer format type
+     * @return this parser
+     * @throws IndexOutOfBoundsException if there is not enough room left
+     * @throws IllegalArgumentException if the format type is not an integer format
+     * @throws java.nio.ReadOnlyBufferException if the wrapped buffer is read-only
+     */
+    public @NotNull BluetoothBufferParser putInt(int value, int formatType) {
+        switch (formatType) {
+            case FORMAT_UINT8:
+            case FORMAT_SINT8:
+                checkRemaining(1);
+                putByte(position++, (byte) value);
+                break;
+            case FORMAT_UINT16:
+            case FORMAT_SINT16:
+                checkRemaining(2);
+                putUInt16At(position, value);
+                position += 2;
+                break;
+            case FORMAT_UINT32:
+            case FORMAT_SINT32:
+                checkRemaining(4);
+                putInt32At(position, value);
+                position += 4;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("format type 0x%02x is not an integer format", formatType));
+        }
+        return this;
+    }
+
+    /**
+     * Write a float value of the specified type.
+     *
+     * @param mantissa   the mantissa
+     * @param exponent   the base 10 exponent
+     * @param formatType either {@link BluetoothBytesParser#FORMAT_SFLOAT} or {@link BluetoothBytesParser#FORMAT_FLOAT}
+     * @return this parser
+     * @throws IndexOutOfBoundsException if there is not enough room left
+     * @throws IllegalArgumentException if the format type is not a float format
+     * @throws java.nio.ReadOnlyBufferException if the wrapped buffer is read-only
+     */
+    public @NotNull BluetoothBufferParser putFloat(int mantissa, int exponent, int formatType) {
+        switch (formatType) {
+            case FORMAT_SFLOAT:
+                checkRemaining(2);
+                putUInt16At(position, ((exponent & 0x0F) << 12) | (mantissa & 0x0FFF));
+                position += 2;
+                break;
+            case FORMAT_FLOAT:
+                checkRemaining(4);
+                putInt32At(position, (exponent << 24) | (mantissa & 0x00FFFFFF));
+                position += 4;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("format type 0x%02x is not a float format", formatType));
+        }
+        return this;
+    }
+
+    /**
+     * Write the bytes of the array.
+     *
+     * @param value the bytes to write
+     * @return this parser
+     * @throws IndexOutOfBoundsException if there is not enough room left
+     * @throws java.nio.ReadOnlyBufferException if the wrapped buffer is read-only
+     */
+    public @NotNull BluetoothBufferParser putBytes(@NotNull byte[] value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        checkRemaining(value.length);
+        for (byte b : value) {
+            putByte(position++, b);
+        }
+        return this;
+    }
+
+    /**
+     * Write a 7 byte DateTime with the local time of an instant in the default time zone.
+     *
+     * @param epochMillis the milliseconds since the epoch
+     * @return this parser
+     * @throws IndexOutOfBoundsException if there is not enough room left
+     */
+    public @NotNull BluetoothBufferParser putDateTime(long epochMillis) {
+        checkRemaining(7);
+        BluetoothDateTime.toLocalFields(epochMillis, timeFields);
+        putDateTimeAt(position, timeFields[0], timeFields[1], timeFields[2], timeFields[3], timeFields[4], timeFields[5]);
+        position += 7;
+        return this;
+    }
+
+    /**
+     * Write a 7 byte DateTime.
+     *
+     * @param dateTime the date and time to write
+     * @return this parser
+     * @throws IndexOutOfBoundsException if there is not enough room left
+     */
+    public @NotNull BluetoothBufferParser putDateTime(@NotNull LocalDateTime dateTime) {
+        Objects.requireNonNull(dateTime, "no valid date time provided");
+        checkRemaining(7);
+        putDateTimeAt(position, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond());
+        position += 7;
+        return this;
+    }
+
+    /**
+     * Write a 10 byte Current Time with the local time of an instant in the default time zone.
+     *
+     * @param epochMillis  the milliseconds since the epoch
+     * @param adjustReason the adjust reason flags
+     * @return this parser
+     * @throws IndexOutOfBoundsException if there is not enough room left
+     */
+    public @NotNull BluetoothBufferParser putCurrentTime(long epochMillis, int adjustReason) {
+        checkRemaining(10);
+        BluetoothDateTime.toLocalFields(epochMillis, timeFields);
+        putDateTimeAt(position, timeFields[0], timeFields[1], timeFields[2], timeFields[3], timeFields[4], timeFields[5]);
+        putByte(position + 7, (byte) timeFields[7]);
+        putByte(position + 8, (byte) ((timeFields[6] * 256) / 1000));
+        putByte(position + 9, (byte) adjustReason);
+        position += 10;
+        return this;
+    }
+
+    /**
+     * Write a 10 byte Current Time.
+     *
+     * @param dateTime     the date and time to write
+     * @param adjustReason the adjust reason flags
+     * @return this parser
+     * @throws IndexOutOfBoundsException if there is not enough room left
+     */
+    public @NotNull BluetoothBufferParser putCurrentTime(@NotNull LocalDateTime dateTime, int adjustReason) {
+        Objects.requireNonNull(dateTime, "no valid date time provided");
+        checkRemaining(10);
+        putDateTimeAt(position, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond());
+        putByte(position + 7, (byte) dateTime.getDayOfWeek().getValue());
+        putByte(position + 8, (byte) ((dateTime.getNano() / 1_000_000 * 256) / 1000));
+        putByte(position + 9, (byte) adjustReason);
+        position += 10;
+        return this;
+    }
+
+    private long dateTimeMillisAt(int index, int millis) {
+        final int year = (byteAt(index) & 0xFF) | ((byteAt(index + 1) & 0xFF) << 8);
+        final int month = byteAt(index + 2) & 0xFF;
+        final int day = byteAt(index + 3) & 0xFF;
+        final int hours = byteAt(index + 4) & 0xFF;
+        final int minutes = byteAt(index + 5) & 0xFF;
+        final int seconds = byteAt(index + 6) & 0xFF;
+        return BluetoothDateTime.toEpochMillis(year, month, day, hours, minutes, seconds, millis);
+    }
+
+    private @NotNull LocalDateTime localDateTimeAt(int index, int millis) {
+        final int year = (byteAt(index) & 0xFF) | ((byteAt(index + 1) & 0xFF) << 8);
+        final int month = Math.max(byteAt(index + 2) & 0xFF, 1);
+        final int day = Math.max(byteAt(index + 3) & 0xFF, 1);
+        return LocalDateTime.of(year, month, day, byteAt(index + 4) & 0xFF, byteAt(index + 5) & 0xFF,
+                byteAt(index + 6) & 0xFF, millis * 1_000_000);
+    }
+
+    private void putDateTimeAt(int index, int year, int month, int day, int hours, int minutes, int seconds) {
+        putByte(index, (byte) year);
+        putByte(index + 1, (byte) (year >> 8));
+        putByte(index + 2, (byte) month);
+        putByte(index + 3, (byte) day);
+        putByte(index + 4, (byte) hours);
+        putByte(index + 5, (byte) minutes);
+        putByte(index + 6, (byte) seconds);
+    }
+
+    private int uint16At(int index) {
+        final int b0 = byteAt(index) & 0xFF;
+        final int b1 = byteAt(index + 1) & 0xFF;
+        return byteOrder == LITTLE_ENDIAN ? b0 | (b1 << 8) : b1 | (b0 << 8);
+    }
+
+    private int int32At(int index) {
+        final int b0 = byteAt(index) & 0xFF;
+        final int b1 = byteAt(index + 1) & 0xFF;
+        final int b2 = byteAt(index + 2) & 0xFF;
+        final int b3 = byteAt(index + 3) & 0xFF;
+        return byteOrder == LITTLE_ENDIAN ? b0 | (b1 << 8) | (b2 << 16) | (b3 << 24) : b3 | (b2 << 8) | (b1 << 16) | (b0 << 24);
+    }
+
+    private void putUInt16At(int index, int value) {
+        if (byteOrder == LITTLE_ENDIAN) {
+            putByte(index, (byte) value);
+            putByte(index + 1, (byte) (value >> 8));
+        } else {
+            putByte(index, (byte) (value >> 8));
+            putByte(index + 1, (byte) value);
+        }
+    }
+
+    private void putInt32At(int index, int value) {
+        if (byteOrder == LITTLE_ENDIAN) {
+            putByte(index, (byte) value);
+            putByte(index + 1, (byte) (value >> 8));
+            putByte(index + 2, (byte) (value >> 16));
+            putByte(index + 3, (byte) (value >> 24));
+        } else {
+            putByte(index, (byte) (value >> 24));
+            putByte(index + 1, (byte) (value >> 16));
+            putByte(index + 2, (byte) (value >> 8));
+            putByte(index + 3, (byte) value);
+        }
+    }
+
+    private byte byteAt(int index) {
+        return array != null ? array[arrayOffset + index] : buffer.get(index);
+    }
+
+    private void putByte(int index, byte value) {
+        if (array != null) {
+            array[arrayOffset + index] = value;
+        } else {
+            buffer.put(index, value);
+        }
+    }
+
+    private void checkSamples(int destinationLength, int offset, int count, int sampleSize) {
+        if (offset < 0 || count < 0 || offset + count > destinationLength) {
+            throw new IndexOutOfBoundsException(String.format("cannot store %d samples at index %d of an array of length %d", count, offset, destinationLength));
+        }
+        checkRemaining(count * sampleSize);
+    }
+
+    private void checkRemaining(int length) {
+        if (buffer == null && array == null) {
+            throw new IllegalStateException("no buffer wrapped");
+        }
+        if (length < 0 || position + length > end) {
+            throw new IndexOutOfBoundsException(String.format("cannot access %d bytes at offset %d of a %d byte region", length, position - start, end - start));
+        }
+    }
+}
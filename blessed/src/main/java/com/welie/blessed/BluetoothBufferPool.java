@@ -0,0 +1,137 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of heap byte buffers in a few fixed sizes, so values can be built and written without allocating a buffer for
+ * every value.
+ * <p>
+ * Buffers bigger than the largest size are allocated and dropped on release. Only buffers that were allocated by the
+ * pool are taken back, so a buffer that wraps an array of the application is never handed out to someone else. A
+ * released buffer must not be used anymore, and must not be released twice. The pool is threadsafe.
+ */
+public final class BluetoothBufferPool {
+
+    private static final int[] CAPACITIES = {32, 128, 512, 2048};
+    private static final int DEFAULT_BUFFERS_PER_SIZE = 16;
+
+    private static final BluetoothBufferPool SHARED = new BluetoothBufferPool(DEFAULT_BUFFERS_PER_SIZE);
+
+    /**
+     * The free buffers of one capacity, a stack so the most recently used buffer is handed out first, and the arrays of
+     * all buffers of this capacity that the pool allocated. Arrays compare by identity, so the weak map is an identity
+     * set that forgets the buffers that were dropped.
+     */
+    private static final class SizeClass {
+        final int capacity;
+        final ByteBuffer[] free;
+        final Map<byte[], Boolean> allocated = new WeakHashMap<>();
+        int count;
+
+        SizeClass(int capacity, int maxBuffers) {
+            this.capacity = capacity;
+            this.free = new ByteBuffer[maxBuffers];
+        }
+    }
+
+    private final SizeClass[] sizeClasses = new SizeClass[CAPACITIES.length];
+
+    /**
+     * Create a pool
+     *
+     * @param buffersPerSize the maximum number of free buffers kept per size
+     */
+    public BluetoothBufferPool(int buffersPerSize) {
+        if (buffersPerSize < 0) {
+            throw new IllegalArgumentException("buffersPerSize must not be negative");
+        }
+        for (int i = 0; i < CAPACITIES.length; i++) {
+            sizeClasses[i] = new SizeClass(CAPACITIES[i], buffersPerSize);
+        }
+    }
+
+    /**
+     * Get the pool that is used by {@link BluetoothBytesWriter} and {@link BluetoothPeripheral}
+     *
+     * @return the shared pool
+     */
+    public static @NotNull BluetoothBufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Get a buffer with at least the requested capacity. The buffer is cleared and little endian.
+     *
+     * @param minCapacity the minimum capacity
+     * @return the buffer
+     */
+    public @NotNull ByteBuffer acquire(int minCapacity) {
+        final SizeClass sizeClass = sizeClassFor(minCapacity);
+        if (sizeClass == null) {
+            return ByteBuffer.allocate(minCapacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        ByteBuffer buffer;
+        synchronized (sizeClass) {
+            if (sizeClass.count > 0) {
+                buffer = sizeClass.free[--sizeClass.count];
+                sizeClass.free[sizeClass.count] = null;
+            } else {
+                buffer = ByteBuffer.allocate(sizeClass.capacity);
+                sizeClass.allocated.put(buffer.array(), Boolean.TRUE);
+            }
+        }
+        buffer.clear();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool. Buffers that were not acquired from this pool, like a buffer of another pool or one
+     * made with {@link ByteBuffer#wrap(byte[])}, are dropped.
+     *
+     * @param buffer the buffer, which must not be used anymore
+     */
+    public void release(@NotNull ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "no valid buffer provided");
+        if (!buffer.hasArray() || buffer.arrayOffset() != 0 || buffer.array().length != buffer.capacity()) return;
+
+        final SizeClass sizeClass = sizeClassFor(buffer.capacity());
+        if (sizeClass == null || sizeClass.capacity != buffer.capacity()) return;
+
+        synchronized (sizeClass) {
+            if (!sizeClass.allocated.containsKey(buffer.array())) return;
+            if (sizeClass.count < sizeClass.free.length) {
+                sizeClass.free[sizeClass.count++] = buffer;
+            }
+        }
+    }
+
+    /**
+     * Get the number of free buffers in the pool
+     *
+     * @return the number of free buffers
+     */
+    public int getFreeCount() {
+        int result = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                result += sizeClass.count;
+            }
+        }
+        return result;
+    }
+
+    private SizeClass sizeClassFor(int capacity) {
+        for (SizeClass sizeClass : sizeClasses) {
+            if (capacity <= sizeClass.capacity) return sizeClass;
+        }
+        return null;
+    }
+}
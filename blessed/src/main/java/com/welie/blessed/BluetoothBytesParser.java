@@ -27,7 +27,6 @@ import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
 
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 
@@ -40,6 +39,20 @@ public class BluetoothBytesParser {
     private byte[] mValue;
     private ByteOrder byteOrder;
 
+    // Exponents of SFLOAT are 4 bits and exponents of FLOAT are 8 bits, so the table covers -128..127
+    private static final int POWERS_OF_TEN_OFFSET = 128;
+    private static final double[] POWERS_OF_TEN = new double[256];
+
+    // Decodes dates and samples for all parsers of a thread. It is not BluetoothBufferParser.local(), so the parser a
+    // caller got from there keeps its state.
+    private static final ThreadLocal<BluetoothBufferParser> BUFFER_PARSER = ThreadLocal.withInitial(BluetoothBufferParser::new);
+
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = Math.pow(10, i - POWERS_OF_TEN_OFFSET);
+        }
+    }
+
     /**
      * Characteristic value format type uint8
      */
@@ -324,6 +337,229 @@ public class BluetoothBytesParser {
         return null;
     }
 
+    /**
+     * Return an unsigned 8-bit value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getUInt8() {
+        checkRemaining(1);
+        return mValue[offset++] & 0xFF;
+    }
+
+    /**
+     * Return a signed 8-bit value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getSInt8() {
+        checkRemaining(1);
+        return mValue[offset++];
+    }
+
+    /**
+     * Return an unsigned 16-bit value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getUInt16() {
+        checkRemaining(2);
+        final int result = uint16At(offset);
+        offset += 2;
+        return result;
+    }
+
+    /**
+     * Return a signed 16-bit value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getSInt16() {
+        checkRemaining(2);
+        final int result = (short) uint16At(offset);
+        offset += 2;
+        return result;
+    }
+
+    /**
+     * Return an unsigned 32-bit value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value, as a long because it doesn't fit in an int
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public long getUInt32() {
+        checkRemaining(4);
+        final long result = int32At(offset) & 0xFFFFFFFFL;
+        offset += 4;
+        return result;
+    }
+
+    /**
+     * Return a signed 32-bit value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public int getSInt32() {
+        checkRemaining(4);
+        final int result = int32At(offset);
+        offset += 4;
+        return result;
+    }
+
+    /**
+     * Return an integer value of the specified type. This operation will automatically advance the internal offset to the next position.
+     * <p>
+     * This is the primitive variant of {@link #getIntValue(int)}. Note that a {@link #FORMAT_UINT32} value above Integer.MAX_VALUE
+     * is returned as a negative number, use {@link #getUInt32()} to get the full range.
+     *
+     * @param formatType the format type used to interpret the byte(s) value
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     * @throws IllegalArgumentException if the format type is not an integer format
+     */
+    public int getInt(int formatType) {
+        switch (formatType) {
+            case FORMAT_UINT8:
+                return getUInt8();
+            case FORMAT_SINT8:
+                return getSInt8();
+            case FORMAT_UINT16:
+                return getUInt16();
+            case FORMAT_SINT16:
+                return getSInt16();
+            case FORMAT_UINT32:
+                return (int) getUInt32();
+            case FORMAT_SINT32:
+                return getSInt32();
+            default:
+                throw new IllegalArgumentException(String.format("format type 0x%02x is not an integer format", formatType));
+        }
+    }
+
+    /**
+     * Return a 16-bit IEEE-11073 SFLOAT value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public float getSFloat() {
+        checkRemaining(2);
+        final int raw = uint16At(offset);
+        offset += 2;
+        return sfloatToFloat(raw);
+    }
+
+    /**
+     * Return a 32-bit IEEE-11073 FLOAT value. This operation will automatically advance the internal offset to the next position.
+     *
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     */
+    public float getFloat() {
+        checkRemaining(4);
+        final int raw = int32At(offset);
+        offset += 4;
+        return floatToFloat(raw);
+    }
+
+    /**
+     * Return a float value of the specified format. This operation will automatically advance the internal offset to the next position.
+     * <p>
+     * This is the primitive variant of {@link #getFloatValue(int)}.
+     *
+     * @param formatType the format type used to interpret the byte array, either {@link #FORMAT_SFLOAT} or {@link #FORMAT_FLOAT}
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not enough bytes left
+     * @throws IllegalArgumentException if the format type is not a float format
+     */
+    public float getFloat(int formatType) {
+        switch (formatType) {
+            case FORMAT_SFLOAT:
+                return getSFloat();
+            case FORMAT_FLOAT:
+                return getFloat();
+            default:
+                throw new IllegalArgumentException(String.format("format type 0x%02x is not a float format", formatType));
+        }
+    }
+
+    /**
+     * Decode signed 16-bit samples into an array. This operation will automatically advance the internal offset past the samples.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSInt16Samples(short[] destination, int offset, int count) {
+        samplesParser().getSInt16Samples(destination, offset, count);
+        this.offset += count * 2;
+    }
+
+    /**
+     * Decode signed 24-bit samples into an array. This operation will automatically advance the internal offset past the samples.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSInt24Samples(int[] destination, int offset, int count) {
+        samplesParser().getSInt24Samples(destination, offset, count);
+        this.offset += count * 3;
+    }
+
+    /**
+     * Decode signed 32-bit samples into an array. This operation will automatically advance the internal offset past the samples.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSInt32Samples(int[] destination, int offset, int count) {
+        samplesParser().getSInt32Samples(destination, offset, count);
+        this.offset += count * 4;
+    }
+
+    /**
+     * Decode SFLOAT samples into an array. This operation will automatically advance the internal offset past the samples.
+     *
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @param count       the number of samples to decode
+     * @throws IndexOutOfBoundsException if there are not enough bytes left or the destination is too small
+     */
+    public void getSFloatSamples(float[] destination, int offset, int count) {
+        samplesParser().getSFloatSamples(destination, offset, count);
+        this.offset += count * 2;
+    }
+
+    /**
+     * Get the number of bytes between the internal offset and the end of the byte array
+     *
+     * @return the number of bytes that can still be read
+     */
+    public int remaining() {
+        if (mValue == null) return 0;
+        return Math.max(0, mValue.length - offset);
+    }
+
+    /**
+     * Check if a value of the specified format can still be read
+     *
+     * @param formatType the format type to check
+     * @return true if there are enough bytes left for the format type
+     */
+    public boolean hasRemaining(int formatType) {
+        return remaining() >= getTypeLen(formatType);
+    }
+
     /**
      * Return a String from this byte array. This operation will not advance the internal offset to the next position.
      *
@@ -375,21 +611,46 @@ public class BluetoothBytesParser {
      * @return Parsed date from value
      */
     public Date getDateTime(int offset) {
+        return new Date(getDateTimeMillis(offset));
+    }
+
+    /**
+     * Return the date represented by the byte array as milliseconds since the epoch, without creating Calendar or Date objects.
+     * This operation will automatically advance the internal offset to the next position.
+     * <p>
+     * The byte array must conform to the DateTime specification (year, month, day, hour, min, sec)
+     *
+     * @return the milliseconds since the epoch
+     */
+    public long getDateTimeMillis() {
+        long result = getDateTimeMillis(offset);
+        offset += 7;
+        return result;
+    }
+
+    /**
+     * Return the date at the offset as milliseconds since the epoch, without creating Calendar or Date objects.
+     *
+     * @param offset Offset of value
+     * @return the milliseconds since the epoch
+     */
+    public long getDateTimeMillis(int offset) {
         // DateTime is always in little endian
-        int year = getIntValue(FORMAT_UINT16, offset, LITTLE_ENDIAN);
-        offset += getTypeLen(FORMAT_UINT16);
-        int month = getIntValue(FORMAT_UINT8, offset, LITTLE_ENDIAN);
-        offset += getTypeLen(FORMAT_UINT8);
-        int day = getIntValue(FORMAT_UINT8, offset, LITTLE_ENDIAN);
-        offset += getTypeLen(FORMAT_UINT8);
-        int hour = getIntValue(FORMAT_UINT8, offset, LITTLE_ENDIAN);
-        offset += getTypeLen(FORMAT_UINT8);
-        int min = getIntValue(FORMAT_UINT8, offset, LITTLE_ENDIAN);
-        offset += getTypeLen(FORMAT_UINT8);
-        int sec = getIntValue(FORMAT_UINT8, offset, LITTLE_ENDIAN);
+        return BUFFER_PARSER.get().wrap(mValue, offset, 7).getDateTimeMillis();
+    }
 
-        GregorianCalendar calendar = new GregorianCalendar(year, month - 1, day, hour, min, sec);
-        return calendar.getTime();
+    /**
+     * Return the date represented by the byte array as milliseconds since the epoch, including the fractions of a second.
+     * This operation will automatically advance the internal offset to the next position.
+     * <p>
+     * The byte array must conform to the CurrentTime specification (DateTime, day of week, fractions256, adjust reason)
+     *
+     * @return the milliseconds since the epoch
+     */
+    public long getCurrentTimeMillis() {
+        long result = BUFFER_PARSER.get().wrap(mValue, offset, 10).getCurrentTimeMillis();
+        offset += 10;
+        return result;
     }
 
     /**
@@ -576,8 +837,7 @@ public class BluetoothBytesParser {
      */
     public boolean setString(String value) {
         if (value != null) {
-            setString(value, offset);
-            offset += value.getBytes().length;
+            offset += setStringBytes(value.getBytes(), offset);
             return true;
         }
         return false;
@@ -592,14 +852,19 @@ public class BluetoothBytesParser {
      */
     public boolean setString(String value, int offset) {
         if (value != null) {
-            prepareArray(offset + value.length());
-            byte[] valueBytes = value.getBytes();
-            System.arraycopy(valueBytes, 0, mValue, offset, valueBytes.length);
+            setStringBytes(value.getBytes(), offset);
             return true;
         }
         return false;
     }
 
+    private int setStringBytes(byte[] valueBytes, int offset) {
+        // Size the array for the encoded bytes, a character can take more than one byte
+        prepareArray(offset + valueBytes.length);
+        System.arraycopy(valueBytes, 0, mValue, offset, valueBytes.length);
+        return valueBytes.length;
+    }
+
 
     /**
      * Set the locally stored value of this byte array.
@@ -651,6 +916,26 @@ public class BluetoothBytesParser {
         return true;
     }
 
+    /**
+     * Sets the byte array to represent a time in CurrentTime format
+     *
+     * @param epochMillis the time in milliseconds since the epoch
+     */
+    public void setCurrentTime(long epochMillis) {
+        mValue = new byte[10];
+        BUFFER_PARSER.get().wrap(mValue).putCurrentTime(epochMillis, 1);
+    }
+
+    /**
+     * Sets the byte array to represent a time in DateTime format
+     *
+     * @param epochMillis the time in milliseconds since the epoch
+     */
+    public void setDateTime(long epochMillis) {
+        mValue = new byte[7];
+        BUFFER_PARSER.get().wrap(mValue).putDateTime(epochMillis);
+    }
+
     /**
      * Returns the size of a give value type.
      */
@@ -684,20 +969,65 @@ public class BluetoothBytesParser {
      * Convert signed bytes to a 16-bit short float value.
      */
     private float bytesToFloat(byte b0, byte b1) {
-        int mantissa = unsignedToSigned(unsignedByteToInt(b0)
-                + ((unsignedByteToInt(b1) & 0x0F) << 8), 12);
-        int exponent = unsignedToSigned(unsignedByteToInt(b1) >> 4, 4);
-        return (float) (mantissa * Math.pow(10, exponent));
+        return sfloatToFloat(unsignedBytesToInt(b0, b1));
     }
 
     /**
      * Convert signed bytes to a 32-bit short float value.
      */
     private float bytesToFloat(byte b0, byte b1, byte b2, byte b3) {
-        int mantissa = unsignedToSigned(unsignedByteToInt(b0)
-                + (unsignedByteToInt(b1) << 8)
-                + (unsignedByteToInt(b2) << 16), 24);
-        return (float) (mantissa * Math.pow(10, b3));
+        return floatToFloat(unsignedBytesToInt(b0, b1, b2, b3));
+    }
+
+    /**
+     * Convert the raw 16 bits of an SFLOAT: 4-bit exponent and 12-bit mantissa.
+     */
+    static float sfloatToFloat(int raw) {
+        final int mantissa = (raw << 20) >> 20;
+        final int exponent = (raw << 16) >> 28;
+        return (float) (mantissa * POWERS_OF_TEN[exponent + POWERS_OF_TEN_OFFSET]);
+    }
+
+    /**
+     * Convert the raw 32 bits of a FLOAT: 8-bit exponent and 24-bit mantissa.
+     */
+    static float floatToFloat(int raw) {
+        final int mantissa = (raw << 8) >> 8;
+        final int exponent = raw >> 24;
+        return (float) (mantissa * POWERS_OF_TEN[exponent + POWERS_OF_TEN_OFFSET]);
+    }
+
+    /**
+     * Get the unsigned 16-bit value at the offset, using the byte order of the parser.
+     */
+    private int uint16At(int offset) {
+        if (byteOrder == LITTLE_ENDIAN) {
+            return (mValue[offset] & 0xFF) | ((mValue[offset + 1] & 0xFF) << 8);
+        } else {
+            return (mValue[offset + 1] & 0xFF) | ((mValue[offset] & 0xFF) << 8);
+        }
+    }
+
+    /**
+     * Get the 32-bit value at the offset, using the byte order of the parser.
+     */
+    private int int32At(int offset) {
+        if (byteOrder == LITTLE_ENDIAN) {
+            return (mValue[offset] & 0xFF) | ((mValue[offset + 1] & 0xFF) << 8) | ((mValue[offset + 2] & 0xFF) << 16) | (mValue[offset + 3] << 24);
+        } else {
+            return (mValue[offset + 3] & 0xFF) | ((mValue[offset + 2] & 0xFF) << 8) | ((mValue[offset + 1] & 0xFF) << 16) | (mValue[offset] << 24);
+        }
+    }
+
+    private BluetoothBufferParser samplesParser() {
+        checkRemaining(0);
+        return BUFFER_PARSER.get().wrap(mValue, offset, mValue.length - offset).order(byteOrder);
+    }
+
+    private void checkRemaining(int length) {
+        if (mValue == null || offset < 0 || offset + length > mValue.length) {
+            throw new IndexOutOfBoundsException(String.format("cannot read %d bytes at offset %d of a %d byte array", length, offset, mValue == null ? 0 : mValue.length));
+        }
     }
 
     /**
@@ -729,12 +1059,7 @@ public class BluetoothBytesParser {
      */
     public static String bytes2String(final byte[] bytes) {
         if (bytes == null) return "-";
-
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b & 0xff));
-        }
-        return sb.toString();
+        return HexEncoder.toHex(bytes);
     }
 
     /**
@@ -0,0 +1,324 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+
+/**
+ * Fluent writer that encodes a value straight into a pooled buffer.
+ * <p>
+ * A value is started with {@link #start()}, built with the put methods and handed over with {@link #finish()}. The
+ * buffer grows by moving to a bigger pooled buffer when needed. The finished buffer can be passed to
+ * {@link BluetoothPeripheral#writeCharacteristic(BluetoothGattCharacteristic, ByteBuffer, BluetoothGattCharacteristic.WriteType)},
+ * which takes ownership and returns it to the shared pool:
+ * <pre>
+ * ByteBuffer command = BluetoothBytesWriter.local().start().putUInt8(0x01).putUInt16(sequenceNumber).finish();
+ * peripheral.writeCharacteristic(controlPoint, command, WriteType.withResponse);
+ * </pre>
+ * The buffer of a writer with its own pool is passed together with that pool to
+ * {@link BluetoothPeripheral#writeCharacteristic(BluetoothGattCharacteristic, ByteBuffer, BluetoothGattCharacteristic.WriteType, BluetoothBufferPool)}.
+ * <p>
+ * A writer is not threadsafe. Use {@link #local()} to get a writer that is reused for all values built on the current thread.
+ */
+public final class BluetoothBytesWriter {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private static final ThreadLocal<BluetoothBytesWriter> LOCAL = ThreadLocal.withInitial(BluetoothBytesWriter::new);
+
+    private final BluetoothBufferPool pool;
+    private final BluetoothBufferParser parser = new BluetoothBufferParser();
+    private ByteBuffer buffer;
+    private ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Create a writer that takes its buffers from the shared pool
+     */
+    public BluetoothBytesWriter() {
+        this(BluetoothBufferPool.shared());
+    }
+
+    /**
+     * Create a writer that takes its buffers from a pool
+     *
+     * @param pool the pool
+     */
+    public BluetoothBytesWriter(@NotNull BluetoothBufferPool pool) {
+        this.pool = Objects.requireNonNull(pool, "no valid pool provided");
+    }
+
+    /**
+     * Get the writer of the current thread
+     *
+     * @return the writer of the current thread
+     */
+    public static @NotNull BluetoothBytesWriter local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Start a new little endian value. A value that was started but not finished is discarded.
+     *
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter start() {
+        return start(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Start a new little endian value with room for the expected length, for example MTU-3 for a firmware packet.
+     * A value that was started but not finished is discarded.
+     *
+     * @param expectedLength the expected length of the value
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter start(int expectedLength) {
+        discard();
+        buffer = pool.acquire(Math.max(expectedLength, 1));
+        parser.wrap(buffer.array(), 0, buffer.capacity());
+        return order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Set the byte order of the integers and floats that are written next
+     *
+     * @param byteOrder the byte order
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter order(@NotNull ByteOrder byteOrder) {
+        this.byteOrder = Objects.requireNonNull(byteOrder, "no valid byte order provided");
+        parser.order(byteOrder);
+        return this;
+    }
+
+    /**
+     * Get the number of bytes written so far
+     *
+     * @return the length of the value
+     */
+    public int length() {
+        return buffer == null ? 0 : parser.getOffset();
+    }
+
+    /**
+     * Write an unsigned 8-bit integer
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putUInt8(int value) {
+        ensureRemaining(1).putInt(value, FORMAT_UINT8);
+        return this;
+    }
+
+    /**
+     * Write an unsigned 16-bit integer
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putUInt16(int value) {
+        ensureRemaining(2).putInt(value, FORMAT_UINT16);
+        return this;
+    }
+
+    /**
+     * Write an unsigned 32-bit integer
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putUInt32(long value) {
+        ensureRemaining(4).putInt((int) value, FORMAT_UINT32);
+        return this;
+    }
+
+    /**
+     * Write an integer value of the specified type.
+     *
+     * @param value      the value
+     * @param formatType the integer format type
+     * @return this writer
+     * @throws IllegalArgumentException if the format type is not an integer format
+     */
+    public @NotNull BluetoothBytesWriter putInt(int value, int formatType) {
+        ensureRemaining(formatType & 0xF).putInt(value, formatType);
+        return this;
+    }
+
+    /**
+     * Write a float value of the specified type.
+     *
+     * @param mantissa   the mantissa
+     * @param exponent   the base 10 exponent
+     * @param formatType either {@link BluetoothBytesParser#FORMAT_SFLOAT} or {@link BluetoothBytesParser#FORMAT_FLOAT}
+     * @return this writer
+     * @throws IllegalArgumentException if the format type is not a float format
+     */
+    public @NotNull BluetoothBytesWriter putFloat(int mantissa, int exponent, int formatType) {
+        ensureRemaining(formatType & 0xF).putFloat(mantissa, exponent, formatType);
+        return this;
+    }
+
+    /**
+     * Write the bytes of an array
+     *
+     * @param value the bytes
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putBytes(@NotNull byte[] value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        return putBytes(value, 0, value.length);
+    }
+
+    /**
+     * Write a range of an array, for example a chunk of a firmware image.
+     *
+     * @param value  the array
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putBytes(@NotNull byte[] value, int offset, int length) {
+        Objects.requireNonNull(value, "no valid value provided");
+        if (offset < 0 || length < 0 || offset + length > value.length) {
+            throw new IndexOutOfBoundsException(String.format("range %d+%d is outside the array of %d bytes", offset, length, value.length));
+        }
+        ensureRemaining(length);
+        final int position = parser.getOffset();
+        System.arraycopy(value, offset, buffer.array(), position, length);
+        parser.setOffset(position + length);
+        return this;
+    }
+
+    /**
+     * Write the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param value the buffer
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putBytes(@NotNull ByteBuffer value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        final int length = value.remaining();
+        ensureRemaining(length);
+        final int position = parser.getOffset();
+        final byte[] array = buffer.array();
+        if (value.hasArray()) {
+            System.arraycopy(value.array(), value.arrayOffset() + value.position(), array, position, length);
+        } else {
+            final int start = value.position();
+            for (int i = 0; i < length; i++) {
+                array[position + i] = value.get(start + i);
+            }
+        }
+        parser.setOffset(position + length);
+        return this;
+    }
+
+    /**
+     * Write a string as UTF-8, without a terminating zero
+     *
+     * @param value the string
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putString(@NotNull String value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        return putBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a 7 byte DateTime with the local time of an instant in the default time zone.
+     *
+     * @param epochMillis the milliseconds since the epoch
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putDateTime(long epochMillis) {
+        ensureRemaining(7).putDateTime(epochMillis);
+        return this;
+    }
+
+    /**
+     * Write a 10 byte Current Time with the local time of an instant in the default time zone.
+     *
+     * @param epochMillis  the milliseconds since the epoch
+     * @param adjustReason the adjust reason flags
+     * @return this writer
+     */
+    public @NotNull BluetoothBytesWriter putCurrentTime(long epochMillis, int adjustReason) {
+        ensureRemaining(10).putCurrentTime(epochMillis, adjustReason);
+        return this;
+    }
+
+    /**
+     * Finish the value and hand over its buffer. The buffer holds the value from position 0 up to its limit. After
+     * writing it, return it with {@link BluetoothBufferPool#release(ByteBuffer)} of the pool of this writer, or pass it
+     * to a write method that takes ownership.
+     *
+     * @return the buffer with the value
+     * @throws IllegalStateException if no value was started
+     */
+    public @NotNull ByteBuffer finish() {
+        checkStarted();
+        final ByteBuffer result = buffer;
+        result.limit(parser.getOffset()).position(0);
+        result.order(byteOrder);
+        buffer = null;
+        parser.clear();
+        return result;
+    }
+
+    /**
+     * Finish the value and copy it into an array. The buffer is returned to the pool.
+     *
+     * @return the value
+     * @throws IllegalStateException if no value was started
+     */
+    public @NotNull byte[] toByteArray() {
+        checkStarted();
+        final byte[] result = new byte[parser.getOffset()];
+        System.arraycopy(buffer.array(), 0, result, 0, result.length);
+        discard();
+        return result;
+    }
+
+    /**
+     * Discard the value that is being built and return its buffer to the pool
+     */
+    public void discard() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+            parser.clear();
+        }
+    }
+
+    /**
+     * Make room for the next bytes, moving to a bigger buffer if needed.
+     *
+     * @return the parser, positioned at the end of the value
+     */
+    private @NotNull BluetoothBufferParser ensureRemaining(int length) {
+        checkStarted();
+        if (parser.remaining() >= length) return parser;
+
+        final int position = parser.getOffset();
+        final ByteBuffer bigger = pool.acquire(Math.max(position + length, buffer.capacity() * 2));
+        System.arraycopy(buffer.array(), 0, bigger.array(), 0, position);
+        pool.release(buffer);
+        buffer = bigger;
+        parser.wrap(buffer.array(), 0, buffer.capacity()).order(byteOrder);
+        parser.setOffset(position);
+        return parser;
+    }
+
+    private void checkStarted() {
+        if (buffer == null) {
+            throw new IllegalStateException("no value started");
+        }
+    }
+}
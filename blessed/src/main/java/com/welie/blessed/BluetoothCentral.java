@@ -2,22 +2,27 @@ package com.welie.blessed;
 
 import com.welie.blessed.bluez.*;
 import com.welie.blessed.internal.InternalCallback;
+import com.welie.blessed.metrics.LatencyStage;
+import com.welie.blessed.metrics.MetricsMBean;
+import com.welie.blessed.metrics.MetricsRegistry;
+import com.welie.blessed.metrics.MetricsSnapshot;
+import com.welie.blessed.profiles.ProfileRegistry;
 import org.bluez.Device1;
 import org.bluez.exceptions.*;
 import org.freedesktop.dbus.DBusMap;
 import org.freedesktop.dbus.exceptions.DBusExecutionException;
-import org.freedesktop.dbus.handlers.AbstractPropertiesChangedHandler;
 import org.freedesktop.dbus.interfaces.Properties;
 import org.freedesktop.dbus.types.UInt16;
 import org.freedesktop.dbus.types.Variant;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,11 +46,18 @@ public class BluetoothCentral {
     @NotNull
     private final Handler callBackHandler = new Handler("Central-callback");
 
+    // The executor the callbacks of new peripherals run on, or null to run them on callBackHandler
+    @Nullable
+    private volatile Executor peripheralCallbackExecutor;
+
+    @Nullable
+    private ExecutorService callbackPool;
+
     @NotNull
-    private final Handler queueHandler = new Handler("Central-queue");
+    private final Handler queueHandler = VirtualThreads.newHandler("Central-queue");
 
     @NotNull
-    private final Handler signalHandler = new Handler("Central-signal");
+    private final Handler signalHandler = VirtualThreads.newHandler("Central-signal");
 
     @Nullable
     private ScheduledFuture<?> timeoutFuture;
@@ -56,6 +68,10 @@ public class BluetoothCentral {
     private volatile boolean autoScanActive = false;
     private volatile boolean normalScanActive = false;
     private volatile boolean commandQueueBusy;
+    private volatile @Nullable ProfileRegistry profileRegistry;
+
+    @NotNull
+    private final MetricsRegistry metrics = new MetricsRegistry();
 
     @NotNull
     protected final Map<DiscoveryFilter, Object> scanFilters = new EnumMap<>(DiscoveryFilter.class);
@@ -138,7 +154,7 @@ public class BluetoothCentral {
 
             completeConnectOrDisconnectCommand(peripheralAddress);
 
-            callBackHandler.post(() -> {
+            peripheral.getCallbackHandler().post(() -> {
                 bluetoothCentralCallback.onConnectedPeripheral(peripheral);
             });
         }
@@ -166,7 +182,7 @@ public class BluetoothCentral {
             // Complete the 'connect' command if this was the device we were connecting
             completeConnectOrDisconnectCommand(peripheralAddress);
 
-            callBackHandler.post(() -> {
+            peripheral.getCallbackHandler().post(() -> {
                 bluetoothCentralCallback.onConnectionFailed(peripheral, status);
             });
 
@@ -187,7 +203,7 @@ public class BluetoothCentral {
                 removeDevice(peripheral);
             }
 
-            callBackHandler.post(() -> bluetoothCentralCallback.onDisconnectedPeripheral(peripheral, status));
+            peripheral.getCallbackHandler().post(() -> bluetoothCentralCallback.onDisconnectedPeripheral(peripheral, status));
 
             restartScannerIfNeeded();
         }
@@ -440,7 +456,10 @@ public class BluetoothCentral {
         }
     }
 
-    private void onScanResult(final BluetoothPeripheral peripheral, final ScanResult scanResult) {
+    private void onScanResult(final BluetoothPeripheral peripheral, final ScanResult scanResult, final long receivedNanos) {
+        metrics.recordScanResult();
+        scanResult.setReceivedNanos(receivedNanos);
+
         // Check first if we are autoconnecting to this peripheral
         if (reconnectPeripheralAddresses.contains(scanResult.getAddress())) {
             onFoundReconnectionPeripheral(peripheral);
@@ -453,14 +472,18 @@ public class BluetoothCentral {
 
             if (notAllowedByFilter(scanResult)) return;
 
-            callBackHandler.post(() -> {
+            callBackHandler.post(metrics.traceCallback(LatencyStage.SCAN_RESULT, receivedNanos, () -> {
                 scanResult.stamp();
                 bluetoothCentralCallback.onDiscoveredPeripheral(peripheral, scanResult);
-            });
+            }));
         }
     }
 
     void handleInterfaceAddedForDevice(@NotNull final String path, @NotNull Map<String, Variant<?>> value) {
+        handleInterfaceAddedForDevice(path, value, System.nanoTime());
+    }
+
+    void handleInterfaceAddedForDevice(@NotNull final String path, @NotNull Map<String, Variant<?>> value, final long receivedNanos) {
         final String deviceAddress;
         final String deviceName;
         final int rssi;
@@ -503,7 +526,7 @@ public class BluetoothCentral {
         // Convert the service UUIDs
         final List<@NotNull UUID> finalServiceUUIDs = new ArrayList<>();
         if (serviceUUIDs != null) {
-            serviceUUIDs.stream().map(UUID::fromString).forEach(finalServiceUUIDs::add);
+            serviceUUIDs.stream().map(BluetoothUUID::fromString).forEach(finalServiceUUIDs::add);
         }
 
         // Get manufacturer data
@@ -524,38 +547,42 @@ public class BluetoothCentral {
         final ScanResult scanResult = new ScanResult(deviceName, deviceAddress, finalServiceUUIDs, rssi, manufacturerData, serviceData);
         final BluetoothPeripheral peripheral = getPeripheral(deviceAddress);
         scanResultCache.put(deviceAddress, scanResult);
-        onScanResult(peripheral, scanResult);
+        onScanResult(peripheral, scanResult, receivedNanos);
     }
 
-    private final AbstractPropertiesChangedHandler propertiesChangedHandler = new AbstractPropertiesChangedHandler() {
-        @Override
-        public void handle(final Properties.PropertiesChanged propertiesChanged) {
-            switch (propertiesChanged.getInterfaceName()) {
-                case BLUEZ_DEVICE_INTERFACE:
-                    // If we are not scanning, we ignore device propertiesChanged
-                    if ((!isScanning) || isStoppingScan) return;
-
-                    // Get the BluezDevice object
-                    final BluezDevice bluezDevice = getDeviceByPath(propertiesChanged.getPath());
-                    if (bluezDevice == null) return;
-
-                    // Handle the propertiesChanged object
-                    handlePropertiesChangedForDeviceWhenScanning(bluezDevice, propertiesChanged.getPropertiesChanged());
-                    break;
-                case BLUEZ_ADAPTER_INTERFACE:
-                    propertiesChanged.getPropertiesChanged().forEach((propertyName, value) -> handlePropertiesChangedForAdapter(propertyName, value));
-                    break;
-                default:
-            }
+    private void handlePropertiesChanged(@NotNull final Properties.PropertiesChanged propertiesChanged, final long receivedNanos) {
+        switch (propertiesChanged.getInterfaceName()) {
+            case BLUEZ_DEVICE_INTERFACE:
+                // If we are not scanning, we ignore device propertiesChanged
+                if ((!isScanning) || isStoppingScan) return;
+
+                // Get the BluezDevice object
+                final BluezDevice bluezDevice = getDeviceByPath(propertiesChanged.getPath());
+                if (bluezDevice == null) return;
+
+                // Handle the propertiesChanged object
+                handlePropertiesChangedForDeviceWhenScanning(bluezDevice, propertiesChanged.getPropertiesChanged(), receivedNanos);
+                break;
+            case BLUEZ_ADAPTER_INTERFACE:
+                propertiesChanged.getPropertiesChanged().forEach((propertyName, value) -> handlePropertiesChangedForAdapter(propertiesChanged.getPath(), propertyName, value));
+                break;
+            default:
         }
-    };
+    }
 
     void handleSignal(@NotNull final Properties.PropertiesChanged propertiesChanged) {
-        signalHandler.post(() -> propertiesChangedHandler.handle(propertiesChanged));
+        handleSignal(propertiesChanged, System.nanoTime());
+    }
+
+    void handleSignal(@NotNull final Properties.PropertiesChanged propertiesChanged, final long receivedNanos) {
+        signalHandler.post(() -> {
+            metrics.recordStage(LatencyStage.SIGNAL_QUEUE, System.nanoTime() - receivedNanos);
+            handlePropertiesChanged(propertiesChanged, receivedNanos);
+        });
     }
 
     @SuppressWarnings("unchecked")
-    private void handlePropertiesChangedForDeviceWhenScanning(@NotNull BluezDevice bluezDevice, @NotNull Map<String, Variant<?>> propertiesChanged) {
+    private void handlePropertiesChangedForDeviceWhenScanning(@NotNull BluezDevice bluezDevice, @NotNull Map<String, Variant<?>> propertiesChanged, final long receivedNanos) {
         Objects.requireNonNull(bluezDevice, "no valid bluezDevice supplied");
         Objects.requireNonNull(propertiesChanged, "no valid propertieschanged supplied");
         final String deviceAddress = bluezDevice.getAddress();
@@ -575,7 +602,7 @@ public class BluetoothCentral {
         updateScanResult(propertiesChanged, scanResult);
 
         final BluetoothPeripheral peripheral = getPeripheral(deviceAddress);
-        onScanResult(peripheral, scanResult);
+        onScanResult(peripheral, scanResult, receivedNanos);
     }
 
     private void updateScanResult(@NotNull Map<String, Variant<?>> propertiesChanged, ScanResult scanResult) {
@@ -614,11 +641,12 @@ public class BluetoothCentral {
         return new ScanResult(deviceName, deviceAddress, uuids, rssiInt, manufacturerData, serviceData);
     }
 
-    private void handlePropertiesChangedForAdapter(String propertyName, Variant<?> value) {
+    private void handlePropertiesChangedForAdapter(String adapterPath, String propertyName, Variant<?> value) {
         switch (propertyName) {
             case PROPERTY_DISCOVERING:
                 isScanning = (Boolean) value.getValue();
                 if (isScanning) isStoppingScan = false;
+                FlightRecorderEvents.scanStateChanged(adapterPath, isScanning);
                 logger.info(String.format("scan %s", isScanning ? "started" : "stopped"));
 
                 if (!isScanning) {
@@ -992,7 +1020,7 @@ public class BluetoothCentral {
             reconnectPeripheralAddresses.remove(peripheralAddress);
             reconnectCallbacks.remove(peripheralAddress);
 
-            callBackHandler.post(() -> {
+            peripheral.getCallbackHandler().post(() -> {
                 bluetoothCentralCallback.onDisconnectedPeripheral(peripheral, BluetoothCommandStatus.COMMAND_SUCCESS);
             });
         }
@@ -1044,12 +1072,17 @@ public class BluetoothCentral {
             return unconnectedPeripherals.get(peripheralAddress);
         } else {
             BluezDevice bluezDevice = getDeviceByAddress(peripheralAddress);
-            BluetoothPeripheral bluetoothPeripheral = new BluetoothPeripheral(this, bluezDevice, bluezDevice != null ? bluezDevice.getName() : null, peripheralAddress, internalCallback, null, callBackHandler);
+            BluetoothPeripheral bluetoothPeripheral = new BluetoothPeripheral(this, bluezDevice, bluezDevice != null ? bluezDevice.getName() : null, peripheralAddress, internalCallback, null, createCallbackHandler(peripheralAddress));
             scannedPeripherals.put(peripheralAddress, bluetoothPeripheral);
             return bluetoothPeripheral;
         }
     }
 
+    private @NotNull Handler createCallbackHandler(@NotNull String peripheralAddress) {
+        final Executor executor = peripheralCallbackExecutor;
+        return executor == null ? callBackHandler : new Handler(peripheralAddress + "-callback", executor);
+    }
+
     private @Nullable ScanResult getScanResult(@NotNull String peripheralAddress) {
         return scanResultCache.get(peripheralAddress);
     }
@@ -1083,6 +1116,121 @@ public class BluetoothCentral {
         return true;
     }
 
+    /**
+     * Set how the callbacks of peripherals are dispatched. By default all callbacks run on one thread, so a slow callback
+     * of one peripheral delays the callbacks of all other peripherals.
+     * <p>
+     * The callbacks of a peripheral always run in order, including the connection callbacks of the central for it.
+     * Call this before scanning or connecting, peripherals that already exist keep their dispatch.
+     *
+     * @param dispatch the way to dispatch callbacks
+     */
+    public void setCallbackDispatch(@NotNull CallbackDispatch dispatch) {
+        Objects.requireNonNull(dispatch, "no valid callback dispatch provided");
+
+        if (dispatch == CallbackDispatch.SHARED_THREAD) {
+            peripheralCallbackExecutor = null;
+        } else {
+            peripheralCallbackExecutor = getCallbackPool();
+        }
+    }
+
+    /**
+     * Run the callbacks of peripherals on an executor. The callbacks of a peripheral still run one at a time and in order,
+     * the callbacks of different peripherals may run in parallel.
+     * <p>
+     * Call this before scanning or connecting, peripherals that already exist keep their dispatch.
+     *
+     * @param executor the executor to run the callbacks on
+     */
+    public void setCallbackExecutor(@NotNull Executor executor) {
+        peripheralCallbackExecutor = Objects.requireNonNull(executor, "no valid executor provided");
+    }
+
+    private synchronized @NotNull ExecutorService getCallbackPool() {
+        if (callbackPool == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            callbackPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> new Thread(runnable, "Central-callback-" + threadNumber.incrementAndGet()));
+        }
+        return callbackPool;
+    }
+
+    /**
+     * Set the registry used to decode characteristic values of all peripherals before they are passed to
+     * {@link BluetoothPeripheralCallback#onProfileRecord(BluetoothPeripheral, com.welie.blessed.profiles.ProfileRecord, BluetoothGattCharacteristic)}.
+     * <p>Use {@link ProfileRegistry#standard()} to decode the standard health and fitness profiles.
+     *
+     * @param profileRegistry the registry or null to stop decoding
+     */
+    public void setProfileRegistry(@Nullable ProfileRegistry profileRegistry) {
+        this.profileRegistry = profileRegistry;
+    }
+
+    /**
+     * Get the registry used to decode characteristic values
+     *
+     * @return the registry or null if values are not decoded
+     */
+    public @Nullable ProfileRegistry getProfileRegistry() {
+        return profileRegistry;
+    }
+
+    /**
+     * Record the signals from Bluez to a trace, so they can be replayed later with a {@link SignalReplayer}.
+     * <p>The signals of all centrals are recorded, since they are received by one signal handler. The recorder is not
+     * closed when recording stops.
+     *
+     * @param signalRecorder the recorder or null to stop recording
+     */
+    public void setSignalRecorder(@Nullable SignalRecorder signalRecorder) {
+        final BluezSignalHandler signalHandler = BluezSignalHandler.getInstance();
+        if (signalHandler != null) {
+            signalHandler.setRecorder(signalRecorder);
+        }
+    }
+
+    @NotNull
+    MetricsRegistry getMetricsRegistry() {
+        return metrics;
+    }
+
+    /**
+     * Get a snapshot of the metrics of this central and its peripherals, like command latencies, queue depths and
+     * notification and scan result rates.
+     *
+     * @return the snapshot
+     */
+    public @NotNull MetricsSnapshot getMetrics() {
+        final Map<String, Integer> queueDepths = new TreeMap<>();
+        for (BluetoothPeripheral peripheral : connectedPeripherals.values()) {
+            queueDepths.put(peripheral.getAddress(), peripheral.getQueueDepth());
+        }
+        return metrics.snapshot(queueDepths);
+    }
+
+    /**
+     * Record how long value and scan result callbacks wait for the callback thread and run. This wraps every callback,
+     * so it is off by default.
+     *
+     * @param enabled true to record the callback latencies
+     */
+    public void setCallbackTracing(boolean enabled) {
+        metrics.setCallbackTracing(enabled);
+    }
+
+    /**
+     * Register the metrics of this central as an MXBean on the platform MBean server, named
+     * com.welie.blessed:type=BluetoothCentral,adapter=&lt;adapter name&gt;.
+     *
+     * @return the name of the MXBean, to unregister it with
+     * @throws JMException if the MXBean could not be registered, for example because it already is
+     */
+    public @NotNull ObjectName registerMetricsMBean() throws JMException {
+        final ObjectName name = new ObjectName(String.format("com.welie.blessed:type=BluetoothCentral,adapter=%s", ObjectName.quote(adapter.getDeviceName())));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(this::getMetrics), name);
+        return name;
+    }
+
     /**
      * Validate a String Bluetooth address, such as "00:43:A8:23:10:F0"
      * <p>Alphabetic characters must be uppercase to be valid.
@@ -0,0 +1,209 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static com.welie.blessed.BluetoothGattCharacteristic.NotifyType;
+import static com.welie.blessed.BluetoothGattCharacteristic.WriteType;
+import static com.welie.blessed.BluetoothPeripheral.NO_VALID_CHARACTERISTIC_PROVIDED;
+import static com.welie.blessed.BluetoothPeripheral.NO_VALID_SERVICE_UUID_PROVIDED;
+
+/**
+ * Builder for a batch of reads, writes and notification changes that is executed as a single command.
+ * <p>
+ * The commands of a batch are executed back to back, in the order they were added, without other commands in between.
+ * The usual callbacks are called for every command, and
+ * {@link BluetoothPeripheralCallback#onBatchCompleted(BluetoothPeripheral, BluetoothCommandStatus)} is called when the whole batch is done.
+ * <p>
+ * Commands for characteristics that don't exist or don't support the operation are left out of the batch, just like
+ * the individual commands on {@link BluetoothPeripheral} are not enqueued in that case.
+ */
+public final class BluetoothCommandBatch {
+    private static final String TAG = BluetoothCommandBatch.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    enum StepType {
+        READ,
+        WRITE,
+        SET_NOTIFY
+    }
+
+    static final class Step {
+        @NotNull
+        final StepType type;
+
+        @NotNull
+        final BluetoothGattCharacteristic characteristic;
+
+        @Nullable
+        final byte[] value;
+
+        @Nullable
+        final WriteType writeType;
+
+        final boolean enable;
+
+        @Nullable
+        final NotifyType notifyType;
+
+        private Step(@NotNull StepType type, @NotNull BluetoothGattCharacteristic characteristic, @Nullable byte[] value, @Nullable WriteType writeType, boolean enable, @Nullable NotifyType notifyType) {
+            this.type = type;
+            this.characteristic = characteristic;
+            this.value = value;
+            this.writeType = writeType;
+            this.enable = enable;
+            this.notifyType = notifyType;
+        }
+    }
+
+    @NotNull
+    private final BluetoothPeripheral peripheral;
+
+    @NotNull
+    private final List<Step> steps = new ArrayList<>();
+
+    BluetoothCommandBatch(@NotNull BluetoothPeripheral peripheral) {
+        this.peripheral = Objects.requireNonNull(peripheral, "no valid peripheral provided");
+    }
+
+    /**
+     * Add a read of a characteristic to the batch.
+     *
+     * @param serviceUUID        the service UUID the characteristic belongs to
+     * @param characteristicUUID the characteristic's UUID
+     * @return this batch
+     */
+    public @NotNull BluetoothCommandBatch read(@NotNull UUID serviceUUID, @NotNull UUID characteristicUUID) {
+        final BluetoothGattCharacteristic characteristic = findCharacteristic(serviceUUID, characteristicUUID);
+        if (characteristic != null) {
+            read(characteristic);
+        }
+        return this;
+    }
+
+    /**
+     * Add a read of a characteristic to the batch.
+     *
+     * @param characteristic the characteristic to read
+     * @return this batch
+     */
+    public @NotNull BluetoothCommandBatch read(@NotNull BluetoothGattCharacteristic characteristic) {
+        Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+
+        if (!characteristic.supportsReading()) {
+            logger.error(String.format("characteristic <%s> is not readable, leaving it out of the batch", characteristic.getUuid()));
+            return this;
+        }
+        steps.add(new Step(StepType.READ, characteristic, null, null, false, null));
+        return this;
+    }
+
+    /**
+     * Add a write to a characteristic to the batch.
+     *
+     * @param characteristic the characteristic to write to
+     * @param value          the byte array to write
+     * @param writeType      the write type to use when writing
+     * @return this batch
+     */
+    public @NotNull BluetoothCommandBatch write(@NotNull BluetoothGattCharacteristic characteristic, @NotNull byte[] value, @NotNull WriteType writeType) {
+        Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+        Objects.requireNonNull(value, "no valid value provided");
+        Objects.requireNonNull(writeType, "no valid write type provided");
+
+        if (value.length == 0) {
+            logger.error("value byte array is empty, leaving it out of the batch");
+            return this;
+        }
+
+        if (!characteristic.supportsWriteType(writeType)) {
+            logger.error(String.format("characteristic <%s> cannot be written with this writeType : %s, leaving it out of the batch", characteristic.getUuid(), writeType));
+            return this;
+        }
+
+        // Copy the value to avoid race conditions
+        steps.add(new Step(StepType.WRITE, characteristic, Arrays.copyOf(value, value.length), writeType, false, null));
+        return this;
+    }
+
+    /**
+     * Add a notification change to the batch.
+     *
+     * @param serviceUUID        the service UUID the characteristic belongs to
+     * @param characteristicUUID the characteristic's UUID
+     * @param enable             true for setting notification on, false for turning it off
+     * @return this batch
+     */
+    public @NotNull BluetoothCommandBatch setNotify(@NotNull UUID serviceUUID, @NotNull UUID characteristicUUID, boolean enable) {
+        final BluetoothGattCharacteristic characteristic = findCharacteristic(serviceUUID, characteristicUUID);
+        if (characteristic != null) {
+            setNotify(characteristic, enable);
+        }
+        return this;
+    }
+
+    /**
+     * Add a notification change to the batch.
+     *
+     * @param characteristic the characteristic to turn notification on/off for
+     * @param enable         true for setting notification on, false for turning it off
+     * @return this batch
+     */
+    public @NotNull BluetoothCommandBatch setNotify(@NotNull BluetoothGattCharacteristic characteristic, boolean enable) {
+        return setNotify(characteristic, enable, NotifyType.signal);
+    }
+
+    /**
+     * Add a notification change to the batch, using the specified notify type.
+     *
+     * @param characteristic the characteristic to turn notification on/off for
+     * @param enable         true for setting notification on, false for turning it off
+     * @param notifyType     the way notifications should be delivered
+     * @return this batch
+     */
+    public @NotNull BluetoothCommandBatch setNotify(@NotNull BluetoothGattCharacteristic characteristic, boolean enable, @NotNull NotifyType notifyType) {
+        Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+        Objects.requireNonNull(notifyType, "no valid notify type provided");
+
+        if (!characteristic.supportsNotifying()) {
+            logger.error(String.format("characteristic <%s> does not have notify or indicate property, leaving it out of the batch", characteristic.getUuid()));
+            return this;
+        }
+        steps.add(new Step(StepType.SET_NOTIFY, characteristic, null, null, enable, notifyType));
+        return this;
+    }
+
+    /**
+     * Get the number of commands in the batch
+     *
+     * @return the number of commands
+     */
+    public int size() {
+        return steps.size();
+    }
+
+    /**
+     * Enqueue the batch as a single command.
+     *
+     * @return true if the batch was enqueued, otherwise false
+     */
+    public boolean enqueue() {
+        return peripheral.enqueueBatch(Collections.unmodifiableList(new ArrayList<>(steps)));
+    }
+
+    private @Nullable BluetoothGattCharacteristic findCharacteristic(@NotNull UUID serviceUUID, @NotNull UUID characteristicUUID) {
+        Objects.requireNonNull(serviceUUID, NO_VALID_SERVICE_UUID_PROVIDED);
+        Objects.requireNonNull(characteristicUUID, NO_VALID_CHARACTERISTIC_PROVIDED);
+
+        return peripheral.getCharacteristic(serviceUUID, characteristicUUID);
+    }
+}
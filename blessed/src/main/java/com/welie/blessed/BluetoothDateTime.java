@@ -0,0 +1,194 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * Conversion between the local date and time fields of the GATT Date Time and Current Time structures and milliseconds
+ * since the epoch, without Calendar objects.
+ * <p>
+ * Local times are interpreted in the default time zone. The UTC offset is cached for the period between two offset
+ * transitions of the zone, so converting a timestamp only does arithmetic unless it falls in another period. The zone is
+ * looked up again when the cache misses; call {@link #clearCache()} after changing the default time zone.
+ */
+public final class BluetoothDateTime {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * A period in which the offset of a zone is constant
+     */
+    private static final class OffsetPeriod {
+        final long fromEpochMillis;
+        final long untilEpochMillis;
+        final long fromLocalMillis;
+        final long untilLocalMillis;
+        final int offsetMillis;
+
+        OffsetPeriod(long fromEpochMillis, long untilEpochMillis, long fromLocalMillis, long untilLocalMillis, int offsetMillis) {
+            this.fromEpochMillis = fromEpochMillis;
+            this.untilEpochMillis = untilEpochMillis;
+            this.fromLocalMillis = fromLocalMillis;
+            this.untilLocalMillis = untilLocalMillis;
+            this.offsetMillis = offsetMillis;
+        }
+
+        boolean containsEpochMillis(long epochMillis) {
+            return epochMillis >= fromEpochMillis && epochMillis < untilEpochMillis;
+        }
+
+        boolean containsLocalMillis(long localMillis) {
+            return localMillis >= fromLocalMillis && localMillis < untilLocalMillis;
+        }
+    }
+
+    private static volatile OffsetPeriod cachedPeriod;
+
+    private BluetoothDateTime() {
+    }
+
+    /**
+     * Convert local date and time fields to milliseconds since the epoch. An unknown month or day (0) is treated as 1.
+     *
+     * @param year    the year
+     * @param month   the month, 1 to 12
+     * @param day     the day of the month
+     * @param hours   the hours
+     * @param minutes the minutes
+     * @param seconds the seconds
+     * @param millis  the milliseconds
+     * @return the milliseconds since the epoch
+     */
+    public static long toEpochMillis(int year, int month, int day, int hours, int minutes, int seconds, int millis) {
+        final long localMillis = toLocalMillis(year, Math.max(month, 1), Math.max(day, 1), hours, minutes, seconds, millis);
+        final OffsetPeriod period = cachedPeriod;
+        if (period != null && period.containsLocalMillis(localMillis)) {
+            return localMillis - period.offsetMillis;
+        }
+        return localMillis - offsetForLocalMillis(localMillis);
+    }
+
+    /**
+     * Get the UTC offset of the default time zone at an instant
+     *
+     * @param epochMillis the milliseconds since the epoch
+     * @return the offset in milliseconds
+     */
+    public static int getOffsetMillis(long epochMillis) {
+        final OffsetPeriod period = cachedPeriod;
+        if (period != null && period.containsEpochMillis(epochMillis)) {
+            return period.offsetMillis;
+        }
+        return cachePeriod(ZoneId.systemDefault(), epochMillis).offsetMillis;
+    }
+
+    /**
+     * Forget the cached offset, so the default time zone is looked up again
+     */
+    public static void clearCache() {
+        cachedPeriod = null;
+    }
+
+    /**
+     * Get the number of days since 1970-01-01 of a date in the proleptic Gregorian calendar
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Split milliseconds since the epoch into local date and time fields.
+     *
+     * @param epochMillis the milliseconds since the epoch
+     * @param fields      array of at least 8 elements that receives year, month, day, hours, minutes, seconds,
+     *                    milliseconds and the ISO day of the week (1 is Monday)
+     */
+    static void toLocalFields(long epochMillis, @NotNull int[] fields) {
+        final long localMillis = epochMillis + getOffsetMillis(epochMillis);
+        final long days = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        final int millisOfDay = (int) Math.floorMod(localMillis, MILLIS_PER_DAY);
+
+        // Inverse of daysFromCivil
+        final long z = days + 719468;
+        final long era = Math.floorDiv(z, 146097);
+        final int dayOfEra = (int) (z - era * 146097);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int mp = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final int month = mp < 10 ? mp + 3 : mp - 9;
+        final int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+        fields[0] = year;
+        fields[1] = month;
+        fields[2] = day;
+        fields[3] = millisOfDay / 3_600_000;
+        fields[4] = (millisOfDay / 60_000) % 60;
+        fields[5] = (millisOfDay / 1000) % 60;
+        fields[6] = millisOfDay % 1000;
+        fields[7] = (int) Math.floorMod(days + 3, 7) + 1;
+    }
+
+    private static long toLocalMillis(int year, int month, int day, int hours, int minutes, int seconds, int millis) {
+        return (((daysFromCivil(year, month, day) * 24 + hours) * 60 + minutes) * 60 + seconds) * 1000L + millis;
+    }
+
+    private static int offsetForLocalMillis(long localMillis) {
+        final ZoneId zone = ZoneId.systemDefault();
+        final ZoneRules rules = zone.getRules();
+
+        // Resolve the local time like GregorianCalendar does: skipped local times use the offset before the gap,
+        // ambiguous local times use the offset after the overlap
+        final LocalDateTime dateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(localMillis, 1000L),
+                (int) Math.floorMod(localMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        final List<ZoneOffset> validOffsets = rules.getValidOffsets(dateTime);
+        final int offset;
+        if (validOffsets.size() == 1) {
+            offset = validOffsets.get(0).getTotalSeconds() * 1000;
+        } else {
+            final ZoneOffsetTransition transition = rules.getTransition(dateTime);
+            final ZoneOffset resolved = transition.isGap() ? transition.getOffsetBefore() : transition.getOffsetAfter();
+            offset = resolved.getTotalSeconds() * 1000;
+        }
+        cachePeriod(zone, localMillis - offset);
+        return offset;
+    }
+
+    private static @NotNull OffsetPeriod cachePeriod(@NotNull ZoneId zone, long epochMillis) {
+        final ZoneRules rules = zone.getRules();
+        final Instant instant = Instant.ofEpochMilli(epochMillis);
+        final int offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000;
+
+        // The period runs from the transition before the instant until the next one. The local times that are
+        // ambiguous or skipped at either transition are left out of the local range.
+        final ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+        final ZoneOffsetTransition next = rules.nextTransition(instant);
+        long from = Long.MIN_VALUE / 2;
+        long fromLocal = from;
+        if (previous != null) {
+            from = previous.toEpochSecond() * 1000;
+            fromLocal = from + Math.max(offsetMillis, previous.getOffsetBefore().getTotalSeconds() * 1000);
+        }
+        long until = Long.MAX_VALUE / 2;
+        long untilLocal = until;
+        if (next != null) {
+            until = next.toEpochSecond() * 1000;
+            untilLocal = until + Math.min(offsetMillis, next.getOffsetAfter().getTotalSeconds() * 1000);
+        }
+
+        final OffsetPeriod period = new OffsetPeriod(from, until, fromLocal, untilLocal, offsetMillis);
+        cachedPeriod = period;
+        return period;
+    }
+}
@@ -103,6 +103,22 @@ public class BluetoothGattCharacteristic {
         withoutResponse
     }
 
+    /**
+     * The way notifications are delivered by Bluez
+     */
+    public enum NotifyType {
+        /**
+         * Notifications arrive as PropertiesChanged signals via DBus (StartNotify)
+         */
+        signal,
+
+        /**
+         * Notifications are read directly from a socket acquired with AcquireNotify.
+         * Falls back to signal if Bluez does not support it for the characteristic.
+         */
+        acquired
+    }
+
     /**
      * Characteristic value format type uint8
      */
@@ -1,24 +1,34 @@
 package com.welie.blessed;
 
+import com.welie.blessed.bluez.AcquiredFileDescriptor;
 import com.welie.blessed.bluez.BluezDevice;
 import com.welie.blessed.bluez.BluezGattCharacteristic;
 import com.welie.blessed.bluez.BluezGattDescriptor;
 import com.welie.blessed.bluez.BluezGattService;
 import com.welie.blessed.internal.GattCallback;
 import com.welie.blessed.internal.InternalCallback;
+import com.welie.blessed.metrics.CommandType;
+import com.welie.blessed.metrics.LatencyStage;
+import com.welie.blessed.metrics.MetricsRegistry;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.profiles.ProfileRegistry;
 import org.bluez.exceptions.*;
 import org.freedesktop.dbus.exceptions.DBusExecutionException;
-import org.freedesktop.dbus.handlers.AbstractPropertiesChangedHandler;
 import org.freedesktop.dbus.interfaces.Properties;
 import org.freedesktop.dbus.types.DBusListType;
+import org.freedesktop.dbus.types.UInt16;
 import org.freedesktop.dbus.types.Variant;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +50,9 @@ public final class BluetoothPeripheral {
     @NotNull
     private final BluetoothCentral central;
 
+    @NotNull
+    private final MetricsRegistry metrics;
+
     @Nullable
     private BluezDevice device;
 
@@ -77,7 +90,31 @@ public final class BluetoothPeripheral {
     private ScheduledFuture<?> timeoutFuture;
 
     @NotNull
-    private final Queue<Runnable> commandQueue = new ConcurrentLinkedQueue<>();
+    private final CommandQueue<QueuedCommand> commandQueue = new CommandQueue<>(this::startCommand);
+
+    @NotNull
+    private final Map<String, NotifyChannel> notifyChannels = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<String, WriteChannel> writeChannels = new ConcurrentHashMap<>();
+
+    // The notification changes of batches whose Notifying signal hasn't come in yet, by characteristic. A change stays
+    // here when its batch stopped waiting for it, so the late signal doesn't complete another command.
+    @NotNull
+    private final Map<String, CountDownLatch> batchNotifyPending = new ConcurrentHashMap<>();
+
+    // Set while a batch executes, so a Notifying signal of another characteristic doesn't complete it
+    private volatile boolean batchExecuting;
+
+    // How long a batch waits for the Notifying signal of a notification change, shorter in tests
+    long batchNotifyTimeoutMillis = BATCH_NOTIFY_TIMEOUT_IN_MS;
+
+    // Set while notifications are delivered in pooled slabs
+    @Nullable
+    private volatile PooledValue.Pool notificationPool;
+
+    // Only used on the callback thread
+    private long valueReceivedNanos;
 
     @Nullable
     private Handler queueHandler;
@@ -85,19 +122,26 @@ public final class BluetoothPeripheral {
     @Nullable
     private Handler signalHandler;
 
-    private volatile boolean commandQueueBusy = false;
-    private int nrTries;
     private boolean isBonded = false;
     private boolean manualBonding = false;
     private volatile boolean bondingInProgress = false;
     private long connectTimestamp;
-    private boolean isRetrying;
+    private long connectStartNanos;
+    private long serviceDiscoveryStartNanos;
+    private volatile long commandStartNanos;
     private volatile int state = STATE_DISCONNECTED;
+    private volatile int mtu = 0;
     private volatile boolean serviceDiscoveryCompleted = false;
 
     // Numeric constants
     private static final int MAX_TRIES = 2;
     private static final int SERVICE_DISCOVERY_TIMEOUT_IN_MS = 10000;
+    private static final int DEFAULT_STREAM_WINDOW = 8;
+    private static final int DEFAULT_MTU = 23;
+    private static final int ATT_WRITE_HEADER_SIZE = 3;
+    private static final int ATT_PREPARE_WRITE_HEADER_SIZE = 5;
+    private static final int BATCH_NOTIFY_TIMEOUT_IN_MS = 5000;
+    private static final int NOTIFICATION_POOL_SIZE = 64;
 
     // Bluez interface names
     static final String BLUEZ_CHARACTERISTIC_INTERFACE = "org.bluez.GattCharacteristic1";
@@ -106,6 +150,9 @@ public final class BluetoothPeripheral {
     // Bluez Characteristic properties
     static final String PROPERTY_NOTIFYING = "Notifying";
     static final String PROPERTY_VALUE = "Value";
+    static final String PROPERTY_NOTIFY_ACQUIRED = "NotifyAcquired";
+    static final String PROPERTY_WRITE_ACQUIRED = "WriteAcquired";
+    static final String PROPERTY_MTU = "MTU";
 
     // Bluez Device properties
     static final String PROPERTY_SERVICES_RESOLVED = "ServicesResolved";
@@ -175,6 +222,7 @@ public final class BluetoothPeripheral {
         public void onConnectionStateChanged(int connectionState, @NotNull BluetoothCommandStatus status) {
             int previousState = state;
             state = connectionState;
+            FlightRecorderEvents.connectionStateChanged(deviceAddress, previousState, connectionState, status);
 
             if (status == COMMAND_SUCCESS) {
                 switch (connectionState) {
@@ -201,6 +249,7 @@ public final class BluetoothPeripheral {
 
         private void successfullyConnected() {
             long timePassed = System.currentTimeMillis() - connectTimestamp;
+            metrics.recordConnect(System.nanoTime() - connectStartNanos);
             isBonded = isPaired();
             logger.info(String.format("connected to '%s' (%s) in %.1fs", deviceName, isBonded ? "BONDED" : "BOND_NONE", timePassed / 1000.0f));
         }
@@ -243,7 +292,7 @@ public final class BluetoothPeripheral {
             if (peripheralCallback != null) {
                 callBackHandler.post(() -> peripheralCallback.onNotificationStateUpdate(BluetoothPeripheral.this, characteristic, status));
             }
-            completedCommand();
+            completedCommand(status);
         }
 
         @Override
@@ -257,7 +306,7 @@ public final class BluetoothPeripheral {
             if (peripheralCallback != null) {
                 callBackHandler.post(() -> peripheralCallback.onDescriptorWrite(BluetoothPeripheral.this, new byte[0], descriptor, status));
             }
-            completedCommand();
+            completedCommand(status);
         }
 
         @Override
@@ -271,13 +320,16 @@ public final class BluetoothPeripheral {
             }
 
             // Just complete the command. The actual value will come in through onCharacteristicChanged
-            completedCommand();
+            completedCommand(status);
         }
 
         @Override
-        public void onCharacteristicChanged(@NotNull final byte[] value, @NotNull final BluetoothGattCharacteristic characteristic) {
+        public void onCharacteristicChanged(@NotNull final byte[] value, @NotNull final BluetoothGattCharacteristic characteristic, final long receivedNanos) {
             if (peripheralCallback != null) {
-                callBackHandler.post(() -> peripheralCallback.onCharacteristicUpdate(BluetoothPeripheral.this, value, characteristic, COMMAND_SUCCESS));
+                callBackHandler.post(metrics.traceCallback(LatencyStage.NOTIFICATION, receivedNanos, () -> {
+                    valueReceivedNanos = receivedNanos;
+                    peripheralCallback.onCharacteristicUpdate(BluetoothPeripheral.this, value, characteristic, COMMAND_SUCCESS);
+                }));
             }
         }
 
@@ -290,7 +342,31 @@ public final class BluetoothPeripheral {
             if (peripheralCallback != null) {
                 callBackHandler.post(() -> peripheralCallback.onCharacteristicWrite(BluetoothPeripheral.this, currentWriteBytes, characteristic, status));
             }
-            completedCommand();
+            completedCommand(status);
+        }
+
+        @Override
+        public void onStreamWriteCompleted(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final TransferStatistics statistics, final @NotNull BluetoothCommandStatus status) {
+            if (status != COMMAND_SUCCESS) {
+                logger.error(String.format("stream write failed for characteristic: %s, status '%s'", characteristic.getUuid(), status));
+            }
+
+            if (peripheralCallback != null) {
+                callBackHandler.post(() -> peripheralCallback.onStreamWriteCompleted(BluetoothPeripheral.this, characteristic, statistics, status));
+            }
+            completedCommand(status);
+        }
+
+        @Override
+        public void onBatchCompleted(final @NotNull BluetoothCommandStatus status) {
+            if (status != COMMAND_SUCCESS) {
+                logger.error(String.format("batch failed with status '%s'", status));
+            }
+
+            if (peripheralCallback != null) {
+                callBackHandler.post(() -> peripheralCallback.onBatchCompleted(BluetoothPeripheral.this, status));
+            }
+            completedCommand(status);
         }
 
         @Override
@@ -322,6 +398,10 @@ public final class BluetoothPeripheral {
         public void onServicesDiscovered(@NotNull List<BluetoothGattService> services) {
             serviceDiscoveryCompleted = true;
             logger.info(String.format("discovered %d services for '%s' (%s)", services.size(), getName(), getAddress()));
+            if (serviceDiscoveryStartNanos != 0) {
+                metrics.recordServiceDiscovery(System.nanoTime() - serviceDiscoveryStartNanos);
+                serviceDiscoveryStartNanos = 0;
+            }
 
             // We are now fully connected and service discovery was successful, so let Central know
             listener.connected(BluetoothPeripheral.this);
@@ -337,7 +417,14 @@ public final class BluetoothPeripheral {
         private void completeDisconnect(boolean notify, final BluetoothCommandStatus status) {
             // Empty the queue
             commandQueue.clear();
-            commandQueueBusy = false;
+            batchNotifyPending.clear();
+
+            // Release acquired sockets
+            closeNotifyChannels();
+            closeWriteChannels();
+
+            // The MTU is negotiated again on the next connection
+            mtu = 0;
 
             // Cleanup handlers
             queueHandler.shutdown();
@@ -355,6 +442,7 @@ public final class BluetoothPeripheral {
 
     public BluetoothPeripheral(@NotNull BluetoothCentral central, @Nullable BluezDevice bluezDevice, @Nullable String deviceName, @NotNull String deviceAddress, @NotNull InternalCallback listener, @Nullable BluetoothPeripheralCallback peripheralCallback, @NotNull Handler callBackHandler) {
         this.central = Objects.requireNonNull(central, "no valid central provided");
+        this.metrics = central.getMetricsRegistry();
         this.device = bluezDevice;
         this.deviceName = deviceName;
         this.deviceAddress = Objects.requireNonNull(deviceAddress, "no valid address provided");
@@ -373,13 +461,16 @@ public final class BluetoothPeripheral {
         // Do the connect
         gattCallback.onConnectionStateChanged(STATE_CONNECTING, COMMAND_SUCCESS);
 
+        boolean connectCallSucceeded = false;
         try {
             logger.info(String.format("connecting to '%s' (%s)", deviceName, deviceAddress));
-            queueHandler = new Handler(deviceAddress + "-queue");
-            signalHandler = new Handler(deviceAddress + "-signal");
+            queueHandler = VirtualThreads.newHandler(deviceAddress + "-queue");
+            signalHandler = VirtualThreads.newHandler(deviceAddress + "-signal");
             BluezSignalHandler.getInstance().addPeripheral(deviceAddress, this);
             connectTimestamp = System.currentTimeMillis();
+            connectStartNanos = System.nanoTime();
             device.connect();
+            connectCallSucceeded = true;
         } catch (DBusExecutionException e) {
             logger.error(e.getMessage());
 
@@ -404,6 +495,8 @@ public final class BluetoothPeripheral {
             logger.error("connect exception: in progress");
             logger.error(e.getMessage());
             gattCallback.onConnectionStateChanged(STATE_DISCONNECTED, BLUEZ_OPERATION_IN_PROGRESS);
+        } finally {
+            metrics.recordDbusCall(connectCallSucceeded);
         }
     }
 
@@ -483,33 +576,11 @@ public final class BluetoothPeripheral {
         }
 
         // All in order, do the read
-        boolean result = commandQueue.add(() -> {
+        boolean result = enqueue(new QueuedCommand(CommandType.READ, characteristic.getUuid(), () -> {
             if (state == STATE_CONNECTED) {
-                try {
-                    logger.info(String.format("reading characteristic <%s>", nativeCharacteristic.getUuid()));
-                    nativeCharacteristic.readValue(new HashMap<>());
-                    gattCallback.onCharacteristicRead(characteristic, COMMAND_SUCCESS);
-                } catch (BluezInProgressException e) {
-                    gattCallback.onCharacteristicRead(characteristic, BLUEZ_OPERATION_IN_PROGRESS);
-                } catch (BluezInvalidOffsetException e) {
-                    gattCallback.onCharacteristicRead(characteristic, INVALID_OFFSET);
-                } catch (BluezFailedException e) {
-                    gattCallback.onCharacteristicRead(characteristic, BLUEZ_OPERATION_FAILED);
-                } catch (BluezNotPermittedException e) {
-                    gattCallback.onCharacteristicRead(characteristic, READ_NOT_PERMITTED);
-                } catch (BluezNotAuthorizedException e) {
-                    gattCallback.onCharacteristicRead(characteristic, INSUFFICIENT_AUTHENTICATION);
-                } catch (BluezNotSupportedException e) {
-                    gattCallback.onCharacteristicRead(characteristic, REQUEST_NOT_SUPPORTED);
-                } catch (DBusExecutionException e) {
-                    gattCallback.onCharacteristicRead(characteristic, DBUS_EXECUTION_EXCEPTION);
-                    logger.error(e.toString());
-                } catch (Exception e) {
-                    gattCallback.onCharacteristicRead(characteristic, BLUEZ_OPERATION_FAILED);
-                    logger.error(e.toString());
-                }
+                gattCallback.onCharacteristicRead(characteristic, executeRead(nativeCharacteristic));
             }
-        });
+        }));
 
         if (result) {
             nextCommand();
@@ -544,7 +615,63 @@ public final class BluetoothPeripheral {
         }
 
         // Copy the value to avoid race conditions
-        final byte[] bytesToWrite = copyOf(value);
+        return enqueueWrite(characteristic, copyOf(value), writeType);
+    }
+
+    /**
+     * Write a value to a characteristic using the specified write type, taking ownership of a buffer of the
+     * {@link BluetoothBufferPool#shared() shared pool}.
+     *
+     * <p>This is the same as {@link #writeCharacteristic(BluetoothGattCharacteristic, ByteBuffer, WriteType, BluetoothBufferPool)}
+     * with the shared pool, which {@link BluetoothBytesWriter#local()} builds its values in.
+     *
+     * @param characteristic the characteristic to write to
+     * @param value          the buffer with the value, from its position to its limit
+     * @param writeType      the write type to use when writing
+     * @return true if a write operation was succesfully enqueued, otherwise false
+     */
+    @SuppressWarnings({"UnusedReturnValue", "unused"})
+    public boolean writeCharacteristic(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final ByteBuffer value, final WriteType writeType) {
+        return writeCharacteristic(characteristic, value, writeType, BluetoothBufferPool.shared());
+    }
+
+    /**
+     * Write a value to a characteristic using the specified write type, taking ownership of the buffer.
+     *
+     * <p>The remaining bytes of the buffer are moved into the array that is sent to Bluez, without a defensive copy, and
+     * the buffer is returned to the pool it was acquired from. So the buffer must not be used after this call, whether the
+     * write was enqueued or not. Use a {@link BluetoothBytesWriter} of the pool to build the value. A buffer that the pool
+     * didn't allocate, like one that wraps an array, is not taken into the pool.
+     *
+     * <p>{@link BluetoothPeripheralCallback#onCharacteristicWrite(BluetoothPeripheral, byte[], BluetoothGattCharacteristic, BluetoothCommandStatus)} will be triggered as a result of this call.
+     *
+     * @param characteristic the characteristic to write to
+     * @param value          the buffer with the value, from its position to its limit
+     * @param writeType      the write type to use when writing
+     * @param pool           the pool the buffer was acquired from
+     * @return true if a write operation was succesfully enqueued, otherwise false
+     */
+    @SuppressWarnings({"UnusedReturnValue", "unused"})
+    public boolean writeCharacteristic(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final ByteBuffer value, final WriteType writeType, @NotNull final BluetoothBufferPool pool) {
+        Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+        Objects.requireNonNull(value, "no valid value provided");
+        Objects.requireNonNull(pool, "no valid pool provided");
+
+        // WriteValue takes a byte array, this is the only copy of the value
+        final byte[] bytesToWrite = new byte[value.remaining()];
+        value.get(bytesToWrite);
+        pool.release(value);
+
+        // Make sure we are still connected
+        if (state != STATE_CONNECTED) {
+            gattCallback.onCharacteristicWrite(characteristic, NOT_CONNECTED);
+            return false;
+        }
+
+        return enqueueWrite(characteristic, bytesToWrite, writeType);
+    }
+
+    private boolean enqueueWrite(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final byte[] bytesToWrite, final WriteType writeType) {
         if (bytesToWrite.length == 0) {
             logger.error("value byte array is empty, ignoring write request");
             return false;
@@ -564,38 +691,12 @@ public final class BluetoothPeripheral {
         }
 
         // All in order, do the write
-        boolean result = commandQueue.add(() -> {
+        boolean result = enqueue(new QueuedCommand(CommandType.WRITE, characteristic.getUuid(), () -> {
             if (state == STATE_CONNECTED) {
-                try {
-                    // Perform the write
-                    currentWriteBytes = bytesToWrite;
-                    logger.info(String.format("writing %s <%s> to characteristic <%s>", writeType, bytes2String(bytesToWrite), nativeCharacteristic.getUuid()));
-                    HashMap<String, Object> options = new HashMap<>();
-                    options.put("type", writeType == WriteType.withResponse ? "request" : "command");
-                    nativeCharacteristic.writeValue(bytesToWrite, options);
-
-                    // Since there is no callback nor characteristic update event for when a write is completed, we can consider this command done
-                    gattCallback.onCharacteristicWrite(characteristic, COMMAND_SUCCESS);
-                } catch (BluezInProgressException e) {
-                    gattCallback.onCharacteristicWrite(characteristic, BLUEZ_OPERATION_IN_PROGRESS);
-                } catch (BluezNotPermittedException e) {
-                    gattCallback.onCharacteristicWrite(characteristic, WRITE_NOT_PERMITTED);
-                } catch (BluezNotAuthorizedException e) {
-                    gattCallback.onCharacteristicWrite(characteristic, INSUFFICIENT_AUTHORIZATION);
-                } catch (DBusExecutionException e) {
-                    gattCallback.onCharacteristicWrite(characteristic, DBUS_EXECUTION_EXCEPTION);
-                } catch (BluezNotSupportedException e) {
-                    gattCallback.onCharacteristicWrite(characteristic, REQUEST_NOT_SUPPORTED);
-                } catch (BluezFailedException e) {
-                    gattCallback.onCharacteristicWrite(characteristic, BLUEZ_OPERATION_FAILED);
-                } catch (BluezInvalidValueLengthException e) {
-                    gattCallback.onCharacteristicWrite(characteristic, INVALID_ATTRIBUTE_VALUE_LENGTH);
-                } catch (Exception e) {
-                    gattCallback.onCharacteristicWrite(characteristic, BLUEZ_OPERATION_FAILED);
-                    logger.error(e.getMessage());
-                }
+                currentWriteBytes = bytesToWrite;
+                gattCallback.onCharacteristicWrite(characteristic, executeWrite(nativeCharacteristic, bytesToWrite, writeType));
             }
-        });
+        }));
 
         if (result) {
             nextCommand();
@@ -605,6 +706,263 @@ public final class BluetoothPeripheral {
         return result;
     }
 
+    /**
+     * Write a sequence of packets to a characteristic using write-without-response.
+     *
+     * <p>Uses a default window of outstanding writes. See {@link #writeCharacteristicStream(BluetoothGattCharacteristic, Iterator, int)}.
+     *
+     * @param characteristic the characteristic to write to
+     * @param packets        the packets to write
+     * @return true if the stream write was succesfully enqueued, otherwise false
+     */
+    @SuppressWarnings({"UnusedReturnValue", "unused"})
+    public boolean writeCharacteristicStream(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final Iterator<byte[]> packets) {
+        return writeCharacteristicStream(characteristic, packets, DEFAULT_STREAM_WINDOW);
+    }
+
+    /**
+     * Write a sequence of packets to a characteristic using write-without-response.
+     *
+     * <p>The whole stream is enqueued as a single command. While it executes, up to 'window' writes are sent to Bluez
+     * without waiting for their replies, so the throughput is not limited by the DBus round trip of every single write.
+     * The packets are taken from the iterator when they are written, so they don't have to be in memory all at once.
+     *
+     * <p>{@link BluetoothPeripheralCallback#onStreamWriteCompleted(BluetoothPeripheral, BluetoothGattCharacteristic, TransferStatistics, BluetoothCommandStatus)} will be triggered as a result of this call.
+     *
+     * @param characteristic the characteristic to write to
+     * @param packets        the packets to write
+     * @param window         the maximum number of writes that are waiting for a reply from Bluez
+     * @return true if the stream write was succesfully enqueued, otherwise false
+     */
+    @SuppressWarnings({"UnusedReturnValue", "unused"})
+    public boolean writeCharacteristicStream(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final Iterator<byte[]> packets, final int window) {
+        Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+        Objects.requireNonNull(packets, "no valid packets provided");
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+
+        // Make sure we are still connected
+        if (state != STATE_CONNECTED) {
+            gattCallback.onStreamWriteCompleted(characteristic, new TransferStatistics(0, 0, 0), NOT_CONNECTED);
+            return false;
+        }
+
+        // Check if we have the native characteristic
+        final BluezGattCharacteristic nativeCharacteristic = getBluezGattCharacteristic(characteristic.service.getUuid(), characteristic.getUuid());
+        if (nativeCharacteristic == null) {
+            logger.error(ERROR_NATIVE_CHARACTERISTIC_IS_NULL);
+            return false;
+        }
+
+        // Streaming is only possible with write-without-response
+        if (!characteristic.supportsWriteType(WriteType.withoutResponse)) {
+            logger.error("characteristic does not support write without response, cannot stream");
+            return false;
+        }
+
+        // All in order, do the stream write
+        boolean result = enqueue(new QueuedCommand(CommandType.STREAM_WRITE, characteristic.getUuid(), () -> {
+            if (state == STATE_CONNECTED) {
+                // An acquired write socket locks WriteValue, so release it first
+                releaseWriteChannel(nativeCharacteristic);
+                logger.info(String.format("streaming to characteristic <%s> with window %d", nativeCharacteristic.getUuid(), window));
+                final StreamWriter writer = new StreamWriter(nativeCharacteristic, window);
+                final BluetoothCommandStatus status = writer.write(packets, () -> state == STATE_CONNECTED);
+                final TransferStatistics statistics = writer.getStatistics();
+                logger.info(String.format("stream write completed with status %s: %s", status, statistics));
+                gattCallback.onStreamWriteCompleted(characteristic, statistics, status);
+            }
+        }));
+
+        if (result) {
+            nextCommand();
+        } else {
+            logger.error("ERROR: Could not enqueue stream write characteristic command");
+        }
+        return result;
+    }
+
+    /**
+     * Write a value that may be larger than what fits in a single write to a characteristic.
+     *
+     * <p>If the characteristic supports write-without-response, the value is split in segments of MTU-3 bytes that are
+     * written as a stream of write-commands. Otherwise the value is written with a single write request, which Bluez
+     * turns into a long write using prepared writes when the value does not fit in MTU-3 bytes.
+     *
+     * <p>{@link BluetoothPeripheralCallback#onStreamWriteCompleted(BluetoothPeripheral, BluetoothGattCharacteristic, TransferStatistics, BluetoothCommandStatus)} will be triggered as a result of this call,
+     * with the time it took to transfer the value.
+     *
+     * @param characteristic the characteristic to write to
+     * @param value          the byte array to write
+     * @return true if the write was succesfully enqueued, otherwise false
+     */
+    @SuppressWarnings({"UnusedReturnValue", "unused"})
+    public boolean writeCharacteristicChunked(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final byte[] value) {
+        Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+        Objects.requireNonNull(value, "no valid value provided");
+
+        // Make sure we are still connected
+        if (state != STATE_CONNECTED) {
+            gattCallback.onStreamWriteCompleted(characteristic, new TransferStatistics(0, 0, 0), NOT_CONNECTED);
+            return false;
+        }
+
+        // Copy the value to avoid race conditions
+        final byte[] bytesToWrite = copyOf(value);
+        if (bytesToWrite.length == 0) {
+            logger.error("value byte array is empty, ignoring write request");
+            return false;
+        }
+
+        // Check if we have the native characteristic
+        final BluezGattCharacteristic nativeCharacteristic = getBluezGattCharacteristic(characteristic.service.getUuid(), characteristic.getUuid());
+        if (nativeCharacteristic == null) {
+            logger.error(ERROR_NATIVE_CHARACTERISTIC_IS_NULL);
+            return false;
+        }
+
+        final WriteType writeType = characteristic.supportsWriteType(WriteType.withoutResponse) ? WriteType.withoutResponse : WriteType.withResponse;
+        if (!characteristic.supportsWriteType(writeType)) {
+            logger.error("characteristic is not writable");
+            return false;
+        }
+
+        // All in order, do the write
+        boolean result = enqueue(new QueuedCommand(CommandType.CHUNKED_WRITE, characteristic.getUuid(), () -> {
+            if (state == STATE_CONNECTED) {
+                // Determine the segment size when executing, the MTU may have become known in the meantime
+                if (writeType == WriteType.withoutResponse) {
+                    // An acquired write socket locks WriteValue, so release it first
+                    releaseWriteChannel(nativeCharacteristic);
+                    final int segmentSize = getMtu() - ATT_WRITE_HEADER_SIZE;
+                    logger.info(String.format("writing %d bytes to characteristic <%s> in segments of %d bytes", bytesToWrite.length, nativeCharacteristic.getUuid(), segmentSize));
+                    final StreamWriter writer = new StreamWriter(nativeCharacteristic, DEFAULT_STREAM_WINDOW);
+                    final BluetoothCommandStatus status = writer.write(new SegmentIterator(bytesToWrite, segmentSize), () -> state == STATE_CONNECTED);
+                    gattCallback.onStreamWriteCompleted(characteristic, writer.getStatistics(), status);
+                } else {
+                    writeLongValue(nativeCharacteristic, characteristic, bytesToWrite);
+                }
+            }
+        }));
+
+        if (result) {
+            nextCommand();
+        } else {
+            logger.error("ERROR: Could not enqueue chunked write characteristic command");
+        }
+        return result;
+    }
+
+    private void writeLongValue(@NotNull final BluezGattCharacteristic nativeCharacteristic, @NotNull final BluetoothGattCharacteristic characteristic, @NotNull final byte[] bytesToWrite) {
+        // Bluez uses a long write when the value doesn't fit in a single write request
+        final int currentMtu = getMtu();
+        final int packets = bytesToWrite.length <= currentMtu - ATT_WRITE_HEADER_SIZE ? 1 : (bytesToWrite.length + currentMtu - ATT_PREPARE_WRITE_HEADER_SIZE - 1) / (currentMtu - ATT_PREPARE_WRITE_HEADER_SIZE);
+        final long start = System.nanoTime();
+        final BluetoothCommandStatus status = executeWrite(nativeCharacteristic, bytesToWrite, WriteType.withResponse);
+        final long duration = System.nanoTime() - start;
+
+        final TransferStatistics statistics = status == COMMAND_SUCCESS ? new TransferStatistics(bytesToWrite.length, packets, duration) : new TransferStatistics(0, 0, duration);
+        gattCallback.onStreamWriteCompleted(characteristic, statistics, status);
+    }
+
+    /**
+     * Write bulk data to a characteristic over a socket acquired with AcquireWrite.
+     *
+     * <p>The remaining bytes of the buffer are split in chunks of MTU-3 bytes, and every chunk is written to the socket
+     * as a single write-command, without a DBus call per chunk. The chunks are taken directly from the buffer, so its
+     * contents must not be modified until the write has completed.
+     * The socket is acquired once and kept open for subsequent bulk writes until the peripheral disconnects, or until
+     * another write to the characteristic releases it.
+     *
+     * <p>{@link BluetoothPeripheralCallback#onStreamWriteCompleted(BluetoothPeripheral, BluetoothGattCharacteristic, TransferStatistics, BluetoothCommandStatus)} will be triggered as a result of this call.
+     *
+     * @param characteristic the characteristic to write to
+     * @param data           the data to write
+     * @return true if the bulk write was succesfully enqueued, otherwise false
+     */
+    @SuppressWarnings({"UnusedReturnValue", "unused"})
+    public boolean writeCharacteristicBulk(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final ByteBuffer data) {
+        Objects.requireNonNull(data, "no valid data provided");
+
+        final ByteBuffer bytesToWrite = data.duplicate();
+        return enqueueBulkWrite(characteristic, (writer) -> writer.write(bytesToWrite, () -> state == STATE_CONNECTED));
+    }
+
+    /**
+     * Write bulk data to a characteristic over a socket acquired with AcquireWrite.
+     *
+     * <p>The source, for example a {@link java.nio.channels.FileChannel}, is read until it is exhausted and the data is written
+     * in chunks of MTU-3 bytes, every chunk as a single write-command without a DBus call per chunk.
+     * The source is not closed after the write.
+     * The socket is acquired once and kept open for subsequent bulk writes until the peripheral disconnects, or until
+     * another write to the characteristic releases it.
+     *
+     * <p>{@link BluetoothPeripheralCallback#onStreamWriteCompleted(BluetoothPeripheral, BluetoothGattCharacteristic, TransferStatistics, BluetoothCommandStatus)} will be triggered as a result of this call.
+     *
+     * @param characteristic the characteristic to write to
+     * @param source         the source to read the data from
+     * @return true if the bulk write was succesfully enqueued, otherwise false
+     */
+    @SuppressWarnings({"UnusedReturnValue", "unused"})
+    public boolean writeCharacteristicBulk(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final ReadableByteChannel source) {
+        Objects.requireNonNull(source, "no valid source provided");
+
+        return enqueueBulkWrite(characteristic, (writer) -> writer.write(source, () -> state == STATE_CONNECTED));
+    }
+
+    private boolean enqueueBulkWrite(@NotNull final BluetoothGattCharacteristic characteristic, @NotNull final Function<BulkWriter, BluetoothCommandStatus> transfer) {
+        Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+
+        // Make sure we are still connected
+        if (state != STATE_CONNECTED) {
+            gattCallback.onStreamWriteCompleted(characteristic, new TransferStatistics(0, 0, 0), NOT_CONNECTED);
+            return false;
+        }
+
+        // Check if we have the native characteristic
+        final BluezGattCharacteristic nativeCharacteristic = getBluezGattCharacteristic(characteristic.service.getUuid(), characteristic.getUuid());
+        if (nativeCharacteristic == null) {
+            logger.error(ERROR_NATIVE_CHARACTERISTIC_IS_NULL);
+            return false;
+        }
+
+        // AcquireWrite only works for characteristics that support write without response
+        if (!characteristic.supportsWriteType(WriteType.withoutResponse)) {
+            logger.error("characteristic does not support write without response, cannot do bulk write");
+            return false;
+        }
+
+        // All in order, do the bulk write
+        boolean result = enqueue(new QueuedCommand(CommandType.BULK_WRITE, characteristic.getUuid(), () -> {
+            if (state == STATE_CONNECTED) {
+                final WriteChannel writeChannel = getWriteChannel(nativeCharacteristic);
+                if (writeChannel == null) {
+                    gattCallback.onStreamWriteCompleted(characteristic, new TransferStatistics(0, 0, 0), REQUEST_NOT_SUPPORTED);
+                    return;
+                }
+
+                logger.info(String.format("bulk writing to characteristic <%s> in chunks of %d bytes", nativeCharacteristic.getUuid(), writeChannel.getChunkSize()));
+                final BulkWriter writer = new BulkWriter(writeChannel);
+                final BluetoothCommandStatus status = transfer.apply(writer);
+                if (status != COMMAND_SUCCESS) {
+                    // The socket is unusable after a failed write
+                    releaseWriteChannel(nativeCharacteristic);
+                }
+                final TransferStatistics statistics = writer.getStatistics();
+                logger.info(String.format("bulk write completed with status %s: %s", status, statistics));
+                gattCallback.onStreamWriteCompleted(characteristic, statistics, status);
+            }
+        }));
+
+        if (result) {
+            nextCommand();
+        } else {
+            logger.error("ERROR: Could not enqueue bulk write characteristic command");
+        }
+        return result;
+    }
+
     /**
      * Set the notification state of a characteristic to 'on' or 'off'. The characteristic must support notifications or indications.
      *
@@ -636,7 +994,26 @@ public final class BluetoothPeripheral {
      */
     @SuppressWarnings("UnusedReturnValue")
     public boolean setNotify(@NotNull final BluetoothGattCharacteristic characteristic, boolean enable) {
+        return setNotify(characteristic, enable, NotifyType.signal);
+    }
+
+    /**
+     * Set the notification state of a characteristic to 'on' or 'off' using the specified notify type. The characteristic must support notifications or indications.
+     *
+     * <p>With {@link NotifyType#acquired} the notifications are read directly from a socket instead of being delivered as DBus signals.
+     * This is much cheaper for high-rate notifications. If Bluez cannot acquire the characteristic, StartNotify is used instead.
+     *
+     * <p>{@link BluetoothPeripheralCallback#onNotificationStateUpdate(BluetoothPeripheral, BluetoothGattCharacteristic, BluetoothCommandStatus)} will be triggered as a result of this call.
+     *
+     * @param characteristic the characteristic to turn notification on/off for
+     * @param enable         true for setting notification on, false for turning it off
+     * @param notifyType     the way notifications should be delivered
+     * @return true if the operation was enqueued, false if the characteristic doesn't support notification or indications or
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public boolean setNotify(@NotNull final BluetoothGattCharacteristic characteristic, boolean enable, @NotNull final NotifyType notifyType) {
         Objects.requireNonNull(characteristic, NO_VALID_CHARACTERISTIC_PROVIDED);
+        Objects.requireNonNull(notifyType, "no valid notify type provided");
 
         // Make sure we are still connected
         if (state != STATE_CONNECTED) {
@@ -658,46 +1035,505 @@ public final class BluetoothPeripheral {
         }
 
         // All in order, do the set notify
-        boolean result = commandQueue.add(() -> {
+        boolean result = enqueue(new QueuedCommand(CommandType.SET_NOTIFY, characteristic.getUuid(), () -> {
             if (state == STATE_CONNECTED) {
+                // This change replaces a batch change that is still waiting for its Notifying signal
+                batchNotifyPending.remove(notifyKey(characteristic));
+                final BluetoothCommandStatus status = executeSetNotify(nativeCharacteristic, characteristic, enable, notifyType);
+                if (status != null) {
+                    gattCallback.onNotificationStateUpdate(characteristic, status);
+                }
+            }
+        }));
+
+        if (result) {
+            nextCommand();
+        } else {
+            logger.error("ERROR: Could not enqueue set notify characteristic command");
+        }
+        return result;
+    }
+
+    /**
+     * Create a batch of commands that will be executed as a single command.
+     *
+     * <p>Add reads, writes and notification changes to the batch and call {@link BluetoothCommandBatch#enqueue()} to enqueue it.
+     *
+     * @return a new, empty batch for this peripheral
+     */
+    public @NotNull BluetoothCommandBatch batch() {
+        return new BluetoothCommandBatch(this);
+    }
+
+    boolean enqueueBatch(@NotNull final List<BluetoothCommandBatch.Step> steps) {
+        Objects.requireNonNull(steps, "no valid steps provided");
+
+        // Make sure we are still connected
+        if (state != STATE_CONNECTED) {
+            gattCallback.onBatchCompleted(NOT_CONNECTED);
+            return false;
+        }
+
+        if (steps.isEmpty()) {
+            logger.error("batch is empty, ignoring request");
+            return false;
+        }
+
+        // Look up the native characteristics now, so the batch doesn't have to do it while executing
+        final List<BluezGattCharacteristic> nativeCharacteristics = new ArrayList<>(steps.size());
+        for (BluetoothCommandBatch.Step step : steps) {
+            final BluezGattCharacteristic nativeCharacteristic = getBluezGattCharacteristic(step.characteristic.service.getUuid(), step.characteristic.getUuid());
+            if (nativeCharacteristic == null) {
+                logger.error(ERROR_NATIVE_CHARACTERISTIC_IS_NULL);
+                return false;
+            }
+            nativeCharacteristics.add(nativeCharacteristic);
+        }
+
+        // All in order, do the batch
+        boolean result = enqueue(new QueuedCommand(CommandType.BATCH, null, () -> {
+            if (state == STATE_CONNECTED) {
+                logger.info(String.format("executing batch of %d commands", steps.size()));
+                BluetoothCommandStatus batchStatus = COMMAND_SUCCESS;
+                batchExecuting = true;
                 try {
-                    if (enable) {
-                        logger.info(String.format("setNotify for characteristic <%s>", nativeCharacteristic.getUuid()));
-                        boolean isNotifying = nativeCharacteristic.isNotifying();
-                        if (isNotifying) {
-                            // Already notifying, ignoring command
-                            logger.info("already notifying");
-                            gattCallback.onNotificationStateUpdate(characteristic, COMMAND_SUCCESS);
-                        } else {
-                            nativeCharacteristic.startNotify();
+                    for (int i = 0; i < steps.size(); i++) {
+                        if (state != STATE_CONNECTED) {
+                            batchStatus = NOT_CONNECTED;
+                            break;
+                        }
+
+                        // Continue with the other commands after a failure, but report the first failure for the batch
+                        final BluetoothCommandStatus status = executeBatchStep(steps.get(i), nativeCharacteristics.get(i));
+                        if (status != COMMAND_SUCCESS && batchStatus == COMMAND_SUCCESS) {
+                            batchStatus = status;
                         }
-                    } else {
-                        logger.info(String.format("stopNotify for characteristic <%s>", nativeCharacteristic.getUuid()));
-                        nativeCharacteristic.stopNotify();
                     }
-                } catch (BluezNotPermittedException  e) {
-                    gattCallback.onNotificationStateUpdate(characteristic, WRITE_NOT_PERMITTED);
-                } catch (BluezFailedException e) {
-                    gattCallback.onNotificationStateUpdate(characteristic, BLUEZ_OPERATION_FAILED);
-                } catch (BluezInProgressException e) {
-                    gattCallback.onNotificationStateUpdate(characteristic, BLUEZ_OPERATION_IN_PROGRESS);
-                } catch (BluezNotSupportedException e) {
-                    gattCallback.onNotificationStateUpdate(characteristic, REQUEST_NOT_SUPPORTED);
-                } catch (Exception e) {
-                    gattCallback.onNotificationStateUpdate(characteristic, BLUEZ_OPERATION_FAILED);
-                    logger.error(e.getMessage());
+                } finally {
+                    batchExecuting = false;
                 }
+                gattCallback.onBatchCompleted(batchStatus);
             }
-        });
+        }));
 
         if (result) {
             nextCommand();
         } else {
-            logger.error("ERROR: Could not enqueue set notify characteristic command");
+            logger.error("ERROR: Could not enqueue batch command");
         }
         return result;
     }
 
+    private @NotNull BluetoothCommandStatus executeBatchStep(@NotNull final BluetoothCommandBatch.Step step, @NotNull final BluezGattCharacteristic nativeCharacteristic) {
+        final BluetoothGattCharacteristic characteristic = step.characteristic;
+        switch (step.type) {
+            case READ: {
+                // The value will come in through onCharacteristicChanged, only errors have to be reported here
+                final BluetoothCommandStatus status = executeRead(nativeCharacteristic);
+                if (status != COMMAND_SUCCESS && peripheralCallback != null) {
+                    callBackHandler.post(() -> peripheralCallback.onCharacteristicUpdate(BluetoothPeripheral.this, new byte[0], characteristic, status));
+                }
+                return status;
+            }
+            case WRITE: {
+                final byte[] value = Objects.requireNonNull(step.value);
+                final BluetoothCommandStatus status = executeWrite(nativeCharacteristic, value, Objects.requireNonNull(step.writeType));
+                if (peripheralCallback != null) {
+                    callBackHandler.post(() -> peripheralCallback.onCharacteristicWrite(BluetoothPeripheral.this, value, characteristic, status));
+                }
+                return status;
+            }
+            case SET_NOTIFY:
+                return executeBatchSetNotify(step, nativeCharacteristic);
+            default:
+                return REQUEST_NOT_SUPPORTED;
+        }
+    }
+
+    private @NotNull BluetoothCommandStatus executeBatchSetNotify(@NotNull final BluetoothCommandBatch.Step step, @NotNull final BluezGattCharacteristic nativeCharacteristic) {
+        final BluetoothGattCharacteristic characteristic = step.characteristic;
+        final String key = notifyKey(characteristic);
+        final CountDownLatch latch = new CountDownLatch(1);
+        batchNotifyPending.put(key, latch);
+
+        final BluetoothCommandStatus status = executeSetNotify(nativeCharacteristic, characteristic, step.enable, Objects.requireNonNull(step.notifyType));
+        if (status == null) {
+            // Wait for the Notifying signal, handleBatchNotifyingSignal will do the callback
+            try {
+                if (latch.await(batchNotifyTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return COMMAND_SUCCESS;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            // The change may still succeed, so its callback is left to the Notifying signal
+            logger.warn(String.format("timeout waiting for notification state of characteristic <%s>", characteristic.getUuid()));
+            return BLUEZ_OPERATION_IN_PROGRESS;
+        }
+
+        batchNotifyPending.remove(key, latch);
+        if (peripheralCallback != null) {
+            callBackHandler.post(() -> peripheralCallback.onNotificationStateUpdate(BluetoothPeripheral.this, characteristic, status));
+        }
+        return status;
+    }
+
+    /**
+     * Handle a Notifying signal that belongs to a batch. A signal for a change that a batch made, also after the batch
+     * stopped waiting for it, is reported but doesn't complete a command. Other signals are dropped while a batch executes,
+     * because they don't belong to the command that is executing.
+     *
+     * @return true if the signal was handled
+     */
+    private boolean handleBatchNotifyingSignal(@NotNull final BluetoothGattCharacteristic characteristic) {
+        final CountDownLatch latch = batchNotifyPending.remove(notifyKey(characteristic));
+        if (latch != null) {
+            if (peripheralCallback != null) {
+                callBackHandler.post(() -> peripheralCallback.onNotificationStateUpdate(BluetoothPeripheral.this, characteristic, COMMAND_SUCCESS));
+            }
+            latch.countDown();
+            return true;
+        }
+
+        if (batchExecuting) {
+            logger.warn(String.format("ignoring notification state of characteristic <%s> while a batch executes", characteristic.getUuid()));
+            return true;
+        }
+        return false;
+    }
+
+    private static @NotNull String notifyKey(@NotNull BluetoothGattCharacteristic characteristic) {
+        return characteristic.service.getUuid() + "/" + characteristic.getUuid();
+    }
+
+    /**
+     * Read a characteristic. The value itself will come in through a PropertiesChanged signal.
+     *
+     * @return the status of the read
+     */
+    private @NotNull BluetoothCommandStatus executeRead(@NotNull final BluezGattCharacteristic nativeCharacteristic) {
+        boolean callSucceeded = false;
+        try {
+            logger.info("reading characteristic <{}>", nativeCharacteristic.getUuid());
+            nativeCharacteristic.readValue(new HashMap<>());
+            callSucceeded = true;
+            return COMMAND_SUCCESS;
+        } catch (BluezInProgressException e) {
+            return BLUEZ_OPERATION_IN_PROGRESS;
+        } catch (BluezInvalidOffsetException e) {
+            return INVALID_OFFSET;
+        } catch (BluezFailedException e) {
+            return BLUEZ_OPERATION_FAILED;
+        } catch (BluezNotPermittedException e) {
+            return READ_NOT_PERMITTED;
+        } catch (BluezNotAuthorizedException e) {
+            return INSUFFICIENT_AUTHENTICATION;
+        } catch (BluezNotSupportedException e) {
+            return REQUEST_NOT_SUPPORTED;
+        } catch (DBusExecutionException e) {
+            logger.error(e.toString());
+            return DBUS_EXECUTION_EXCEPTION;
+        } catch (Exception e) {
+            logger.error(e.toString());
+            return BLUEZ_OPERATION_FAILED;
+        } finally {
+            metrics.recordDbusCall(callSucceeded);
+        }
+    }
+
+    /**
+     * Write a value to a characteristic.
+     *
+     * <p>Since there is no callback nor characteristic update event for when a write is completed, the write is done when WriteValue returns
+     *
+     * @return the status of the write
+     */
+    private @NotNull BluetoothCommandStatus executeWrite(@NotNull final BluezGattCharacteristic nativeCharacteristic, @NotNull final byte[] bytesToWrite, @NotNull final WriteType writeType) {
+        boolean callSucceeded = false;
+        try {
+            // An acquired write socket locks WriteValue, so release it first
+            releaseWriteChannel(nativeCharacteristic);
+
+            // Perform the write
+            if (logger.isInfoEnabled()) {
+                logger.info("writing {} <{}> to characteristic <{}>", writeType, bytes2String(bytesToWrite), nativeCharacteristic.getUuid());
+            }
+            HashMap<String, Object> options = new HashMap<>();
+            options.put("type", writeType == WriteType.withResponse ? "request" : "command");
+            nativeCharacteristic.writeValue(bytesToWrite, options);
+            callSucceeded = true;
+            return COMMAND_SUCCESS;
+        } catch (BluezInProgressException e) {
+            return BLUEZ_OPERATION_IN_PROGRESS;
+        } catch (BluezNotPermittedException e) {
+            return WRITE_NOT_PERMITTED;
+        } catch (BluezNotAuthorizedException e) {
+            return INSUFFICIENT_AUTHORIZATION;
+        } catch (DBusExecutionException e) {
+            return DBUS_EXECUTION_EXCEPTION;
+        } catch (BluezNotSupportedException e) {
+            return REQUEST_NOT_SUPPORTED;
+        } catch (BluezFailedException e) {
+            return BLUEZ_OPERATION_FAILED;
+        } catch (BluezInvalidValueLengthException e) {
+            return INVALID_ATTRIBUTE_VALUE_LENGTH;
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            return BLUEZ_OPERATION_FAILED;
+        } finally {
+            metrics.recordDbusCall(callSucceeded);
+        }
+    }
+
+    /**
+     * Turn notifications on or off for a characteristic.
+     *
+     * @return the status if the notification state was updated immediately, or null if the update will come in through a Notifying signal
+     */
+    private @Nullable BluetoothCommandStatus executeSetNotify(@NotNull final BluezGattCharacteristic nativeCharacteristic, @NotNull final BluetoothGattCharacteristic characteristic, final boolean enable, @NotNull final NotifyType notifyType) {
+        // Only StartNotify and StopNotify are counted as D-Bus calls
+        boolean callStarted = false;
+        boolean callSucceeded = false;
+        try {
+            if (enable) {
+                logger.info(String.format("setNotify for characteristic <%s>", nativeCharacteristic.getUuid()));
+                if (notifyChannels.containsKey(nativeCharacteristic.getDbusPath())) {
+                    // Already acquired, ignoring command
+                    logger.info("already notifying via acquired socket");
+                    return COMMAND_SUCCESS;
+                }
+
+                boolean isNotifying = nativeCharacteristic.isNotifying();
+                if (isNotifying) {
+                    // Already notifying, ignoring command
+                    logger.info("already notifying");
+                    return COMMAND_SUCCESS;
+                } else if (notifyType == NotifyType.acquired && acquireNotify(nativeCharacteristic, characteristic)) {
+                    // There is no Notifying signal when notify is acquired, so we are done
+                    return COMMAND_SUCCESS;
+                } else {
+                    callStarted = true;
+                    nativeCharacteristic.startNotify();
+                    callSucceeded = true;
+                    return null;
+                }
+            } else {
+                final NotifyChannel notifyChannel = notifyChannels.remove(nativeCharacteristic.getDbusPath());
+                if (notifyChannel != null) {
+                    logger.info(String.format("releasing acquired notify for characteristic <%s>", nativeCharacteristic.getUuid()));
+                    notifyChannel.close();
+                    return COMMAND_SUCCESS;
+                } else {
+                    logger.info(String.format("stopNotify for characteristic <%s>", nativeCharacteristic.getUuid()));
+                    callStarted = true;
+                    nativeCharacteristic.stopNotify();
+                    callSucceeded = true;
+                    return null;
+                }
+            }
+        } catch (BluezNotPermittedException  e) {
+            return WRITE_NOT_PERMITTED;
+        } catch (BluezFailedException e) {
+            return BLUEZ_OPERATION_FAILED;
+        } catch (BluezInProgressException e) {
+            return BLUEZ_OPERATION_IN_PROGRESS;
+        } catch (BluezNotSupportedException e) {
+            return REQUEST_NOT_SUPPORTED;
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            return BLUEZ_OPERATION_FAILED;
+        } finally {
+            if (callStarted) metrics.recordDbusCall(callSucceeded);
+        }
+    }
+
+    /**
+     * Try to acquire the notify socket of a characteristic and start reading notifications from it
+     *
+     * @return true if the socket was acquired, false if StartNotify should be used instead
+     */
+    private boolean acquireNotify(@NotNull final BluezGattCharacteristic nativeCharacteristic, @NotNull final BluetoothGattCharacteristic characteristic) {
+        final AcquiredFileDescriptor acquiredFileDescriptor;
+        try {
+            acquiredFileDescriptor = nativeCharacteristic.acquireNotify();
+        } catch (BluezNotSupportedException | BluezFailedException | DBusExecutionException e) {
+            logger.info(String.format("acquire notify not available for characteristic <%s>, falling back to StartNotify (%s)", nativeCharacteristic.getUuid(), e.getMessage()));
+            return false;
+        }
+
+        final String path = nativeCharacteristic.getDbusPath();
+        final String threadName = String.format("Notify-%s-%s", deviceAddress, characteristic.getUuid());
+        final NotifyChannel notifyChannel = new NotifyChannel(acquiredFileDescriptor, threadName, new NotifyChannel.Listener() {
+            @Override
+            public void onNotification(@NotNull ByteBuffer value) {
+                deliverCharacteristicValue(value, null, characteristic, System.nanoTime());
+            }
+
+            @Override
+            public void onClosed() {
+                if (notifyChannels.remove(path) != null) {
+                    logger.info(String.format("acquired notify socket for characteristic <%s> was closed", characteristic.getUuid()));
+                }
+            }
+        });
+        notifyChannels.put(path, notifyChannel);
+        notifyChannel.start();
+        updateMtu(acquiredFileDescriptor.getMtu());
+        logger.info(String.format("acquired notify for characteristic <%s> with mtu %d", characteristic.getUuid(), acquiredFileDescriptor.getMtu()));
+        return true;
+    }
+
+    /**
+     * Get the acquired write socket of a characteristic, acquiring it if that wasn't done before
+     *
+     * @return the write channel or null if Bluez refused to acquire the characteristic
+     */
+    private @Nullable WriteChannel getWriteChannel(@NotNull final BluezGattCharacteristic nativeCharacteristic) {
+        final WriteChannel cachedWriteChannel = writeChannels.get(nativeCharacteristic.getDbusPath());
+        if (cachedWriteChannel != null && !cachedWriteChannel.isClosed()) {
+            return cachedWriteChannel;
+        }
+
+        try {
+            final AcquiredFileDescriptor acquiredFileDescriptor = nativeCharacteristic.acquireWrite();
+            final WriteChannel writeChannel = new WriteChannel(acquiredFileDescriptor);
+            writeChannels.put(nativeCharacteristic.getDbusPath(), writeChannel);
+            updateMtu(acquiredFileDescriptor.getMtu());
+            logger.info(String.format("acquired write for characteristic <%s> with mtu %d", nativeCharacteristic.getUuid(), acquiredFileDescriptor.getMtu()));
+            return writeChannel;
+        } catch (BluezNotSupportedException | BluezFailedException | DBusExecutionException e) {
+            logger.error(String.format("acquire write failed for characteristic <%s>: %s", nativeCharacteristic.getUuid(), e.getMessage()));
+            return null;
+        }
+    }
+
+    private void releaseWriteChannel(@NotNull final BluezGattCharacteristic nativeCharacteristic) {
+        final WriteChannel writeChannel = writeChannels.remove(nativeCharacteristic.getDbusPath());
+        if (writeChannel != null) {
+            writeChannel.close();
+        }
+    }
+
+    private void closeWriteChannels() {
+        for (WriteChannel writeChannel : writeChannels.values()) {
+            writeChannel.close();
+        }
+        writeChannels.clear();
+    }
+
+    /**
+     * Offer a new value to the callback as a buffer first, and only copy it into a byte array when the callback didn't handle it.
+     *
+     * @param value the read-only value, only valid during this call
+     * @param valueBytes the value as a byte array if it already is available, otherwise null
+     * @param receivedNanos the {@link System#nanoTime()} at which the value was received
+     */
+    private void deliverCharacteristicValue(@NotNull final ByteBuffer value, @Nullable final byte[] valueBytes, @NotNull final BluetoothGattCharacteristic characteristic, final long receivedNanos) {
+        metrics.recordNotification();
+        final BluetoothPeripheralCallback callback = peripheralCallback;
+        if (callback == null) return;
+
+        final int position = value.position();
+        final int limit = value.limit();
+        final ProfileRegistry profileRegistry = central.getProfileRegistry();
+        if (profileRegistry != null) {
+            try {
+                final ProfileRecord record = profileRegistry.decode(characteristic.getUuid(), value);
+                if (record != null && callback.onProfileRecord(this, record, characteristic)) return;
+            } catch (Exception e) {
+                logger.error(String.format("onProfileRecord failed for characteristic <%s>: %s", characteristic.getUuid(), e.getMessage()));
+            }
+        }
+
+        try {
+            if (callback.onCharacteristicValue(this, value, characteristic)) return;
+        } catch (Exception e) {
+            logger.error(String.format("onCharacteristicValue failed for characteristic <%s>: %s", characteristic.getUuid(), e.getMessage()));
+        }
+
+        // The callbacks may have moved the position while decoding
+        value.limit(limit).position(position);
+        final PooledValue.Pool pool = notificationPool;
+        if (pool != null) {
+            final PooledValue pooledValue = pool.copyOf(value);
+            callBackHandler.post(metrics.traceCallback(LatencyStage.NOTIFICATION, receivedNanos, () -> {
+                valueReceivedNanos = receivedNanos;
+                deliverPooledValue(callback, pooledValue, characteristic);
+            }));
+            return;
+        }
+
+        byte[] bytes = valueBytes;
+        if (bytes == null) {
+            bytes = new byte[value.remaining()];
+            value.get(bytes);
+        }
+        gattCallback.onCharacteristicChanged(bytes, characteristic, receivedNanos);
+    }
+
+    private void deliverPooledValue(@NotNull final BluetoothPeripheralCallback callback, @NotNull final PooledValue value, @NotNull final BluetoothGattCharacteristic characteristic) {
+        try {
+            if (!callback.onPooledCharacteristicValue(this, value, characteristic)) {
+                callback.onCharacteristicUpdate(this, value.toByteArray(), characteristic, COMMAND_SUCCESS);
+            }
+        } finally {
+            value.release();
+        }
+    }
+
+    private void closeNotifyChannels() {
+        for (NotifyChannel notifyChannel : notifyChannels.values()) {
+            notifyChannel.close();
+        }
+        notifyChannels.clear();
+    }
+
+    /**
+     * Deliver new characteristic values in slabs of a notification pool of this peripheral, instead of a new byte array per value.
+     *
+     * <p>When enabled, values that are not handled by {@link BluetoothPeripheralCallback#onCharacteristicValue(BluetoothPeripheral, ByteBuffer, BluetoothGattCharacteristic)}
+     * are copied into a pooled slab and passed to {@link BluetoothPeripheralCallback#onPooledCharacteristicValue(BluetoothPeripheral, PooledValue, BluetoothGattCharacteristic)}
+     * on the callback thread. Values it doesn't handle are still delivered to onCharacteristicUpdate as a byte array.
+     *
+     * <p>Only the copy of the value is saved. Posting the value to the callback thread and the {@link PooledValue} handle
+     * still allocate a fixed amount per value, so this pays off for values of more than a few dozen bytes that are read
+     * from an acquired notify socket. Values that arrive as DBus signals already come in a new array.
+     *
+     * @param enabled true to deliver pooled values, false to deliver byte arrays
+     */
+    public void setPooledNotifications(boolean enabled) {
+        if (enabled == (notificationPool != null)) return;
+        notificationPool = enabled ? new PooledValue.Pool(NOTIFICATION_POOL_SIZE) : null;
+    }
+
+    /**
+     * Check if new characteristic values are delivered in pooled slabs
+     *
+     * @return true if pooled notifications are enabled
+     */
+    public boolean isPooledNotifications() {
+        return notificationPool != null;
+    }
+
+    @NotNull
+    Handler getCallbackHandler() {
+        return callBackHandler;
+    }
+
+    /**
+     * Get the time the characteristic value that is being delivered arrived from Bluez.
+     *
+     * <p>Only valid when called from {@link BluetoothPeripheralCallback#onCharacteristicUpdate(BluetoothPeripheral, byte[], BluetoothGattCharacteristic, BluetoothCommandStatus)}
+     * or {@link BluetoothPeripheralCallback#onPooledCharacteristicValue(BluetoothPeripheral, PooledValue, BluetoothGattCharacteristic)}
+     * for a received value, so a callback can measure the latency of its notifications.
+     *
+     * @return the {@link System#nanoTime()} at which the value was received
+     */
+    public long getValueReceivedNanos() {
+        return valueReceivedNanos;
+    }
+
     /**
      * Read the RSSI for a connected peripheral
      * onReadRemoteRssi(BluetoothPeripheral, int, int) will be triggered as a result of this call.
@@ -710,7 +1546,7 @@ public final class BluetoothPeripheral {
             if (peripheralCallback != null && rssi != null) {
                 callBackHandler.post(() -> peripheralCallback.onReadRemoteRssi(BluetoothPeripheral.this, rssi, COMMAND_SUCCESS));
             }
-            completedCommand();
+            completedCommand(COMMAND_SUCCESS);
         } catch (DBusExecutionException e) {
             if (e.getMessage().equalsIgnoreCase("No such property 'RSSI'")) {
                 logger.error("rssi not available when not scanning");
@@ -747,20 +1583,28 @@ public final class BluetoothPeripheral {
     }
 
     void handleSignal(Properties.PropertiesChanged propertiesChanged) {
+        handleSignal(propertiesChanged, System.nanoTime());
+    }
+
+    void handleSignal(Properties.PropertiesChanged propertiesChanged, long receivedNanos) {
         if (signalHandler != null) {
-            signalHandler.post(() -> propertiesChangedHandler.handle(propertiesChanged));
+            signalHandler.post(() -> {
+                metrics.recordStage(LatencyStage.SIGNAL_QUEUE, System.nanoTime() - receivedNanos);
+                propertiesChangedHandler.handle(propertiesChanged, receivedNanos);
+            });
         }
     }
 
-    private final AbstractPropertiesChangedHandler propertiesChangedHandler = new AbstractPropertiesChangedHandler() {
-        @Override
-        public void handle(Properties.PropertiesChanged propertiesChanged) {
+    private final PropertiesChangedHandler propertiesChangedHandler = new PropertiesChangedHandler();
+
+    private final class PropertiesChangedHandler {
+        void handle(Properties.PropertiesChanged propertiesChanged, long receivedNanos) {
             switch (propertiesChanged.getInterfaceName()) {
                 case BLUEZ_CHARACTERISTIC_INTERFACE:
                     BluetoothGattCharacteristic bluetoothGattCharacteristic = getCharacteristicFromPath(propertiesChanged.getPath());
                     if (bluetoothGattCharacteristic == null) return;
 
-                    propertiesChanged.getPropertiesChanged().forEach((key, value) -> handlePropertyChangedForCharacteristic(bluetoothGattCharacteristic, key, value));
+                    propertiesChanged.getPropertiesChanged().forEach((key, value) -> handlePropertyChangedForCharacteristic(bluetoothGattCharacteristic, key, value, receivedNanos));
                     break;
                 case BLUEZ_DEVICE_INTERFACE:
                     propertiesChanged.getPropertiesChanged().forEach((key, value) -> handlePropertyChangeForDevice(key, value));
@@ -770,19 +1614,30 @@ public final class BluetoothPeripheral {
             }
         }
 
-        private void handlePropertyChangedForCharacteristic(BluetoothGattCharacteristic bluetoothGattCharacteristic, String propertyName, Variant<?> value) {
+        private void handlePropertyChangedForCharacteristic(BluetoothGattCharacteristic bluetoothGattCharacteristic, String propertyName, Variant<?> value, long receivedNanos) {
             switch (propertyName) {
                 case PROPERTY_NOTIFYING:
                     boolean isNotifying = (Boolean) value.getValue();
-                    logger.info(String.format("characteristic '%s' %s", bluetoothGattCharacteristic.getUuid(), isNotifying ? "is notifying" : "stopped notifying"));
-                    gattCallback.onNotificationStateUpdate(bluetoothGattCharacteristic, COMMAND_SUCCESS);
+                    logger.info("characteristic '{}' {}", bluetoothGattCharacteristic.getUuid(), isNotifying ? "is notifying" : "stopped notifying");
+                    if (!handleBatchNotifyingSignal(bluetoothGattCharacteristic)) {
+                        gattCallback.onNotificationStateUpdate(bluetoothGattCharacteristic, COMMAND_SUCCESS);
+                    }
+                    break;
+                case PROPERTY_MTU:
+                    if (value.getValue() instanceof UInt16) {
+                        updateMtu(((UInt16) value.getValue()).intValue());
+                    }
+                    break;
+                case PROPERTY_NOTIFY_ACQUIRED:
+                case PROPERTY_WRITE_ACQUIRED:
+                    logger.debug("characteristic '{}' {} is {}", bluetoothGattCharacteristic.getUuid(), propertyName, value.getValue());
                     break;
                 case PROPERTY_VALUE:
                     if (value.getType() instanceof DBusListType) {
                         if (value.getValue() instanceof byte[]) {
                             byte[] byteArray = (byte[]) value.getValue();
                             if (byteArray != null) {
-                                gattCallback.onCharacteristicChanged(byteArray, bluetoothGattCharacteristic);
+                                deliverCharacteristicValue(ByteBuffer.wrap(byteArray).asReadOnlyBuffer(), byteArray, bluetoothGattCharacteristic, receivedNanos);
                             }
                         }
                     }
@@ -811,6 +1666,7 @@ public final class BluetoothPeripheral {
                     if (value.getValue().equals(true)) {
                         // Getting connected can only be GATT_SUCCESS
                         gattCallback.onConnectionStateChanged(STATE_CONNECTED, COMMAND_SUCCESS);
+                        serviceDiscoveryStartNanos = System.nanoTime();
                         startServiceDiscoveryTimer();
                     } else {
                         logger.info(String.format("disconnected '%s' (%s)", deviceName, deviceAddress));
@@ -846,15 +1702,18 @@ public final class BluetoothPeripheral {
                     // Ignore other properties
             }
         }
-    };
+    }
 
     /**
      * The current command has been completed, move to the next command in the queue (if any)
      */
-    private void completedCommand() {
-        isRetrying = false;
-        commandQueue.poll();
-        commandQueueBusy = false;
+    private void completedCommand(@NotNull BluetoothCommandStatus status) {
+        final QueuedCommand command = commandQueue.completed();
+        if (command != null) {
+            final long latencyNanos = System.nanoTime() - commandStartNanos;
+            metrics.recordCommand(command.type, latencyNanos);
+            FlightRecorderEvents.commandCompleted(deviceAddress, command.type, command.characteristicUuid, status, latencyNanos);
+        }
         nextCommand();
     }
 
@@ -862,16 +1721,9 @@ public final class BluetoothPeripheral {
      * Retry the current command. Typically used when a read/write fails and triggers a bonding procedure
      */
     private void retryCommand() {
-        commandQueueBusy = false;
-        Runnable currentCommand = commandQueue.peek();
-        if (currentCommand != null) {
-            if (nrTries >= MAX_TRIES) {
-                // Max retries reached, give up on this one and proceed
-                logger.warn("max number of tries reached, not retrying operation anymore ");
-                commandQueue.poll();
-            } else {
-                isRetrying = true;
-            }
+        if (commandQueue.retry(MAX_TRIES) != null) {
+            // Max retries reached, gave up on this one and proceed
+            logger.warn("max number of tries reached, not retrying operation anymore ");
         }
         nextCommand();
     }
@@ -882,40 +1734,72 @@ public final class BluetoothPeripheral {
      * If the read or write fails, the next command in the queue is executed.
      */
     private void nextCommand() {
-        synchronized (this) {
-            // Check if we are still connected
-            if (state != STATE_CONNECTED) {
-                logger.info(String.format("device %s is not connected, clearing command queue", getAddress()));
-                commandQueue.clear();
-                commandQueueBusy = false;
-                return;
-            }
+        // Check if we are still connected
+        if (state != STATE_CONNECTED) {
+            logger.info(String.format("device %s is not connected, clearing command queue", getAddress()));
+            commandQueue.clear();
+            return;
+        }
 
-            // If there is still a command being executed then bail out
-            if (commandQueueBusy) {
-                return;
-            }
+        commandQueue.next();
+    }
 
-            // Execute the next command in the queue
-            final Runnable bluetoothCommand = commandQueue.peek();
-            if (bluetoothCommand != null) {
-                commandQueueBusy = true;
-                if (!isRetrying) {
-                    nrTries = 0;
+    /**
+     * Hand a command that may start over to the queue thread. Only called by the command queue, for one command at a time.
+     */
+    private void startCommand(@NotNull QueuedCommand bluetoothCommand) {
+        if (queueHandler != null) {
+            queueHandler.post(() -> {
+                try {
+                    commandStartNanos = System.nanoTime();
+                    FlightRecorderEvents.commandStarted(deviceAddress, bluetoothCommand.type, bluetoothCommand.characteristicUuid);
+                    bluetoothCommand.run();
+                } catch (Exception ex) {
+                    logger.warn(String.format("ERROR: Command exception for device '%s'", getName()));
+                    ex.printStackTrace();
+                    completedCommand(BLUEZ_OPERATION_FAILED);
                 }
+            });
+        }
+    }
 
-                if (queueHandler != null) {
-                    queueHandler.post(() -> {
-                        try {
-                            bluetoothCommand.run();
-                        } catch (Exception ex) {
-                            logger.warn(String.format("ERROR: Command exception for device '%s'", getName()));
-                            ex.printStackTrace();
-                            completedCommand();
-                        }
-                    });
-                }
-            }
+    /**
+     * Get the number of commands in the queue, including the one that is executing
+     */
+    int getQueueDepth() {
+        return commandQueue.size();
+    }
+
+    private boolean enqueue(@NotNull QueuedCommand command) {
+        final boolean result = commandQueue.add(command);
+        if (result) {
+            FlightRecorderEvents.commandEnqueued(deviceAddress, command.type, command.characteristicUuid, commandQueue::size);
+        }
+        return result;
+    }
+
+    /**
+     * A command in the queue, with its type and characteristic so it can be recorded
+     */
+    private static final class QueuedCommand implements Runnable {
+        @NotNull
+        final CommandType type;
+
+        @Nullable
+        final UUID characteristicUuid;
+
+        @NotNull
+        private final Runnable command;
+
+        QueuedCommand(@NotNull CommandType type, @Nullable UUID characteristicUuid, @NotNull Runnable command) {
+            this.type = type;
+            this.characteristicUuid = characteristicUuid;
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            command.run();
         }
     }
 
@@ -1002,6 +1886,27 @@ public final class BluetoothPeripheral {
         deviceName = name;
     }
 
+    /**
+     * Get the MTU that was negotiated with the peripheral.
+     *
+     * <p>The MTU is taken from the MTU property of the characteristics, or from the socket acquired for notifications or bulk writes.
+     * As long as it is not known, for example with older versions of Bluez, the default MTU of 23 is returned.
+     * The maximum size of a value that can be written with a single write-command is MTU-3.
+     *
+     * @return the MTU
+     */
+    public int getMtu() {
+        final int currentMtu = mtu;
+        return currentMtu > 0 ? currentMtu : DEFAULT_MTU;
+    }
+
+    private void updateMtu(int newMtu) {
+        if (newMtu > 0 && newMtu != mtu) {
+            logger.info(String.format("mtu for '%s' is %d", deviceName, newMtu));
+            mtu = newMtu;
+        }
+    }
+
     /**
      * Get the mac address of the bluetooth peripheral.
      *
@@ -1069,6 +1974,9 @@ public final class BluetoothPeripheral {
             logger.error(ERROR_NATIVE_CHARACTERISTIC_IS_NULL);
             return false;
         }
+        if (notifyChannels.containsKey(nativeCharacteristic.getDbusPath())) {
+            return true;
+        }
         return nativeCharacteristic.isNotifying();
     }
 
@@ -1090,7 +1998,7 @@ public final class BluetoothPeripheral {
         try {
             if (state == STATE_DISCONNECTED) {
                 BluezSignalHandler.getInstance().addPeripheral(deviceAddress, this);
-                queueHandler = new Handler(deviceAddress + "-queue");
+                queueHandler = VirtualThreads.newHandler(deviceAddress + "-queue");
             }
 
             if (device.isPaired()) {
@@ -1101,6 +2009,7 @@ public final class BluetoothPeripheral {
                 manualBonding = true;
                 logger.info(String.format("pairing with '%s' (%s)", deviceName, deviceAddress));
                 connectTimestamp = System.currentTimeMillis();
+                connectStartNanos = System.nanoTime();
                 device.pair();
             }
 
@@ -1152,7 +2061,7 @@ public final class BluetoothPeripheral {
     }
 
     @Nullable
-    private BluetoothGattCharacteristic getCharacteristicFromPath(@NotNull String path) {
+    BluetoothGattCharacteristic getCharacteristicFromPath(@NotNull String path) {
         Objects.requireNonNull(path, "no valid path provided");
 
         BluezGattCharacteristic characteristic = characteristicMap.get(path);
@@ -1244,6 +2153,14 @@ public final class BluetoothPeripheral {
 
     private BluetoothGattCharacteristic mapBluezGattCharacteristicToBluetoothGattCharacteristic(BluezGattCharacteristic bluezGattCharacteristic) {
         int properties = mapFlagsToProperty(bluezGattCharacteristic.getFlags());
+
+        // The MTU is the same for all characteristics, so only ask for it once
+        if (mtu == 0) {
+            Integer characteristicMtu = bluezGattCharacteristic.getMtu();
+            if (characteristicMtu != null) {
+                updateMtu(characteristicMtu);
+            }
+        }
         BluetoothGattCharacteristic bluetoothGattCharacteristic = new BluetoothGattCharacteristic(bluezGattCharacteristic.getUuid(), properties);
 
         // Get all descriptors for this characteristic
@@ -1296,11 +2213,7 @@ public final class BluetoothPeripheral {
     @NotNull
     private static String bytes2String(@Nullable final byte[] bytes) {
         if (bytes == null) return "";
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b & 0xff));
-        }
-        return sb.toString();
+        return HexEncoder.toHex(bytes);
     }
 
     /**
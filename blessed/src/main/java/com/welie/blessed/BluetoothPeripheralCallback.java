@@ -1,8 +1,12 @@
 package com.welie.blessed;
 
 
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.profiles.ProfileRegistry;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.ByteBuffer;
+
 /**
  * Callbacks for BluetoothPeripheral operations
  */
@@ -39,6 +43,54 @@ public abstract class BluetoothPeripheralCallback {
      */
     public void onCharacteristicUpdate(@NotNull final BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull final BluetoothGattCharacteristic characteristic, @NotNull final BluetoothCommandStatus status) {}
 
+    /**
+     * Callback invoked when a new value of a characteristic is received and decoded by the profile registry of the central.
+     *
+     * <p>The record is reused for the next value of the characteristic, so it is only valid during this call. This callback is
+     * called on the thread that received the value instead of the callback thread, so it should return quickly.
+     *
+     * @param peripheral the peripheral
+     * @param record the decoded value, see {@link ProfileRegistry#standard()} for the record classes
+     * @param characteristic the characteristic for which the new value was received
+     * @return true if the value was handled, in which case the other value callbacks are not called
+     * @see BluetoothCentral#setProfileRegistry(ProfileRegistry)
+     */
+    public boolean onProfileRecord(@NotNull final BluetoothPeripheral peripheral, @NotNull final ProfileRecord record, @NotNull final BluetoothGattCharacteristic characteristic) {
+        return false;
+    }
+
+    /**
+     * Callback invoked when a new value of a characteristic is received, before it is copied into a byte array.
+     *
+     * <p>The buffer is read-only and is reused for the next value, so it is only valid during this call. It can be decoded
+     * without copying using {@link BluetoothBufferParser#local()}. This callback is called on the thread that received the value
+     * instead of the callback thread, so it should return quickly.
+     *
+     * @param peripheral the peripheral
+     * @param value the new value received, from its position to its limit
+     * @param characteristic the characteristic for which the new value was received
+     * @return true if the value was handled, in which case {@link #onCharacteristicUpdate(BluetoothPeripheral, byte[], BluetoothGattCharacteristic, BluetoothCommandStatus)} is not called
+     */
+    public boolean onCharacteristicValue(@NotNull final BluetoothPeripheral peripheral, @NotNull final ByteBuffer value, @NotNull final BluetoothGattCharacteristic characteristic) {
+        return false;
+    }
+
+    /**
+     * Callback invoked on the callback thread when a new value of a characteristic is received and pooled notifications are enabled.
+     *
+     * <p>The value is in a slab of the notification pool of the peripheral and is released when this callback returns. Call
+     * {@link PooledValue#hold()} to keep it longer, and {@link PooledValue#release()} on the value it returns when done with it.
+     *
+     * @param peripheral the peripheral
+     * @param value the new value received
+     * @param characteristic the characteristic for which the new value was received
+     * @return true if the value was handled, in which case {@link #onCharacteristicUpdate(BluetoothPeripheral, byte[], BluetoothGattCharacteristic, BluetoothCommandStatus)} is not called
+     * @see BluetoothPeripheral#setPooledNotifications(boolean)
+     */
+    public boolean onPooledCharacteristicValue(@NotNull final BluetoothPeripheral peripheral, @NotNull final PooledValue value, @NotNull final BluetoothGattCharacteristic characteristic) {
+        return false;
+    }
+
     /**
      * Callback indicating the result of a characteristic write operation.
      *
@@ -51,6 +103,32 @@ public abstract class BluetoothPeripheralCallback {
      */
     public void onCharacteristicWrite(@NotNull final BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull final BluetoothGattCharacteristic characteristic, @NotNull final BluetoothCommandStatus status) {}
 
+    /**
+     * Callback indicating the result of a stream, bulk or chunked write operation.
+     *
+     * <p>The statistics contain the number of bytes and packets that were written and the achieved throughput.
+     *
+     * @param peripheral the peripheral
+     * @param characteristic the characteristic written to
+     * @param statistics the statistics of the transfer
+     * @param status GATT status code
+     */
+    public void onStreamWriteCompleted(@NotNull final BluetoothPeripheral peripheral, @NotNull final BluetoothGattCharacteristic characteristic, @NotNull final TransferStatistics statistics, @NotNull final BluetoothCommandStatus status) {}
+
+    /**
+     * Callback invoked when all commands of a batch have been executed.
+     *
+     * <p>The callbacks of the individual commands in the batch are invoked before this callback.
+     *
+     * <p>When the batch stopped waiting for a notification change, the status is BLUEZ_OPERATION_IN_PROGRESS and
+     * {@link #onNotificationStateUpdate(BluetoothPeripheral, BluetoothGattCharacteristic, BluetoothCommandStatus)} is
+     * invoked when the change completes.
+     *
+     * @param peripheral the peripheral
+     * @param status COMMAND_SUCCESS if all commands succeeded, otherwise the status of the first command that failed
+     */
+    public void onBatchCompleted(@NotNull final BluetoothPeripheral peripheral, @NotNull final BluetoothCommandStatus status) {}
+
     /**
      * Callback invoked as the result of a descriptor read operation
      *
@@ -0,0 +1,209 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Decodes a stream of packed samples that arrives in consecutive notifications.
+ * <p>
+ * A sample can be split over two notifications, for example when 3 byte samples are sent in 20 byte notifications.
+ * The bytes of an incomplete sample at the end of a notification are kept until the next notification arrives.
+ * Decoding does not allocate. A stream is not threadsafe, so it should be fed from the thread that receives the notifications.
+ */
+public final class BluetoothSampleStream {
+
+    public enum SampleFormat {
+        SINT16(2),
+        SINT24(3),
+        SINT32(4),
+        SFLOAT(2);
+
+        final int size;
+
+        SampleFormat(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Get the number of bytes of a sample
+         *
+         * @return the size in bytes
+         */
+        public int getSize() {
+            return size;
+        }
+    }
+
+    @NotNull
+    private final SampleFormat format;
+
+    @NotNull
+    private final ByteOrder byteOrder;
+
+    private final BluetoothBufferParser parser = new BluetoothBufferParser();
+    private final BluetoothBufferParser pendingParser = new BluetoothBufferParser();
+    private final byte[] pending = new byte[4];
+    private int pendingLength = 0;
+
+    /**
+     * Create a stream of little endian samples
+     *
+     * @param format the format of the samples
+     */
+    public BluetoothSampleStream(@NotNull SampleFormat format) {
+        this(format, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Create a stream of samples
+     *
+     * @param format    the format of the samples
+     * @param byteOrder the byte order of the samples
+     */
+    public BluetoothSampleStream(@NotNull SampleFormat format, @NotNull ByteOrder byteOrder) {
+        this.format = Objects.requireNonNull(format, "no valid format provided");
+        this.byteOrder = Objects.requireNonNull(byteOrder, "no valid byte order provided");
+    }
+
+    /**
+     * Get the maximum number of samples the next value can produce, which is the size the destination needs
+     *
+     * @param valueLength the length of the next value
+     * @return the maximum number of samples
+     */
+    public int maxSamples(int valueLength) {
+        return (pendingLength + valueLength) / format.size;
+    }
+
+    /**
+     * Get the number of bytes of an incomplete sample that are waiting for the next value
+     *
+     * @return the number of pending bytes
+     */
+    public int getPendingLength() {
+        return pendingLength;
+    }
+
+    /**
+     * Drop the bytes of an incomplete sample, for example after a reconnect
+     */
+    public void reset() {
+        pendingLength = 0;
+    }
+
+    /**
+     * Decode the samples of a SINT16 stream.
+     *
+     * @param value       the next value, from its position to its limit. Its position is not changed.
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @return the number of samples written
+     * @throws IndexOutOfBoundsException if the destination is too small, see {@link #maxSamples(int)}
+     */
+    public int decode(@NotNull ByteBuffer value, @NotNull short[] destination, int offset) {
+        checkFormat(SampleFormat.SINT16);
+        int written = 0;
+        if (completePending(value)) {
+            pendingParser.getSInt16Samples(destination, offset, 1);
+            written++;
+        }
+        final int count = parser.remaining() / format.size;
+        parser.getSInt16Samples(destination, offset + written, count);
+        keepRemainder();
+        return written + count;
+    }
+
+    /**
+     * Decode the samples of a SINT24 or SINT32 stream.
+     *
+     * @param value       the next value, from its position to its limit. Its position is not changed.
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @return the number of samples written
+     * @throws IndexOutOfBoundsException if the destination is too small, see {@link #maxSamples(int)}
+     */
+    public int decode(@NotNull ByteBuffer value, @NotNull int[] destination, int offset) {
+        if (format != SampleFormat.SINT24) {
+            checkFormat(SampleFormat.SINT32);
+        }
+        int written = 0;
+        if (completePending(value)) {
+            decodeInts(pendingParser, destination, offset, 1);
+            written++;
+        }
+        final int count = parser.remaining() / format.size;
+        decodeInts(parser, destination, offset + written, count);
+        keepRemainder();
+        return written + count;
+    }
+
+    /**
+     * Decode the samples of a SFLOAT stream.
+     *
+     * @param value       the next value, from its position to its limit. Its position is not changed.
+     * @param destination the array to write the samples to
+     * @param offset      the index in the destination of the first sample
+     * @return the number of samples written
+     * @throws IndexOutOfBoundsException if the destination is too small, see {@link #maxSamples(int)}
+     */
+    public int decode(@NotNull ByteBuffer value, @NotNull float[] destination, int offset) {
+        checkFormat(SampleFormat.SFLOAT);
+        int written = 0;
+        if (completePending(value)) {
+            pendingParser.getSFloatSamples(destination, offset, 1);
+            written++;
+        }
+        final int count = parser.remaining() / format.size;
+        parser.getSFloatSamples(destination, offset + written, count);
+        keepRemainder();
+        return written + count;
+    }
+
+    private void decodeInts(@NotNull BluetoothBufferParser source, @NotNull int[] destination, int offset, int count) {
+        if (format == SampleFormat.SINT24) {
+            source.getSInt24Samples(destination, offset, count);
+        } else {
+            source.getSInt32Samples(destination, offset, count);
+        }
+    }
+
+    /**
+     * Wrap the value and move bytes from it to the pending sample.
+     *
+     * @return true if the pending sample is complete and can be read with the pending parser
+     */
+    private boolean completePending(@NotNull ByteBuffer value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        parser.wrap(value).order(byteOrder);
+        if (pendingLength == 0) return false;
+
+        final int needed = format.size - pendingLength;
+        if (parser.remaining() < needed) {
+            // Still not complete, keep everything for the next value
+            return false;
+        }
+
+        for (int i = 0; i < needed; i++) {
+            pending[pendingLength++] = (byte) parser.getUInt8();
+        }
+        pendingParser.wrap(pending, 0, format.size).order(byteOrder);
+        pendingLength = 0;
+        return true;
+    }
+
+    private void keepRemainder() {
+        while (parser.remaining() > 0) {
+            pending[pendingLength++] = (byte) parser.getUInt8();
+        }
+        parser.clear();
+    }
+
+    private void checkFormat(@NotNull SampleFormat expected) {
+        if (format != expected) {
+            throw new IllegalArgumentException(String.format("stream has format %s, not %s", format, expected));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Fast conversion of UUID strings, with a short path for UUIDs on the Bluetooth base UUID.
+ * <p>
+ * Most UUIDs reported by Bluez are 16-bit SIG UUIDs like 0000180d-0000-1000-8000-00805f9b34fb. Those are recognized
+ * without parsing the base part, and the resulting UUID instances are kept in a small cache so the same instance is
+ * returned for every advertisement and GATT object.
+ */
+public final class BluetoothUUID {
+
+    /**
+     * The least significant bits of the Bluetooth base UUID 00000000-0000-1000-8000-00805f9b34fb
+     */
+    private static final long BASE_UUID_LSB = 0x800000805F9B34FBL;
+    private static final long BASE_UUID_MSB = 0x0000000000001000L;
+    private static final String BASE_UUID_SUFFIX = "-0000-1000-8000-00805f9b34fb";
+
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    // Direct mapped on the low bits of the short value, so the 0x18xx services and 0x2Axx characteristics don't collide
+    private static final int CACHE_SIZE = 1024;
+    private static final UUID[] cache = new UUID[CACHE_SIZE];
+
+    private BluetoothUUID() {
+    }
+
+    /**
+     * Convert a string to a UUID. Accepts the 36 character form and the 4 or 8 hex digit short forms of UUIDs on the
+     * Bluetooth base UUID. Other forms are passed to {@link UUID#fromString(String)}.
+     *
+     * @param value the UUID string, case insensitive
+     * @return the UUID
+     * @throws IllegalArgumentException if the string is not a valid UUID
+     */
+    public static @NotNull UUID fromString(@NotNull String value) {
+        Objects.requireNonNull(value, "no valid UUID string provided");
+
+        final int length = value.length();
+        if (length == 36 && value.charAt(8) == '-' && value.charAt(13) == '-' && value.charAt(18) == '-' && value.charAt(23) == '-') {
+            final long shortValue = parseHex(value, 0, 8);
+            // Bluez reports lower case, so only fall back to the case insensitive compare when that fails
+            if (shortValue >= 0 && (value.startsWith(BASE_UUID_SUFFIX, 8) || value.regionMatches(true, 8, BASE_UUID_SUFFIX, 0, BASE_UUID_SUFFIX.length()))) {
+                return fromShortValue(shortValue);
+            }
+
+            final long part2 = parseHex(value, 9, 13);
+            final long part3 = parseHex(value, 14, 18);
+            final long part4 = parseHex(value, 19, 23);
+            final long part5 = parseHex(value, 24, 36);
+            if (shortValue >= 0 && part2 >= 0 && part3 >= 0 && part4 >= 0 && part5 >= 0) {
+                return new UUID((shortValue << 32) | (part2 << 16) | part3, (part4 << 48) | part5);
+            }
+        } else if (length == 4 || length == 8) {
+            final long shortValue = parseHex(value, 0, length);
+            if (shortValue >= 0) {
+                return fromShortValue(shortValue);
+            }
+        } else {
+            return UUID.fromString(value);
+        }
+        throw new IllegalArgumentException(String.format("invalid UUID string: %s", value));
+    }
+
+    /**
+     * Get the UUID of a 16-bit or 32-bit short value on the Bluetooth base UUID
+     *
+     * @param shortValue the short value, for example 0x180D
+     * @return the UUID, for example 0000180d-0000-1000-8000-00805f9b34fb
+     * @throws IllegalArgumentException if the value does not fit in 32 bits
+     */
+    public static @NotNull UUID fromShortValue(long shortValue) {
+        if (shortValue < 0 || shortValue > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException(String.format("short value 0x%x does not fit in 32 bits", shortValue));
+        }
+
+        final int index = (int) shortValue & (CACHE_SIZE - 1);
+        final UUID cached = cache[index];
+        if (cached != null && (cached.getMostSignificantBits() >>> 32) == shortValue) {
+            return cached;
+        }
+
+        // UUID only has final fields, so publishing it through the array without synchronization is safe
+        final UUID uuid = new UUID((shortValue << 32) | BASE_UUID_MSB, BASE_UUID_LSB);
+        cache[index] = uuid;
+        return uuid;
+    }
+
+    /**
+     * Check if a UUID is on the Bluetooth base UUID
+     *
+     * @param uuid the UUID
+     * @return true if the UUID has a 16-bit or 32-bit short form
+     */
+    public static boolean isShortUUID(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "no valid UUID provided");
+        return uuid.getLeastSignificantBits() == BASE_UUID_LSB && (uuid.getMostSignificantBits() & 0xFFFFFFFFL) == BASE_UUID_MSB;
+    }
+
+    /**
+     * Get a compact key for a 16-bit SIG UUID, for use in filters and indexes
+     *
+     * @param uuid the UUID
+     * @return the 16-bit short value, or -1 if the UUID is not a 16-bit UUID on the Bluetooth base UUID
+     */
+    public static int toKey(@NotNull UUID uuid) {
+        if (!isShortUUID(uuid)) return -1;
+        final long shortValue = uuid.getMostSignificantBits() >>> 32;
+        return shortValue <= 0xFFFF ? (int) shortValue : -1;
+    }
+
+    /**
+     * Parse hex digits.
+     *
+     * @return the value or -1 if a character is not a hex digit
+     */
+    private static long parseHex(@NotNull String value, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            final char c = value.charAt(i);
+            final int digit = c < 128 ? HEX_VALUES[c] : -1;
+            if (digit < 0) return -1;
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
+}
@@ -18,9 +18,21 @@ class BluezAdapterProvider {
     public final @Nullable BluezAdapter adapter;
 
     public BluezAdapterProvider() {
+        this(null);
+    }
+
+    /**
+     * Use the Bluez on another bus than the system bus, for example a fake Bluez on a private dbus-daemon
+     * @param busAddress the address of the bus, like unix:path=/tmp/bus, or null for the system bus
+     */
+    public BluezAdapterProvider(@Nullable String busAddress) {
         DBusConnection tempConnection = null;
         try {
-            tempConnection = DBusConnection.newConnection(DBusConnection.DBusBusType.SYSTEM);
+            if (busAddress == null) {
+                tempConnection = DBusConnection.newConnection(DBusConnection.DBusBusType.SYSTEM);
+            } else {
+                tempConnection = DBusConnection.getConnection(busAddress, true, false);
+            }
 
             // Make sure the thread pool is 1, so that we are sure that message arrive in the order they were sent
             tempConnection.changeThreadCount((byte) 1);
@@ -29,7 +41,7 @@ class BluezAdapterProvider {
         }
         dBusConnection = tempConnection;
         this.adapter = chooseBluezAdapter(DbusHelper.findBluezAdapters(dBusConnection));
-        BluezSignalHandler.createInstance(dBusConnection);
+        BluezSignalHandler.createInstance(dBusConnection, busAddress);
     }
 
     /**
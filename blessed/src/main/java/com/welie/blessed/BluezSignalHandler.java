@@ -4,9 +4,11 @@ import org.freedesktop.dbus.connections.impl.DBusConnection;
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.handlers.AbstractInterfacesAddedHandler;
 import org.freedesktop.dbus.handlers.AbstractPropertiesChangedHandler;
+import org.freedesktop.dbus.interfaces.Local;
 import org.freedesktop.dbus.interfaces.ObjectManager;
 import org.freedesktop.dbus.interfaces.Properties;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,18 +24,38 @@ class BluezSignalHandler {
     private static final String TAG = BluezSignalHandler.class.getSimpleName();
     private static final Logger logger = LoggerFactory.getLogger(TAG);
 
+    private static final String SYSTEM_BUS = "system";
+
     private static BluezSignalHandler instance = null;
-    private DBusConnection dbusConnection;
+
+    // The connection the handlers are registered on, per bus address. Guarded by the class lock.
+    private final Map<String, DBusConnection> busConnections = new HashMap<>();
 
     private final Map<String, BluetoothPeripheral> peripheralsMap = new ConcurrentHashMap<>();
     private final List<BluetoothCentral> centralList = new ArrayList<>();
+    private volatile @Nullable SignalRecorder recorder = null;
 
     static synchronized BluezSignalHandler createInstance(@NotNull DBusConnection dbusConnection) {
+        return createInstance(dbusConnection, null);
+    }
+
+    /**
+     * Create the signal handler, or register it on a connection to another bus
+     * <p>
+     * Every connection to a bus receives the same signals, so the handlers are registered on one connection per bus.
+     * They move to a new connection when the previous one to that bus was disconnected.
+     *
+     * @param dbusConnection the connection
+     * @param busAddress     the address of the bus, like a private dbus-daemon, or null for the system bus
+     * @return the signal handler
+     */
+    static synchronized BluezSignalHandler createInstance(@NotNull DBusConnection dbusConnection, @Nullable String busAddress) {
         Objects.requireNonNull(dbusConnection, "no valid dbusconnection provided");
 
         if (instance == null) {
-            instance = new BluezSignalHandler(dbusConnection);
+            instance = new BluezSignalHandler();
         }
+        instance.registerHandlers(busAddress != null ? busAddress : SYSTEM_BUS, dbusConnection);
         return instance;
     }
 
@@ -47,6 +69,19 @@ class BluezSignalHandler {
     protected final AbstractPropertiesChangedHandler signalHandler = new AbstractPropertiesChangedHandler() {
         @Override
         public void handle(final Properties.PropertiesChanged propertiesChanged) {
+            final long receivedNanos = System.nanoTime();
+            final SignalRecorder signalRecorder = recorder;
+            if (signalRecorder != null) signalRecorder.record(propertiesChanged);
+
+            final Object event = FlightRecorderEvents.signalDispatchStarted();
+            try {
+                dispatch(propertiesChanged, receivedNanos);
+            } finally {
+                FlightRecorderEvents.signalDispatched(event, "PropertiesChanged", propertiesChanged.getPath(), propertiesChanged.getInterfaceName());
+            }
+        }
+
+        private void dispatch(final Properties.PropertiesChanged propertiesChanged, final long receivedNanos) {
             // Make sure the propertiesChanged is not empty. Note that we also get called because of propertiesRemoved.
             if (propertiesChanged.getPropertiesChanged().isEmpty()) return;
 
@@ -54,7 +89,7 @@ class BluezSignalHandler {
             String interfaceName = propertiesChanged.getInterfaceName();
             if (interfaceName.equals(BLUEZ_DEVICE_INTERFACE) || interfaceName.equals(BLUEZ_ADAPTER_INTERFACE)) {
                 for (BluetoothCentral central : centralList) {
-                    central.handleSignal(propertiesChanged);
+                    central.handleSignal(propertiesChanged, receivedNanos);
                 }
             }
 
@@ -67,7 +102,7 @@ class BluezSignalHandler {
                 final Set<String> peripherals = peripheralsMap.keySet();
                 for (final String peripheralAddress : peripherals) {
                     if (path.contains(peripheralAddress)) {
-                        peripheralsMap.get(peripheralAddress).handleSignal(propertiesChanged);
+                        peripheralsMap.get(peripheralAddress).handleSignal(propertiesChanged, receivedNanos);
                     }
                 }
             }
@@ -77,35 +112,64 @@ class BluezSignalHandler {
     protected final AbstractInterfacesAddedHandler interfacesAddedHandler = new AbstractInterfacesAddedHandler() {
         @Override
         public void handle(final ObjectManager.InterfacesAdded interfacesAdded) {
+            final long receivedNanos = System.nanoTime();
+            final SignalRecorder signalRecorder = recorder;
+            if (signalRecorder != null) signalRecorder.record(interfacesAdded);
+
+            final Object event = FlightRecorderEvents.signalDispatchStarted();
             final String path = interfacesAdded.getPath();
-            interfacesAdded.getInterfaces().forEach((key, value) -> {
-                if (key.equalsIgnoreCase(BLUEZ_DEVICE_INTERFACE)) {
-                    for (BluetoothCentral central : centralList) {
-                        central.handleInterfaceAddedForDevice(path, value);
+            try {
+                interfacesAdded.getInterfaces().forEach((key, value) -> {
+                    if (key.equalsIgnoreCase(BLUEZ_DEVICE_INTERFACE)) {
+                        for (BluetoothCentral central : centralList) {
+                            central.handleInterfaceAddedForDevice(path, value, receivedNanos);
+                        }
                     }
-                }
-            });
+                });
+            } finally {
+                FlightRecorderEvents.signalDispatched(event, "InterfacesAdded", path, BLUEZ_DEVICE_INTERFACE);
+            }
         }
     };
 
-    private BluezSignalHandler(@NotNull DBusConnection dBusConnection) {
-        Objects.requireNonNull(dBusConnection, "no valid dbusconnection provided");
+    private BluezSignalHandler() {
+    }
+
+    private void registerHandlers(@NotNull String bus, @NotNull DBusConnection dbusConnection) {
+        final DBusConnection registered = busConnections.get(bus);
+        if (registered == dbusConnection || (registered != null && registered.isConnected())) return;
 
         try {
-            this.dbusConnection = dBusConnection;
-            registerPropertiesChangedHandler(signalHandler);
-            registerInterfacesAddedHandler(interfacesAddedHandler);
+            busConnections.put(bus, dbusConnection);
+            registerPropertiesChangedHandler(dbusConnection, signalHandler);
+            registerInterfacesAddedHandler(dbusConnection, interfacesAddedHandler);
+            dbusConnection.addSigHandler(Local.Disconnected.class, disconnected -> removeConnection(bus, dbusConnection));
         } catch (DBusException e) {
             logger.error("Error registering scan property handler");
             logger.error(e.toString());
         }
     }
 
-    private void registerPropertiesChangedHandler(@NotNull AbstractPropertiesChangedHandler handler) throws DBusException {
+    private static void removeConnection(@NotNull String bus, @NotNull DBusConnection dbusConnection) {
+        synchronized (BluezSignalHandler.class) {
+            if (instance != null) {
+                instance.busConnections.remove(bus, dbusConnection);
+            }
+        }
+    }
+
+    /**
+     * Get the number of buses the handlers are registered on
+     */
+    static synchronized int getBusCount() {
+        return instance == null ? 0 : instance.busConnections.size();
+    }
+
+    private void registerPropertiesChangedHandler(@NotNull DBusConnection dbusConnection, @NotNull AbstractPropertiesChangedHandler handler) throws DBusException {
         dbusConnection.addSigHandler(handler.getImplementationClass(), handler);
     }
 
-    private void registerInterfacesAddedHandler(@NotNull AbstractInterfacesAddedHandler handler) throws DBusException {
+    private void registerInterfacesAddedHandler(@NotNull DBusConnection dbusConnection, @NotNull AbstractInterfacesAddedHandler handler) throws DBusException {
         dbusConnection.addSigHandler(handler.getImplementationClass(), handler);
     }
 
@@ -124,6 +188,10 @@ class BluezSignalHandler {
         peripheralsMap.remove(deviceAddressString);
     }
 
+    void setRecorder(@Nullable SignalRecorder recorder) {
+        this.recorder = recorder;
+    }
+
     void addCentral(@NotNull BluetoothCentral central) {
         Objects.requireNonNull(central, "no valid central provided");
         centralList.add(central);
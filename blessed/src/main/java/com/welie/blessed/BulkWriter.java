@@ -0,0 +1,114 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+import static com.welie.blessed.BluetoothCommandStatus.*;
+
+/**
+ * Writes bulk data to an acquired write socket in chunks that fit in a single write-command.
+ */
+final class BulkWriter {
+    private static final String TAG = BulkWriter.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    @NotNull
+    private final WriteChannel writeChannel;
+
+    private long bytesWritten;
+    private int packetsWritten;
+    private long durationNanos;
+
+    BulkWriter(@NotNull WriteChannel writeChannel) {
+        this.writeChannel = Objects.requireNonNull(writeChannel, "no valid write channel provided");
+    }
+
+    /**
+     * Write all remaining bytes of the buffer. The chunks are written straight from the buffer without copying.
+     *
+     * @param data the data to write
+     * @param connected supplier that tells if the peripheral is still connected
+     * @return the status of the transfer
+     */
+    @NotNull
+    BluetoothCommandStatus write(@NotNull ByteBuffer data, @NotNull BooleanSupplier connected) {
+        final long start = System.nanoTime();
+        final int chunkSize = writeChannel.getChunkSize();
+        final ByteBuffer chunk = data.duplicate();
+        BluetoothCommandStatus status = COMMAND_SUCCESS;
+        try {
+            int position = data.position();
+            final int end = data.limit();
+            while (position < end) {
+                final int length = Math.min(chunkSize, end - position);
+                chunk.limit(position + length).position(position);
+                writeChannel.write(chunk);
+                position += length;
+                bytesWritten += length;
+                packetsWritten++;
+            }
+            data.position(end);
+        } catch (IOException e) {
+            status = mapException(e, connected);
+        }
+        durationNanos = System.nanoTime() - start;
+        return status;
+    }
+
+    /**
+     * Read the source until it is exhausted and write everything that was read, for example from a FileChannel.
+     *
+     * @param source the source to read the data from
+     * @param connected supplier that tells if the peripheral is still connected
+     * @return the status of the transfer
+     */
+    @NotNull
+    BluetoothCommandStatus write(@NotNull ReadableByteChannel source, @NotNull BooleanSupplier connected) {
+        final long start = System.nanoTime();
+        final ByteBuffer chunk = ByteBuffer.allocateDirect(writeChannel.getChunkSize());
+        BluetoothCommandStatus status = COMMAND_SUCCESS;
+        try {
+            boolean endOfStream = false;
+            while (!endOfStream) {
+                // Fill a complete chunk, a channel may return less than requested
+                chunk.clear();
+                while (chunk.hasRemaining()) {
+                    if (source.read(chunk) < 0) {
+                        endOfStream = true;
+                        break;
+                    }
+                }
+
+                chunk.flip();
+                if (chunk.hasRemaining()) {
+                    final int length = chunk.remaining();
+                    writeChannel.write(chunk);
+                    bytesWritten += length;
+                    packetsWritten++;
+                }
+            }
+        } catch (IOException e) {
+            status = mapException(e, connected);
+        }
+        durationNanos = System.nanoTime() - start;
+        return status;
+    }
+
+    @NotNull
+    TransferStatistics getStatistics() {
+        return new TransferStatistics(bytesWritten, packetsWritten, durationNanos);
+    }
+
+    @NotNull
+    private static BluetoothCommandStatus mapException(@NotNull IOException e, @NotNull BooleanSupplier connected) {
+        logger.error(String.format("bulk write failed: %s", e.getMessage()));
+        return connected.getAsBoolean() ? BLUEZ_OPERATION_FAILED : NOT_CONNECTED;
+    }
+}
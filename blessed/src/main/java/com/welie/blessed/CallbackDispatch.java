@@ -0,0 +1,18 @@
+package com.welie.blessed;
+
+/**
+ * How the callbacks of peripherals are dispatched, see {@link BluetoothCentral#setCallbackDispatch(CallbackDispatch)}
+ */
+public enum CallbackDispatch {
+
+    /**
+     * All callbacks of the central and its peripherals run on one thread
+     */
+    SHARED_THREAD,
+
+    /**
+     * The callbacks of each peripheral run in order, on a thread pool with a thread per processor. A slow callback
+     * only delays the callbacks of its own peripheral.
+     */
+    PER_PERIPHERAL
+}
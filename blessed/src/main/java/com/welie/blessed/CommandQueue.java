@@ -0,0 +1,201 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A queue of commands that are started one at a time, without locks.
+ * <p>
+ * Commands can be added from any thread. Adding is wait-free: the new node is swapped into the tail and then linked to
+ * its predecessor. Whether a command is executing, how often it has been tried and the generation of the queue are
+ * kept in one atomic state word. The thread that sets the busy bit is the only one that starts a command, so commands
+ * never overlap, and whoever completes or retries the command clears it again.
+ * <p>
+ * {@link #clear()} starts a new generation instead of unlinking nodes that another thread may be starting or
+ * completing. Commands of an older generation are dropped when they reach the head of the queue, and completing a
+ * command of an older generation does nothing.
+ *
+ * @param <T> the type of the commands
+ */
+final class CommandQueue<T> {
+    // Layout of the state word: busy bit, then the number of tries, then the generation
+    private static final long BUSY = 1L;
+    private static final int TRIES_SHIFT = 1;
+    private static final long TRIES_MASK = 0x7FFFL << TRIES_SHIFT;
+    private static final int GENERATION_SHIFT = 16;
+
+    private final @NotNull Consumer<T> starter;
+    private final AtomicLong state = new AtomicLong();
+
+    // The head is a node whose command has been removed, the first command is the one after it
+    private final AtomicReference<Node<T>> head;
+    private final AtomicReference<Node<T>> tail;
+
+    // The command that was started last, written by the thread that set the busy bit
+    private volatile @Nullable Node<T> current;
+
+    /**
+     * Create a command queue
+     *
+     * @param starter called with the command at the head of the queue when it may start. It is called on the thread
+     *                that adds or completes a command, so it should hand the command off instead of running it.
+     */
+    CommandQueue(@NotNull Consumer<T> starter) {
+        this.starter = Objects.requireNonNull(starter, "no valid starter provided");
+        final Node<T> stub = new Node<>(null, 0);
+        this.head = new AtomicReference<>(stub);
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * Add a command to the end of the queue. Call {@link #next()} afterwards to start it if the queue is idle.
+     *
+     * @param command the command
+     * @return true, the queue is unbounded
+     */
+    boolean add(@NotNull T command) {
+        Objects.requireNonNull(command, "no valid command provided");
+        final Node<T> node = new Node<>(command, generation(state.get()));
+        final Node<T> previous = tail.getAndSet(node);
+        previous.next = node;
+        return true;
+    }
+
+    /**
+     * Start the command at the head of the queue, unless a command is executing or the queue is empty
+     */
+    void next() {
+        while (true) {
+            final long idle = state.get();
+            if ((idle & BUSY) != 0) return;
+            if (!state.compareAndSet(idle, idle | BUSY)) continue;
+
+            final Node<T> first = first(generation(idle));
+            if (first != null) {
+                current = first;
+                starter.accept(first.command);
+                return;
+            }
+
+            // Nothing to start. A command that was added after looking at the queue can't have been started by the
+            // thread that added it, because we were busy, so look again after becoming idle
+            state.compareAndSet(idle | BUSY, idle);
+            if (head.get().next == null) return;
+        }
+    }
+
+    /**
+     * Remove the executing command from the queue and become idle. Call {@link #next()} afterwards to start the next
+     * command.
+     *
+     * @return the command that was completed, or null if no command was executing or it was completed already
+     */
+    @Nullable T completed() {
+        final Node<T> done = current;
+        final long busy = state.get();
+        if (done == null || (busy & BUSY) == 0 || done.generation != generation(busy)) return null;
+
+        // Completing the same command twice must not complete the command that was started after it
+        if (!remove(done)) return null;
+        state.compareAndSet(busy, busy & ~(BUSY | TRIES_MASK));
+        return done.command;
+    }
+
+    /**
+     * Become idle and leave the executing command at the head of the queue, so {@link #next()} starts it again. After
+     * maxTries tries the command is removed instead.
+     *
+     * @param maxTries the number of times a command is tried
+     * @return the command if it was removed, otherwise null
+     */
+    @Nullable T retry(int maxTries) {
+        final Node<T> failed = current;
+        final long busy = state.get();
+        if (failed == null || (busy & BUSY) == 0 || failed.generation != generation(busy) || head.get().next != failed) return null;
+
+        final long tries = ((busy & TRIES_MASK) >>> TRIES_SHIFT) + 1;
+        if (tries >= maxTries) {
+            if (!remove(failed)) return null;
+            state.compareAndSet(busy, busy & ~(BUSY | TRIES_MASK));
+            return failed.command;
+        }
+        state.compareAndSet(busy, (busy & ~(BUSY | TRIES_MASK)) | (tries << TRIES_SHIFT));
+        return null;
+    }
+
+    /**
+     * Drop all commands and become idle, also when a command is executing. A command that another thread is starting
+     * at the same moment may still start.
+     */
+    void clear() {
+        long observed;
+        long cleared;
+        do {
+            observed = state.get();
+            cleared = (generation(observed) + 1) << GENERATION_SHIFT;
+        } while (!state.compareAndSet(observed, cleared));
+        first(generation(cleared));
+    }
+
+    /**
+     * Get the number of commands in the queue, including the one that is executing. The commands are counted, like
+     * {@link java.util.concurrent.ConcurrentLinkedQueue#size()} does, so this is not meant to be called for every
+     * command.
+     *
+     * @return the number of commands
+     */
+    int size() {
+        final long generation = generation(state.get());
+        int size = 0;
+        for (Node<T> node = head.get().next; node != null; node = node.next) {
+            if (node.generation >= generation) size++;
+        }
+        return size;
+    }
+
+    boolean isBusy() {
+        return (state.get() & BUSY) != 0;
+    }
+
+    private static long generation(long state) {
+        return state >>> GENERATION_SHIFT;
+    }
+
+    /**
+     * Get the first command of a generation, dropping the commands of older generations in front of it
+     */
+    private @Nullable Node<T> first(long generation) {
+        while (true) {
+            final Node<T> last = head.get();
+            final Node<T> first = last.next;
+            if (first == null || first.generation >= generation) return first;
+            head.compareAndSet(last, first);
+        }
+    }
+
+    /**
+     * Remove a command if it is still the first one
+     *
+     * @return true if the command was removed
+     */
+    private boolean remove(@NotNull Node<T> node) {
+        final Node<T> last = head.get();
+        return last.next == node && head.compareAndSet(last, node);
+    }
+
+    private static final class Node<T> {
+        final T command;
+        final long generation;
+        volatile Node<T> next;
+
+        Node(T command, long generation) {
+            this.command = command;
+            this.generation = generation;
+        }
+    }
+}
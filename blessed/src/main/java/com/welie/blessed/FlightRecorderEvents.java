@@ -0,0 +1,47 @@
+package com.welie.blessed;
+
+import com.welie.blessed.metrics.CommandType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Emits Java Flight Recorder events for commands, signals, scanning and connections.
+ * <p>
+ * Flight Recorder is not available on Java 8, so this version does nothing. The multi-release jar contains a version
+ * for Java 11 and later in META-INF/versions/11 that emits the events when they are enabled in a recording.
+ */
+final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    static void commandEnqueued(@NotNull String address, @NotNull CommandType type, @Nullable UUID characteristicUuid, @NotNull IntSupplier queueDepth) {
+    }
+
+    static void commandStarted(@NotNull String address, @NotNull CommandType type, @Nullable UUID characteristicUuid) {
+    }
+
+    static void commandCompleted(@NotNull String address, @NotNull CommandType type, @Nullable UUID characteristicUuid, @NotNull BluetoothCommandStatus status, long latencyNanos) {
+    }
+
+    /**
+     * Start timing the dispatch of a signal
+     *
+     * @return the event to pass to {@link #signalDispatched(Object, String, String, String)}, or null if it is not enabled
+     */
+    static @Nullable Object signalDispatchStarted() {
+        return null;
+    }
+
+    static void signalDispatched(@Nullable Object event, @NotNull String signal, @NotNull String path, @NotNull String interfaceName) {
+    }
+
+    static void scanStateChanged(@NotNull String adapterPath, boolean scanning) {
+    }
+
+    static void connectionStateChanged(@NotNull String address, int previousState, int newState, @NotNull BluetoothCommandStatus status) {
+    }
+}
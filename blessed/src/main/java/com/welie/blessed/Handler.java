@@ -6,14 +6,45 @@ import java.util.concurrent.*;
 
 public class Handler {
 
-    private final ScheduledThreadPoolExecutor executor;
+    // Delays for handlers that run on an executor, the delayed runnables themselves still run on the executor
+    private static final ScheduledThreadPoolExecutor delayScheduler = createDelayScheduler();
+
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
 
     public Handler(@NotNull String name) {
         Objects.requireNonNull(name, "name is null");
 
-        executor = new ScheduledThreadPoolExecutor(1);
-        executor.setRemoveOnCancelPolicy(true);
-        executor.execute(() -> Thread.currentThread().setName(name));
+        final ScheduledThreadPoolExecutor threadExecutor = new ScheduledThreadPoolExecutor(1);
+        threadExecutor.setRemoveOnCancelPolicy(true);
+        threadExecutor.execute(() -> Thread.currentThread().setName(name));
+        executor = threadExecutor;
+        scheduler = threadExecutor;
+    }
+
+    /**
+     * Create a handler that runs its runnables on the threads of an executor instead of its own thread.
+     * The runnables still run one at a time and in the order they were posted.
+     *
+     * @param name     the name of the handler, used when logging failed runnables
+     * @param executor the executor to run the runnables on
+     */
+    public Handler(@NotNull String name, @NotNull Executor executor) {
+        Objects.requireNonNull(name, "name is null");
+        Objects.requireNonNull(executor, "executor is null");
+
+        this.executor = new SerialExecutor(name, executor);
+        this.scheduler = delayScheduler;
+    }
+
+    private static ScheduledThreadPoolExecutor createDelayScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "Handler-delay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
     }
 
     public final void post(@NotNull final Runnable runnable) {
@@ -21,10 +52,48 @@ public class Handler {
     }
 
     public final ScheduledFuture<?> postDelayed(@NotNull final Runnable runnable, long delayMillis) {
-        return executor.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS);
+        if (scheduler == executor) {
+            return scheduler.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS);
+        }
+        final DelayedTask task = new DelayedTask(runnable);
+        task.timer = scheduler.schedule(() -> executor.execute(task), delayMillis, TimeUnit.MILLISECONDS);
+        return task;
     }
 
     public final void shutdown() {
-        executor.shutdown();
+        if (scheduler == executor) {
+            scheduler.shutdown();
+        } else {
+            ((SerialExecutor) executor).shutdown();
+        }
+    }
+
+    /**
+     * A delayed runnable of a handler that runs on an executor. The timer only hands the task to the executor, so the
+     * task can still be cancelled while it waits there, like a delayed runnable of a handler with its own thread.
+     */
+    private static final class DelayedTask extends FutureTask<Void> implements ScheduledFuture<Void> {
+        private volatile ScheduledFuture<?> timer;
+
+        DelayedTask(@NotNull Runnable runnable) {
+            super(runnable, null);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) timer.cancel(false);
+            return cancelled;
+        }
+
+        @Override
+        public long getDelay(@NotNull TimeUnit unit) {
+            return timer.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(@NotNull Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
     }
 }
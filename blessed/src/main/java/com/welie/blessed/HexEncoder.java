@@ -0,0 +1,72 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Table driven conversion of byte arrays to lower case hex strings.
+ */
+final class HexEncoder {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // Scratch arrays up to this many chars are kept per thread, bigger values get a one-off array
+    private static final int MAX_SCRATCH_LENGTH = 2048;
+    private static final ThreadLocal<char[]> scratch = ThreadLocal.withInitial(() -> new char[64]);
+
+    private HexEncoder() {
+    }
+
+    /**
+     * Convert the bytes to a hex string, using a per-thread scratch array so only the String itself is allocated.
+     *
+     * @param bytes the bytes to convert
+     * @return the hex string, two characters per byte
+     */
+    static @NotNull String toHex(@NotNull byte[] bytes) {
+        Objects.requireNonNull(bytes, "no valid bytes provided");
+
+        final int length = bytes.length * 2;
+        char[] chars = scratch.get();
+        if (chars.length < length) {
+            chars = new char[length];
+            if (length <= MAX_SCRATCH_LENGTH) {
+                scratch.set(chars);
+            }
+        }
+        encode(bytes, chars, 0);
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Append the bytes as hex to a StringBuilder.
+     *
+     * @param builder the builder to append to
+     * @param bytes   the bytes to convert
+     * @return the builder
+     */
+    static @NotNull StringBuilder appendHex(@NotNull StringBuilder builder, @NotNull byte[] bytes) {
+        Objects.requireNonNull(builder, "no valid builder provided");
+        Objects.requireNonNull(bytes, "no valid bytes provided");
+
+        builder.ensureCapacity(builder.length() + bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+        }
+        return builder;
+    }
+
+    /**
+     * Write the bytes as hex into a char array.
+     *
+     * @param bytes       the bytes to convert
+     * @param destination the array to write to, it needs room for two characters per byte
+     * @param offset      the index in the destination of the first character
+     */
+    static void encode(@NotNull byte[] bytes, @NotNull char[] destination, int offset) {
+        for (byte b : bytes) {
+            destination[offset++] = HEX_DIGITS[(b >> 4) & 0x0F];
+            destination[offset++] = HEX_DIGITS[b & 0x0F];
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.welie.blessed;
+
+import com.welie.blessed.bluez.AcquiredFileDescriptor;
+import jnr.enxio.channels.NativeSocketChannel;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Reads notifications from a socket that was acquired with AcquireNotify.
+ * <p>
+ * Every read on the socket returns exactly one notification. The notifications are read into a single reusable buffer
+ * on a dedicated thread, so they don't have to travel through the DBus daemon as PropertiesChanged signals, and are
+ * handed to the listener without copying.
+ */
+final class NotifyChannel {
+    private static final String TAG = NotifyChannel.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    interface Listener {
+        /**
+         * Called on the reader thread for every notification. The buffer is read-only and is reused for the next
+         * notification, so it is only valid during this call.
+         */
+        void onNotification(@NotNull ByteBuffer value);
+
+        void onClosed();
+    }
+
+    @NotNull
+    private final NativeSocketChannel channel;
+
+    @NotNull
+    private final Listener listener;
+
+    @NotNull
+    private final Thread readerThread;
+
+    private final int mtu;
+
+    private volatile boolean closing = false;
+
+    NotifyChannel(@NotNull AcquiredFileDescriptor acquiredFileDescriptor, @NotNull String name, @NotNull Listener listener) {
+        Objects.requireNonNull(acquiredFileDescriptor, "no valid file descriptor provided");
+        Objects.requireNonNull(name, "no valid name provided");
+        this.listener = Objects.requireNonNull(listener, "no valid listener provided");
+        this.channel = new NativeSocketChannel(acquiredFileDescriptor.getFileDescriptor());
+        this.mtu = acquiredFileDescriptor.getMtu();
+        this.readerThread = new Thread(this::readLoop, name);
+        this.readerThread.setDaemon(true);
+    }
+
+    void start() {
+        readerThread.start();
+    }
+
+    int getMtu() {
+        return mtu;
+    }
+
+    /**
+     * Close the socket, which releases the acquired notify in Bluez and stops the reader thread.
+     */
+    void close() {
+        if (closing) return;
+        closing = true;
+
+        try {
+            // Wake up the reader thread that is blocked in read()
+            channel.shutdownInput();
+        } catch (IOException e) {
+            logger.debug(String.format("shutdown of notify socket failed: %s", e.getMessage()));
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error(String.format("closing notify socket failed: %s", e.getMessage()));
+        }
+    }
+
+    private void readLoop() {
+        // A notification can never be bigger than the MTU, so a single buffer is enough
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(mtu, 23));
+        final ByteBuffer readOnlyView = buffer.asReadOnlyBuffer();
+        try {
+            while (!closing) {
+                buffer.clear();
+                final int length = channel.read(buffer);
+                if (length < 0) break;
+                if (length == 0) continue;
+
+                readOnlyView.limit(length).position(0);
+                listener.onNotification(readOnlyView);
+            }
+        } catch (IOException e) {
+            if (!closing) {
+                logger.error(String.format("reading from notify socket failed: %s", e.getMessage()));
+            }
+        } finally {
+            // A HUP is generated when the peripheral disconnects, make sure the socket is released
+            close();
+            listener.onClosed();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A received characteristic value in a slab of the notification pool of a peripheral.
+ * <p>
+ * The value is released when the callback that received it returns. A consumer that wants to keep the value longer,
+ * for example to decode it on another thread, calls {@link #hold()} during the callback and {@link #release()} on the
+ * value that hold returned when it is done. After the last release the slab is reused for another notification, so the
+ * value must not be used anymore.
+ *
+ * @see BluetoothPeripheral#setPooledNotifications(boolean)
+ */
+public final class PooledValue {
+
+    // The maximum length of an attribute value
+    static final int SLAB_SIZE = 512;
+
+    private static final AtomicIntegerFieldUpdater<PooledValue> RELEASED = AtomicIntegerFieldUpdater.newUpdater(PooledValue.class, "released");
+
+    // Every holder gets its own PooledValue for the slab, so a release can only drop the reference of its own holder
+    private final Slab slab;
+    private final int length;
+    private volatile int released;
+
+    // The view of this holder. The first holder of a slab uses the view of the slab, so delivering a value doesn't
+    // allocate one, the holders that hold() returned create their own on the first getValue.
+    private ByteBuffer view;
+
+    private PooledValue(@NotNull Slab slab, int length, ByteBuffer view) {
+        this.slab = slab;
+        this.length = length;
+        this.view = view;
+    }
+
+    /**
+     * Get the value
+     *
+     * @return a read-only buffer with the value from position 0 to its limit. Every holder has its own buffer, so
+     * moving its position does not affect other holders. The buffer is reset by the next call.
+     * @throws IllegalStateException if the value was released
+     */
+    public @NotNull ByteBuffer getValue() {
+        checkHeld();
+        ByteBuffer value = view;
+        if (value == null) {
+            value = slab.view.duplicate();
+            view = value;
+        }
+        value.clear().limit(length);
+        return value;
+    }
+
+    /**
+     * Get the number of bytes of the value
+     *
+     * @return the length of the value
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Copy the value into a new array
+     *
+     * @return the value
+     * @throws IllegalStateException if the value was released
+     */
+    public @NotNull byte[] toByteArray() {
+        checkHeld();
+        final byte[] result = new byte[length];
+        System.arraycopy(slab.array, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Keep the value after the callback returns. The returned value must be released with {@link #release()}, this
+     * value is still released when the callback returns.
+     *
+     * @return a new value for the same slab, held once
+     * @throws IllegalStateException if the value was released
+     */
+    public @NotNull PooledValue hold() {
+        checkHeld();
+        int current;
+        do {
+            current = slab.references.get();
+            if (current <= 0) {
+                throw new IllegalStateException("value was already released");
+            }
+        } while (!slab.references.compareAndSet(current, current + 1));
+        return new PooledValue(slab, length, null);
+    }
+
+    /**
+     * Release the value. The slab is returned to the pool when the last holder releases it.
+     *
+     * @throws IllegalStateException if the value was already released
+     */
+    public void release() {
+        if (!RELEASED.compareAndSet(this, 0, 1)) {
+            throw new IllegalStateException("value was already released");
+        }
+        if (slab.references.decrementAndGet() == 0) {
+            slab.pool.recycle(slab);
+        }
+    }
+
+    private void checkHeld() {
+        if (released != 0) {
+            throw new IllegalStateException("value was already released");
+        }
+    }
+
+    /**
+     * The array a value is copied into, shared by all holders of the value
+     */
+    private static final class Slab {
+        private final Pool pool;
+        private byte[] array;
+        private ByteBuffer view;
+        private final AtomicInteger references = new AtomicInteger();
+
+        Slab(@NotNull Pool pool, int capacity) {
+            this.pool = pool;
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            array = new byte[capacity];
+            view = ByteBuffer.wrap(array).asReadOnlyBuffer();
+        }
+
+        /**
+         * Copy a value into this slab and hand out the first reference
+         */
+        @NotNull PooledValue fill(@NotNull ByteBuffer value) {
+            final int length = value.remaining();
+            if (length > array.length) {
+                allocate(length);
+            }
+            // A bulk get also copies read-only heap buffers without a byte loop, restore the position afterwards
+            final int start = value.position();
+            value.get(array, 0, length);
+            value.position(start);
+            references.set(1);
+            return new PooledValue(this, length, view);
+        }
+    }
+
+    /**
+     * The slabs of one peripheral, a stack so the most recently released slab is reused first. Slabs are allocated when
+     * the pool is empty and dropped when it is full. The pool is threadsafe.
+     */
+    static final class Pool {
+        private final Slab[] free;
+        private int count;
+
+        Pool(int maxFree) {
+            this.free = new Slab[maxFree];
+        }
+
+        /**
+         * Copy a value into a slab. The position of the value is not changed.
+         *
+         * @param value the value, from its position to its limit. A read-only buffer without an accessible array is accepted.
+         * @return the pooled value, held once
+         */
+        @NotNull PooledValue copyOf(@NotNull ByteBuffer value) {
+            Slab slab = null;
+            synchronized (this) {
+                if (count > 0) {
+                    slab = free[--count];
+                    free[count] = null;
+                }
+            }
+            if (slab == null) {
+                slab = new Slab(this, Math.max(SLAB_SIZE, value.remaining()));
+            }
+            return slab.fill(value);
+        }
+
+        synchronized int getFreeCount() {
+            return count;
+        }
+
+        private synchronized void recycle(@NotNull Slab slab) {
+            if (count < free.length) {
+                free[count++] = slab;
+            }
+        }
+    }
+}
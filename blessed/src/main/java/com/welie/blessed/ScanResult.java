@@ -13,6 +13,7 @@ import static com.welie.blessed.BluetoothBytesParser.bytes2String;
 
 public class ScanResult {
     private long timestampNanos;
+    private long receivedNanos;
     private final String name;
     private final String address;
     private final @NotNull List<UUID> uuids;
@@ -28,12 +29,27 @@ public class ScanResult {
         setManufacturerData(manufacturerData);
         setServiceData(serviceData);
         stamp();
+        this.receivedNanos = timestampNanos;
     }
 
     public long getTimestampNanos() {
         return timestampNanos;
     }
 
+    /**
+     * Get the time the latest advertisement for this scan result arrived from Bluez. Unlike {@link #getTimestampNanos()},
+     * which is stamped on the callback thread, this doesn't include the time the scan result waited for the callback thread.
+     *
+     * @return the {@link System#nanoTime()} at which the advertisement was received
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    void setReceivedNanos(long receivedNanos) {
+        this.receivedNanos = receivedNanos;
+    }
+
     public @Nullable String getName() {
         return name;
     }
@@ -0,0 +1,45 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Splits a value in segments of at most segmentSize bytes. The segments are only created when they are needed.
+ */
+final class SegmentIterator implements Iterator<byte[]> {
+    @NotNull
+    private final byte[] value;
+
+    private final int segmentSize;
+
+    private int offset = 0;
+
+    SegmentIterator(@NotNull byte[] value, int segmentSize) {
+        this.value = Objects.requireNonNull(value, "no valid value provided");
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segment size must be at least 1");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return offset < value.length;
+    }
+
+    @Override
+    public byte[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final int end = Math.min(offset + segmentSize, value.length);
+        final byte[] segment = Arrays.copyOfRange(value, offset, end);
+        offset = end;
+        return segment;
+    }
+}
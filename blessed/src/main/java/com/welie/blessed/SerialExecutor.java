@@ -0,0 +1,94 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs runnables one at a time and in order on the threads of another executor, so many serial executors can share
+ * a thread pool.
+ * <p>
+ * A thread runs at most {@value BATCH_SIZE} runnables before the rest is submitted again, so one busy serial executor
+ * doesn't keep a pool thread from the others.
+ */
+final class SerialExecutor implements Executor {
+    private static final String TAG = SerialExecutor.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+    static final int BATCH_SIZE = 64;
+
+    private final @NotNull String name;
+    private final @NotNull Executor executor;
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    // Guarded by tasks
+    private boolean running;
+    private boolean shutdown;
+
+    SerialExecutor(@NotNull String name, @NotNull Executor executor) {
+        this.name = Objects.requireNonNull(name, "no valid name provided");
+        this.executor = Objects.requireNonNull(executor, "no valid executor provided");
+    }
+
+    @Override
+    public void execute(@NotNull Runnable runnable) {
+        Objects.requireNonNull(runnable, "no valid runnable provided");
+        synchronized (tasks) {
+            if (shutdown) throw new RejectedExecutionException(String.format("%s is shut down", name));
+
+            tasks.add(runnable);
+            if (running) return;
+            running = true;
+        }
+        submit();
+    }
+
+    void shutdown() {
+        synchronized (tasks) {
+            shutdown = true;
+        }
+    }
+
+    private void submit() {
+        try {
+            executor.execute(this::runTasks);
+        } catch (RejectedExecutionException e) {
+            synchronized (tasks) {
+                running = false;
+                tasks.clear();
+            }
+            throw e;
+        }
+    }
+
+    private void runTasks() {
+        // An Error thrown by a task is passed on to the pool thread, but the remaining tasks are still submitted
+        boolean drained = false;
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                final Runnable task;
+                synchronized (tasks) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        running = false;
+                        drained = true;
+                        return;
+                    }
+                }
+
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.error(String.format("runnable of %s failed: %s", name, e));
+                }
+            }
+        } finally {
+            if (!drained) submit();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.welie.blessed;
+
+import org.freedesktop.dbus.DBusMap;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.interfaces.ObjectManager;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.UInt16;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Records the PropertiesChanged and InterfacesAdded signals that the library receives from Bluez to a trace file,
+ * so they can be replayed later with a {@link SignalReplayer}.
+ * <p>
+ * The trace is a compact binary log that is only appended to. Every recorder that opens the file starts a new
+ * session, and every signal is stored with the nanoseconds since the start of its session. Properties with D-Bus types
+ * that are not supported, like structs, are left out of the trace.
+ * <p>
+ * Start recording with {@link BluetoothCentral#setSignalRecorder(SignalRecorder)}.
+ */
+public final class SignalRecorder implements Closeable {
+    private static final String TAG = SignalRecorder.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    static final int MAGIC = 0x424C5354; // "BLST"
+    static final int VERSION = 1;
+    static final int RECORD_SESSION = 0;
+    static final int RECORD_PROPERTIES_CHANGED = 1;
+    static final int RECORD_INTERFACES_ADDED = 2;
+
+    private final @NotNull DataOutputStream out;
+
+    // A signal is written here first and only appended to the trace when all of it could be written
+    private final ByteArrayOutputStream entryBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream entry = new DataOutputStream(entryBuffer);
+    private final long sessionStartNanos;
+    private long recordCount = 0;
+    private boolean failed = false;
+    private boolean closed = false;
+
+    /**
+     * Open a trace file for recording, creating it if it doesn't exist and appending to it otherwise
+     *
+     * @param file the trace file
+     * @throws IOException if the file can't be opened or is not a trace file
+     */
+    public SignalRecorder(@NotNull File file) throws IOException {
+        Objects.requireNonNull(file, "no valid file provided");
+
+        final boolean isNew = !file.exists() || file.length() == 0;
+        if (!isNew) {
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(String.format("%s is not a signal trace", file));
+                }
+            }
+        }
+
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (isNew) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+        }
+        sessionStartNanos = System.nanoTime();
+        out.writeByte(RECORD_SESSION);
+        out.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Get the number of signals recorded by this recorder
+     *
+     * @return the number of signals
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    synchronized void record(@NotNull Properties.PropertiesChanged propertiesChanged) {
+        if (closed || failed) return;
+
+        entryBuffer.reset();
+        try {
+            entry.writeByte(RECORD_PROPERTIES_CHANGED);
+            entry.writeLong(System.nanoTime() - sessionStartNanos);
+            entry.writeUTF(propertiesChanged.getPath());
+            entry.writeUTF(propertiesChanged.getInterfaceName());
+            writeProperties(propertiesChanged.getPropertiesChanged());
+            final List<String> removed = propertiesChanged.getPropertiesRemoved();
+            entry.writeInt(removed.size());
+            for (String name : removed) {
+                entry.writeUTF(name);
+            }
+        } catch (IOException | RuntimeException e) {
+            skipSignal(propertiesChanged.getPath(), e);
+            return;
+        }
+        appendEntry();
+    }
+
+    synchronized void record(@NotNull ObjectManager.InterfacesAdded interfacesAdded) {
+        if (closed || failed) return;
+
+        entryBuffer.reset();
+        try {
+            entry.writeByte(RECORD_INTERFACES_ADDED);
+            entry.writeLong(System.nanoTime() - sessionStartNanos);
+            entry.writeUTF(interfacesAdded.getPath());
+            entry.writeUTF(interfacesAdded.getSignalSource().getPath());
+            final Map<String, Map<String, Variant<?>>> interfaces = interfacesAdded.getInterfaces();
+            entry.writeInt(interfaces.size());
+            for (Map.Entry<String, Map<String, Variant<?>>> anInterface : interfaces.entrySet()) {
+                entry.writeUTF(anInterface.getKey());
+                writeProperties(anInterface.getValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            skipSignal(interfacesAdded.getSignalSource().getPath(), e);
+            return;
+        }
+        appendEntry();
+    }
+
+    private void skipSignal(@NotNull String path, @NotNull Exception e) {
+        // Nothing of the signal has been written to the trace yet, so the trace stays valid
+        entryBuffer.reset();
+        logger.warn(String.format("signal of '%s' can't be recorded, skipped: %s", path, e));
+    }
+
+    private void appendEntry() {
+        try {
+            entryBuffer.writeTo(out);
+            recordCount++;
+        } catch (IOException e) {
+            recordingFailed(e);
+        }
+    }
+
+    private void recordingFailed(@NotNull IOException e) {
+        // The trace can't be trusted after a partial record, so stop recording
+        failed = true;
+        logger.error(String.format("recording signal failed, recording stopped: %s", e));
+    }
+
+    private void writeProperties(@NotNull Map<String, Variant<?>> properties) throws IOException {
+        int count = 0;
+        for (Variant<?> value : properties.values()) {
+            if (isSupported(value)) count++;
+        }
+
+        entry.writeInt(count);
+        for (Map.Entry<String, Variant<?>> property : properties.entrySet()) {
+            final Variant<?> value = property.getValue();
+            if (isSupported(value)) {
+                entry.writeUTF(property.getKey());
+                writeValue("v", value);
+            }
+        }
+    }
+
+    /**
+     * Check if a value can be stored in a trace, including the values of the variants nested in it
+     */
+    static boolean isSupported(@NotNull Variant<?> value) {
+        return isSupported(value.getSig()) && isSupportedValue(value.getSig(), value.getValue());
+    }
+
+    /**
+     * Check the signatures of the variants in a value of a supported signature. Other values can always be stored.
+     */
+    private static boolean isSupportedValue(@NotNull String signature, @NotNull Object value) {
+        if (signature.indexOf('v') < 0) return true;
+
+        if (signature.equals("v")) {
+            return value instanceof Variant && isSupported((Variant<?>) value);
+        } else if (signature.startsWith("a{")) {
+            final String valueSignature = signature.substring(3, signature.length() - 1);
+            for (Object element : ((Map<?, ?>) value).values()) {
+                if (!isSupportedValue(valueSignature, element)) return false;
+            }
+        } else {
+            final String elementSignature = signature.substring(1);
+            for (Object element : toList(value)) {
+                if (!isSupportedValue(elementSignature, element)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if values of a D-Bus signature can be stored in a trace
+     */
+    static boolean isSupported(@NotNull String signature) {
+        if (signature.isEmpty()) return false;
+
+        switch (signature.charAt(0)) {
+            case 'y':
+            case 'b':
+            case 'n':
+            case 'q':
+            case 'i':
+            case 'u':
+            case 'x':
+            case 't':
+            case 'd':
+            case 's':
+            case 'o':
+            case 'g':
+            case 'v':
+                return signature.length() == 1;
+            case 'a':
+                if (signature.startsWith("a{")) {
+                    return signature.endsWith("}") && signature.length() > 4 && isSupported(signature.substring(2, 3)) && isSupported(signature.substring(3, signature.length() - 1));
+                }
+                return isSupported(signature.substring(1));
+            default:
+                return false;
+        }
+    }
+
+    private void writeValue(@NotNull String signature, @NotNull Object value) throws IOException {
+        switch (signature.charAt(0)) {
+            case 'y':
+                entry.writeByte((Byte) value);
+                break;
+            case 'b':
+                entry.writeBoolean((Boolean) value);
+                break;
+            case 'n':
+                entry.writeShort((Short) value);
+                break;
+            case 'q':
+                entry.writeShort(((UInt16) value).intValue());
+                break;
+            case 'i':
+                entry.writeInt((Integer) value);
+                break;
+            case 'u':
+                entry.writeInt((int) ((UInt32) value).longValue());
+                break;
+            case 'x':
+                entry.writeLong((Long) value);
+                break;
+            case 't':
+                entry.writeLong(((UInt64) value).value().longValue());
+                break;
+            case 'd':
+                entry.writeDouble((Double) value);
+                break;
+            case 's':
+            case 'g':
+                entry.writeUTF((String) value);
+                break;
+            case 'o':
+                entry.writeUTF(value instanceof DBusPath ? ((DBusPath) value).getPath() : value.toString());
+                break;
+            case 'v':
+                final Variant<?> variant = (Variant<?>) value;
+                entry.writeUTF(variant.getSig());
+                writeValue(variant.getSig(), variant.getValue());
+                break;
+            default:
+                writeArray(signature, value);
+        }
+    }
+
+    private void writeArray(@NotNull String signature, @NotNull Object value) throws IOException {
+        if (signature.startsWith("a{")) {
+            final String keySignature = signature.substring(2, 3);
+            final String valueSignature = signature.substring(3, signature.length() - 1);
+            final Map<?, ?> map = (Map<?, ?>) value;
+            entry.writeInt(map.size());
+            for (Map.Entry<?, ?> element : map.entrySet()) {
+                writeValue(keySignature, element.getKey());
+                writeValue(valueSignature, element.getValue());
+            }
+        } else if (signature.equals("ay") && value instanceof byte[]) {
+            final byte[] bytes = (byte[]) value;
+            entry.writeInt(bytes.length);
+            entry.write(bytes);
+        } else {
+            final String elementSignature = signature.substring(1);
+            final List<Object> elements = toList(value);
+            entry.writeInt(elements.size());
+            for (Object element : elements) {
+                writeValue(elementSignature, element);
+            }
+        }
+    }
+
+    private static @NotNull List<Object> toList(@NotNull Object value) {
+        if (value instanceof List) {
+            @SuppressWarnings("unchecked") final List<Object> list = (List<Object>) value;
+            return list;
+        }
+
+        // dbus-java delivers some arrays as Java arrays
+        final int length = Array.getLength(value);
+        final List<Object> elements = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            elements.add(Array.get(value, i));
+        }
+        return elements;
+    }
+
+    /**
+     * Read a value that was written for a D-Bus signature, using the same types as dbus-java
+     */
+    static @NotNull Object readValue(@NotNull DataInputStream in, @NotNull String signature) throws IOException {
+        switch (signature.charAt(0)) {
+            case 'y':
+                return in.readByte();
+            case 'b':
+                return in.readBoolean();
+            case 'n':
+                return in.readShort();
+            case 'q':
+                return new UInt16(in.readUnsignedShort());
+            case 'i':
+                return in.readInt();
+            case 'u':
+                return new UInt32(in.readInt() & 0xFFFFFFFFL);
+            case 'x':
+                return in.readLong();
+            case 't':
+                return new UInt64(new BigInteger(Long.toUnsignedString(in.readLong())));
+            case 'd':
+                return in.readDouble();
+            case 's':
+            case 'g':
+                return in.readUTF();
+            case 'o':
+                return new DBusPath(in.readUTF());
+            case 'v':
+                final String variantSignature = in.readUTF();
+                return new Variant<>(readValue(in, variantSignature), variantSignature);
+            default:
+                return readArray(in, signature);
+        }
+    }
+
+    private static @NotNull Object readArray(@NotNull DataInputStream in, @NotNull String signature) throws IOException {
+        final int size = in.readInt();
+        if (signature.startsWith("a{")) {
+            final String keySignature = signature.substring(2, 3);
+            final String valueSignature = signature.substring(3, signature.length() - 1);
+            final Object[][] entries = new Object[size][];
+            for (int i = 0; i < size; i++) {
+                entries[i] = new Object[]{readValue(in, keySignature), readValue(in, valueSignature)};
+            }
+            return new DBusMap<>(entries);
+        } else if (signature.equals("ay")) {
+            final byte[] bytes = new byte[size];
+            in.readFully(bytes);
+            return bytes;
+        } else {
+            final String elementSignature = signature.substring(1);
+            final List<Object> elements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                elements.add(readValue(in, elementSignature));
+            }
+            return elements;
+        }
+    }
+
+    /**
+     * Write the buffered signals to the trace file
+     *
+     * @throws IOException if writing fails
+     */
+    public synchronized void flush() throws IOException {
+        if (!closed) out.flush();
+    }
+
+    /**
+     * Stop recording and close the trace file
+     *
+     * @throws IOException if writing the last signals fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+
+        closed = true;
+        out.close();
+    }
+}
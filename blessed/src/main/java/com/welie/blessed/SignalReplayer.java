@@ -0,0 +1,148 @@
+package com.welie.blessed;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.handlers.AbstractInterfacesAddedHandler;
+import org.freedesktop.dbus.handlers.AbstractPropertiesChangedHandler;
+import org.freedesktop.dbus.interfaces.ObjectManager;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.welie.blessed.SignalRecorder.*;
+
+/**
+ * Replays a trace recorded by a {@link SignalRecorder} through the same signal handlers as the signals from Bluez, so
+ * the centrals and peripherals of this process handle them as if Bluez sent them.
+ * <p>
+ * Replaying at speed 1 keeps the timing of the recording, at speed 10 the signals come 10 times faster and at
+ * {@link #MAX_SPEED} they are handled as fast as possible. The pause between recording sessions is skipped.
+ */
+public final class SignalReplayer {
+
+    /**
+     * Replay the signals without waiting between them
+     */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    private final @NotNull File file;
+
+    /**
+     * Create a replayer for a trace file
+     *
+     * @param file the trace file
+     */
+    public SignalReplayer(@NotNull File file) {
+        this.file = Objects.requireNonNull(file, "no valid file provided");
+    }
+
+    /**
+     * Replay the trace to the centrals and peripherals of this process. Blocks until the whole trace is replayed.
+     *
+     * @param speed how much faster than recorded to replay, for example 1.0 for the recorded timing or {@link #MAX_SPEED}
+     * @return the number of signals replayed
+     * @throws IOException          if the trace can't be read
+     * @throws InterruptedException if the thread is interrupted while waiting for the next signal
+     */
+    public long replay(double speed) throws IOException, InterruptedException {
+        final BluezSignalHandler signalHandler = BluezSignalHandler.getInstance();
+        if (signalHandler == null) {
+            throw new IllegalStateException("no signal handler, create a BluetoothCentral first");
+        }
+        return replay(speed, signalHandler.signalHandler, signalHandler.interfacesAddedHandler);
+    }
+
+    long replay(double speed, @NotNull AbstractPropertiesChangedHandler propertiesChangedHandler, @NotNull AbstractInterfacesAddedHandler interfacesAddedHandler) throws IOException, InterruptedException {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be larger than 0");
+        }
+
+        long replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a signal trace", file));
+            }
+            final int version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException(String.format("unsupported signal trace version %d", version));
+            }
+
+            long sessionStartNanos = System.nanoTime();
+            int recordType;
+            while ((recordType = in.read()) != -1) {
+                if (recordType == RECORD_SESSION) {
+                    in.readLong();
+                    sessionStartNanos = System.nanoTime();
+                    continue;
+                }
+
+                final long timestampNanos = in.readLong();
+                awaitTimestamp(sessionStartNanos, timestampNanos, speed);
+                try {
+                    if (recordType == RECORD_PROPERTIES_CHANGED) {
+                        propertiesChangedHandler.handle(readPropertiesChanged(in));
+                    } else if (recordType == RECORD_INTERFACES_ADDED) {
+                        interfacesAddedHandler.handle(readInterfacesAdded(in));
+                    } else {
+                        throw new IOException(String.format("unknown record type %d", recordType));
+                    }
+                } catch (DBusException e) {
+                    throw new IOException("invalid signal in trace", e);
+                }
+                replayed++;
+            }
+        } catch (EOFException e) {
+            // The recording process stopped in the middle of a record, so replay what is complete
+        }
+        return replayed;
+    }
+
+    private static void awaitTimestamp(long sessionStartNanos, long timestampNanos, double speed) throws InterruptedException {
+        if (speed == MAX_SPEED) return;
+
+        final long deadline = sessionStartNanos + (long) (timestampNanos / speed);
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+
+    private static @NotNull Properties.PropertiesChanged readPropertiesChanged(@NotNull DataInputStream in) throws IOException, DBusException {
+        final String path = in.readUTF();
+        final String interfaceName = in.readUTF();
+        final Map<String, Variant<?>> changed = readProperties(in);
+        final int removedCount = in.readInt();
+        final List<String> removed = new ArrayList<>(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            removed.add(in.readUTF());
+        }
+        return new Properties.PropertiesChanged(path, interfaceName, changed, removed);
+    }
+
+    private static @NotNull ObjectManager.InterfacesAdded readInterfacesAdded(@NotNull DataInputStream in) throws IOException, DBusException {
+        final String source = in.readUTF();
+        final String objectPath = in.readUTF();
+        final int interfaceCount = in.readInt();
+        final Map<String, Map<String, Variant<?>>> interfaces = new LinkedHashMap<>();
+        for (int i = 0; i < interfaceCount; i++) {
+            final String interfaceName = in.readUTF();
+            interfaces.put(interfaceName, readProperties(in));
+        }
+        return new ObjectManager.InterfacesAdded(source, new DBusPath(objectPath), interfaces);
+    }
+
+    private static @NotNull Map<String, Variant<?>> readProperties(@NotNull DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        final Map<String, Variant<?>> properties = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final String name = in.readUTF();
+            properties.put(name, (Variant<?>) SignalRecorder.readValue(in, "v"));
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,160 @@
+package com.welie.blessed;
+
+import com.welie.blessed.bluez.BluezGattCharacteristic;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.CallbackHandler;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.welie.blessed.BluetoothCommandStatus.*;
+
+/**
+ * Writes a sequence of packets to a characteristic using write-without-response, keeping a window of writes in flight.
+ * <p>
+ * Each write is sent to Bluez asynchronously. A new write is only sent when there are less than 'window' writes
+ * waiting for their reply, so Bluez is never flooded and the writes are not serialized on the DBus round trip either.
+ */
+final class StreamWriter {
+    private static final String TAG = StreamWriter.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    // Allocated once so that the write loop doesn't have to build an options map for every packet
+    private static final Map<String, Variant<?>> WRITE_COMMAND_OPTIONS = Collections.singletonMap("type", new Variant<>("command"));
+
+    private static final long REPLY_TIMEOUT_IN_MS = 5000;
+
+    @NotNull
+    private final BluezGattCharacteristic nativeCharacteristic;
+
+    private final int window;
+
+    @NotNull
+    private final Semaphore inFlight;
+
+    private volatile BluetoothCommandStatus failure;
+
+    private final CallbackHandler<Void> replyHandler = new CallbackHandler<Void>() {
+        @Override
+        public void handle(Void reply) {
+            inFlight.release();
+        }
+
+        @Override
+        public void handleError(DBusExecutionException e) {
+            if (failure == null) {
+                failure = mapError(e);
+                logger.error(String.format("stream write failed: %s", e.getMessage()));
+            }
+            inFlight.release();
+        }
+    };
+
+    private long bytesWritten;
+    private int packetsWritten;
+    private long durationNanos;
+
+    StreamWriter(@NotNull BluezGattCharacteristic nativeCharacteristic, int window) {
+        this.nativeCharacteristic = Objects.requireNonNull(nativeCharacteristic, "no valid characteristic provided");
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+        this.window = window;
+        this.inFlight = new Semaphore(window);
+    }
+
+    /**
+     * Write all packets and wait until Bluez has replied to all of them.
+     *
+     * @param packets the packets to write
+     * @param connected supplier that tells if the peripheral is still connected
+     * @return the status of the stream
+     */
+    @NotNull
+    BluetoothCommandStatus write(@NotNull Iterator<byte[]> packets, @NotNull BooleanSupplier connected) {
+        final long start = System.nanoTime();
+        BluetoothCommandStatus status = COMMAND_SUCCESS;
+        try {
+            while (packets.hasNext()) {
+                if (failure != null) break;
+
+                if (!connected.getAsBoolean()) {
+                    status = NOT_CONNECTED;
+                    break;
+                }
+
+                final byte[] packet = packets.next();
+                if (packet == null || packet.length == 0) continue;
+
+                // Flow control: wait until one of the outstanding writes has been acknowledged by Bluez
+                if (!inFlight.tryAcquire(REPLY_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS)) {
+                    logger.error("stream write timed out waiting for Bluez");
+                    status = BLUEZ_OPERATION_FAILED;
+                    break;
+                }
+
+                try {
+                    nativeCharacteristic.writeValueAsync(packet, WRITE_COMMAND_OPTIONS, replyHandler);
+                } catch (DBusExecutionException e) {
+                    inFlight.release();
+                    status = mapError(e);
+                    break;
+                }
+                bytesWritten += packet.length;
+                packetsWritten++;
+            }
+
+            // Wait for the replies of the writes that are still in flight
+            if (!inFlight.tryAcquire(window, REPLY_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS)) {
+                logger.error("stream write timed out waiting for the last replies");
+                if (status == COMMAND_SUCCESS) status = BLUEZ_OPERATION_FAILED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = BLUEZ_OPERATION_FAILED;
+        }
+        durationNanos = System.nanoTime() - start;
+
+        if (status == COMMAND_SUCCESS && failure != null) {
+            status = failure;
+        }
+        return status;
+    }
+
+    @NotNull
+    TransferStatistics getStatistics() {
+        return new TransferStatistics(bytesWritten, packetsWritten, durationNanos);
+    }
+
+    @NotNull
+    private static BluetoothCommandStatus mapError(@NotNull DBusExecutionException e) {
+        final String type = e.getType();
+        if (type == null) return DBUS_EXECUTION_EXCEPTION;
+
+        switch (type) {
+            case "org.bluez.Error.InProgress":
+                return BLUEZ_OPERATION_IN_PROGRESS;
+            case "org.bluez.Error.NotPermitted":
+                return WRITE_NOT_PERMITTED;
+            case "org.bluez.Error.NotAuthorized":
+                return INSUFFICIENT_AUTHORIZATION;
+            case "org.bluez.Error.NotSupported":
+                return REQUEST_NOT_SUPPORTED;
+            case "org.bluez.Error.InvalidValueLength":
+                return INVALID_ATTRIBUTE_VALUE_LENGTH;
+            case "org.bluez.Error.Failed":
+                return BLUEZ_OPERATION_FAILED;
+            default:
+                return DBUS_EXECUTION_EXCEPTION;
+        }
+    }
+}
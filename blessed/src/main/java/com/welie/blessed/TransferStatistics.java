@@ -0,0 +1,63 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of a completed stream write
+ */
+public final class TransferStatistics {
+    private final long bytesTransferred;
+    private final int packetsTransferred;
+    private final long durationNanos;
+
+    public TransferStatistics(long bytesTransferred, int packetsTransferred, long durationNanos) {
+        this.bytesTransferred = bytesTransferred;
+        this.packetsTransferred = packetsTransferred;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Get the number of bytes that were handed to Bluez
+     *
+     * @return the number of bytes transferred
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * Get the number of packets that were handed to Bluez
+     *
+     * @return the number of packets transferred
+     */
+    public int getPacketsTransferred() {
+        return packetsTransferred;
+    }
+
+    /**
+     * Get the time it took to complete the transfer
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Get the achieved throughput of the transfer
+     *
+     * @return the throughput in bytes per second, or 0 if the duration was 0
+     */
+    public double getBytesPerSecond() {
+        if (durationNanos <= 0) return 0;
+        return bytesTransferred * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return String.format(Locale.ENGLISH, "%d bytes in %d packets in %.1fms (%.0f bytes/s)", bytesTransferred, packetsTransferred, durationNanos / 1000000.0, getBytesPerSecond());
+    }
+}
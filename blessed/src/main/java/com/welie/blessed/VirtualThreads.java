@@ -0,0 +1,36 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the handlers for the command queues and signals of the central and its peripherals.
+ * <p>
+ * With the system property {@value PROPERTY} set to true, the multi-release jar runs them on virtual threads on Java 21
+ * and later, see META-INF/versions/21. Virtual threads are not available on this Java version, so this version always
+ * uses a platform thread per handler.
+ */
+final class VirtualThreads {
+    static final String PROPERTY = "blessed.virtualThreads";
+
+    private static final String TAG = VirtualThreads.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    static {
+        if (Boolean.getBoolean(PROPERTY)) {
+            logger.warn(String.format("%s is set but virtual threads need Java 21, using platform threads", PROPERTY));
+        }
+    }
+
+    private VirtualThreads() {
+    }
+
+    static boolean isEnabled() {
+        return false;
+    }
+
+    static @NotNull Handler newHandler(@NotNull String name) {
+        return new Handler(name);
+    }
+}
@@ -0,0 +1,84 @@
+package com.welie.blessed;
+
+import com.welie.blessed.bluez.AcquiredFileDescriptor;
+import jnr.enxio.channels.NativeSocketChannel;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Socket that was acquired with AcquireWrite.
+ * <p>
+ * Every write on the socket is sent by Bluez as a single write-command, without a DBus call per packet.
+ * While the socket is open, WriteValue on the characteristic is locked by Bluez.
+ */
+final class WriteChannel {
+    private static final String TAG = WriteChannel.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    // Size of the ATT opcode and handle that precede the value in a write-command
+    private static final int ATT_WRITE_HEADER_SIZE = 3;
+    private static final int DEFAULT_MTU = 23;
+
+    @NotNull
+    private final NativeSocketChannel channel;
+
+    private final int mtu;
+
+    private volatile boolean closed = false;
+
+    WriteChannel(@NotNull AcquiredFileDescriptor acquiredFileDescriptor) {
+        Objects.requireNonNull(acquiredFileDescriptor, "no valid file descriptor provided");
+        this.channel = new NativeSocketChannel(acquiredFileDescriptor.getFileDescriptor());
+        this.mtu = acquiredFileDescriptor.getMtu();
+    }
+
+    int getMtu() {
+        return mtu;
+    }
+
+    /**
+     * Get the maximum number of bytes that fit in a single write-command
+     *
+     * @return the chunk size
+     */
+    int getChunkSize() {
+        return Math.max(mtu, DEFAULT_MTU) - ATT_WRITE_HEADER_SIZE;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Write one packet. The packet must not be larger than the chunk size.
+     *
+     * @param packet the packet to write, from its position up to its limit
+     * @throws IOException if the socket was closed or the write failed
+     */
+    void write(@NotNull ByteBuffer packet) throws IOException {
+        final int length = packet.remaining();
+        final int written = channel.write(packet);
+        if (written != length) {
+            throw new IOException(String.format("short write on acquired socket, %d of %d bytes written", written, length));
+        }
+    }
+
+    /**
+     * Close the socket, which releases the acquired write in Bluez
+     */
+    void close() {
+        if (closed) return;
+        closed = true;
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error(String.format("closing write socket failed: %s", e.getMessage()));
+        }
+    }
+}
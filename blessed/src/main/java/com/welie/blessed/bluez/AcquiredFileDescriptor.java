@@ -0,0 +1,37 @@
+package com.welie.blessed.bluez;
+
+/**
+ * File descriptor and MTU returned by AcquireNotify or AcquireWrite.
+ */
+public final class AcquiredFileDescriptor {
+
+    private final int fileDescriptor;
+    private final int mtu;
+
+    public AcquiredFileDescriptor(int _fileDescriptor, int _mtu) {
+        fileDescriptor = _fileDescriptor;
+        mtu = _mtu;
+    }
+
+    /**
+     * Get the native file descriptor of the socket.<br>
+     * The owner of this object is responsible for closing it.
+     * @return file descriptor
+     */
+    public int getFileDescriptor() {
+        return fileDescriptor;
+    }
+
+    /**
+     * Get the MTU that was negotiated for the link.
+     * @return mtu
+     */
+    public int getMtu() {
+        return mtu;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [fileDescriptor=" + fileDescriptor + ", mtu=" + mtu + "]";
+    }
+}
@@ -1,5 +1,6 @@
 package com.welie.blessed.bluez;
 
+import com.welie.blessed.BluetoothUUID;
 import org.bluez.Device1;
 import org.bluez.GattService1;
 import org.bluez.exceptions.*;
@@ -188,7 +189,7 @@ public class BluezDevice extends AbstractBluetoothObject {
         try {
             List<String> typed = getTyped("UUIDs", ArrayList.class);
             if (typed != null) {
-                typed.stream().map(UUID::fromString).forEach(result::add);
+                typed.stream().map(BluetoothUUID::fromString).forEach(result::add);
             }
         } catch (Exception ignored) {
         }
@@ -1,10 +1,17 @@
 package com.welie.blessed.bluez;
 
+import com.welie.blessed.BluetoothUUID;
 import org.bluez.GattCharacteristic1;
 import org.bluez.GattDescriptor1;
+import org.bluez.datatypes.TwoTuple;
 import org.bluez.exceptions.*;
+import org.freedesktop.dbus.FileDescriptor;
 import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.CallbackHandler;
 import org.freedesktop.dbus.interfaces.DBusInterface;
+import org.freedesktop.dbus.types.UInt16;
+import org.freedesktop.dbus.types.Variant;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
@@ -100,6 +107,18 @@ public class BluezGattCharacteristic extends AbstractBluetoothObject {
         gattCharacteristic.WriteValue(_value, optionsToVariantMap(_options));
     }
 
+    /**
+     * Write value to the GATT characteristic register without waiting for the reply.<br>
+     * The options are passed to DBus as-is, so they can be allocated once and reused for every write.<br>
+     * The result of the write is delivered to the callback handler on the DBus thread.
+     * @param _value value to write
+     * @param _options options to use, already converted to variants
+     * @param _callback handler that receives the reply or the error
+     */
+    public void writeValueAsync(byte[] _value, Map<String, Variant<?>> _options, CallbackHandler<Void> _callback) {
+        getDbusConnection().callWithCallback(gattCharacteristic, "WriteValue", _callback, _value, _options);
+    }
+
     /**
      * Read a value from the GATT characteristics register.<br>
      * Supported options:<br>
@@ -129,7 +148,7 @@ public class BluezGattCharacteristic extends AbstractBluetoothObject {
      */
     public UUID getUuid() {
         if(uuid == null) {
-            uuid = UUID.fromString(getTyped("UUID", String.class));
+            uuid = BluetoothUUID.fromString(getTyped("UUID", String.class));
         }
         return uuid;
     }
@@ -178,6 +197,21 @@ public class BluezGattCharacteristic extends AbstractBluetoothObject {
         return getTyped("Notifying", Boolean.class);
     }
 
+    /**
+     * From bluez Documentation:<br>
+     * Characteristic MTU, this is valid both for ReadValue and WriteValue but either method can use long procedures when supported.
+     * @return the MTU, maybe null if the property is not supported by this version of Bluez
+     */
+    public Integer getMtu() {
+        try {
+            UInt16 mtu = getTyped("MTU", UInt16.class);
+            return mtu != null ? mtu.intValue() : null;
+        } catch (DBusExecutionException _ex) {
+            // Older versions of Bluez don't have this property
+            return null;
+        }
+    }
+
     /**
      * <b>From bluez Documentation:</b>
      * <p>
@@ -247,6 +281,52 @@ public class BluezGattCharacteristic extends AbstractBluetoothObject {
         gattCharacteristic.StopNotify();
     }
 
+    /**
+     * <b>From bluez Documentation:</b>
+     * <p>
+     * Acquire file descriptor and MTU for writing. Usage of
+     * WriteValue will be locked causing it to return
+     * NotPermitted error.
+     * For client it only works with characteristic that has
+     * WriteAcquired property which relies on
+     * write-without-response Flag.
+     * To release the lock the client shall close the file
+     * descriptor, a HUP is generated in case the device
+     * is disconnected.
+     * <br>
+     * </p>
+     * @return the acquired file descriptor and MTU
+     * @throws BluezFailedException on failure if operation failed
+     * @throws BluezNotSupportedException when operation not supported
+     */
+    public AcquiredFileDescriptor acquireWrite() throws BluezFailedException, BluezNotSupportedException {
+        TwoTuple<FileDescriptor, UInt16> result = gattCharacteristic.AcquireWrite(new HashMap<>());
+        return new AcquiredFileDescriptor(result.getFirstValue().getIntFileDescriptor(), result.getSecondValue().intValue());
+    }
+
+    /**
+     * <b>From bluez Documentation:</b>
+     * <p>
+     * Acquire file descriptor and MTU for notify. Usage of
+     * StartNotify will be locked causing it to return
+     * NotPermitted error.
+     * Notification are enabled during this procedure so
+     * StartNotify shall not be called, any notification
+     * will be dispatched via file descriptor.
+     * To release the lock the client shall close the file
+     * descriptor, a HUP is generated in case the device
+     * is disconnected.
+     * <br>
+     * </p>
+     * @return the acquired file descriptor and MTU
+     * @throws BluezFailedException on failure if operation failed
+     * @throws BluezNotSupportedException when operation not supported
+     */
+    public AcquiredFileDescriptor acquireNotify() throws BluezFailedException, BluezNotSupportedException {
+        TwoTuple<FileDescriptor, UInt16> result = gattCharacteristic.AcquireNotify(new HashMap<>());
+        return new AcquiredFileDescriptor(result.getFirstValue().getIntFileDescriptor(), result.getSecondValue().intValue());
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + " [gattCharacteristic=" + gattCharacteristic
@@ -1,5 +1,6 @@
 package com.welie.blessed.bluez;
 
+import com.welie.blessed.BluetoothUUID;
 import org.bluez.GattDescriptor1;
 import org.bluez.exceptions.*;
 import org.freedesktop.dbus.connections.impl.DBusConnection;
@@ -82,7 +83,7 @@ public class BluezGattDescriptor extends AbstractBluetoothObject {
      * @return uuid, maybe null
      */
     public UUID getUuid() {
-        return UUID.fromString(getTyped("UUID", String.class));
+        return BluetoothUUID.fromString(getTyped("UUID", String.class));
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.welie.blessed.bluez;
 
+import com.welie.blessed.BluetoothUUID;
 import org.bluez.GattCharacteristic1;
 import org.bluez.GattService1;
 import org.bluez.exceptions.BluezNotImplementedException;
@@ -81,7 +82,7 @@ public class BluezGattService extends AbstractBluetoothObject {
      * @return uuid, maybe null
      */
     public UUID getUuid() {
-        return UUID.fromString(getTyped("UUID", String.class));
+        return BluetoothUUID.fromString(getTyped("UUID", String.class));
     }
 
     /**
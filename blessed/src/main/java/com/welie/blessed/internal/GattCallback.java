@@ -10,14 +10,18 @@ public abstract class GattCallback {
 
     public abstract void onCharacteristicRead(@NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status);
 
-    public abstract void onCharacteristicChanged(@NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic);
+    public abstract void onCharacteristicChanged(@NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic, long receivedNanos);
 
     public abstract void onCharacteristicWrite(@NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status);
 
+    public abstract void onStreamWriteCompleted(@NotNull BluetoothGattCharacteristic characteristic, @NotNull TransferStatistics statistics, @NotNull BluetoothCommandStatus status);
+
     public abstract void onDescriptorWrite(@NotNull BluetoothGattDescriptor descriptor, @NotNull BluetoothCommandStatus status);
 
     public abstract void onNotificationStateUpdate(@NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status);
 
+    public abstract void onBatchCompleted(@NotNull BluetoothCommandStatus status);
+
     public abstract void onServicesDiscovered(@NotNull List<@NotNull BluetoothGattService> services);
 
     public abstract void onPairingStarted();
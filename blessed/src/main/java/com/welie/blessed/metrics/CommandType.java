@@ -0,0 +1,14 @@
+package com.welie.blessed.metrics;
+
+/**
+ * The kinds of commands in the command queue of a peripheral, for which latencies are recorded separately
+ */
+public enum CommandType {
+    READ,
+    WRITE,
+    STREAM_WRITE,
+    CHUNKED_WRITE,
+    BULK_WRITE,
+    SET_NOTIFY,
+    BATCH
+}
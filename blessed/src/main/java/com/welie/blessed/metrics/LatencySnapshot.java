@@ -0,0 +1,88 @@
+package com.welie.blessed.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * The values of a {@link LatencyHistogram} at one moment
+ */
+public final class LatencySnapshot {
+    private final long[] bucketCounts;
+    private final long count;
+    private final double meanNanos;
+    private final long minNanos;
+    private final long maxNanos;
+
+    LatencySnapshot(@NotNull long[] bucketCounts, long count, double meanNanos, long minNanos, long maxNanos) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.minNanos = minNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Get the number of recorded values
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the mean of the recorded values
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    /**
+     * Get the smallest recorded value
+     *
+     * @return the minimum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMinNanos() {
+        return minNanos;
+    }
+
+    /**
+     * Get the largest recorded value
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Get the value below which a percentage of the recorded values fall
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the value in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (count == 0) return 0;
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return String.format(Locale.ENGLISH, "count=%d mean=%.2fms p50=%.2fms p99=%.2fms max=%.2fms", count, meanNanos / 1000000.0, getPercentileNanos(50) / 1000000.0, getPercentileNanos(99) / 1000000.0, maxNanos / 1000000.0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.welie.blessed.metrics;
+
+/**
+ * The stages a characteristic value or advertisement goes through from arriving over D-Bus until its callback is
+ * called, for which latencies are recorded separately. The stages of the callback are only recorded when callback
+ * tracing is on, see {@link MetricsRegistry#setCallbackTracing(boolean)}.
+ */
+public enum LatencyStage {
+    /**
+     * From a signal arriving from D-Bus until a central or peripheral starts handling it on its signal thread
+     */
+    SIGNAL_QUEUE,
+
+    /**
+     * From posting a value or scan result callback until it starts on the callback thread
+     */
+    CALLBACK_QUEUE,
+
+    /**
+     * The time a value or scan result callback runs. The callback thread is shared, so a slow callback delays all peripherals
+     */
+    CALLBACK,
+
+    /**
+     * From a characteristic value arriving until its callback starts
+     */
+    NOTIFICATION,
+
+    /**
+     * From an advertisement arriving until onDiscoveredPeripheral starts
+     */
+    SCAN_RESULT
+}
@@ -0,0 +1,119 @@
+package com.welie.blessed.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Exposes metrics snapshots over JMX. Every attribute is read from a new snapshot.
+ */
+public final class MetricsMBean implements MetricsMXBean {
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final @NotNull Supplier<MetricsSnapshot> snapshots;
+
+    public MetricsMBean(@NotNull Supplier<MetricsSnapshot> snapshots) {
+        this.snapshots = Objects.requireNonNull(snapshots, "no valid snapshot supplier provided");
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    private @NotNull Map<String, Double> commandPercentiles(double percentile) {
+        final Map<String, Double> percentiles = new LinkedHashMap<>();
+        snapshots.get().getCommandLatencies().forEach((type, latency) -> percentiles.put(type.name(), millis(latency.getPercentileNanos(percentile))));
+        return percentiles;
+    }
+
+    private @NotNull Map<String, Double> stagePercentiles(double percentile) {
+        final Map<String, Double> percentiles = new LinkedHashMap<>();
+        snapshots.get().getStageLatencies().forEach((stage, latency) -> percentiles.put(stage.name(), millis(latency.getPercentileNanos(percentile))));
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        snapshots.get().getCommandLatencies().forEach((type, latency) -> counts.put(type.name(), latency.getCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getCommandLatencyP50Millis() {
+        return commandPercentiles(50);
+    }
+
+    @Override
+    public Map<String, Double> getCommandLatencyP99Millis() {
+        return commandPercentiles(99);
+    }
+
+    @Override
+    public Map<String, Double> getStageLatencyP50Millis() {
+        return stagePercentiles(50);
+    }
+
+    @Override
+    public Map<String, Double> getStageLatencyP99Millis() {
+        return stagePercentiles(99);
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepths() {
+        return snapshots.get().getQueueDepths();
+    }
+
+    @Override
+    public long getNotificationCount() {
+        return snapshots.get().getNotificationCount();
+    }
+
+    @Override
+    public double getNotificationsPerSecond() {
+        return snapshots.get().getNotificationsPerSecond();
+    }
+
+    @Override
+    public long getScanResultCount() {
+        return snapshots.get().getScanResultCount();
+    }
+
+    @Override
+    public double getScanResultsPerSecond() {
+        return snapshots.get().getScanResultsPerSecond();
+    }
+
+    @Override
+    public long getDbusCalls() {
+        return snapshots.get().getDbusCalls();
+    }
+
+    @Override
+    public long getDbusFailures() {
+        return snapshots.get().getDbusFailures();
+    }
+
+    @Override
+    public double getConnectDurationP50Millis() {
+        return millis(snapshots.get().getConnectDurations().getPercentileNanos(50));
+    }
+
+    @Override
+    public double getConnectDurationP99Millis() {
+        return millis(snapshots.get().getConnectDurations().getPercentileNanos(99));
+    }
+
+    @Override
+    public double getServiceDiscoveryDurationP50Millis() {
+        return millis(snapshots.get().getServiceDiscoveryDurations().getPercentileNanos(50));
+    }
+
+    @Override
+    public double getServiceDiscoveryDurationP99Millis() {
+        return millis(snapshots.get().getServiceDiscoveryDurations().getPercentileNanos(99));
+    }
+}
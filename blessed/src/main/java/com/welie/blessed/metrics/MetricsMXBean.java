@@ -0,0 +1,40 @@
+package com.welie.blessed.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics of a central as a JMX MXBean, see {@link com.welie.blessed.BluetoothCentral#registerMetricsMBean()}
+ */
+public interface MetricsMXBean {
+    Map<String, Long> getCommandCounts();
+
+    Map<String, Double> getCommandLatencyP50Millis();
+
+    Map<String, Double> getCommandLatencyP99Millis();
+
+    Map<String, Double> getStageLatencyP50Millis();
+
+    Map<String, Double> getStageLatencyP99Millis();
+
+    Map<String, Integer> getQueueDepths();
+
+    long getNotificationCount();
+
+    double getNotificationsPerSecond();
+
+    long getScanResultCount();
+
+    double getScanResultsPerSecond();
+
+    long getDbusCalls();
+
+    long getDbusFailures();
+
+    double getConnectDurationP50Millis();
+
+    double getConnectDurationP99Millis();
+
+    double getServiceDiscoveryDurationP50Millis();
+
+    double getServiceDiscoveryDurationP99Millis();
+}
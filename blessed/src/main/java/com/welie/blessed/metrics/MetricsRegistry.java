@@ -0,0 +1,162 @@
+package com.welie.blessed.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the metrics of a central and its peripherals.
+ * <p>
+ * Recording doesn't allocate and only uses atomic counters, so the registry is always on. Only the latencies of value
+ * and scan result callbacks are off by default, because they need a wrapper around every callback, see
+ * {@link #setCallbackTracing(boolean)}. Use {@link com.welie.blessed.BluetoothCentral#getMetrics()} to get a snapshot.
+ */
+public final class MetricsRegistry {
+    private final LatencyHistogram[] commandLatencies = new LatencyHistogram[CommandType.values().length];
+    private final LatencyHistogram[] stageLatencies = new LatencyHistogram[LatencyStage.values().length];
+    private final LatencyHistogram connectDurations = new LatencyHistogram();
+    private final LatencyHistogram serviceDiscoveryDurations = new LatencyHistogram();
+    private final RateMeter notifications = new RateMeter();
+    private final RateMeter scanResults = new RateMeter();
+    private final AtomicLong dbusCalls = new AtomicLong();
+    private final AtomicLong dbusFailures = new AtomicLong();
+    private volatile boolean callbackTracing;
+
+    public MetricsRegistry() {
+        for (int i = 0; i < commandLatencies.length; i++) {
+            commandLatencies[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record the time between the start of a command and its completion
+     *
+     * @param type  the type of the command
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordCommand(@NotNull CommandType type, long nanos) {
+        commandLatencies[type.ordinal()].record(nanos);
+    }
+
+    /**
+     * Record the time a characteristic value or advertisement spent in one stage
+     *
+     * @param stage the stage
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordStage(@NotNull LatencyStage stage, long nanos) {
+        stageLatencies[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * Turn recording the {@link LatencyStage#CALLBACK_QUEUE}, {@link LatencyStage#CALLBACK}, {@link LatencyStage#NOTIFICATION}
+     * and {@link LatencyStage#SCAN_RESULT} latencies on or off. Off by default.
+     *
+     * @param enabled true to record the latencies
+     */
+    public void setCallbackTracing(boolean enabled) {
+        callbackTracing = enabled;
+    }
+
+    public boolean isCallbackTracing() {
+        return callbackTracing;
+    }
+
+    /**
+     * Wrap a callback for a received value or advertisement, so that the time it waits for the callback thread, the time
+     * it runs and the time since the value was received are recorded. When callback tracing is off the callback is
+     * returned as it is.
+     *
+     * @param stage         {@link LatencyStage#NOTIFICATION} or {@link LatencyStage#SCAN_RESULT}
+     * @param receivedNanos the {@link System#nanoTime()} at which the value was received
+     * @param callback      the callback
+     * @return the callback to post to the callback thread
+     */
+    public @NotNull Runnable traceCallback(@NotNull LatencyStage stage, long receivedNanos, @NotNull Runnable callback) {
+        if (!callbackTracing) return callback;
+
+        final long postedNanos = System.nanoTime();
+        return () -> {
+            final long startNanos = System.nanoTime();
+            recordStage(LatencyStage.CALLBACK_QUEUE, startNanos - postedNanos);
+            recordStage(stage, startNanos - receivedNanos);
+            try {
+                callback.run();
+            } finally {
+                recordStage(LatencyStage.CALLBACK, System.nanoTime() - startNanos);
+            }
+        };
+    }
+
+    /**
+     * Record a characteristic value received from a peripheral
+     */
+    public void recordNotification() {
+        notifications.mark();
+    }
+
+    /**
+     * Record an advertisement received while scanning
+     */
+    public void recordScanResult() {
+        scanResults.mark();
+    }
+
+    /**
+     * Record a D-Bus method call to Bluez
+     *
+     * @param succeeded false if Bluez replied with an error
+     */
+    public void recordDbusCall(boolean succeeded) {
+        dbusCalls.incrementAndGet();
+        if (!succeeded) dbusFailures.incrementAndGet();
+    }
+
+    /**
+     * Record the time between a connect call and the peripheral being connected
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordConnect(long nanos) {
+        connectDurations.record(nanos);
+    }
+
+    /**
+     * Record the time between a peripheral being connected and its services being discovered
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordServiceDiscovery(long nanos) {
+        serviceDiscoveryDurations.record(nanos);
+    }
+
+    /**
+     * Take a snapshot of the metrics
+     *
+     * @param queueDepths the number of commands in the queue of every peripheral, by address
+     * @return the snapshot
+     */
+    public @NotNull MetricsSnapshot snapshot(@NotNull Map<String, Integer> queueDepths) {
+        Objects.requireNonNull(queueDepths, "no valid queue depths provided");
+
+        final Map<CommandType, LatencySnapshot> latencies = new EnumMap<>(CommandType.class);
+        for (CommandType type : CommandType.values()) {
+            latencies.put(type, commandLatencies[type.ordinal()].snapshot());
+        }
+        final Map<LatencyStage, LatencySnapshot> stages = new EnumMap<>(LatencyStage.class);
+        for (LatencyStage stage : LatencyStage.values()) {
+            stages.put(stage, stageLatencies[stage.ordinal()].snapshot());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), latencies, stages, queueDepths,
+                notifications.getTotal(), notifications.getRatePerSecond(),
+                scanResults.getTotal(), scanResults.getRatePerSecond(),
+                dbusCalls.get(), dbusFailures.get(),
+                connectDurations.snapshot(), serviceDiscoveryDurations.snapshot());
+    }
+}
@@ -0,0 +1,160 @@
+package com.welie.blessed.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The metrics of a central and its peripherals at one moment
+ */
+public final class MetricsSnapshot {
+    private final long timestamp;
+    private final @NotNull Map<CommandType, LatencySnapshot> commandLatencies;
+    private final @NotNull Map<LatencyStage, LatencySnapshot> stageLatencies;
+    private final @NotNull Map<String, Integer> queueDepths;
+    private final long notificationCount;
+    private final double notificationsPerSecond;
+    private final long scanResultCount;
+    private final double scanResultsPerSecond;
+    private final long dbusCalls;
+    private final long dbusFailures;
+    private final @NotNull LatencySnapshot connectDurations;
+    private final @NotNull LatencySnapshot serviceDiscoveryDurations;
+
+    MetricsSnapshot(long timestamp, @NotNull Map<CommandType, LatencySnapshot> commandLatencies, @NotNull Map<LatencyStage, LatencySnapshot> stageLatencies, @NotNull Map<String, Integer> queueDepths,
+                    long notificationCount, double notificationsPerSecond, long scanResultCount, double scanResultsPerSecond,
+                    long dbusCalls, long dbusFailures, @NotNull LatencySnapshot connectDurations, @NotNull LatencySnapshot serviceDiscoveryDurations) {
+        this.timestamp = timestamp;
+        this.commandLatencies = Collections.unmodifiableMap(commandLatencies);
+        this.stageLatencies = Collections.unmodifiableMap(stageLatencies);
+        this.queueDepths = Collections.unmodifiableMap(new LinkedHashMap<>(queueDepths));
+        this.notificationCount = notificationCount;
+        this.notificationsPerSecond = notificationsPerSecond;
+        this.scanResultCount = scanResultCount;
+        this.scanResultsPerSecond = scanResultsPerSecond;
+        this.dbusCalls = dbusCalls;
+        this.dbusFailures = dbusFailures;
+        this.connectDurations = connectDurations;
+        this.serviceDiscoveryDurations = serviceDiscoveryDurations;
+    }
+
+    /**
+     * Get the time the snapshot was taken
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the latencies of the commands of all peripherals, from the start of the command until it completes
+     *
+     * @return the latencies by command type
+     */
+    public @NotNull Map<CommandType, LatencySnapshot> getCommandLatencies() {
+        return commandLatencies;
+    }
+
+    /**
+     * Get the latencies of one type of command
+     *
+     * @param type the command type
+     * @return the latencies
+     */
+    public @NotNull LatencySnapshot getCommandLatency(@NotNull CommandType type) {
+        return commandLatencies.get(type);
+    }
+
+    /**
+     * Get the latencies of characteristic values and advertisements per stage, from arriving over D-Bus until their callback
+     *
+     * @return the latencies by stage
+     */
+    public @NotNull Map<LatencyStage, LatencySnapshot> getStageLatencies() {
+        return stageLatencies;
+    }
+
+    /**
+     * Get the latencies of one stage
+     *
+     * @param stage the stage
+     * @return the latencies
+     */
+    public @NotNull LatencySnapshot getStageLatency(@NotNull LatencyStage stage) {
+        return stageLatencies.get(stage);
+    }
+
+    /**
+     * Get the number of commands waiting in the queue of every connected peripheral, including the one that is executing
+     *
+     * @return the queue depths by peripheral address
+     */
+    public @NotNull Map<String, Integer> getQueueDepths() {
+        return queueDepths;
+    }
+
+    /**
+     * Get the number of characteristic values received, from notifications and reads
+     *
+     * @return the number of values
+     */
+    public long getNotificationCount() {
+        return notificationCount;
+    }
+
+    public double getNotificationsPerSecond() {
+        return notificationsPerSecond;
+    }
+
+    /**
+     * Get the number of advertisements received while scanning, including the ones that didn't match the scan filters
+     *
+     * @return the number of scan results
+     */
+    public long getScanResultCount() {
+        return scanResultCount;
+    }
+
+    public double getScanResultsPerSecond() {
+        return scanResultsPerSecond;
+    }
+
+    /**
+     * Get the number of D-Bus method calls for connects and GATT commands
+     *
+     * @return the number of calls
+     */
+    public long getDbusCalls() {
+        return dbusCalls;
+    }
+
+    /**
+     * Get the number of D-Bus method calls that Bluez answered with an error
+     *
+     * @return the number of failed calls
+     */
+    public long getDbusFailures() {
+        return dbusFailures;
+    }
+
+    /**
+     * Get the durations from a connect call until the peripheral is connected
+     *
+     * @return the connect durations
+     */
+    public @NotNull LatencySnapshot getConnectDurations() {
+        return connectDurations;
+    }
+
+    /**
+     * Get the durations from being connected until the services are discovered
+     *
+     * @return the service discovery durations
+     */
+    public @NotNull LatencySnapshot getServiceDiscoveryDurations() {
+        return serviceDiscoveryDurations;
+    }
+}
@@ -0,0 +1,73 @@
+package com.welie.blessed.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events and the rate at which they happen, averaged over the last {@value WINDOW_SECONDS} whole seconds.
+ * <p>
+ * Events are counted in slots of one second, so marking an event doesn't allocate. A slot is cleared by the first event
+ * of a new second; an event that races with that may get lost, which is fine for a rate.
+ */
+public final class RateMeter {
+    static final int WINDOW_SECONDS = 5;
+    private static final int SLOTS = 8;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLongArray slotCounts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray slotSeconds = new AtomicLongArray(SLOTS);
+
+    public RateMeter() {
+        final long second = currentSecond();
+        for (int i = 0; i < SLOTS; i++) {
+            slotSeconds.set(i, second);
+        }
+    }
+
+    private static long currentSecond() {
+        return System.nanoTime() / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Count one event
+     */
+    public void mark() {
+        total.incrementAndGet();
+
+        final long second = currentSecond();
+        final int slot = (int) (second & (SLOTS - 1));
+        final long slotSecond = slotSeconds.get(slot);
+        if (slotSecond != second && slotSeconds.compareAndSet(slot, slotSecond, second)) {
+            slotCounts.set(slot, 0);
+        }
+        slotCounts.incrementAndGet(slot);
+    }
+
+    /**
+     * Get the number of events since the meter was created
+     *
+     * @return the number of events
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Get the number of events per second over the last {@value WINDOW_SECONDS} whole seconds
+     *
+     * @return the rate in events per second
+     */
+    public double getRatePerSecond() {
+        final long second = currentSecond();
+        long events = 0;
+        for (long s = second - WINDOW_SECONDS; s < second; s++) {
+            final int slot = (int) (s & (SLOTS - 1));
+            if (slotSeconds.get(slot) == s) {
+                events += slotCounts.get(slot);
+            }
+        }
+        return events / (double) WINDOW_SECONDS;
+    }
+}
@@ -0,0 +1,94 @@
+package com.welie.blessed.profiles;
+
+import com.welie.blessed.BluetoothBufferParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Glucose Measurement (0x2A18) of the Glucose profile.
+ */
+public final class GlucoseMeasurement implements ProfileRecord {
+
+    public static final UUID CHARACTERISTIC_UUID = UUID.fromString("00002a18-0000-1000-8000-00805f9b34fb");
+
+    public int flags;
+
+    public int sequenceNumber;
+
+    /**
+     * Base time of the measurement in milliseconds since the epoch, see {@link #getTimestamp()}
+     */
+    public long baseTime;
+
+    /**
+     * Offset from the base time in minutes
+     */
+    public int timeOffset;
+    public boolean timeOffsetPresent;
+
+    /**
+     * Glucose concentration in kg/L or mol/L, see {@link #isMolPerLiter()}
+     */
+    public float concentration;
+
+    /**
+     * Type of the sample, for example 1 capillary whole blood
+     */
+    public int type;
+
+    /**
+     * Location of the sample, for example 1 finger
+     */
+    public int sampleLocation;
+    public boolean concentrationPresent;
+
+    public int sensorStatusAnnunciation;
+    public boolean sensorStatusAnnunciationPresent;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        flags = parser.getUInt8();
+        sequenceNumber = parser.getUInt16();
+        baseTime = parser.getDateTimeMillis();
+
+        timeOffsetPresent = (flags & 0x01) != 0;
+        timeOffset = timeOffsetPresent ? parser.getSInt16() : 0;
+
+        concentrationPresent = (flags & 0x02) != 0;
+        if (concentrationPresent) {
+            concentration = parser.getSFloat();
+            final int typeAndLocation = parser.getUInt8();
+            type = typeAndLocation & 0x0F;
+            sampleLocation = typeAndLocation >> 4;
+        } else {
+            concentration = Float.NaN;
+            type = 0;
+            sampleLocation = 0;
+        }
+
+        sensorStatusAnnunciationPresent = (flags & 0x08) != 0;
+        sensorStatusAnnunciation = sensorStatusAnnunciationPresent ? parser.getUInt16() : 0;
+    }
+
+    /**
+     * @return the time of the measurement in milliseconds since the epoch, the base time plus the time offset
+     */
+    public long getTimestamp() {
+        return baseTime + timeOffset * 60_000L;
+    }
+
+    /**
+     * @return true if the concentration is in mol/L, false if it is in kg/L
+     */
+    public boolean isMolPerLiter() {
+        return (flags & 0x04) != 0;
+    }
+
+    /**
+     * @return true if a Glucose Measurement Context with the same sequence number follows
+     */
+    public boolean hasContextInformation() {
+        return (flags & 0x10) != 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.welie.blessed.profiles;
+
+import com.welie.blessed.BluetoothBufferParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Heart Rate Measurement (0x2A37) of the Heart Rate profile.
+ */
+public final class HeartRateMeasurement implements ProfileRecord {
+
+    public static final UUID CHARACTERISTIC_UUID = UUID.fromString("00002a37-0000-1000-8000-00805f9b34fb");
+
+    public int flags;
+
+    /**
+     * Heart rate in beats per minute
+     */
+    public int heartRate;
+
+    /**
+     * Energy expended in kilojoules
+     */
+    public int energyExpended;
+    public boolean energyExpendedPresent;
+
+    /**
+     * RR-intervals in units of 1/1024 second, the first {@link #rrIntervalCount} elements are valid
+     */
+    public int[] rrIntervals = new int[16];
+    public int rrIntervalCount;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        flags = parser.getUInt8();
+        heartRate = (flags & 0x01) != 0 ? parser.getUInt16() : parser.getUInt8();
+
+        energyExpendedPresent = (flags & 0x08) != 0;
+        energyExpended = energyExpendedPresent ? parser.getUInt16() : 0;
+
+        rrIntervalCount = 0;
+        if ((flags & 0x10) != 0) {
+            final int count = parser.remaining() / 2;
+            if (rrIntervals.length < count) {
+                rrIntervals = new int[count];
+            }
+            for (int i = 0; i < count; i++) {
+                rrIntervals[i] = parser.getUInt16();
+            }
+            rrIntervalCount = count;
+        }
+    }
+
+    /**
+     * @return the sensor contact status bits: 0 or 1 not supported, 2 no contact detected, 3 contact detected
+     */
+    public int getSensorContactStatus() {
+        return (flags & 0x06) >> 1;
+    }
+
+    /**
+     * Get an RR-interval in milliseconds
+     *
+     * @param index the index of the interval, less than {@link #rrIntervalCount}
+     * @return the interval in milliseconds
+     */
+    public float getRrIntervalMillis(int index) {
+        if (index < 0 || index >= rrIntervalCount) {
+            throw new IndexOutOfBoundsException(String.format("no RR-interval %d, count is %d", index, rrIntervalCount));
+        }
+        return rrIntervals[index] * 1000f / 1024f;
+    }
+}
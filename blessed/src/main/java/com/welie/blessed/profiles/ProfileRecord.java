@@ -0,0 +1,21 @@
+package com.welie.blessed.profiles;
+
+import com.welie.blessed.BluetoothBufferParser;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A mutable record of a standard GATT characteristic that decodes values into itself.
+ * <p>
+ * Decoding overwrites every field, so a record can be reused for every value of a characteristic. Fields that are
+ * not present in a value are set to 0, or NaN for floats, and their companion 'Present' field is set to false.
+ */
+public interface ProfileRecord {
+
+    /**
+     * Decode a value into this record, starting at the offset of the parser.
+     *
+     * @param parser the parser wrapped around the value
+     * @throws IndexOutOfBoundsException if the value is too short
+     */
+    void decode(@NotNull BluetoothBufferParser parser);
+}
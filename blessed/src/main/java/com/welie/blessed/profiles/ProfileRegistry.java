@@ -0,0 +1,123 @@
+package com.welie.blessed.profiles;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.schema.fitness.*;
+import com.welie.blessed.schema.health.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Maps characteristic UUIDs to the records their values are decoded into.
+ * <p>
+ * Every thread gets its own record per characteristic, which is reused for every value of that characteristic decoded
+ * on the thread. So after the first value, decoding does not allocate. A returned record is only valid until the next
+ * value of the same characteristic is decoded on the same thread.
+ * <p>
+ * Set a registry with {@link com.welie.blessed.BluetoothCentral#setProfileRegistry(ProfileRegistry)} to have values
+ * decoded before they are passed to
+ * {@link com.welie.blessed.BluetoothPeripheralCallback#onProfileRecord(com.welie.blessed.BluetoothPeripheral, ProfileRecord, com.welie.blessed.BluetoothGattCharacteristic)}.
+ */
+public final class ProfileRegistry {
+
+    // Not BluetoothBufferParser.local(), so a parser the caller or a record got from there keeps its state
+    private static final ThreadLocal<BluetoothBufferParser> PARSER = ThreadLocal.withInitial(BluetoothBufferParser::new);
+
+    private final Map<UUID, ThreadLocal<? extends ProfileRecord>> records = new ConcurrentHashMap<>();
+
+    /**
+     * Create a registry with all standard profiles. Most records are the generated records of {@link com.welie.blessed.schema},
+     * the Heart Rate and Glucose Measurements have records of this package because their values don't fit a schema.
+     *
+     * @return the registry
+     */
+    public static @NotNull ProfileRegistry standard() {
+        return new ProfileRegistry()
+                .register(HeartRateMeasurement.CHARACTERISTIC_UUID, HeartRateMeasurement::new)
+                .register(BloodPressureMeasurementRecordDecoder.CHARACTERISTIC_UUID, BloodPressureMeasurementRecord::new)
+                .register(BloodPressureMeasurementRecord.INTERMEDIATE_CUFF_PRESSURE_UUID, BloodPressureMeasurementRecord::new)
+                .register(TemperatureMeasurementRecordDecoder.CHARACTERISTIC_UUID, TemperatureMeasurementRecord::new)
+                .register(TemperatureMeasurementRecord.INTERMEDIATE_TEMPERATURE_UUID, TemperatureMeasurementRecord::new)
+                .register(PulseOximeterSpotMeasurementRecordDecoder.CHARACTERISTIC_UUID, PulseOximeterSpotMeasurementRecord::new)
+                .register(PulseOximeterContinuousMeasurementRecordDecoder.CHARACTERISTIC_UUID, PulseOximeterContinuousMeasurementRecord::new)
+                .register(WeightMeasurementRecordDecoder.CHARACTERISTIC_UUID, WeightMeasurementRecord::new)
+                .register(GlucoseMeasurement.CHARACTERISTIC_UUID, GlucoseMeasurement::new)
+                .register(CscMeasurementRecordDecoder.CHARACTERISTIC_UUID, CscMeasurementRecord::new)
+                .register(RscMeasurementRecordDecoder.CHARACTERISTIC_UUID, RscMeasurementRecord::new);
+    }
+
+    /**
+     * Register the record type of a characteristic, replacing an earlier registration.
+     *
+     * @param characteristicUUID the UUID of the characteristic
+     * @param factory            creates a record, called once per thread
+     * @return this registry
+     */
+    public @NotNull ProfileRegistry register(@NotNull UUID characteristicUUID, @NotNull Supplier<? extends ProfileRecord> factory) {
+        Objects.requireNonNull(characteristicUUID, "no valid characteristic UUID provided");
+        Objects.requireNonNull(factory, "no valid factory provided");
+        records.put(characteristicUUID, ThreadLocal.withInitial(factory));
+        return this;
+    }
+
+    /**
+     * Remove the registration of a characteristic
+     *
+     * @param characteristicUUID the UUID of the characteristic
+     */
+    public void unregister(@NotNull UUID characteristicUUID) {
+        records.remove(Objects.requireNonNull(characteristicUUID, "no valid characteristic UUID provided"));
+    }
+
+    /**
+     * Check if a characteristic has a registered record type
+     *
+     * @param characteristicUUID the UUID of the characteristic
+     * @return true if values of the characteristic can be decoded
+     */
+    public boolean isRegistered(@NotNull UUID characteristicUUID) {
+        return records.containsKey(Objects.requireNonNull(characteristicUUID, "no valid characteristic UUID provided"));
+    }
+
+    /**
+     * Decode a value into the record of the current thread. The position of the buffer is not changed.
+     *
+     * @param characteristicUUID the UUID of the characteristic
+     * @param value              the value, from its position to its limit
+     * @return the record or null if the characteristic is not registered
+     * @throws IndexOutOfBoundsException if the value is too short
+     */
+    public @Nullable ProfileRecord decode(@NotNull UUID characteristicUUID, @NotNull ByteBuffer value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        final ThreadLocal<? extends ProfileRecord> local = records.get(characteristicUUID);
+        if (local == null) return null;
+
+        final ProfileRecord record = local.get();
+        record.decode(PARSER.get().wrap(value));
+        return record;
+    }
+
+    /**
+     * Decode a value into the record of the current thread.
+     *
+     * @param characteristicUUID the UUID of the characteristic
+     * @param value              the value
+     * @return the record or null if the characteristic is not registered
+     * @throws IndexOutOfBoundsException if the value is too short
+     */
+    public @Nullable ProfileRecord decode(@NotNull UUID characteristicUUID, @NotNull byte[] value) {
+        Objects.requireNonNull(value, "no valid value provided");
+        final ThreadLocal<? extends ProfileRecord> local = records.get(characteristicUUID);
+        if (local == null) return null;
+
+        final ProfileRecord record = local.get();
+        record.decode(PARSER.get().wrap(value));
+        return record;
+    }
+}
@@ -0,0 +1,51 @@
+package com.welie.blessed.schema;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a {@link GattRecord} that is decoded from the value.
+ * <p>
+ * Integer formats can be decoded into int, long, float or double fields, float formats into float or double fields,
+ * or into int and long fields in which case the value is truncated. A DATE_TIME must be decoded into a long field.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface GattField {
+    /**
+     * The format of the field
+     *
+     * @return the format
+     */
+    GattFormat value();
+
+    /**
+     * Flag bits that must all be set for the field to be present. 0 means no condition.
+     *
+     * @return the bit mask
+     */
+    int presentWhen() default 0;
+
+    /**
+     * Flag bits that must all be clear for the field to be present. 0 means no condition.
+     *
+     * @return the bit mask
+     */
+    int absentWhen() default 0;
+
+    /**
+     * Flag bits that select the alternate format when they are all set. 0 means the field always has the normal format.
+     *
+     * @return the bit mask
+     */
+    int alternateWhen() default 0;
+
+    /**
+     * The format used instead of the normal format when the alternateWhen bits are set
+     *
+     * @return the alternate format
+     */
+    GattFormat alternate() default GattFormat.UINT8;
+}
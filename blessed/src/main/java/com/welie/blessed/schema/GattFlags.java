@@ -0,0 +1,21 @@
+package com.welie.blessed.schema;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the int field of a {@link GattRecord} that holds the flags. The conditions of the {@link GattField} fields that
+ * follow it are evaluated against these flags.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface GattFlags {
+    /**
+     * The format of the flags
+     *
+     * @return UINT8, UINT16, UINT24 or UINT32
+     */
+    GattFormat value() default GattFormat.UINT8;
+}
@@ -0,0 +1,44 @@
+package com.welie.blessed.schema;
+
+/**
+ * Wire formats of the fields of a {@link GattRecord}.
+ */
+public enum GattFormat {
+    UINT8(1),
+    UINT16(2),
+    UINT24(3),
+    UINT32(4),
+    SINT8(1),
+    SINT16(2),
+    SINT32(4),
+
+    /**
+     * 16-bit IEEE-11073 SFLOAT
+     */
+    SFLOAT(2),
+
+    /**
+     * 32-bit IEEE-11073 FLOAT
+     */
+    FLOAT(4),
+
+    /**
+     * 7 byte DateTime, decoded to milliseconds since the epoch in a long field
+     */
+    DATE_TIME(7);
+
+    private final int length;
+
+    GattFormat(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Get the number of bytes of a value in this format
+     *
+     * @return the length in bytes
+     */
+    public int getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,29 @@
+package com.welie.blessed.schema;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class as a mutable record for a characteristic value.
+ * <p>
+ * The fields annotated with {@link GattFlags} and {@link GattField} describe the value in the order they are declared.
+ * At compile time the blessed-codegen annotation processor generates a decoder class named after the record with the
+ * suffix 'Decoder'. The decoder reads the fields straight into an existing record, so a record can be reused for every
+ * notification without allocating. No reflection is used at runtime.
+ * <p>
+ * Annotated fields must not be private, final or static. A field that is only present depending on the flags can have a
+ * companion boolean field with the suffix 'Present', which the decoder sets. Absent integer fields are set to 0 and absent
+ * float fields to NaN.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GattRecord {
+    /**
+     * The UUID of the characteristic this record decodes, which the decoder exposes as CHARACTERISTIC_UUID
+     *
+     * @return the characteristic UUID or an empty string
+     */
+    String uuid() default "";
+}
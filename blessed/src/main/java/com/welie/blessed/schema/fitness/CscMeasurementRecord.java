@@ -0,0 +1,40 @@
+package com.welie.blessed.schema.fitness;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+import org.jetbrains.annotations.NotNull;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * CSC Measurement (0x2A5B), decoded by {@link CscMeasurementRecordDecoder}.
+ * <p>
+ * Event times are in units of 1/1024 second and roll over every 64 seconds.
+ */
+@GattRecord(uuid = "00002a5b-0000-1000-8000-00805f9b34fb")
+public final class CscMeasurementRecord implements ProfileRecord {
+    @GattFlags
+    public int flags;
+
+    @GattField(value = UINT32, presentWhen = 0x01)
+    public long cumulativeWheelRevolutions;
+    public boolean cumulativeWheelRevolutionsPresent;
+
+    @GattField(value = UINT16, presentWhen = 0x01)
+    public int lastWheelEventTime;
+
+    @GattField(value = UINT16, presentWhen = 0x02)
+    public int cumulativeCrankRevolutions;
+    public boolean cumulativeCrankRevolutionsPresent;
+
+    @GattField(value = UINT16, presentWhen = 0x02)
+    public int lastCrankEventTime;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        CscMeasurementRecordDecoder.decode(parser, this);
+    }
+}
@@ -0,0 +1,71 @@
+package com.welie.blessed.schema.fitness;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+import org.jetbrains.annotations.NotNull;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * RSC Measurement (0x2A53), decoded by {@link RscMeasurementRecordDecoder}.
+ * <p>
+ * The speed, stride length and total distance are stored as the raw values, use the getters to get them in meters.
+ */
+@GattRecord(uuid = "00002a53-0000-1000-8000-00805f9b34fb")
+public final class RscMeasurementRecord implements ProfileRecord {
+    @GattFlags
+    public int flags;
+
+    @GattField(UINT16)
+    public int speed;
+
+    /**
+     * Instantaneous cadence in steps per minute
+     */
+    @GattField(UINT8)
+    public int cadence;
+
+    @GattField(value = UINT16, presentWhen = 0x01)
+    public int strideLength;
+    public boolean strideLengthPresent;
+
+    @GattField(value = UINT32, presentWhen = 0x02)
+    public long totalDistance;
+    public boolean totalDistancePresent;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        RscMeasurementRecordDecoder.decode(parser, this);
+    }
+
+    /**
+     * @return the instantaneous speed in meters per second
+     */
+    public double getSpeed() {
+        return speed / 256.0;
+    }
+
+    /**
+     * @return the instantaneous stride length in meters
+     */
+    public double getStrideLength() {
+        return strideLength * 0.01;
+    }
+
+    /**
+     * @return the total distance in meters
+     */
+    public double getTotalDistance() {
+        return totalDistance * 0.1;
+    }
+
+    /**
+     * @return true if the user is running, false if walking
+     */
+    public boolean isRunning() {
+        return (flags & 0x04) != 0;
+    }
+}
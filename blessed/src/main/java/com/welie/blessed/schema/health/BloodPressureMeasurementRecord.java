@@ -0,0 +1,63 @@
+package com.welie.blessed.schema.health;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * Blood Pressure Measurement (0x2A35), decoded by {@link BloodPressureMeasurementRecordDecoder}.
+ * <p>
+ * An Intermediate Cuff Pressure (0x2A36) has the same format. The current cuff pressure is in {@link #systolic}, the
+ * other pressures are unused.
+ */
+@GattRecord(uuid = "00002a35-0000-1000-8000-00805f9b34fb")
+public final class BloodPressureMeasurementRecord implements ProfileRecord {
+
+    public static final UUID INTERMEDIATE_CUFF_PRESSURE_UUID = UUID.fromString("00002a36-0000-1000-8000-00805f9b34fb");
+
+    @GattFlags
+    public int flags;
+
+    @GattField(SFLOAT)
+    public float systolic;
+
+    @GattField(SFLOAT)
+    public float diastolic;
+
+    @GattField(SFLOAT)
+    public float meanArterialPressure;
+
+    @GattField(value = DATE_TIME, presentWhen = 0x02)
+    public long timestamp;
+    public boolean timestampPresent;
+
+    @GattField(value = SFLOAT, presentWhen = 0x04)
+    public float pulseRate;
+
+    @GattField(value = UINT8, presentWhen = 0x08)
+    public int userId;
+    public boolean userIdPresent;
+
+    @GattField(value = UINT16, presentWhen = 0x10)
+    public int measurementStatus;
+    public boolean measurementStatusPresent;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        BloodPressureMeasurementRecordDecoder.decode(parser, this);
+    }
+
+    /**
+     * @return true if the pressures are in mmHg, false if they are in kPa
+     */
+    public boolean isMMHG() {
+        return (flags & 0x01) == 0;
+    }
+}
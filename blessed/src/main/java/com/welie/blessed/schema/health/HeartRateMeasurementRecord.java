@@ -0,0 +1,39 @@
+package com.welie.blessed.schema.health;
+
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * Heart Rate Measurement (0x2A37), decoded by {@link HeartRateMeasurementRecordDecoder}.
+ * <p>
+ * The RR-intervals at the end of the value are not decoded.
+ */
+@GattRecord(uuid = "00002a37-0000-1000-8000-00805f9b34fb")
+public final class HeartRateMeasurementRecord {
+    @GattFlags
+    public int flags;
+
+    @GattField(value = UINT8, alternate = UINT16, alternateWhen = 0x01)
+    public int heartRate;
+
+    @GattField(value = UINT16, presentWhen = 0x08)
+    public int energyExpended;
+    public boolean energyExpendedPresent;
+
+    /**
+     * @return the sensor contact status bits: 0 or 1 not supported, 2 no contact detected, 3 contact detected
+     */
+    public int getSensorContactStatus() {
+        return (flags & 0x06) >> 1;
+    }
+
+    /**
+     * @return true if RR-intervals follow the decoded fields
+     */
+    public boolean hasRrIntervals() {
+        return (flags & 0x10) != 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.welie.blessed.schema.health;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+import org.jetbrains.annotations.NotNull;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * PLX Continuous Measurement (0x2A5F), decoded by {@link PulseOximeterContinuousMeasurementRecordDecoder}.
+ */
+@GattRecord(uuid = "00002a5f-0000-1000-8000-00805f9b34fb")
+public final class PulseOximeterContinuousMeasurementRecord implements ProfileRecord {
+    @GattFlags
+    public int flags;
+
+    @GattField(SFLOAT)
+    public float spO2;
+
+    @GattField(SFLOAT)
+    public float pulseRate;
+
+    @GattField(value = SFLOAT, presentWhen = 0x01)
+    public float spO2Fast;
+
+    @GattField(value = SFLOAT, presentWhen = 0x01)
+    public float pulseRateFast;
+
+    @GattField(value = SFLOAT, presentWhen = 0x02)
+    public float spO2Slow;
+
+    @GattField(value = SFLOAT, presentWhen = 0x02)
+    public float pulseRateSlow;
+
+    @GattField(value = UINT16, presentWhen = 0x04)
+    public int measurementStatus;
+    public boolean measurementStatusPresent;
+
+    @GattField(value = UINT24, presentWhen = 0x08)
+    public int sensorStatus;
+    public boolean sensorStatusPresent;
+
+    @GattField(value = SFLOAT, presentWhen = 0x10)
+    public float pulseAmplitudeIndex;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        PulseOximeterContinuousMeasurementRecordDecoder.decode(parser, this);
+    }
+}
@@ -0,0 +1,52 @@
+package com.welie.blessed.schema.health;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+import org.jetbrains.annotations.NotNull;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * PLX Spot-check Measurement (0x2A5E), decoded by {@link PulseOximeterSpotMeasurementRecordDecoder}.
+ */
+@GattRecord(uuid = "00002a5e-0000-1000-8000-00805f9b34fb")
+public final class PulseOximeterSpotMeasurementRecord implements ProfileRecord {
+    @GattFlags
+    public int flags;
+
+    @GattField(SFLOAT)
+    public float spO2;
+
+    @GattField(SFLOAT)
+    public float pulseRate;
+
+    @GattField(value = DATE_TIME, presentWhen = 0x01)
+    public long timestamp;
+    public boolean timestampPresent;
+
+    @GattField(value = UINT16, presentWhen = 0x02)
+    public int measurementStatus;
+    public boolean measurementStatusPresent;
+
+    @GattField(value = UINT24, presentWhen = 0x04)
+    public int sensorStatus;
+    public boolean sensorStatusPresent;
+
+    @GattField(value = SFLOAT, presentWhen = 0x08)
+    public float pulseAmplitudeIndex;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        PulseOximeterSpotMeasurementRecordDecoder.decode(parser, this);
+    }
+
+    /**
+     * @return true if the clock of the device is set
+     */
+    public boolean isDeviceClockSet() {
+        return (flags & 0x10) == 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.welie.blessed.schema.health;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * Temperature Measurement (0x2A1C), decoded by {@link TemperatureMeasurementRecordDecoder}. An Intermediate Temperature
+ * (0x2A1E) has the same format.
+ */
+@GattRecord(uuid = "00002a1c-0000-1000-8000-00805f9b34fb")
+public final class TemperatureMeasurementRecord implements ProfileRecord {
+
+    public static final UUID INTERMEDIATE_TEMPERATURE_UUID = UUID.fromString("00002a1e-0000-1000-8000-00805f9b34fb");
+
+    @GattFlags
+    public int flags;
+
+    @GattField(FLOAT)
+    public float temperature;
+
+    @GattField(value = DATE_TIME, presentWhen = 0x02)
+    public long timestamp;
+    public boolean timestampPresent;
+
+    @GattField(value = UINT8, presentWhen = 0x04)
+    public int temperatureType;
+    public boolean temperatureTypePresent;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        TemperatureMeasurementRecordDecoder.decode(parser, this);
+    }
+
+    /**
+     * @return true if the temperature is in Fahrenheit, false if it is in Celsius
+     */
+    public boolean isFahrenheit() {
+        return (flags & 0x01) != 0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.welie.blessed.schema.health;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.schema.GattField;
+import com.welie.blessed.schema.GattFlags;
+import com.welie.blessed.schema.GattRecord;
+import org.jetbrains.annotations.NotNull;
+
+import static com.welie.blessed.schema.GattFormat.*;
+
+/**
+ * Weight Measurement (0x2A9D), decoded by {@link WeightMeasurementRecordDecoder}.
+ * <p>
+ * The weight, BMI and height are stored as the raw values, use the getters to get them in their units.
+ */
+@GattRecord(uuid = "00002a9d-0000-1000-8000-00805f9b34fb")
+public final class WeightMeasurementRecord implements ProfileRecord {
+    @GattFlags
+    public int flags;
+
+    @GattField(UINT16)
+    public int weight;
+
+    @GattField(value = DATE_TIME, presentWhen = 0x02)
+    public long timestamp;
+    public boolean timestampPresent;
+
+    @GattField(value = UINT8, presentWhen = 0x04)
+    public int userId;
+    public boolean userIdPresent;
+
+    @GattField(value = UINT16, presentWhen = 0x08)
+    public int bmi;
+    public boolean bmiPresent;
+
+    @GattField(value = UINT16, presentWhen = 0x08)
+    public int height;
+
+    @Override
+    public void decode(@NotNull BluetoothBufferParser parser) {
+        WeightMeasurementRecordDecoder.decode(parser, this);
+    }
+
+    /**
+     * @return true if the weight is in pounds and the height in inches, false for kilograms and meters
+     */
+    public boolean isImperial() {
+        return (flags & 0x01) != 0;
+    }
+
+    /**
+     * @return the weight in kilograms or pounds
+     */
+    public double getWeight() {
+        return weight * (isImperial() ? 0.01 : 0.005);
+    }
+
+    /**
+     * @return the BMI
+     */
+    public double getBmi() {
+        return bmi * 0.1;
+    }
+
+    /**
+     * @return the height in meters or inches
+     */
+    public double getHeight() {
+        return height * (isImperial() ? 0.1 : 0.001);
+    }
+}
@@ -0,0 +1,227 @@
+package com.welie.blessed;
+
+import com.welie.blessed.metrics.CommandType;
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Emits Java Flight Recorder events for commands, signals, scanning and connections.
+ * <p>
+ * The events are in the category Bluetooth and are disabled by default. Enable them in a recording with for example
+ * {@code -XX:StartFlightRecording:settings=profile,+com.welie.blessed.*#enabled=true} on Java 17, or in a custom .jfc
+ * file. When an event is disabled, its fields are not computed.
+ */
+final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    @Name("com.welie.blessed.CommandEnqueued")
+    @Label("Command Enqueued")
+    @Category("Bluetooth")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class CommandEnqueuedEvent extends Event {
+        @Label("Address")
+        String address;
+
+        @Label("Command")
+        String command;
+
+        @Label("Characteristic")
+        String characteristic;
+
+        @Label("Queue Depth")
+        int queueDepth;
+    }
+
+    @Name("com.welie.blessed.CommandStarted")
+    @Label("Command Started")
+    @Category("Bluetooth")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class CommandStartedEvent extends Event {
+        @Label("Address")
+        String address;
+
+        @Label("Command")
+        String command;
+
+        @Label("Characteristic")
+        String characteristic;
+    }
+
+    @Name("com.welie.blessed.CommandCompleted")
+    @Label("Command Completed")
+    @Category("Bluetooth")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class CommandCompletedEvent extends Event {
+        @Label("Address")
+        String address;
+
+        @Label("Command")
+        String command;
+
+        @Label("Characteristic")
+        String characteristic;
+
+        @Label("Status")
+        String status;
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+
+    @Name("com.welie.blessed.SignalDispatch")
+    @Label("Signal Dispatch")
+    @Description("Handling of a D-Bus signal from Bluez by the signal handler")
+    @Category("Bluetooth")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class SignalDispatchEvent extends Event {
+        @Label("Signal")
+        String signal;
+
+        @Label("Path")
+        String path;
+
+        @Label("Interface")
+        String interfaceName;
+    }
+
+    @Name("com.welie.blessed.ScanStateChanged")
+    @Label("Scan State Changed")
+    @Category("Bluetooth")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ScanStateChangedEvent extends Event {
+        @Label("Adapter")
+        String adapter;
+
+        @Label("Scanning")
+        boolean scanning;
+    }
+
+    @Name("com.welie.blessed.ConnectionStateChanged")
+    @Label("Connection State Changed")
+    @Category("Bluetooth")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ConnectionStateChangedEvent extends Event {
+        @Label("Address")
+        String address;
+
+        @Label("Previous State")
+        String previousState;
+
+        @Label("New State")
+        String newState;
+
+        @Label("Status")
+        String status;
+    }
+
+    private static @Nullable String toString(@Nullable UUID uuid) {
+        return uuid == null ? null : uuid.toString();
+    }
+
+    private static @NotNull String stateToString(int state) {
+        switch (state) {
+            case BluetoothPeripheral.STATE_DISCONNECTED:
+                return "DISCONNECTED";
+            case BluetoothPeripheral.STATE_CONNECTING:
+                return "CONNECTING";
+            case BluetoothPeripheral.STATE_CONNECTED:
+                return "CONNECTED";
+            case BluetoothPeripheral.STATE_DISCONNECTING:
+                return "DISCONNECTING";
+            default:
+                return String.valueOf(state);
+        }
+    }
+
+    static void commandEnqueued(@NotNull String address, @NotNull CommandType type, @Nullable UUID characteristicUuid, @NotNull IntSupplier queueDepth) {
+        final CommandEnqueuedEvent event = new CommandEnqueuedEvent();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.command = type.name();
+            event.characteristic = toString(characteristicUuid);
+            event.queueDepth = queueDepth.getAsInt();
+            event.commit();
+        }
+    }
+
+    static void commandStarted(@NotNull String address, @NotNull CommandType type, @Nullable UUID characteristicUuid) {
+        final CommandStartedEvent event = new CommandStartedEvent();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.command = type.name();
+            event.characteristic = toString(characteristicUuid);
+            event.commit();
+        }
+    }
+
+    static void commandCompleted(@NotNull String address, @NotNull CommandType type, @Nullable UUID characteristicUuid, @NotNull BluetoothCommandStatus status, long latencyNanos) {
+        final CommandCompletedEvent event = new CommandCompletedEvent();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.command = type.name();
+            event.characteristic = toString(characteristicUuid);
+            event.status = status.name();
+            event.latency = latencyNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Start timing the dispatch of a signal
+     *
+     * @return the event to pass to {@link #signalDispatched(Object, String, String, String)}, or null if it is not enabled
+     */
+    static @Nullable Object signalDispatchStarted() {
+        final SignalDispatchEvent event = new SignalDispatchEvent();
+        if (!event.isEnabled()) return null;
+
+        event.begin();
+        return event;
+    }
+
+    static void signalDispatched(@Nullable Object event, @NotNull String signal, @NotNull String path, @NotNull String interfaceName) {
+        if (event == null) return;
+
+        final SignalDispatchEvent dispatchEvent = (SignalDispatchEvent) event;
+        dispatchEvent.end();
+        if (dispatchEvent.shouldCommit()) {
+            dispatchEvent.signal = signal;
+            dispatchEvent.path = path;
+            dispatchEvent.interfaceName = interfaceName;
+            dispatchEvent.commit();
+        }
+    }
+
+    static void scanStateChanged(@NotNull String adapterPath, boolean scanning) {
+        final ScanStateChangedEvent event = new ScanStateChangedEvent();
+        if (event.shouldCommit()) {
+            event.adapter = adapterPath;
+            event.scanning = scanning;
+            event.commit();
+        }
+    }
+
+    static void connectionStateChanged(@NotNull String address, int previousState, int newState, @NotNull BluetoothCommandStatus status) {
+        final ConnectionStateChangedEvent event = new ConnectionStateChangedEvent();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.previousState = stateToString(previousState);
+            event.newState = stateToString(newState);
+            event.status = status.name();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates the handlers for the command queues and signals of the central and its peripherals.
+ * <p>
+ * With the system property {@value PROPERTY} set to true, every handler runs its runnables on virtual threads instead of
+ * owning a platform thread, so thousands of peripherals don't need thousands of idle platform threads. The runnables of
+ * a handler still run one at a time and in order.
+ * <p>
+ * Until Java 24, a virtual thread that waits inside a synchronized method stays pinned to its carrier thread. dbus-java
+ * waits for method replies that way, so a blocking D-Bus call still occupies a carrier thread on Java 21.
+ */
+final class VirtualThreads {
+    static final String PROPERTY = "blessed.virtualThreads";
+
+    private static final boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    private VirtualThreads() {
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    static @NotNull Handler newHandler(@NotNull String name) {
+        if (!enabled) return new Handler(name);
+
+        return new Handler(name, runnable -> Thread.ofVirtual().name(name).start(runnable));
+    }
+}
@@ -0,0 +1,200 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BluetoothBufferParserTest {
+
+    @Test
+    void When_wrapping_a_region_of_a_direct_buffer_then_only_the_region_is_parsed() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+        buffer.put(new byte[]{0x00, 0x00, 0x34, 0x12, 0x72, (byte) 0xF0, 0x00, 0x00});
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(buffer, 2, 4);
+
+        assertEquals(0x1234, parser.getUInt16());
+        assertEquals(11.4f, parser.getSFloat(), 0.0001f);
+        assertEquals(0, parser.remaining());
+        assertThrows(IndexOutOfBoundsException.class, parser::getUInt8);
+        assertEquals(8, buffer.position());
+    }
+
+    @Test
+    void When_wrapping_a_region_of_a_byte_array_then_only_the_region_is_parsed_and_encoded() {
+        byte[] value = new byte[]{0x00, 0x01, 0x02, 0x03, 0x04, 0x05};
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(value, 1, 4);
+
+        assertEquals(0x030201, parser.getUInt24());
+        parser.putInt(0xFF, FORMAT_UINT8);
+
+        assertEquals(0, parser.remaining());
+        assertArrayEquals(new byte[]{0x00, 0x01, 0x02, 0x03, (byte) 0xFF, 0x05}, value);
+    }
+
+    @Test
+    void When_parsing_then_the_values_match_BluetoothBytesParser() {
+        byte[] value = new byte[]{(byte) 0xFE, (byte) 0xFF, 0x72, (byte) 0xF0, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01, 0x00, (byte) 0xFE, 0x01};
+        BluetoothBytesParser bytesParser = new BluetoothBytesParser(value);
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(ByteBuffer.wrap(value));
+
+        assertEquals(bytesParser.getSInt16(), parser.getSInt16());
+        assertEquals(bytesParser.getFloat(FORMAT_SFLOAT), parser.getFloat(FORMAT_SFLOAT));
+        assertEquals(bytesParser.getSInt32(), parser.getSInt32());
+        assertEquals(bytesParser.getFloat(FORMAT_FLOAT), parser.getFloat(FORMAT_FLOAT));
+    }
+
+    @Test
+    void When_the_parser_is_reused_then_it_parses_the_new_buffer_from_the_start() {
+        BluetoothBufferParser parser = BluetoothBufferParser.local();
+
+        parser.wrap(ByteBuffer.wrap(new byte[]{0x01, 0x02})).order(BIG_ENDIAN);
+        assertEquals(0x0102, parser.getUInt16());
+        parser.reset();
+        assertEquals(0x0102, parser.getUInt16());
+
+        parser.wrap(ByteBuffer.wrap(new byte[]{0x03, 0x04}));
+        assertEquals(0, parser.getOffset());
+        assertEquals(0x0403, parser.getUInt16());
+        assertSame(parser, BluetoothBufferParser.local());
+    }
+
+    @Test
+    void When_encoding_values_then_they_can_be_decoded_again() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(13);
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(buffer);
+
+        parser.putInt(0x1E, FORMAT_UINT8)
+                .putInt(-2, FORMAT_SINT16)
+                .putInt(0x12345678, FORMAT_UINT32)
+                .putFloat(370, -1, FORMAT_SFLOAT)
+                .putFloat(-1, 2, FORMAT_FLOAT);
+
+        parser.reset();
+        assertEquals(0x1E, parser.getUInt8());
+        assertEquals(-2, parser.getSInt16());
+        assertEquals(0x12345678L, parser.getUInt32());
+        assertEquals(37.0f, parser.getSFloat(), 0.0001f);
+        assertEquals(-100.0f, parser.getFloat(), 0.0001f);
+    }
+
+    @Test
+    void When_encoding_a_float_then_the_bytes_match_BluetoothBytesParser() {
+        BluetoothBytesParser bytesParser = new BluetoothBytesParser();
+        bytesParser.setFloatValue(370, -1, FORMAT_SFLOAT, 0);
+        ByteBuffer buffer = ByteBuffer.allocate(2);
+
+        new BluetoothBufferParser().wrap(buffer).putFloat(370, -1, FORMAT_SFLOAT);
+
+        assertArrayEquals(bytesParser.getValue(), buffer.array());
+    }
+
+    @Test
+    void When_encoding_into_a_read_only_buffer_then_a_ReadOnlyBufferException_is_thrown() {
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(ByteBuffer.allocate(2).asReadOnlyBuffer());
+
+        assertThrows(ReadOnlyBufferException.class, () -> parser.putInt(1, FORMAT_UINT16));
+    }
+
+    @Test
+    void When_no_buffer_is_wrapped_then_an_IllegalStateException_is_thrown() {
+        BluetoothBufferParser parser = new BluetoothBufferParser();
+
+        assertThrows(IllegalStateException.class, parser::getUInt8);
+    }
+
+    @Test
+    void When_decoding_samples_from_an_array_or_a_direct_buffer_then_the_samples_are_equal() {
+        byte[] value = new byte[]{0x01, 0x00, (byte) 0xFF, (byte) 0xFF, 0x00, (byte) 0x80, (byte) 0xFF, 0x7F};
+        ByteBuffer direct = ByteBuffer.allocateDirect(value.length);
+        direct.put(value).flip();
+        short[] fromArray = new short[4];
+        short[] fromDirect = new short[4];
+
+        new BluetoothBufferParser().wrap(value).getSInt16Samples(fromArray, 0, 4);
+        new BluetoothBufferParser().wrap(direct).getSInt16Samples(fromDirect, 0, 4);
+
+        assertArrayEquals(new short[]{1, -1, Short.MIN_VALUE, Short.MAX_VALUE}, fromArray);
+        assertArrayEquals(fromArray, fromDirect);
+    }
+
+    @Test
+    void When_decoding_24_bit_samples_then_they_are_sign_extended_in_both_byte_orders() {
+        byte[] value = new byte[]{(byte) 0xFE, (byte) 0xFF, (byte) 0xFF, 0x03, 0x02, 0x01};
+        ByteBuffer direct = ByteBuffer.allocateDirect(value.length);
+        direct.put(value).flip();
+        int[] samples = new int[2];
+
+        new BluetoothBufferParser().wrap(value).getSInt24Samples(samples, 0, 2);
+        assertArrayEquals(new int[]{-2, 0x010203}, samples);
+
+        new BluetoothBufferParser().wrap(direct).order(BIG_ENDIAN).getSInt24Samples(samples, 0, 2);
+        assertArrayEquals(new int[]{0xFEFFFF - 0x1000000, 0x030201}, samples);
+    }
+
+    @Test
+    void When_decoding_more_samples_than_available_then_an_IndexOutOfBoundsException_is_thrown() {
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(new byte[]{0x72, (byte) 0xF0, 0x01});
+        float[] samples = new float[2];
+
+        assertThrows(IndexOutOfBoundsException.class, () -> parser.getSFloatSamples(samples, 0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> parser.getSFloatSamples(samples, 1, 2));
+        parser.getSFloatSamples(samples, 1, 1);
+        assertEquals(11.4f, samples[1], 0.0001f);
+    }
+
+    @Test
+    void When_encoding_a_current_time_then_the_bytes_match_BluetoothBytesParser() {
+        Calendar calendar = new GregorianCalendar(2020, Calendar.NOVEMBER, 29, 17, 8, 39);
+        calendar.set(Calendar.MILLISECOND, 500);
+        BluetoothBytesParser bytesParser = new BluetoothBytesParser();
+        bytesParser.setCurrentTime(calendar);
+        byte[] value = new byte[10];
+
+        new BluetoothBufferParser().wrap(value).putCurrentTime(calendar.getTimeInMillis(), 1);
+
+        assertArrayEquals(bytesParser.getValue(), value);
+        assertEquals(7, value[7]);
+    }
+
+    @Test
+    void When_decoding_a_current_time_then_the_fractions_are_included() {
+        long millis = new GregorianCalendar(2021, Calendar.MARCH, 1, 8, 0, 0).getTimeInMillis() + 750;
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(new byte[10]).putCurrentTime(millis, 0);
+
+        parser.reset();
+        assertEquals(millis, parser.getCurrentTimeMillis());
+        parser.reset();
+        assertEquals(LocalDateTime.of(2021, 3, 1, 8, 0, 0, 750_000_000), parser.getCurrentLocalDateTime());
+    }
+
+    @Test
+    void When_encoding_a_LocalDateTime_then_it_can_be_decoded_again() {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 2, 29, 23, 59, 58);
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(new byte[17]);
+
+        parser.putDateTime(dateTime).putCurrentTime(dateTime, 0x02);
+        parser.reset();
+
+        assertEquals(dateTime, parser.getLocalDateTime());
+        assertEquals(dateTime, parser.getCurrentLocalDateTime());
+        assertEquals(0, parser.remaining());
+    }
+
+    @Test
+    void When_decoding_a_date_time_with_unknown_month_and_day_then_they_are_treated_as_1() {
+        BluetoothBufferParser parser = new BluetoothBufferParser().wrap(new byte[]{(byte) 0xE4, 0x07, 0x00, 0x00, 0x0C, 0x00, 0x00});
+
+        assertEquals(LocalDateTime.of(2020, 1, 1, 12, 0), parser.getLocalDateTime());
+        parser.reset();
+        assertEquals(new GregorianCalendar(2020, Calendar.JANUARY, 1, 12, 0).getTimeInMillis(), parser.getDateTimeMillis());
+    }
+}
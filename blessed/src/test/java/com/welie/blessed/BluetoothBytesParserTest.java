@@ -0,0 +1,136 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BluetoothBytesParserTest {
+
+    @Test
+    void When_reading_unsigned_integers_then_the_values_and_offset_are_correct() {
+        BluetoothBytesParser parser = new BluetoothBytesParser(new byte[]{(byte) 0xFF, 0x34, 0x12, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+
+        assertEquals(255, parser.getUInt8());
+        assertEquals(0x1234, parser.getUInt16());
+        assertEquals(0xFFFFFFFFL, parser.getUInt32());
+        assertEquals(7, parser.getOffset());
+        assertEquals(0, parser.remaining());
+    }
+
+    @Test
+    void When_reading_signed_integers_then_the_values_are_correct() {
+        BluetoothBytesParser parser = new BluetoothBytesParser(new byte[]{(byte) 0xFF, (byte) 0xFE, (byte) 0xFF, (byte) 0xFD, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+
+        assertEquals(-1, parser.getSInt8());
+        assertEquals(-2, parser.getSInt16());
+        assertEquals(-3, parser.getSInt32());
+    }
+
+    @Test
+    void When_reading_big_endian_integers_then_the_values_are_correct() {
+        BluetoothBytesParser parser = new BluetoothBytesParser(new byte[]{0x12, 0x34, 0x12, 0x34, 0x56, 0x78}, BIG_ENDIAN);
+
+        assertEquals(0x1234, parser.getUInt16());
+        assertEquals(0x12345678, parser.getSInt32());
+    }
+
+    @Test
+    void When_reading_with_getInt_then_the_values_match_getIntValue() {
+        byte[] value = new byte[]{(byte) 0x80, (byte) 0xFE, (byte) 0xFF, 0x01, 0x02, 0x03, (byte) 0x84};
+        int[] formats = {FORMAT_SINT8, FORMAT_SINT16, FORMAT_SINT32};
+        BluetoothBytesParser primitiveParser = new BluetoothBytesParser(value);
+        BluetoothBytesParser boxedParser = new BluetoothBytesParser(value);
+
+        for (int format : formats) {
+            assertEquals(boxedParser.getIntValue(format).intValue(), primitiveParser.getInt(format));
+        }
+    }
+
+    @Test
+    void When_reading_sfloat_and_float_then_the_values_match_getFloatValue() {
+        byte[] value = new byte[]{0x72, (byte) 0xF0, 0x6E, 0x01, 0x00, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        BluetoothBytesParser primitiveParser = new BluetoothBytesParser(value);
+        BluetoothBytesParser boxedParser = new BluetoothBytesParser(value);
+
+        assertEquals(boxedParser.getFloatValue(FORMAT_SFLOAT), primitiveParser.getSFloat());
+        assertEquals(boxedParser.getFloatValue(FORMAT_FLOAT), primitiveParser.getFloat());
+        assertEquals(boxedParser.getFloatValue(FORMAT_FLOAT), primitiveParser.getFloat(FORMAT_FLOAT));
+    }
+
+    @Test
+    void When_reading_an_sfloat_with_negative_exponent_then_the_value_is_scaled() {
+        // mantissa 370, exponent -1
+        BluetoothBytesParser parser = new BluetoothBytesParser(new byte[]{0x72, (byte) 0xF1});
+
+        assertEquals(37.0f, parser.getSFloat(), 0.0001f);
+    }
+
+    @Test
+    void When_reading_beyond_the_end_then_an_IndexOutOfBoundsException_is_thrown() {
+        BluetoothBytesParser parser = new BluetoothBytesParser(new byte[]{0x01});
+
+        assertFalse(parser.hasRemaining(FORMAT_UINT16));
+        assertThrows(IndexOutOfBoundsException.class, parser::getUInt16);
+        assertEquals(0, parser.getOffset());
+    }
+
+    @Test
+    void When_reading_with_an_invalid_format_then_an_IllegalArgumentException_is_thrown() {
+        BluetoothBytesParser parser = new BluetoothBytesParser(new byte[]{0x01, 0x02});
+
+        assertThrows(IllegalArgumentException.class, () -> parser.getInt(FORMAT_SFLOAT));
+        assertThrows(IllegalArgumentException.class, () -> parser.getFloat(FORMAT_UINT16));
+    }
+
+    @Test
+    void When_setting_a_string_with_multibyte_characters_then_the_array_holds_all_encoded_bytes() {
+        BluetoothBytesParser parser = new BluetoothBytesParser();
+        String value = "\u00e9t\u00e9";
+        byte[] expected = value.getBytes();
+
+        assertTrue(parser.setString(value));
+
+        assertEquals(expected.length, parser.getOffset());
+        assertArrayEquals(expected, parser.getValue());
+    }
+
+    @Test
+    void When_decoding_samples_then_the_offset_advances_past_them() {
+        BluetoothBytesParser parser = new BluetoothBytesParser(new byte[]{0x05, 0x01, 0x00, (byte) 0xFF, (byte) 0xFF, 0x07});
+        short[] samples = new short[2];
+
+        assertEquals(5, parser.getUInt8());
+        parser.getSInt16Samples(samples, 0, 2);
+
+        assertArrayEquals(new short[]{1, -1}, samples);
+        assertEquals(5, parser.getOffset());
+        assertEquals(7, parser.getUInt8());
+    }
+
+    @Test
+    void When_decoding_and_encoding_dates_then_the_local_buffer_parser_of_the_thread_keeps_its_state() {
+        BluetoothBufferParser local = BluetoothBufferParser.local().wrap(new byte[]{0x01, 0x02, 0x03});
+        assertEquals(1, local.getUInt8());
+
+        long millis = new BluetoothBytesParser(new byte[]{(byte) 0xE4, 0x07, 0x0A, 0x13, 0x0E, 0x1E, 0x2D}).getDateTimeMillis();
+        new BluetoothBytesParser().setDateTime(millis);
+        new BluetoothBytesParser().setCurrentTime(millis);
+
+        assertEquals(1, local.getOffset());
+        assertEquals(2, local.getUInt8());
+    }
+
+    @Test
+    void When_decoding_samples_then_the_local_buffer_parser_of_the_thread_keeps_its_state() {
+        BluetoothBufferParser local = BluetoothBufferParser.local().wrap(new byte[]{0x01, 0x02, 0x03});
+        assertEquals(1, local.getUInt8());
+
+        new BluetoothBytesParser(new byte[]{0x01, 0x00, (byte) 0xFF, (byte) 0xFF}).getSInt16Samples(new short[2], 0, 2);
+
+        assertEquals(1, local.getOffset());
+        assertEquals(2, local.getUInt8());
+    }
+}
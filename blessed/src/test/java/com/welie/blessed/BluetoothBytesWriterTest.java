@@ -0,0 +1,130 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+
+import static com.welie.blessed.BluetoothBytesParser.*;
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.util.Arrays.copyOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BluetoothBytesWriterTest {
+
+    @Test
+    void When_writing_a_value_then_it_is_encoded_like_BluetoothBytesParser() {
+        BluetoothBytesWriter writer = new BluetoothBytesWriter(new BluetoothBufferPool(4));
+
+        ByteBuffer buffer = writer.start()
+                .putUInt8(0x01)
+                .putUInt16(0x0302)
+                .putUInt32(0xFFFFFFFFL)
+                .putInt(-2, FORMAT_SINT8)
+                .putFloat(364, -1, FORMAT_SFLOAT)
+                .putString("ab")
+                .finish();
+
+        BluetoothBytesParser expected = new BluetoothBytesParser();
+        expected.setIntValue(0x01, FORMAT_UINT8);
+        expected.setIntValue(0x0302, FORMAT_UINT16);
+        expected.setIntValue(0xFFFFFFFF, FORMAT_UINT32);
+        expected.setIntValue(-2, FORMAT_SINT8);
+        expected.setFloatValue(364, -1, FORMAT_SFLOAT, expected.getOffset());
+        expected.setString("ab", expected.getOffset() + 2);
+
+        assertEquals(0, buffer.position());
+        byte[] actual = new byte[buffer.remaining()];
+        buffer.get(actual);
+        assertArrayEquals(copyOf(expected.getValue(), 12), actual);
+    }
+
+    @Test
+    void When_writing_with_big_endian_order_then_integers_are_big_endian() {
+        BluetoothBytesWriter writer = new BluetoothBytesWriter(new BluetoothBufferPool(4));
+
+        byte[] value = writer.start().order(BIG_ENDIAN).putUInt16(0x0102).putUInt32(0x03040506L).toByteArray();
+
+        assertArrayEquals(new byte[]{0x01, 0x02, 0x03, 0x04, 0x05, 0x06}, value);
+    }
+
+    @Test
+    void When_writing_more_than_the_expected_length_then_the_value_moves_to_a_bigger_buffer() {
+        BluetoothBufferPool pool = new BluetoothBufferPool(4);
+        BluetoothBytesWriter writer = new BluetoothBytesWriter(pool);
+        byte[] chunk = new byte[100];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = (byte) i;
+        }
+
+        ByteBuffer buffer = writer.start(8).putUInt8(0xAA).putBytes(chunk, 10, 90).putBytes(ByteBuffer.wrap(chunk, 0, 10)).finish();
+
+        assertEquals(101, buffer.remaining());
+        assertEquals(128, buffer.capacity());
+        assertEquals((byte) 0xAA, buffer.get(0));
+        assertEquals(10, buffer.get(1));
+        assertEquals(99, buffer.get(90));
+        assertEquals(0, buffer.get(91));
+        assertEquals(9, buffer.get(100));
+        assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    void When_a_finished_buffer_is_released_then_the_next_value_reuses_it() {
+        BluetoothBufferPool pool = new BluetoothBufferPool(4);
+        BluetoothBytesWriter writer = new BluetoothBytesWriter(pool);
+
+        ByteBuffer first = writer.start().putUInt16(0x1234).finish();
+        pool.release(first);
+        ByteBuffer second = writer.start().putUInt8(0x56).finish();
+
+        assertSame(first, second);
+        assertEquals(1, second.remaining());
+        assertEquals(0x56, second.get(0));
+    }
+
+    @Test
+    void When_a_buffer_the_pool_did_not_allocate_is_released_then_it_is_dropped() {
+        BluetoothBufferPool pool = new BluetoothBufferPool(4);
+        BluetoothBufferPool otherPool = new BluetoothBufferPool(4);
+        byte[] userArray = new byte[32];
+
+        pool.release(ByteBuffer.wrap(userArray));
+        pool.release(otherPool.acquire(32));
+
+        assertEquals(0, pool.getFreeCount());
+        assertNotSame(userArray, pool.acquire(32).array());
+    }
+
+    @Test
+    void When_writing_a_date_time_then_it_matches_BluetoothBytesParser() {
+        long epochMillis = 1_600_000_000_123L;
+        BluetoothBytesParser expected = new BluetoothBytesParser();
+        expected.setCurrentTime(epochMillis);
+
+        byte[] value = new BluetoothBytesWriter(new BluetoothBufferPool(4)).start().putCurrentTime(epochMillis, 1).toByteArray();
+
+        assertArrayEquals(expected.getValue(), value);
+    }
+
+    @Test
+    void When_writing_without_starting_a_value_then_an_exception_is_thrown() {
+        BluetoothBytesWriter writer = new BluetoothBytesWriter(new BluetoothBufferPool(4));
+
+        assertThrows(IllegalStateException.class, () -> writer.putUInt8(1));
+        assertThrows(IllegalStateException.class, writer::finish);
+        assertThrows(IndexOutOfBoundsException.class, () -> writer.start().putBytes(new byte[4], 2, 3));
+    }
+
+    @Test
+    void When_discarding_a_value_then_the_buffer_is_returned_to_the_pool() {
+        BluetoothBufferPool pool = new BluetoothBufferPool(4);
+        BluetoothBytesWriter writer = new BluetoothBytesWriter(pool);
+
+        writer.start().putUInt8(1);
+        writer.discard();
+
+        assertEquals(1, pool.getFreeCount());
+        assertEquals(0, writer.length());
+    }
+}
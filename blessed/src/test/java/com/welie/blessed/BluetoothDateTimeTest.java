@@ -0,0 +1,72 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BluetoothDateTimeTest {
+
+    private TimeZone defaultTimeZone;
+
+    @BeforeEach
+    void setUp() {
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Amsterdam"));
+        BluetoothDateTime.clearCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeZone.setDefault(defaultTimeZone);
+        BluetoothDateTime.clearCache();
+    }
+
+    @Test
+    void When_converting_times_around_daylight_saving_transitions_then_they_match_GregorianCalendar() {
+        int[][] times = {
+                {2020, 3, 29, 1, 59, 59}, {2020, 3, 29, 3, 0, 0}, {2020, 3, 29, 2, 30, 0},
+                {2020, 10, 25, 1, 59, 59}, {2020, 10, 25, 2, 30, 0}, {2020, 10, 25, 3, 0, 0},
+                {2020, 7, 1, 12, 0, 0}, {2021, 1, 1, 0, 0, 0}, {1970, 1, 1, 0, 0, 0}
+        };
+        for (int[] t : times) {
+            long expected = new GregorianCalendar(t[0], t[1] - 1, t[2], t[3], t[4], t[5]).getTimeInMillis();
+            assertEquals(expected, BluetoothDateTime.toEpochMillis(t[0], t[1], t[2], t[3], t[4], t[5], 0),
+                    String.format("%d-%02d-%02d %02d:%02d:%02d", t[0], t[1], t[2], t[3], t[4], t[5]));
+        }
+    }
+
+    @Test
+    void When_splitting_an_instant_then_the_fields_match_Calendar() {
+        Calendar calendar = Calendar.getInstance();
+        int[] fields = new int[8];
+        for (long millis = 1_577_836_800_123L; millis < 1_640_995_200_000L; millis += 3_599_999L * 7) {
+            calendar.setTimeInMillis(millis);
+            BluetoothDateTime.toLocalFields(millis, fields);
+
+            assertEquals(calendar.get(Calendar.YEAR), fields[0]);
+            assertEquals(calendar.get(Calendar.MONTH) + 1, fields[1]);
+            assertEquals(calendar.get(Calendar.DATE), fields[2]);
+            assertEquals(calendar.get(Calendar.HOUR_OF_DAY), fields[3]);
+            assertEquals(calendar.get(Calendar.MINUTE), fields[4]);
+            assertEquals(calendar.get(Calendar.SECOND), fields[5]);
+            assertEquals(calendar.get(Calendar.MILLISECOND), fields[6]);
+            assertEquals((calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7 + 1, fields[7]);
+        }
+    }
+
+    @Test
+    void When_the_default_time_zone_changes_and_the_cache_is_cleared_then_the_new_zone_is_used() {
+        long amsterdam = BluetoothDateTime.toEpochMillis(2020, 7, 1, 12, 0, 0, 0);
+
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        BluetoothDateTime.clearCache();
+
+        assertEquals(amsterdam + 2 * 3_600_000L, BluetoothDateTime.toEpochMillis(2020, 7, 1, 12, 0, 0, 0));
+        assertEquals(0, BluetoothDateTime.getOffsetMillis(amsterdam));
+    }
+}
@@ -1,16 +1,23 @@
 package com.welie.blessed;
 
+import com.welie.blessed.bluez.AcquiredFileDescriptor;
 import com.welie.blessed.bluez.BluezDevice;
 import com.welie.blessed.bluez.BluezGattCharacteristic;
 import com.welie.blessed.bluez.BluezGattDescriptor;
 import com.welie.blessed.bluez.BluezGattService;
 import com.welie.blessed.internal.InternalCallback;
+import com.welie.blessed.metrics.MetricsRegistry;
+import com.welie.blessed.profiles.ProfileRecord;
+import com.welie.blessed.profiles.ProfileRegistry;
+import com.welie.blessed.schema.health.BloodPressureMeasurementRecord;
 import org.bluez.exceptions.*;
 import org.freedesktop.dbus.connections.impl.DBusConnection;
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.CallbackHandler;
 import org.freedesktop.dbus.interfaces.Properties;
 import org.freedesktop.dbus.types.Variant;
+import jnr.unixsocket.UnixSocketChannel;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,7 +25,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.welie.blessed.BluetoothCommandStatus.*;
 import static com.welie.blessed.BluetoothGattCharacteristic.*;
@@ -268,6 +278,114 @@ class BluetoothPeripheralTest {
         verify(peripheralCallback, timeout(100)).onCharacteristicUpdate(peripheral, value, characteristic, COMMAND_SUCCESS);
     }
 
+    @Test
+    void Given_a_callback_that_handles_buffers_when_a_characteristic_value_is_received_then_onCharacteristicUpdate_is_not_called() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_NOTIFY);
+        peripheral.services.add(characteristic.service);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        when(bluezGattCharacteristic.getDbusPath()).thenReturn("/org/bluez/hci0/dev_C0_26_DF_01_F2_72/service0014/char0015");
+        when(bluezGattCharacteristic.getUuid()).thenReturn(BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID);
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        int[] decoded = new int[1];
+        when(peripheralCallback.onCharacteristicValue(eq(peripheral), any(ByteBuffer.class), eq(characteristic))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(1);
+            decoded[0] = BluetoothBufferParser.local().wrap(buffer).getUInt16();
+            return true;
+        });
+
+        // When
+        byte[] value = new byte[]{0x01, 0x02};
+        peripheral.handleSignal(getPropertiesChangedSignalCharacteristicUpdate(bluezGattCharacteristic.getDbusPath(), characteristic, value));
+
+        // Then
+        verify(peripheralCallback, timeout(100)).onCharacteristicValue(eq(peripheral), any(ByteBuffer.class), eq(characteristic));
+        assertEquals(0x0201, decoded[0]);
+        Thread.sleep(50);
+        verify(peripheralCallback, never()).onCharacteristicUpdate(any(), any(), any(), any());
+    }
+
+    @Test
+    void Given_pooled_notifications_when_a_characteristic_value_is_received_then_onPooledCharacteristicValue_gets_the_value_and_it_is_released_afterwards() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        peripheral.setPooledNotifications(true);
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_NOTIFY);
+        peripheral.services.add(characteristic.service);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        when(bluezGattCharacteristic.getDbusPath()).thenReturn("/org/bluez/hci0/dev_C0_26_DF_01_F2_72/service0014/char0015");
+        when(bluezGattCharacteristic.getUuid()).thenReturn(BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID);
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        PooledValue[] received = new PooledValue[1];
+        int[] decoded = new int[1];
+        when(peripheralCallback.onPooledCharacteristicValue(eq(peripheral), any(PooledValue.class), eq(characteristic))).thenAnswer(invocation -> {
+            received[0] = invocation.getArgument(1);
+            decoded[0] = BluetoothBufferParser.local().wrap(received[0].getValue()).getUInt16();
+            return true;
+        });
+
+        // When
+        byte[] value = new byte[]{0x01, 0x02};
+        peripheral.handleSignal(getPropertiesChangedSignalCharacteristicUpdate(bluezGattCharacteristic.getDbusPath(), characteristic, value));
+
+        // Then
+        verify(peripheralCallback, timeout(100)).onPooledCharacteristicValue(eq(peripheral), any(PooledValue.class), eq(characteristic));
+        assertEquals(0x0201, decoded[0]);
+        Thread.sleep(50);
+        assertThrows(IllegalStateException.class, received[0]::getValue);
+        verify(peripheralCallback, never()).onCharacteristicUpdate(any(), any(), any(), any());
+    }
+
+    @Test
+    void Given_pooled_notifications_and_a_callback_that_does_not_handle_them_when_a_characteristic_value_is_received_then_onCharacteristicUpdate_is_called() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        peripheral.setPooledNotifications(true);
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_NOTIFY);
+        peripheral.services.add(characteristic.service);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        when(bluezGattCharacteristic.getDbusPath()).thenReturn("/org/bluez/hci0/dev_C0_26_DF_01_F2_72/service0014/char0015");
+        when(bluezGattCharacteristic.getUuid()).thenReturn(BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID);
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+
+        // When
+        byte[] value = new byte[]{0x01, 0x02};
+        peripheral.handleSignal(getPropertiesChangedSignalCharacteristicUpdate(bluezGattCharacteristic.getDbusPath(), characteristic, value));
+
+        // Then
+        verify(peripheralCallback, timeout(100)).onCharacteristicUpdate(peripheral, value, characteristic, COMMAND_SUCCESS);
+    }
+
+    @Test
+    void Given_a_profile_registry_when_a_characteristic_value_is_received_then_onProfileRecord_gets_the_decoded_record() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_NOTIFY);
+        peripheral.services.add(characteristic.service);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        when(bluezGattCharacteristic.getDbusPath()).thenReturn("/org/bluez/hci0/dev_C0_26_DF_01_F2_72/service0014/char0015");
+        when(bluezGattCharacteristic.getUuid()).thenReturn(BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID);
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        when(central.getProfileRegistry()).thenReturn(ProfileRegistry.standard());
+        float[] systolic = new float[1];
+        when(peripheralCallback.onProfileRecord(eq(peripheral), any(ProfileRecord.class), eq(characteristic))).thenAnswer(invocation -> {
+            systolic[0] = ((BloodPressureMeasurementRecord) invocation.getArgument(1)).systolic;
+            return true;
+        });
+
+        // When
+        byte[] value = new byte[]{0x00, 0x78, 0x00, 0x50, 0x00, 0x5A, 0x00};
+        peripheral.handleSignal(getPropertiesChangedSignalCharacteristicUpdate(bluezGattCharacteristic.getDbusPath(), characteristic, value));
+
+        // Then
+        verify(peripheralCallback, timeout(100)).onProfileRecord(eq(peripheral), any(ProfileRecord.class), eq(characteristic));
+        assertEquals(120f, systolic[0]);
+        Thread.sleep(50);
+        verify(peripheralCallback, never()).onCharacteristicValue(any(), any(), any());
+        verify(peripheralCallback, never()).onCharacteristicUpdate(any(), any(), any(), any());
+    }
+
     @Test
     void Given_a_connected_peripheral_when_readCharacteristic_is_called_twice_then_a_read_is_done_twice() throws DBusException, InterruptedException {
         // Given
@@ -450,6 +568,178 @@ class BluetoothPeripheralTest {
         assertTrue(Arrays.equals(value, valueCaptor.getValue()));
     }
 
+    @Test
+    void Given_a_connected_peripheral_when_writeCharacteristic_is_called_with_a_buffer_then_the_remaining_bytes_are_written() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_WRITE);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+
+        // When
+        ByteBuffer value = BluetoothBytesWriter.local().start().putUInt8(0x01).putUInt16(0x0302).finish();
+        peripheral.writeCharacteristic(characteristic, value, WriteType.withResponse);
+
+        // Then
+        ArgumentCaptor<Map<String, Object>> mapCaptor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<byte[]> valueCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(bluezGattCharacteristic, timeout(100)).writeValue(valueCaptor.capture(),mapCaptor.capture());
+        assertEquals("request", mapCaptor.getValue().get("type"));
+        assertArrayEquals(new byte[]{0x01, 0x02, 0x03}, valueCaptor.getValue());
+    }
+
+    @Test
+    void Given_a_connected_peripheral_when_writeCharacteristic_is_called_with_a_buffer_of_a_pool_then_the_buffer_is_returned_to_that_pool() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_WRITE);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        BluetoothBufferPool pool = new BluetoothBufferPool(4);
+
+        // When
+        ByteBuffer value = new BluetoothBytesWriter(pool).start().putUInt8(0x01).finish();
+        peripheral.writeCharacteristic(characteristic, value, WriteType.withResponse, pool);
+        peripheral.writeCharacteristic(characteristic, ByteBuffer.wrap(new byte[]{0x02}), WriteType.withResponse, pool);
+
+        // Then
+        assertEquals(1, pool.getFreeCount());
+        assertSame(value, pool.acquire(1));
+    }
+
+    @Test
+    void Given_a_connected_peripheral_when_writeCharacteristicStream_is_called_then_all_packets_are_written_and_onStreamWriteCompleted_is_called() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_WRITE_NO_RESPONSE);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        doAnswer(invocation -> {
+            CallbackHandler<Void> handler = invocation.getArgument(2);
+            handler.handle(null);
+            return null;
+        }).when(bluezGattCharacteristic).writeValueAsync(any(), anyMap(), any());
+
+        // When
+        List<byte[]> packets = Arrays.asList(new byte[]{0x01, 0x02}, new byte[]{0x03, 0x04}, new byte[]{0x05});
+        peripheral.writeCharacteristicStream(characteristic, packets.iterator(), 2);
+
+        // Then
+        ArgumentCaptor<Map<String, Variant<?>>> mapCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(bluezGattCharacteristic, timeout(100).times(3)).writeValueAsync(any(), mapCaptor.capture(), any());
+        assertEquals("command", mapCaptor.getValue().get("type").getValue());
+        ArgumentCaptor<TransferStatistics> statisticsCaptor = ArgumentCaptor.forClass(TransferStatistics.class);
+        verify(peripheralCallback, timeout(100)).onStreamWriteCompleted(eq(peripheral), eq(characteristic), statisticsCaptor.capture(), eq(COMMAND_SUCCESS));
+        assertEquals(5, statisticsCaptor.getValue().getBytesTransferred());
+        assertEquals(3, statisticsCaptor.getValue().getPacketsTransferred());
+    }
+
+    @Test
+    void Given_a_connected_peripheral_when_writeCharacteristicBulk_is_called_and_acquire_is_not_supported_then_onStreamWriteCompleted_is_called_with_REQUEST_NOT_SUPPORTED() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_WRITE_NO_RESPONSE);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        doThrow(new BluezNotSupportedException("not supported")).when(bluezGattCharacteristic).acquireWrite();
+
+        // When
+        peripheral.writeCharacteristicBulk(characteristic, ByteBuffer.wrap(new byte[]{0x01, 0x02, 0x03}));
+
+        // Then
+        verify(bluezGattCharacteristic, timeout(50)).acquireWrite();
+        verify(peripheralCallback, timeout(100)).onStreamWriteCompleted(eq(peripheral), eq(characteristic), any(TransferStatistics.class), eq(REQUEST_NOT_SUPPORTED));
+    }
+
+    @Test
+    void Given_a_bulk_write_when_writeCharacteristicStream_is_called_on_the_same_characteristic_then_the_acquired_socket_is_released_first() throws DBusException, InterruptedException, IOException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_WRITE_NO_RESPONSE);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        UnixSocketChannel[] socketPair = UnixSocketChannel.pair();
+        UnixSocketChannel bluezEnd = socketPair[1];
+        bluezEnd.configureBlocking(false);
+        when(bluezGattCharacteristic.acquireWrite()).thenReturn(new AcquiredFileDescriptor(socketPair[0].getFD(), 23));
+
+        // Like Bluez, refuse WriteValue while the acquired socket is open
+        doAnswer(invocation -> {
+            CallbackHandler<Void> handler = invocation.getArgument(2);
+            ByteBuffer received = ByteBuffer.allocate(32);
+            int read;
+            do {
+                received.clear();
+                read = bluezEnd.read(received);
+            } while (read > 0);
+            if (read < 0) {
+                handler.handle(null);
+            } else {
+                handler.handleError(new DBusExecutionException("Not permitted"));
+            }
+            return null;
+        }).when(bluezGattCharacteristic).writeValueAsync(any(), anyMap(), any());
+
+        try {
+            // When
+            peripheral.writeCharacteristicBulk(characteristic, ByteBuffer.wrap(new byte[]{0x01, 0x02, 0x03}));
+            peripheral.writeCharacteristicStream(characteristic, Arrays.asList(new byte[]{0x04}, new byte[]{0x05}).iterator());
+
+            // Then
+            verify(peripheralCallback, timeout(100).times(2)).onStreamWriteCompleted(eq(peripheral), eq(characteristic), any(TransferStatistics.class), eq(COMMAND_SUCCESS));
+            verify(bluezGattCharacteristic, times(2)).writeValueAsync(any(), anyMap(), any());
+        } finally {
+            bluezEnd.close();
+        }
+    }
+
+    @Test
+    void Given_a_connected_peripheral_when_writeCharacteristicChunked_is_called_on_write_without_response_characteristic_then_the_value_is_written_in_MTU_sized_segments() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_WRITE_NO_RESPONSE);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        doAnswer(invocation -> {
+            CallbackHandler<Void> handler = invocation.getArgument(2);
+            handler.handle(null);
+            return null;
+        }).when(bluezGattCharacteristic).writeValueAsync(any(), anyMap(), any());
+
+        // When
+        byte[] value = new byte[50];
+        peripheral.writeCharacteristicChunked(characteristic, value);
+
+        // Then
+        ArgumentCaptor<byte[]> valueCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(bluezGattCharacteristic, timeout(100).times(3)).writeValueAsync(valueCaptor.capture(), anyMap(), any());
+        assertEquals(20, valueCaptor.getAllValues().get(0).length);
+        assertEquals(20, valueCaptor.getAllValues().get(1).length);
+        assertEquals(10, valueCaptor.getAllValues().get(2).length);
+        verify(peripheralCallback, timeout(100)).onStreamWriteCompleted(eq(peripheral), eq(characteristic), any(TransferStatistics.class), eq(COMMAND_SUCCESS));
+    }
+
+    @Test
+    void Given_a_connected_peripheral_when_writeCharacteristicChunked_is_called_on_write_characteristic_then_a_write_request_with_the_whole_value_is_done() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_WRITE);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+
+        // When
+        byte[] value = new byte[50];
+        peripheral.writeCharacteristicChunked(characteristic, value);
+
+        // Then
+        ArgumentCaptor<Map<String, Object>> mapCaptor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<byte[]> valueCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(bluezGattCharacteristic, timeout(100)).writeValue(valueCaptor.capture(), mapCaptor.capture());
+        assertEquals("request", mapCaptor.getValue().get("type"));
+        assertEquals(50, valueCaptor.getValue().length);
+        verify(peripheralCallback, timeout(100)).onStreamWriteCompleted(eq(peripheral), eq(characteristic), any(TransferStatistics.class), eq(COMMAND_SUCCESS));
+    }
+
     @Test
     void Given_a_connected_peripheral_when_writeCharacteristic_is_called_with_not_existing_characteristic_then_a_write_is_not_called() throws DBusException, InterruptedException {
         // Given
@@ -599,6 +889,118 @@ class BluetoothPeripheralTest {
         verify(bluezGattCharacteristic, timeout(50)).startNotify();
     }
 
+    @Test
+    void Given_a_connected_peripheral_when_setNotify_with_NotifyType_acquired_is_called_and_acquire_is_not_supported_then_startNotify_is_called() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_NOTIFY);
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        doThrow(new BluezNotSupportedException("not supported")).when(bluezGattCharacteristic).acquireNotify();
+
+        // When
+        peripheral.setNotify(characteristic, true, NotifyType.acquired);
+
+        // Then
+        verify(bluezGattCharacteristic, timeout(50)).acquireNotify();
+        verify(bluezGattCharacteristic, timeout(50)).startNotify();
+    }
+
+    @Test
+    void Given_a_connected_peripheral_when_a_batch_is_enqueued_then_all_commands_are_executed_and_onBatchCompleted_is_called() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_READ + PROPERTY_WRITE + PROPERTY_INDICATE);
+        peripheral.services.add(characteristic.getService());
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        doAnswer(invocation -> {
+            // Bluez confirms StartNotify with a Notifying signal
+            peripheral.handleSignal(getPropertiesChangedSignalCharacteristicNotifying(bluezGattCharacteristic.getDbusPath(), true));
+            return null;
+        }).when(bluezGattCharacteristic).startNotify();
+
+        // When
+        byte[] value = new byte[]{0x01, 0x02, 0x03};
+        boolean result = peripheral.batch()
+                .read(characteristic)
+                .write(characteristic, value, WriteType.withResponse)
+                .setNotify(characteristic, true)
+                .enqueue();
+
+        // Then
+        assertTrue(result);
+        verify(bluezGattCharacteristic, timeout(100)).readValue(anyMap());
+        verify(bluezGattCharacteristic, timeout(100)).writeValue(eq(value), anyMap());
+        verify(bluezGattCharacteristic, timeout(100)).startNotify();
+        verify(peripheralCallback, timeout(100)).onCharacteristicWrite(eq(peripheral), eq(value), eq(characteristic), eq(COMMAND_SUCCESS));
+        verify(peripheralCallback, timeout(100)).onNotificationStateUpdate(peripheral, characteristic, COMMAND_SUCCESS);
+        verify(peripheralCallback, timeout(100)).onBatchCompleted(peripheral, COMMAND_SUCCESS);
+    }
+
+    @Test
+    void Given_a_batch_that_stopped_waiting_for_a_notification_change_when_the_Notifying_signal_comes_in_late_then_it_does_not_complete_the_next_command() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        peripheral.batchNotifyTimeoutMillis = 50;
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_READ + PROPERTY_INDICATE);
+        peripheral.services.add(characteristic.getService());
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        BluetoothGattCharacteristic other = new BluetoothGattCharacteristic(TEMPERATURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_INDICATE);
+        BluezGattCharacteristic otherBluezGattCharacteristic = addCharacteristic(peripheral, characteristic.getService(), other);
+        peripheral.batch().setNotify(characteristic, true).enqueue();
+        verify(peripheralCallback, timeout(500)).onBatchCompleted(peripheral, BLUEZ_OPERATION_IN_PROGRESS);
+        peripheral.setNotify(other, true);
+        peripheral.readCharacteristic(characteristic);
+        verify(otherBluezGattCharacteristic, timeout(100)).startNotify();
+
+        // When
+        peripheral.handleSignal(getPropertiesChangedSignalCharacteristicNotifying(bluezGattCharacteristic.getDbusPath(), true));
+
+        // Then
+        verify(peripheralCallback, timeout(100)).onNotificationStateUpdate(peripheral, characteristic, COMMAND_SUCCESS);
+        Thread.sleep(100);
+        verify(peripheralCallback, never()).onNotificationStateUpdate(peripheral, other, COMMAND_SUCCESS);
+        verify(bluezGattCharacteristic, never()).readValue(anyMap());
+    }
+
+    @Test
+    void Given_an_executing_batch_when_a_Notifying_signal_of_another_characteristic_comes_in_then_it_does_not_complete_the_batch() throws DBusException, InterruptedException {
+        // Given
+        BluetoothPeripheral peripheral = getConnectedPeripheral();
+        BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_READ + PROPERTY_INDICATE);
+        peripheral.services.add(characteristic.getService());
+        BluezGattCharacteristic bluezGattCharacteristic = getBluezGattCharacteristic();
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        BluetoothGattCharacteristic other = new BluetoothGattCharacteristic(TEMPERATURE_MEASUREMENT_CHARACTERISTIC_UUID, PROPERTY_INDICATE);
+        BluezGattCharacteristic otherBluezGattCharacteristic = addCharacteristic(peripheral, characteristic.getService(), other);
+        AtomicBoolean batchExecuting = new AtomicBoolean();
+        AtomicBoolean readDuringBatch = new AtomicBoolean();
+        doAnswer(invocation -> {
+            batchExecuting.set(true);
+            peripheral.handleSignal(getPropertiesChangedSignalCharacteristicNotifying(otherBluezGattCharacteristic.getDbusPath(), true));
+            Thread.sleep(50);
+            batchExecuting.set(false);
+            peripheral.handleSignal(getPropertiesChangedSignalCharacteristicNotifying(bluezGattCharacteristic.getDbusPath(), true));
+            return null;
+        }).when(bluezGattCharacteristic).startNotify();
+        doAnswer(invocation -> {
+            readDuringBatch.compareAndSet(false, batchExecuting.get());
+            return null;
+        }).when(bluezGattCharacteristic).readValue(anyMap());
+
+        // When
+        peripheral.batch().setNotify(characteristic, true).enqueue();
+        peripheral.readCharacteristic(characteristic);
+
+        // Then
+        verify(peripheralCallback, timeout(500)).onBatchCompleted(peripheral, COMMAND_SUCCESS);
+        verify(bluezGattCharacteristic, timeout(100)).readValue(anyMap());
+        assertFalse(readDuringBatch.get());
+        verify(peripheralCallback, never()).onNotificationStateUpdate(peripheral, other, COMMAND_SUCCESS);
+    }
+
     @Test
     void Given_a_connected_peripheral_when_setNotify_is_called_with_false_then_stopNotify_is_called() throws DBusException, InterruptedException {
         // Given
@@ -789,6 +1191,19 @@ class BluetoothPeripheralTest {
         verify(bluezDevice, timeout(100)).pair();
     }
     @NotNull
+    private BluezGattCharacteristic addCharacteristic(BluetoothPeripheral peripheral, BluetoothGattService service, BluetoothGattCharacteristic characteristic) {
+        characteristic.setService(service);
+        service.addCharacteristic(characteristic);
+        BluezGattService bluezGattService = mock(BluezGattService.class);
+        when(bluezGattService.getUuid()).thenReturn(service.getUuid());
+        BluezGattCharacteristic bluezGattCharacteristic = mock(BluezGattCharacteristic.class);
+        when(bluezGattCharacteristic.getDbusPath()).thenReturn("/org/bluez/hci0/characteristic/" + characteristic.getUuid());
+        when(bluezGattCharacteristic.getUuid()).thenReturn(characteristic.getUuid());
+        when(bluezGattCharacteristic.getService()).thenReturn(bluezGattService);
+        peripheral.characteristicMap.put(bluezGattCharacteristic.getDbusPath(), bluezGattCharacteristic);
+        return bluezGattCharacteristic;
+    }
+
     private BluezGattCharacteristic getBluezGattCharacteristic() {
         BluezGattCharacteristic bluezGattCharacteristic = mock(BluezGattCharacteristic.class);
         BluezGattService bluezGattService = mock(BluezGattService.class);
@@ -821,6 +1236,7 @@ class BluetoothPeripheralTest {
     @NotNull
     private BluetoothPeripheral getPeripheral() {
         BluezSignalHandler.createInstance(dBusConnection);
+        when(central.getMetricsRegistry()).thenReturn(new MetricsRegistry());
         return new BluetoothPeripheral(central, bluezDevice, DUMMY_PERIPHERAL_NAME_BLP, DUMMY_MAC_ADDRESS_BLP, internalCallback, peripheralCallback, callbackHandler);
     }
 
@@ -0,0 +1,71 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+
+import static com.welie.blessed.BluetoothSampleStream.SampleFormat.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BluetoothSampleStreamTest {
+
+    @Test
+    void When_a_sample_is_split_over_two_notifications_then_it_is_decoded_from_the_second_one() {
+        BluetoothSampleStream stream = new BluetoothSampleStream(SINT24);
+        int[] samples = new int[4];
+
+        int first = stream.decode(ByteBuffer.wrap(new byte[]{0x01, 0x00, 0x00, 0x02}), samples, 0);
+        assertEquals(1, first);
+        assertEquals(1, stream.getPendingLength());
+        assertEquals(2, stream.maxSamples(5));
+
+        int second = stream.decode(ByteBuffer.wrap(new byte[]{0x00, 0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}), samples, first);
+        assertEquals(2, second);
+        assertEquals(0, stream.getPendingLength());
+        assertArrayEquals(new int[]{1, 2, -1, 0}, samples);
+    }
+
+    @Test
+    void When_a_notification_is_shorter_than_the_missing_part_then_the_bytes_are_kept() {
+        BluetoothSampleStream stream = new BluetoothSampleStream(SINT32);
+        int[] samples = new int[1];
+
+        assertEquals(0, stream.decode(ByteBuffer.wrap(new byte[]{0x04}), samples, 0));
+        assertEquals(0, stream.decode(ByteBuffer.wrap(new byte[]{0x03}), samples, 0));
+        assertEquals(1, stream.decode(ByteBuffer.wrap(new byte[]{0x02, 0x01}), samples, 0));
+
+        assertEquals(0x01020304, samples[0]);
+    }
+
+    @Test
+    void When_decoding_int16_samples_then_the_position_of_the_value_is_not_changed() {
+        BluetoothSampleStream stream = new BluetoothSampleStream(SINT16);
+        ByteBuffer value = ByteBuffer.wrap(new byte[]{0x01, 0x00, 0x02, 0x00});
+        short[] samples = new short[2];
+
+        assertEquals(2, stream.decode(value, samples, 0));
+
+        assertEquals(0, value.position());
+        assertArrayEquals(new short[]{1, 2}, samples);
+    }
+
+    @Test
+    void When_decoding_with_the_wrong_array_type_then_an_IllegalArgumentException_is_thrown() {
+        BluetoothSampleStream stream = new BluetoothSampleStream(SFLOAT);
+
+        assertThrows(IllegalArgumentException.class, () -> stream.decode(ByteBuffer.allocate(2), new short[1], 0));
+    }
+
+    @Test
+    void When_reset_then_pending_bytes_are_dropped() {
+        BluetoothSampleStream stream = new BluetoothSampleStream(SINT16);
+        short[] samples = new short[1];
+        stream.decode(ByteBuffer.wrap(new byte[]{0x7F}), samples, 0);
+
+        stream.reset();
+
+        assertEquals(1, stream.decode(ByteBuffer.wrap(new byte[]{0x05, 0x00}), samples, 0));
+        assertEquals(5, samples[0]);
+    }
+}
@@ -0,0 +1,55 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BluetoothUUIDTest {
+
+    private static final String HEART_RATE_SERVICE = "0000180d-0000-1000-8000-00805f9b34fb";
+
+    @Test
+    void When_parsing_a_base_UUID_then_it_equals_UUID_fromString_and_is_cached() {
+        UUID uuid = BluetoothUUID.fromString(HEART_RATE_SERVICE);
+
+        assertEquals(UUID.fromString(HEART_RATE_SERVICE), uuid);
+        assertSame(uuid, BluetoothUUID.fromString(HEART_RATE_SERVICE.toUpperCase()));
+        assertSame(uuid, BluetoothUUID.fromString("180D"));
+        assertSame(uuid, BluetoothUUID.fromString("0000180d"));
+        assertSame(uuid, BluetoothUUID.fromShortValue(0x180D));
+    }
+
+    @Test
+    void When_parsing_a_32_bit_base_UUID_then_it_equals_UUID_fromString() {
+        assertEquals(UUID.fromString("fedcba98-0000-1000-8000-00805f9b34fb"), BluetoothUUID.fromString("FEDCBA98"));
+        assertEquals(UUID.fromString("fedcba98-0000-1000-8000-00805f9b34fb"), BluetoothUUID.fromString("fedcba98-0000-1000-8000-00805f9b34fb"));
+    }
+
+    @Test
+    void When_parsing_a_vendor_UUID_then_it_equals_UUID_fromString() {
+        String[] values = {"6e400001-b5a3-f393-e0a9-e50e24dcca9e", "FFFFFFFF-FFFF-FFFF-FFFF-FFFFFFFFFFFF", "00000000-0000-0000-0000-000000000000", "0000180d-0000-1000-8000-00805f9b34fc"};
+        for (String value : values) {
+            assertEquals(UUID.fromString(value), BluetoothUUID.fromString(value), value);
+        }
+    }
+
+    @Test
+    void When_parsing_an_invalid_string_then_an_IllegalArgumentException_is_thrown() {
+        assertThrows(IllegalArgumentException.class, () -> BluetoothUUID.fromString("0000180g-0000-1000-8000-00805f9b34fb"));
+        assertThrows(IllegalArgumentException.class, () -> BluetoothUUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9x"));
+        assertThrows(IllegalArgumentException.class, () -> BluetoothUUID.fromString("18 D"));
+        assertThrows(IllegalArgumentException.class, () -> BluetoothUUID.fromString("not a uuid"));
+        assertThrows(IllegalArgumentException.class, () -> BluetoothUUID.fromShortValue(0x1_0000_0000L));
+    }
+
+    @Test
+    void When_getting_the_key_of_a_UUID_then_only_16_bit_base_UUIDs_have_a_key() {
+        assertEquals(0x2A37, BluetoothUUID.toKey(UUID.fromString("00002a37-0000-1000-8000-00805f9b34fb")));
+        assertEquals(-1, BluetoothUUID.toKey(UUID.fromString("fedcba98-0000-1000-8000-00805f9b34fb")));
+        assertEquals(-1, BluetoothUUID.toKey(UUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e")));
+        assertTrue(BluetoothUUID.isShortUUID(UUID.fromString("fedcba98-0000-1000-8000-00805f9b34fb")));
+    }
+}
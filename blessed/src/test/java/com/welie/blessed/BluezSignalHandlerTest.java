@@ -49,7 +49,7 @@ class BluezSignalHandlerTest {
         signalHandler.interfacesAddedHandler.handle(getInterfacesAddedNewBlpDevice());
 
         // Then
-        verify(central).handleInterfaceAddedForDevice(any(), anyMap());
+        verify(central).handleInterfaceAddedForDevice(any(), anyMap(), anyLong());
     }
 
     @Test
@@ -62,7 +62,7 @@ class BluezSignalHandlerTest {
         signalHandler.signalHandler.handle(getPropertiesChangedSignalWhileScanning());
 
         // Then
-        verify(central).handleSignal(any());
+        verify(central).handleSignal(any(), anyLong());
     }
 
     @Test
@@ -75,7 +75,7 @@ class BluezSignalHandlerTest {
         signalHandler.signalHandler.handle(getPropertiesChangedSignalWhileScanning());
 
         // Then
-        verify(peripheral).handleSignal(any());
+        verify(peripheral).handleSignal(any(), anyLong());
     }
 
     @Test
@@ -88,7 +88,7 @@ class BluezSignalHandlerTest {
         signalHandler.interfacesAddedHandler.handle(getInterfacesAddedNewBlpDevice());
 
         // Then
-        verify(peripheral, never()).handleSignal(any());
+        verify(peripheral, never()).handleSignal(any(), anyLong());
     }
 
     @Test
@@ -102,7 +102,7 @@ class BluezSignalHandlerTest {
         signalHandler.signalHandler.handle(getPropertiesChangedSignalCharacteristicUpdate(path, new byte[]{0x01}));
 
         // Then
-        verify(peripheral).handleSignal(any());
+        verify(peripheral).handleSignal(any(), anyLong());
     }
 
     @Test
@@ -116,7 +116,7 @@ class BluezSignalHandlerTest {
         signalHandler.signalHandler.handle(getPropertiesChangedSignalCharacteristicUpdate(path, new byte[]{0x01}));
 
         // Then
-        verify(peripheral, never()).handleSignal(any());
+        verify(peripheral, never()).handleSignal(any(), anyLong());
     }
 
     @NotNull
@@ -0,0 +1,290 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class CommandQueueTest {
+
+    private static final int ROUNDS = 20000;
+
+    private final Queue<String> started = new ConcurrentLinkedQueue<>();
+
+    private CommandQueue<String> recordingQueue() {
+        return new CommandQueue<>(started::add);
+    }
+
+    @Test
+    void When_commands_are_added_then_only_the_first_one_is_started() {
+        final CommandQueue<String> queue = recordingQueue();
+
+        queue.add("first");
+        queue.next();
+        queue.add("second");
+        queue.next();
+
+        assertEquals(Collections.singletonList("first"), new ArrayList<>(started));
+        assertTrue(queue.isBusy());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void When_a_command_completes_then_the_next_one_is_started() {
+        final CommandQueue<String> queue = recordingQueue();
+        queue.add("first");
+        queue.add("second");
+        queue.next();
+
+        assertEquals("first", queue.completed());
+        queue.next();
+        assertEquals("second", queue.completed());
+        queue.next();
+
+        assertEquals(Arrays.asList("first", "second"), new ArrayList<>(started));
+        assertFalse(queue.isBusy());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void When_nothing_is_executing_then_completing_does_nothing() {
+        final CommandQueue<String> queue = recordingQueue();
+        queue.add("first");
+
+        assertNull(queue.completed());
+        assertNull(queue.retry(2));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void Given_a_failing_command_when_retrying_then_it_is_started_again_until_max_tries() {
+        final CommandQueue<String> queue = recordingQueue();
+        queue.add("failing");
+        queue.add("next");
+        queue.next();
+
+        assertNull(queue.retry(2));
+        queue.next();
+        assertEquals("failing", queue.retry(2));
+        queue.next();
+
+        assertEquals(Arrays.asList("failing", "failing", "next"), new ArrayList<>(started));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void Given_a_retried_command_when_it_completes_then_the_next_command_gets_all_tries() {
+        final CommandQueue<String> queue = recordingQueue();
+        queue.add("first");
+        queue.add("second");
+        queue.next();
+        queue.retry(2);
+        queue.next();
+        queue.completed();
+        queue.next();
+
+        assertNull(queue.retry(2));
+        queue.next();
+
+        assertEquals(Arrays.asList("first", "first", "second", "second"), new ArrayList<>(started));
+    }
+
+    @Test
+    void Given_an_executing_command_when_cleared_then_the_commands_are_dropped_and_a_new_command_starts() {
+        final CommandQueue<String> queue = recordingQueue();
+        queue.add("first");
+        queue.add("second");
+        queue.next();
+
+        queue.clear();
+        assertFalse(queue.isBusy());
+        assertEquals(0, queue.size());
+        assertNull(queue.completed(), "the first command was dropped");
+
+        queue.add("third");
+        queue.next();
+
+        assertEquals(Arrays.asList("first", "third"), new ArrayList<>(started));
+        assertTrue(queue.isBusy());
+    }
+
+    @Test
+    void Given_a_command_that_completes_while_another_one_is_added_then_the_added_command_always_starts() throws Exception {
+        final List<CommandQueue<String>> queues = new ArrayList<>();
+        final List<Queue<String>> startedPerRound = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            final Queue<String> roundStarted = new ConcurrentLinkedQueue<>();
+            final CommandQueue<String> queue = new CommandQueue<>(roundStarted::add);
+            queue.add("executing");
+            queue.next();
+            queues.add(queue);
+            startedPerRound.add(roundStarted);
+        }
+
+        race(queue -> {
+            queue.add("added");
+            queue.next();
+        }, queue -> {
+            queue.completed();
+            queue.next();
+        }, queues);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertEquals(Arrays.asList("executing", "added"), new ArrayList<>(startedPerRound.get(i)), "round " + i);
+            assertTrue(queues.get(i).isBusy(), "round " + i);
+            assertEquals(1, queues.get(i).size(), "round " + i);
+        }
+    }
+
+    @Test
+    void Given_a_command_that_is_completed_twice_at_the_same_moment_then_the_next_command_keeps_executing() throws Exception {
+        final List<CommandQueue<String>> queues = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            final CommandQueue<String> queue = new CommandQueue<>(command -> {
+            });
+            queue.add("executing");
+            queue.add("waiting");
+            queue.add("last");
+            queue.next();
+            queues.add(queue);
+        }
+
+        final Actor complete = queue -> {
+            queue.completed();
+            queue.next();
+        };
+        race(complete, complete, queues);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertTrue(queues.get(i).isBusy(), "round " + i);
+        }
+    }
+
+    @Test
+    void Given_a_command_that_is_added_while_the_queue_is_cleared_then_the_queue_never_stays_busy() throws Exception {
+        final List<CommandQueue<String>> queues = new ArrayList<>();
+        final List<Queue<String>> startedPerRound = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            final Queue<String> roundStarted = new ConcurrentLinkedQueue<>();
+            final CommandQueue<String> queue = new CommandQueue<>(roundStarted::add);
+            queue.add("executing");
+            queue.next();
+            queues.add(queue);
+            startedPerRound.add(roundStarted);
+        }
+
+        race(queue -> {
+            queue.add("added");
+            queue.next();
+        }, CommandQueue::clear, queues);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            final CommandQueue<String> queue = queues.get(i);
+            queue.add("last");
+            queue.next();
+            for (int tries = 0; tries < 3 && !startedPerRound.get(i).contains("last"); tries++) {
+                queue.completed();
+                queue.next();
+            }
+            assertTrue(startedPerRound.get(i).contains("last"), "round " + i);
+        }
+    }
+
+    @Test
+    void Given_many_producers_when_commands_complete_on_other_threads_then_every_command_runs_once_in_order_and_alone() throws Exception {
+        final int producers = 8;
+        final int commandsPerProducer = 5000;
+        final ExecutorService callbackThreads = Executors.newFixedThreadPool(4);
+        final AtomicInteger executing = new AtomicInteger();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final int[] lastSequence = new int[producers];
+        Arrays.fill(lastSequence, -1);
+        final CountDownLatch done = new CountDownLatch(producers * commandsPerProducer);
+        final AtomicReference<CommandQueue<int[]>> queueReference = new AtomicReference<>();
+
+        final CommandQueue<int[]> queue = new CommandQueue<>(command -> callbackThreads.execute(() -> {
+            if (executing.incrementAndGet() != 1) failure.compareAndSet(null, "commands overlap");
+            final int producer = command[0];
+            if (command[1] != lastSequence[producer] + 1) failure.compareAndSet(null, String.format("producer %d: %d after %d", producer, command[1], lastSequence[producer]));
+            lastSequence[producer] = command[1];
+            executing.decrementAndGet();
+
+            queueReference.get().completed();
+            queueReference.get().next();
+            done.countDown();
+        }));
+        queueReference.set(queue);
+
+        final CyclicBarrier start = new CyclicBarrier(producers);
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    return;
+                }
+                for (int sequence = 0; sequence < commandsPerProducer; sequence++) {
+                    queue.add(new int[]{producer, sequence});
+                    queue.next();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        try {
+            assertTrue(done.await(30, TimeUnit.SECONDS), "not all commands were executed");
+            assertNull(failure.get());
+            assertEquals(0, queue.size());
+            assertFalse(queue.isBusy());
+        } finally {
+            callbackThreads.shutdown();
+        }
+    }
+
+    /**
+     * Run two actions on two threads against each queue, starting them at the same moment in every round
+     */
+    private static void race(Actor actor1, Actor actor2, List<CommandQueue<String>> queues) throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> first = executor.submit(() -> {
+                for (CommandQueue<String> queue : queues) {
+                    barrier.await();
+                    actor1.act(queue);
+                }
+                return null;
+            });
+            final Future<?> second = executor.submit(() -> {
+                for (CommandQueue<String> queue : queues) {
+                    barrier.await();
+                    actor2.act(queue);
+                }
+                return null;
+            });
+            first.get(30, TimeUnit.SECONDS);
+            second.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Actor {
+        void act(CommandQueue<String> queue);
+    }
+}
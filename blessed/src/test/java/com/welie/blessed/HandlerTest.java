@@ -5,8 +5,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -69,4 +70,122 @@ public class HandlerTest {
         assertEquals("second", output.get(0));
         assertEquals("third", output.get(1));
     }
+
+    @Test
+    void Given_a_handler_on_a_pool_when_executing_many_runnables_then_they_are_executed_one_at_a_time_in_order() throws InterruptedException {
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        final Handler handler = new Handler("test", pool);
+        final List<Integer> output = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+        final int count = SerialExecutor.BATCH_SIZE * 3;
+
+        try {
+            for (int i = 0; i < count; i++) {
+                final int value = i;
+                handler.post(() -> output.add(value));
+            }
+            handler.post(done::countDown);
+
+            assertTrue(done.await(1, TimeUnit.SECONDS));
+            assertEquals(count, output.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, output.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void Given_two_handlers_on_a_pool_when_one_is_blocked_then_the_other_still_executes() throws InterruptedException {
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        final Handler slowHandler = new Handler("slow", pool);
+        final Handler fastHandler = new Handler("fast", pool);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch executed = new CountDownLatch(1);
+
+        try {
+            slowHandler.post(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            fastHandler.post(executed::countDown);
+
+            assertTrue(executed.await(1, TimeUnit.SECONDS));
+        } finally {
+            blocked.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void Given_a_handler_on_a_pool_when_a_runnable_fails_then_the_next_runnables_are_executed() throws InterruptedException {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        final Handler handler = new Handler("test", pool);
+        final CountDownLatch executed = new CountDownLatch(1);
+
+        try {
+            handler.post(() -> {
+                throw new IllegalStateException("failed");
+            });
+            handler.postDelayed(executed::countDown, 50);
+
+            assertTrue(executed.await(1, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void Given_a_handler_on_a_pool_when_a_runnable_throws_an_error_then_the_next_runnables_are_executed() throws InterruptedException {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        final Handler handler = new Handler("test", pool);
+        final CountDownLatch executed = new CountDownLatch(1);
+
+        try {
+            handler.post(() -> {
+                throw new AssertionError("failed");
+            });
+            handler.post(executed::countDown);
+
+            assertTrue(executed.await(1, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void Given_a_handler_on_a_pool_when_a_delayed_runnable_is_cancelled_while_waiting_for_the_executor_then_it_is_not_executed() throws InterruptedException {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        final Handler handler = new Handler("test", pool);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch executed = new CountDownLatch(1);
+        final List<String> output = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            handler.post(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            final ScheduledFuture<?> future = handler.postDelayed(() -> output.add("cancelled"), 10);
+            Thread.sleep(100);
+
+            assertTrue(future.cancel(false));
+            blocked.countDown();
+            handler.post(executed::countDown);
+
+            assertTrue(executed.await(1, TimeUnit.SECONDS));
+            assertTrue(output.isEmpty());
+            assertTrue(future.isCancelled());
+        } finally {
+            blocked.countDown();
+            pool.shutdown();
+        }
+    }
 }
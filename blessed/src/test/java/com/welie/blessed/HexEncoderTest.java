@@ -0,0 +1,35 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class HexEncoderTest {
+
+    @Test
+    void When_converting_bytes_then_every_byte_becomes_two_lower_case_digits() {
+        byte[] bytes = new byte[]{0x00, 0x0F, 0x10, (byte) 0xAB, (byte) 0xFF};
+
+        assertEquals("000f10abff", HexEncoder.toHex(bytes));
+        assertEquals("0x000f10abff", HexEncoder.appendHex(new StringBuilder("0x"), bytes).toString());
+    }
+
+    @Test
+    void When_converting_a_value_bigger_than_the_scratch_array_then_all_bytes_are_converted() {
+        byte[] bytes = new byte[2000];
+        bytes[1999] = 0x7F;
+
+        String hex = HexEncoder.toHex(bytes);
+
+        assertEquals(4000, hex.length());
+        assertTrue(hex.endsWith("007f"));
+        assertEquals("7f", HexEncoder.toHex(new byte[]{0x7F}));
+    }
+
+    @Test
+    void When_converting_null_then_bytes2String_returns_a_dash() {
+        assertEquals("-", BluetoothBytesParser.bytes2String(null));
+        assertEquals("", HexEncoder.toHex(new byte[0]));
+    }
+}
@@ -0,0 +1,108 @@
+package com.welie.blessed;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PooledValueTest {
+
+    @Test
+    void When_copying_a_value_then_a_read_only_view_of_the_remaining_bytes_is_returned() {
+        PooledValue.Pool pool = new PooledValue.Pool(4);
+        ByteBuffer value = ByteBuffer.wrap(new byte[]{0x00, 0x01, 0x02, 0x03}).asReadOnlyBuffer();
+        value.position(1);
+
+        PooledValue pooledValue = pool.copyOf(value);
+
+        assertEquals(1, value.position());
+        assertEquals(3, pooledValue.length());
+        assertArrayEquals(new byte[]{0x01, 0x02, 0x03}, pooledValue.toByteArray());
+        assertTrue(pooledValue.getValue().isReadOnly());
+        assertThrows(ReadOnlyBufferException.class, () -> pooledValue.getValue().put(0, (byte) 0));
+    }
+
+    @Test
+    void When_a_value_is_released_then_its_slab_is_reused() {
+        PooledValue.Pool pool = new PooledValue.Pool(4);
+
+        PooledValue first = pool.copyOf(ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+        first.release();
+        assertEquals(1, pool.getFreeCount());
+        PooledValue second = pool.copyOf(ByteBuffer.wrap(new byte[]{0x03}));
+
+        assertEquals(0, pool.getFreeCount());
+        assertEquals(1, second.getValue().remaining());
+        assertEquals(0x03, second.getValue().get(0));
+        assertThrows(IllegalStateException.class, first::getValue);
+    }
+
+    @Test
+    void When_a_value_is_held_then_it_is_only_recycled_after_the_last_release() {
+        PooledValue.Pool pool = new PooledValue.Pool(4);
+        PooledValue pooledValue = pool.copyOf(ByteBuffer.wrap(new byte[]{0x01}));
+
+        PooledValue held = pooledValue.hold();
+        pooledValue.release();
+
+        assertEquals(0, pool.getFreeCount());
+        assertEquals(0x01, held.getValue().get(0));
+        assertThrows(IllegalStateException.class, pooledValue::getValue);
+        assertThrows(IllegalStateException.class, pooledValue::hold);
+
+        held.release();
+
+        assertEquals(1, pool.getFreeCount());
+        assertThrows(IllegalStateException.class, held::getValue);
+        assertThrows(IllegalStateException.class, held::release);
+        assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    void Given_a_reused_slab_when_a_previous_holder_releases_again_then_the_new_value_stays_held() {
+        PooledValue.Pool pool = new PooledValue.Pool(4);
+        PooledValue first = pool.copyOf(ByteBuffer.wrap(new byte[]{0x01}));
+        PooledValue held = first.hold();
+        first.release();
+        held.release();
+        PooledValue second = pool.copyOf(ByteBuffer.wrap(new byte[]{0x02}));
+
+        assertThrows(IllegalStateException.class, held::release);
+        assertThrows(IllegalStateException.class, first::release);
+
+        assertEquals(0, pool.getFreeCount());
+        assertEquals(0x02, second.getValue().get(0));
+    }
+
+    @Test
+    void When_the_value_is_read_relatively_then_other_holders_and_the_next_getValue_start_at_the_beginning() {
+        PooledValue.Pool pool = new PooledValue.Pool(4);
+        PooledValue pooledValue = pool.copyOf(ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+        PooledValue held = pooledValue.hold();
+
+        ByteBuffer value = pooledValue.getValue();
+        assertEquals(0x01, value.get());
+
+        assertEquals(0, held.getValue().position());
+        assertEquals(0x01, held.getValue().get());
+        assertEquals(1, value.position());
+        assertSame(value, pooledValue.getValue());
+        assertEquals(0, value.position());
+        assertEquals(2, value.remaining());
+    }
+
+    @Test
+    void When_a_value_is_longer_than_a_slab_then_the_slab_grows() {
+        PooledValue.Pool pool = new PooledValue.Pool(4);
+        byte[] value = new byte[PooledValue.SLAB_SIZE + 10];
+        value[value.length - 1] = 0x7F;
+
+        PooledValue pooledValue = pool.copyOf(ByteBuffer.wrap(value));
+
+        assertEquals(value.length, pooledValue.length());
+        assertEquals(0x7F, pooledValue.getValue().get(value.length - 1));
+    }
+}
@@ -0,0 +1,100 @@
+package com.welie.blessed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A dbus-daemon with a session bus configuration on a socket in a temporary directory, so a {@link SimulatedBluez}
+ * can export its objects as org.bluez and the library can talk to it through the real dbus-java marshalling.
+ * <pre>
+ * try (PrivateDbusDaemon daemon = new PrivateDbusDaemon();
+ *      SimulatedBluez bluez = new SimulatedBluez(daemon.getAddress(), 42L)) {
+ *     BluezAdapterProvider provider = new BluezAdapterProvider(daemon.getAddress());
+ *     ...
+ * }
+ * </pre>
+ */
+class PrivateDbusDaemon implements AutoCloseable {
+
+    static final String DBUS_DAEMON = "dbus-daemon";
+
+    private final Path directory;
+    private final Process process;
+    private final String address;
+
+    /**
+     * Start the daemon and wait until it listens
+     *
+     * @throws IOException if dbus-daemon could not be started
+     */
+    PrivateDbusDaemon() throws IOException {
+        directory = Files.createTempDirectory("blessed-dbus");
+        final String socket = directory.resolve("bus").toString();
+        process = new ProcessBuilder(DBUS_DAEMON, "--session", "--nofork", "--nopidfile", "--print-address",
+                "--address=unix:path=" + socket)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        // The address is printed once the daemon listens on the socket
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        final String line = reader.readLine();
+        if (line == null || line.isEmpty()) {
+            close();
+            throw new IOException("dbus-daemon did not print its address");
+        }
+        address = line.trim();
+    }
+
+    /**
+     * Check if dbus-daemon can be started on this machine, so tests can be skipped when it is not installed
+     *
+     * @return true if dbus-daemon was found on the PATH
+     */
+    static boolean isAvailable() {
+        final String path = System.getenv("PATH");
+        if (path == null) return false;
+
+        for (String directory : path.split(File.pathSeparator)) {
+            if (new File(directory, DBUS_DAEMON).canExecute()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the address to connect to
+     *
+     * @return the address, for example unix:path=/tmp/blessed-dbus123/bus,guid=...
+     */
+    @NotNull
+    String getAddress() {
+        return address;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+}
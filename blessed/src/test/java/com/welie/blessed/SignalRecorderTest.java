@@ -0,0 +1,223 @@
+package com.welie.blessed;
+
+import org.freedesktop.dbus.DBusMap;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.handlers.AbstractInterfacesAddedHandler;
+import org.freedesktop.dbus.handlers.AbstractPropertiesChangedHandler;
+import org.freedesktop.dbus.interfaces.ObjectManager;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.UInt16;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.Variant;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.welie.blessed.BluetoothPeripheral.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SignalRecorderTest {
+
+    @Mock
+    DBusConnection dBusConnection;
+
+    @Mock
+    AbstractPropertiesChangedHandler propertiesChangedHandler;
+
+    @Mock
+    AbstractInterfacesAddedHandler interfacesAddedHandler;
+
+    @TempDir
+    Path tempDir;
+
+    private static final String DEVICE_PATH = "/org/bluez/hci0/dev_12_34_56_65_43_21";
+    private static final String CHARACTERISTIC_PATH = DEVICE_PATH + "/service0010/char0011";
+
+    private File trace() {
+        return tempDir.resolve("signals.trace").toFile();
+    }
+
+    private Properties.PropertiesChanged valueChanged(byte[] value) throws DBusException {
+        return new Properties.PropertiesChanged(CHARACTERISTIC_PATH, BLUEZ_CHARACTERISTIC_INTERFACE, Collections.singletonMap(PROPERTY_VALUE, new Variant<>(value, "ay")), Collections.emptyList());
+    }
+
+    private ObjectManager.InterfacesAdded deviceAdded() throws DBusException {
+        final Map<String, Variant<?>> properties = new LinkedHashMap<>();
+        properties.put(PROPERTY_ADDRESS, new Variant<>("12:34:56:65:43:21"));
+        properties.put(PROPERTY_RSSI, new Variant<>((short) -55));
+        properties.put(PROPERTY_PAIRED, new Variant<>(false));
+        properties.put("Class", new Variant<>(new UInt32(0x1F00)));
+        properties.put("Adapter", new Variant<>(new DBusPath("/org/bluez/hci0")));
+        properties.put(PROPERTY_SERVICE_UUIDS, new Variant<>(new ArrayList<>(Collections.singletonList("00001810-0000-1000-8000-00805f9b34fb")), "as"));
+        properties.put(PROPERTY_MANUFACTURER_DATA, new Variant<>(new DBusMap<UInt16, Variant<byte[]>>(new Object[][]{{new UInt16(0x00E0), new Variant<>(new byte[]{0x01, 0x02}, "ay")}}), "a{qv}"));
+        return new ObjectManager.InterfacesAdded("/", new DBusPath(DEVICE_PATH), Collections.singletonMap(BLUEZ_DEVICE_INTERFACE, properties));
+    }
+
+    @Test
+    void When_signals_are_recorded_then_the_replayed_signals_are_equal() throws Exception {
+        // Given
+        try (SignalRecorder recorder = new SignalRecorder(trace())) {
+            recorder.record(deviceAdded());
+            recorder.record(valueChanged(new byte[]{0x00, 0x48}));
+            assertEquals(2, recorder.getRecordCount());
+        }
+
+        // When
+        final long replayed = new SignalReplayer(trace()).replay(SignalReplayer.MAX_SPEED, propertiesChangedHandler, interfacesAddedHandler);
+
+        // Then
+        assertEquals(2, replayed);
+        final ArgumentCaptor<ObjectManager.InterfacesAdded> interfacesAdded = ArgumentCaptor.forClass(ObjectManager.InterfacesAdded.class);
+        verify(interfacesAddedHandler).handle(interfacesAdded.capture());
+        assertEquals("/", interfacesAdded.getValue().getPath());
+        assertEquals(DEVICE_PATH, interfacesAdded.getValue().getSignalSource().getPath());
+        final Map<String, Variant<?>> properties = interfacesAdded.getValue().getInterfaces().get(BLUEZ_DEVICE_INTERFACE);
+        assertEquals("12:34:56:65:43:21", properties.get(PROPERTY_ADDRESS).getValue());
+        assertEquals((short) -55, properties.get(PROPERTY_RSSI).getValue());
+        assertEquals(false, properties.get(PROPERTY_PAIRED).getValue());
+        assertEquals(new UInt32(0x1F00), properties.get("Class").getValue());
+        assertEquals("/org/bluez/hci0", ((DBusPath) properties.get("Adapter").getValue()).getPath());
+        assertEquals(Collections.singletonList("00001810-0000-1000-8000-00805f9b34fb"), properties.get(PROPERTY_SERVICE_UUIDS).getValue());
+        final DBusMap<?, ?> manufacturerData = (DBusMap<?, ?>) properties.get(PROPERTY_MANUFACTURER_DATA).getValue();
+        assertArrayEquals(new byte[]{0x01, 0x02}, (byte[]) ((Variant<?>) manufacturerData.get(new UInt16(0x00E0))).getValue());
+
+        final ArgumentCaptor<Properties.PropertiesChanged> propertiesChanged = ArgumentCaptor.forClass(Properties.PropertiesChanged.class);
+        verify(propertiesChangedHandler).handle(propertiesChanged.capture());
+        assertEquals(CHARACTERISTIC_PATH, propertiesChanged.getValue().getPath());
+        assertEquals(BLUEZ_CHARACTERISTIC_INTERFACE, propertiesChanged.getValue().getInterfaceName());
+        assertArrayEquals(new byte[]{0x00, 0x48}, (byte[]) propertiesChanged.getValue().getPropertiesChanged().get(PROPERTY_VALUE).getValue());
+    }
+
+    @Test
+    void Given_an_existing_trace_when_recording_again_then_the_signals_are_appended() throws Exception {
+        // Given
+        try (SignalRecorder recorder = new SignalRecorder(trace())) {
+            recorder.record(valueChanged(new byte[]{0x01}));
+        }
+
+        // When
+        try (SignalRecorder recorder = new SignalRecorder(trace())) {
+            recorder.record(valueChanged(new byte[]{0x02}));
+        }
+
+        // Then
+        final long replayed = new SignalReplayer(trace()).replay(SignalReplayer.MAX_SPEED, propertiesChangedHandler, interfacesAddedHandler);
+        assertEquals(2, replayed);
+        final ArgumentCaptor<Properties.PropertiesChanged> propertiesChanged = ArgumentCaptor.forClass(Properties.PropertiesChanged.class);
+        verify(propertiesChangedHandler, times(2)).handle(propertiesChanged.capture());
+        assertArrayEquals(new byte[]{0x01}, (byte[]) propertiesChanged.getAllValues().get(0).getPropertiesChanged().get(PROPERTY_VALUE).getValue());
+        assertArrayEquals(new byte[]{0x02}, (byte[]) propertiesChanged.getAllValues().get(1).getPropertiesChanged().get(PROPERTY_VALUE).getValue());
+    }
+
+    @Test
+    void Given_a_property_with_an_unsupported_nested_variant_when_recording_then_the_property_is_left_out() throws Exception {
+        // Given
+        Variant<?> struct = mock(Variant.class);
+        when(struct.getSig()).thenReturn("(ii)");
+        Map<String, Variant<?>> properties = new LinkedHashMap<>();
+        properties.put(PROPERTY_ADDRESS, new Variant<>("12:34:56:65:43:21"));
+        properties.put("ServiceData", new Variant<>(new DBusMap<String, Variant<?>>(new Object[][]{{"0000180d-0000-1000-8000-00805f9b34fb", struct}}), "a{sv}"));
+
+        // When
+        try (SignalRecorder recorder = new SignalRecorder(trace())) {
+            recorder.record(new ObjectManager.InterfacesAdded("/", new DBusPath(DEVICE_PATH), Collections.singletonMap(BLUEZ_DEVICE_INTERFACE, properties)));
+        }
+
+        // Then
+        assertEquals(1, new SignalReplayer(trace()).replay(SignalReplayer.MAX_SPEED, propertiesChangedHandler, interfacesAddedHandler));
+        final ArgumentCaptor<ObjectManager.InterfacesAdded> interfacesAdded = ArgumentCaptor.forClass(ObjectManager.InterfacesAdded.class);
+        verify(interfacesAddedHandler).handle(interfacesAdded.capture());
+        assertEquals(Collections.singleton(PROPERTY_ADDRESS), interfacesAdded.getValue().getInterfaces().get(BLUEZ_DEVICE_INTERFACE).keySet());
+    }
+
+    @Test
+    void Given_a_signal_that_fails_to_be_written_when_recording_then_it_is_skipped_and_recording_continues() throws Exception {
+        // Given
+        Variant<?> broken = mock(Variant.class);
+        when(broken.getSig()).thenReturn("i");
+        doReturn("not an int").when(broken).getValue();
+
+        // When
+        try (SignalRecorder recorder = new SignalRecorder(trace())) {
+            recorder.record(valueChanged(new byte[]{0x01}));
+            recorder.record(new Properties.PropertiesChanged(CHARACTERISTIC_PATH, BLUEZ_CHARACTERISTIC_INTERFACE, Collections.singletonMap("MTU", broken), Collections.emptyList()));
+            recorder.record(valueChanged(new byte[]{0x02}));
+            assertEquals(2, recorder.getRecordCount());
+        }
+
+        // Then
+        assertEquals(2, new SignalReplayer(trace()).replay(SignalReplayer.MAX_SPEED, propertiesChangedHandler, interfacesAddedHandler));
+        final ArgumentCaptor<Properties.PropertiesChanged> propertiesChanged = ArgumentCaptor.forClass(Properties.PropertiesChanged.class);
+        verify(propertiesChangedHandler, times(2)).handle(propertiesChanged.capture());
+        assertArrayEquals(new byte[]{0x02}, (byte[]) propertiesChanged.getAllValues().get(1).getPropertiesChanged().get(PROPERTY_VALUE).getValue());
+    }
+
+    @Test
+    void Given_a_recording_when_replaying_at_1x_then_the_timing_is_kept() throws Exception {
+        // Given
+        try (SignalRecorder recorder = new SignalRecorder(trace())) {
+            recorder.record(valueChanged(new byte[]{0x01}));
+            Thread.sleep(200);
+            recorder.record(valueChanged(new byte[]{0x02}));
+        }
+
+        // When
+        final long start = System.nanoTime();
+        new SignalReplayer(trace()).replay(1.0, propertiesChangedHandler, interfacesAddedHandler);
+        final long durationMillis = (System.nanoTime() - start) / 1000000;
+
+        // Then
+        assertTrue(durationMillis >= 200);
+        verify(propertiesChangedHandler, times(2)).handle(any());
+    }
+
+    @Test
+    void Given_a_file_that_is_not_a_trace_when_recording_then_an_exception_is_thrown() throws IOException {
+        // Given
+        try (FileOutputStream out = new FileOutputStream(trace())) {
+            out.write("not a trace".getBytes());
+        }
+
+        // When / Then
+        assertThrows(IOException.class, () -> new SignalRecorder(trace()));
+    }
+
+    @Test
+    void When_replaying_at_speed_0_then_an_exception_is_thrown() {
+        assertThrows(IllegalArgumentException.class, () -> new SignalReplayer(trace()).replay(0, propertiesChangedHandler, interfacesAddedHandler));
+    }
+
+    @Test
+    void Given_a_recorder_when_the_signal_handler_receives_signals_then_they_are_recorded() throws Exception {
+        // Given
+        BluezSignalHandler signalHandler = BluezSignalHandler.createInstance(dBusConnection);
+        final SignalRecorder recorder = new SignalRecorder(trace());
+        signalHandler.setRecorder(recorder);
+
+        // When
+        try {
+            signalHandler.signalHandler.handle(valueChanged(new byte[]{0x01}));
+            signalHandler.interfacesAddedHandler.handle(deviceAdded());
+        } finally {
+            signalHandler.setRecorder(null);
+            recorder.close();
+        }
+
+        // Then
+        assertEquals(2, recorder.getRecordCount());
+    }
+}
@@ -0,0 +1,148 @@
+package com.welie.blessed;
+
+import org.bluez.Adapter1;
+import org.bluez.exceptions.*;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.welie.blessed.BluetoothCentral.BLUEZ_ADAPTER_INTERFACE;
+
+/**
+ * A simulated adapter. Its devices advertise while it is discovering.
+ */
+class SimulatedAdapter extends SimulatedObject implements Adapter1 {
+
+    static final String PROPERTY_DISCOVERING = "Discovering";
+    static final String PROPERTY_POWERED = "Powered";
+
+    private volatile Map<String, Variant<?>> discoveryFilter = new HashMap<>();
+    private volatile BluezFailedException discoveryFailure;
+    private volatile long discoveryStarted;
+
+    SimulatedAdapter(@NotNull SimulatedBluez bluez, @NotNull String path, @NotNull String address) {
+        super(bluez, path, BLUEZ_ADAPTER_INTERFACE);
+        initProperty("Address", new Variant<>(address));
+        initProperty("Name", new Variant<>("simulated"));
+        initProperty("Alias", new Variant<>("simulated"));
+        initProperty("Class", new Variant<>(new UInt32(0)));
+        initProperty(PROPERTY_POWERED, new Variant<>(true));
+        initProperty("Discoverable", new Variant<>(false));
+        initProperty("Pairable", new Variant<>(true));
+        initProperty(PROPERTY_DISCOVERING, new Variant<>(false));
+        initProperty("UUIDs", new Variant<>(new ArrayList<String>(), "as"));
+    }
+
+    /**
+     * Make the next StartDiscovery calls fail, or succeed again when null
+     *
+     * @param failure the exception to throw
+     */
+    @NotNull
+    SimulatedAdapter setDiscoveryFailure(BluezFailedException failure) {
+        this.discoveryFailure = failure;
+        return this;
+    }
+
+    /**
+     * Get the time since the last StartDiscovery
+     *
+     * @return the milliseconds since the discovery started or -1 if the adapter is not discovering
+     */
+    long getDiscoveryMillis() {
+        return isDiscovering() ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - discoveryStarted) : -1;
+    }
+
+    @NotNull
+    Map<String, Variant<?>> getDiscoveryFilter() {
+        return discoveryFilter;
+    }
+
+    @Override
+    protected void handleSet(@NotNull String name, @NotNull Object value) {
+        switch (name) {
+            case PROPERTY_POWERED:
+                setProperty(PROPERTY_POWERED, new Variant<>(value));
+                if (Boolean.FALSE.equals(value) && isDiscovering()) {
+                    stopAdvertising();
+                }
+                break;
+            case "Alias":
+            case "Discoverable":
+            case "Pairable":
+                setProperty(name, new Variant<>(value));
+                break;
+            default:
+                super.handleSet(name, value);
+        }
+    }
+
+    @Override
+    public void StartDiscovery() throws BluezNotReadyException, BluezFailedException {
+        if (!Boolean.TRUE.equals(getProperty(PROPERTY_POWERED))) {
+            throw new BluezNotReadyException("Resource Not Ready");
+        }
+        final BluezFailedException failure = discoveryFailure;
+        if (failure != null) throw failure;
+        if (isDiscovering()) {
+            throw new BluezFailedException("Operation already in progress");
+        }
+
+        discoveryStarted = System.nanoTime();
+        setProperty(PROPERTY_DISCOVERING, new Variant<>(true));
+        for (SimulatedDevice device : bluez.getDevices()) {
+            device.startAdvertising();
+        }
+    }
+
+    @Override
+    public void StopDiscovery() throws BluezNotReadyException, BluezFailedException, BluezNotAuthorizedException {
+        if (!isDiscovering()) {
+            throw new BluezFailedException("No discovery started");
+        }
+        stopAdvertising();
+    }
+
+    @Override
+    public void RemoveDevice(DBusPath _device) throws BluezInvalidArgumentsException, BluezFailedException {
+        for (SimulatedDevice device : bluez.getDevices()) {
+            if (device.getObjectPath().equals(_device.getPath())) {
+                device.remove();
+                return;
+            }
+        }
+        throw new BluezInvalidArgumentsException("Invalid arguments in method call");
+    }
+
+    @Override
+    public void SetDiscoveryFilter(Map<String, Variant<?>> _filter) throws BluezNotReadyException, BluezNotSupportedException, BluezFailedException {
+        discoveryFilter = new HashMap<>(_filter);
+    }
+
+    @Override
+    public String[] GetDiscoveryFilters() {
+        return new String[]{"UUIDs", "RSSI", "Pathloss", "Transport", "DuplicateData"};
+    }
+
+    @Override
+    public DBusPath ConnectDevice(Map<String, Variant<?>> _properties) throws BluezNotSupportedException {
+        throw new BluezNotSupportedException("Operation is not supported");
+    }
+
+    private boolean isDiscovering() {
+        return Boolean.TRUE.equals(getProperty(PROPERTY_DISCOVERING));
+    }
+
+    private void stopAdvertising() {
+        for (SimulatedDevice device : bluez.getDevices()) {
+            device.stopAdvertising();
+        }
+        setProperty(PROPERTY_DISCOVERING, new Variant<>(false));
+    }
+}
@@ -0,0 +1,29 @@
+package com.welie.blessed;
+
+import org.bluez.AgentManager1;
+import org.freedesktop.dbus.DBusPath;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The simulated /org/bluez object. It accepts the pairing agent of the central and is the parent of the adapter.
+ */
+class SimulatedAgentManager extends SimulatedObject implements AgentManager1 {
+
+    static final String BLUEZ_AGENT_MANAGER_INTERFACE = "org.bluez.AgentManager1";
+
+    SimulatedAgentManager(@NotNull SimulatedBluez bluez, @NotNull String path) {
+        super(bluez, path, BLUEZ_AGENT_MANAGER_INTERFACE);
+    }
+
+    @Override
+    public void RegisterAgent(DBusPath _agent, String _capability) {
+    }
+
+    @Override
+    public void UnregisterAgent(DBusPath _agent) {
+    }
+
+    @Override
+    public void RequestDefaultAgent(DBusPath _agent) {
+    }
+}
@@ -0,0 +1,284 @@
+package com.welie.blessed;
+
+import com.welie.blessed.bluez.BluezAdapter;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusInterface;
+import org.freedesktop.dbus.interfaces.ObjectManager;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * An in-memory Bluez for load testing the library without a Bluetooth adapter.
+ * <p>
+ * The adapter, devices, services, characteristics and descriptors implement the org.bluez interfaces, and are handed
+ * to the real wrapper classes through a DBusConnection that resolves object paths to them. Signals are delivered to
+ * the handlers of {@link BluezSignalHandler}, one at a time on a single thread like dbus-java does, so the library
+ * handles them through the same paths as the signals of a real Bluez.
+ * <p>
+ * Created with a bus address, the objects are exported as org.bluez on that bus instead and the signals are sent over
+ * it, so the library talks to them through the real dbus-java marshalling, see {@link PrivateDbusDaemon}.
+ * <pre>
+ * SimulatedBluez bluez = new SimulatedBluez();
+ * SimulatedDevice device = bluez.addDevice("12:34:56:00:00:01").setName("Sim").setAdvertisingInterval(100);
+ * device.addService(HRS_SERVICE_UUID).addCharacteristic(HRM_CHARACTERISTIC_UUID, "notify").setNotifications(20, () -&gt; value);
+ * BluetoothCentral central = new BluetoothCentral(callback, Collections.emptySet(), bluez.getAdapter());
+ * </pre>
+ */
+class SimulatedBluez implements AutoCloseable {
+    private static final String TAG = SimulatedBluez.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    static final String BLUEZ_PATH = "/org/bluez";
+    static final String BLUEZ_BUS_NAME = "org.bluez";
+
+    private final DBusConnection dbusConnection;
+    private final boolean exported;
+    private final Map<String, SimulatedObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, SimulatedDevice> devices = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService signalExecutor;
+    private final @Nullable BluezSignalHandler signalHandler;
+    private final SimulatedAdapter simulatedAdapter;
+    private final @Nullable BluezAdapter adapter;
+    private final Set<String> requestedBusNames = ConcurrentHashMap.newKeySet();
+    private final AtomicLong signalCount = new AtomicLong();
+    private final Random random;
+
+    /**
+     * Create a Bluez with a powered adapter hci0
+     */
+    SimulatedBluez() {
+        this(42L);
+    }
+
+    /**
+     * Create a Bluez with a powered adapter hci0
+     *
+     * @param seed the seed for the random RSSI jitter and failure injection, so a run can be repeated
+     */
+    SimulatedBluez(long seed) {
+        random = new Random(seed);
+        signalExecutor = createSignalExecutor();
+        dbusConnection = mock(DBusConnection.class, withSettings().lenient());
+        exported = false;
+
+        try {
+            doAnswer(invocation -> getObject(invocation.getArgument(1), invocation.getArgument(2)))
+                    .when(dbusConnection).getRemoteObject(anyString(), anyString(), any());
+        } catch (DBusException e) {
+            throw new IllegalStateException(e);
+        }
+
+        signalHandler = BluezSignalHandler.createInstance(dbusConnection);
+        simulatedAdapter = createAdapter();
+        adapter = new BluezAdapter(simulatedAdapter, simulatedAdapter.getObjectPath(), dbusConnection);
+    }
+
+    /**
+     * Create a Bluez with a powered adapter hci0 that is exported as org.bluez on a bus
+     *
+     * @param busAddress the address of the bus, for example of a {@link PrivateDbusDaemon}
+     * @param seed       the seed for the random RSSI jitter and failure injection, so a run can be repeated
+     * @throws DBusException if the bus could not be connected or the name org.bluez is taken
+     */
+    SimulatedBluez(@NotNull String busAddress, long seed) throws DBusException {
+        Objects.requireNonNull(busAddress, "no valid bus address provided");
+        random = new Random(seed);
+        signalExecutor = createSignalExecutor();
+        dbusConnection = DBusConnection.getConnection(busAddress, true, false);
+        exported = true;
+        dbusConnection.requestBusName(BLUEZ_BUS_NAME);
+        signalHandler = null;
+        simulatedAdapter = createAdapter();
+        adapter = null;
+    }
+
+    @NotNull
+    private static ScheduledExecutorService createSignalExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "SimulatedBluez-signals");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @NotNull
+    private SimulatedAdapter createAdapter() {
+        final SimulatedAgentManager agentManager = new SimulatedAgentManager(this, BLUEZ_PATH);
+        final SimulatedAdapter hci0 = new SimulatedAdapter(this, BLUEZ_PATH + "/hci0", "00:1A:7D:DA:71:13");
+        agentManager.addChild(hci0);
+        return hci0;
+    }
+
+    /**
+     * Get the adapter to pass to {@link BluetoothCentral}. An exported Bluez is reached through a
+     * {@link BluezAdapterProvider} for its bus instead.
+     *
+     * @return the wrapper of the simulated adapter
+     * @throws IllegalStateException if the Bluez is exported on a bus
+     */
+    @NotNull
+    BluezAdapter getAdapter() {
+        if (adapter == null) {
+            throw new IllegalStateException("use a BluezAdapterProvider for the bus of an exported Bluez");
+        }
+        return adapter;
+    }
+
+    /**
+     * Check if the objects are exported on a bus. Properties are then returned as variants, so dbus-java can marshal
+     * them with their signature.
+     */
+    boolean isExported() {
+        return exported;
+    }
+
+    @NotNull
+    SimulatedAdapter getSimulatedAdapter() {
+        return simulatedAdapter;
+    }
+
+    /**
+     * Add a device that advertises while the adapter is discovering
+     *
+     * @param address the MAC address of the device
+     * @return the device, to program its advertisements, GATT database and behavior
+     */
+    @NotNull
+    SimulatedDevice addDevice(@NotNull String address) {
+        Objects.requireNonNull(address, "no valid address provided");
+        final SimulatedDevice device = new SimulatedDevice(this, simulatedAdapter.getObjectPath() + "/dev_" + address.replace(":", "_"), address);
+        devices.put(address, device);
+        simulatedAdapter.addChild(device);
+        if (Boolean.TRUE.equals(simulatedAdapter.getProperty(SimulatedAdapter.PROPERTY_DISCOVERING))) {
+            device.startAdvertising();
+        }
+        return device;
+    }
+
+    @Nullable
+    SimulatedDevice getDevice(@NotNull String address) {
+        return devices.get(address);
+    }
+
+    @NotNull
+    Collection<SimulatedDevice> getDevices() {
+        return devices.values();
+    }
+
+    /**
+     * Get the number of signals that were delivered to the library
+     *
+     * @return the number of signals
+     */
+    long getSignalCount() {
+        return signalCount.get();
+    }
+
+    /**
+     * Wait until all signals that were emitted so far have been delivered
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return true if the signals were delivered in time
+     */
+    boolean awaitSignals(long timeoutMillis) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        signalExecutor.execute(latch::countDown);
+        return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop all advertisements and notifications, and disconnect from the bus if the Bluez is exported
+     */
+    @Override
+    public void close() {
+        signalExecutor.shutdownNow();
+        if (exported) {
+            dbusConnection.disconnect();
+        }
+    }
+
+    void register(@NotNull SimulatedObject object) {
+        objects.put(object.getObjectPath(), object);
+        if (exported) {
+            try {
+                dbusConnection.exportObject(object.getObjectPath(), object);
+            } catch (DBusException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @NotNull
+    Random getRandom() {
+        return random;
+    }
+
+    @NotNull
+    ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable task, long periodMillis) {
+        final long initialDelay = (long) (random.nextDouble() * periodMillis);
+        return signalExecutor.scheduleAtFixedRate(task, initialDelay, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void schedule(@NotNull Runnable task, long delayMillis) {
+        signalExecutor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void emitPropertiesChanged(@NotNull String path, @NotNull String interfaceName, @NotNull Map<String, Variant<?>> changed) {
+        deliver(() -> {
+            final Properties.PropertiesChanged signal = new Properties.PropertiesChanged(path, interfaceName, changed, Collections.emptyList());
+            if (exported) {
+                dbusConnection.sendMessage(signal);
+            } else {
+                signalHandler.signalHandler.handle(signal);
+            }
+        });
+    }
+
+    void emitInterfacesAdded(@NotNull SimulatedObject object) {
+        final Map<String, Map<String, Variant<?>>> interfaces = Collections.singletonMap(object.getInterfaceName(), object.getProperties());
+        deliver(() -> {
+            final ObjectManager.InterfacesAdded signal = new ObjectManager.InterfacesAdded("/", new DBusPath(object.getObjectPath()), interfaces);
+            if (exported) {
+                dbusConnection.sendMessage(signal);
+            } else {
+                signalHandler.interfacesAddedHandler.handle(signal);
+            }
+        });
+    }
+
+    private interface Signal {
+        void deliver() throws DBusException;
+    }
+
+    private void deliver(@NotNull Signal signal) {
+        if (signalExecutor.isShutdown()) return;
+        signalExecutor.execute(() -> {
+            try {
+                signal.deliver();
+                signalCount.incrementAndGet();
+            } catch (Exception e) {
+                logger.error(String.format("delivering signal failed: %s", e));
+            }
+        });
+    }
+
+    @Nullable
+    private DBusInterface getObject(@NotNull String path, @NotNull Class<?> type) {
+        final SimulatedObject object = objects.get(path);
+        return type.isInstance(object) ? (DBusInterface) object : null;
+    }
+}
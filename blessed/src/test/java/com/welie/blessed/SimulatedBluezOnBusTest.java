@@ -0,0 +1,181 @@
+package com.welie.blessed;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.welie.blessed.BluetoothCommandStatus.COMMAND_SUCCESS;
+import static com.welie.blessed.BluetoothGattCharacteristic.WriteType.withResponse;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the central against a {@link SimulatedBluez} that is exported on a private dbus-daemon. Skipped when dbus-daemon
+ * is not installed.
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SimulatedBluezOnBusTest {
+
+    private static final UUID HRS_SERVICE_UUID = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+    private static final UUID HRM_MEASUREMENT_CHARACTERISTIC_UUID = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
+    private static final UUID HRM_CONTROL_POINT_CHARACTERISTIC_UUID = UUID.fromString("00002A39-0000-1000-8000-00805f9b34fb");
+    private static final UUID BODY_SENSOR_LOCATION_CHARACTERISTIC_UUID = UUID.fromString("00002A38-0000-1000-8000-00805f9b34fb");
+    private static final String DEVICE_ADDRESS = "5B:01:00:00:00:01";
+    private static final byte[] HEART_RATE = new byte[]{0x00, 0x48};
+
+    private PrivateDbusDaemon daemon;
+    private SimulatedBluez bluez;
+    private BluezAdapterProvider provider;
+    private BluezAdapterProvider secondProvider;
+    private SimulatedGattCharacteristic measurement;
+    private SimulatedGattCharacteristic controlPoint;
+    private BluetoothCentral central;
+
+    @BeforeEach
+    void setup() throws IOException, DBusException {
+        Assumptions.assumeTrue(PrivateDbusDaemon.isAvailable(), "dbus-daemon is not installed");
+        daemon = new PrivateDbusDaemon();
+        bluez = new SimulatedBluez(daemon.getAddress(), 42L);
+        final SimulatedGattService service = bluez.addDevice(DEVICE_ADDRESS)
+                .setName("Sim-bus")
+                .setServiceUuids(HRS_SERVICE_UUID)
+                .setAdvertisingInterval(100)
+                .addService(HRS_SERVICE_UUID);
+        measurement = service.addCharacteristic(HRM_MEASUREMENT_CHARACTERISTIC_UUID, "notify").setNotifications(10, () -> HEART_RATE);
+        service.addCharacteristic(BODY_SENSOR_LOCATION_CHARACTERISTIC_UUID, "read").setValue(new byte[]{0x01});
+        controlPoint = service.addCharacteristic(HRM_CONTROL_POINT_CHARACTERISTIC_UUID, "write");
+        provider = new BluezAdapterProvider(daemon.getAddress());
+    }
+
+    @AfterEach
+    void teardown() {
+        if (central != null) central.stopScan();
+        if (provider != null && provider.dBusConnection != null) provider.dBusConnection.disconnect();
+        if (secondProvider != null && secondProvider.dBusConnection != null) secondProvider.dBusConnection.disconnect();
+        if (bluez != null) bluez.close();
+        if (daemon != null) daemon.close();
+    }
+
+    @Test
+    void When_the_provider_uses_the_private_bus_then_it_finds_the_simulated_adapter() {
+        assertNotNull(provider.adapter);
+        assertEquals("hci0", provider.adapter.getDeviceName());
+        assertTrue(provider.adapter.isPowered());
+    }
+
+    @Test
+    void Given_a_device_on_the_bus_when_connected_then_reads_writes_and_notifications_round_trip() throws InterruptedException {
+        // Given
+        final RoundTrips roundTrips = new RoundTrips();
+        central = new BluetoothCentral(new BluetoothCentralCallback() {
+            @Override
+            public void onDiscoveredPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull ScanResult scanResult) {
+                if (scanResult.getAddress().equals(DEVICE_ADDRESS) && roundTrips.discovered.getCount() > 0) {
+                    roundTrips.discovered.countDown();
+                    central.connectPeripheral(peripheral, roundTrips);
+                }
+            }
+        }, Collections.emptySet(), Objects.requireNonNull(provider.adapter));
+
+        // When
+        central.scanForPeripherals();
+
+        // Then
+        assertTrue(roundTrips.discovered.await(5, TimeUnit.SECONDS));
+        assertTrue(roundTrips.read.await(10, TimeUnit.SECONDS));
+        assertTrue(roundTrips.written.await(5, TimeUnit.SECONDS));
+        assertTrue(roundTrips.notified.await(5, TimeUnit.SECONDS));
+        assertArrayEquals(new byte[]{0x01, 0x02}, (byte[]) controlPoint.getProperty(BluetoothPeripheral.PROPERTY_VALUE));
+        assertEquals(1, controlPoint.getWriteCount());
+    }
+
+    @Test
+    void Given_two_centrals_on_the_same_bus_when_signals_arrive_then_each_signal_is_delivered_once() throws InterruptedException {
+        // Given
+        secondProvider = new BluezAdapterProvider(daemon.getAddress());
+        new BluetoothCentral(new BluetoothCentralCallback() {
+        }, Collections.emptySet(), Objects.requireNonNull(secondProvider.adapter));
+        final RoundTrips roundTrips = new RoundTrips();
+        central = new BluetoothCentral(new BluetoothCentralCallback() {
+            @Override
+            public void onDiscoveredPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull ScanResult scanResult) {
+                if (scanResult.getAddress().equals(DEVICE_ADDRESS) && roundTrips.discovered.getCount() > 0) {
+                    roundTrips.discovered.countDown();
+                    central.connectPeripheral(peripheral, roundTrips);
+                }
+            }
+        }, Collections.emptySet(), Objects.requireNonNull(provider.adapter));
+
+        // When
+        central.scanForPeripherals();
+        assertTrue(roundTrips.notified.await(10, TimeUnit.SECONDS));
+        measurement.stopNotifications();
+        Thread.sleep(500);
+
+        // Then
+        assertEquals(1, roundTrips.reads.get());
+        assertEquals(1, roundTrips.writes.get());
+        assertEquals(measurement.getNotificationCount(), roundTrips.notifications.get());
+    }
+
+    @Test
+    void When_the_connection_disconnects_then_the_signal_handler_forgets_it() throws InterruptedException {
+        // Given
+        final int buses = BluezSignalHandler.getBusCount();
+
+        // When
+        Objects.requireNonNull(provider.dBusConnection).disconnect();
+
+        // Then
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (BluezSignalHandler.getBusCount() == buses && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(buses - 1, BluezSignalHandler.getBusCount());
+    }
+
+    /**
+     * Reads the body sensor location, writes the control point and enables notifications once the services are discovered
+     */
+    private static class RoundTrips extends BluetoothPeripheralCallback {
+        final CountDownLatch discovered = new CountDownLatch(1);
+        final CountDownLatch read = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(1);
+        final CountDownLatch notified = new CountDownLatch(10);
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger writes = new AtomicInteger();
+        final AtomicInteger notifications = new AtomicInteger();
+
+        @Override
+        public void onServicesDiscovered(@NotNull BluetoothPeripheral peripheral) {
+            peripheral.readCharacteristic(HRS_SERVICE_UUID, BODY_SENSOR_LOCATION_CHARACTERISTIC_UUID);
+            final BluetoothGattCharacteristic controlPoint = peripheral.getCharacteristic(HRS_SERVICE_UUID, HRM_CONTROL_POINT_CHARACTERISTIC_UUID);
+            peripheral.writeCharacteristic(Objects.requireNonNull(controlPoint), new byte[]{0x01, 0x02}, withResponse);
+            peripheral.setNotify(HRS_SERVICE_UUID, HRM_MEASUREMENT_CHARACTERISTIC_UUID, true);
+        }
+
+        @Override
+        public void onCharacteristicUpdate(@NotNull BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+            if (characteristic.getUuid().equals(BODY_SENSOR_LOCATION_CHARACTERISTIC_UUID) && value.length == 1) {
+                reads.incrementAndGet();
+                read.countDown();
+            } else if (characteristic.getUuid().equals(HRM_MEASUREMENT_CHARACTERISTIC_UUID)) {
+                notifications.incrementAndGet();
+                notified.countDown();
+            }
+        }
+
+        @Override
+        public void onCharacteristicWrite(@NotNull BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+            writes.incrementAndGet();
+            if (status == COMMAND_SUCCESS) written.countDown();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.welie.blessed;
+
+import com.welie.blessed.metrics.CommandType;
+import com.welie.blessed.metrics.LatencyStage;
+import com.welie.blessed.metrics.MetricsSnapshot;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.welie.blessed.BluetoothGattCharacteristic.NotifyType;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the central against {@link SimulatedBluez}. Every test uses its own address prefix because the signal handler
+ * is shared by all centrals that were created in the test run.
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SimulatedBluezTest {
+    private static final String TAG = SimulatedBluezTest.class.getSimpleName();
+    private static final Logger logger = LoggerFactory.getLogger(TAG);
+
+    private static final UUID HRS_SERVICE_UUID = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+    private static final UUID HRM_MEASUREMENT_CHARACTERISTIC_UUID = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
+    private static final UUID CCC_DESCRIPTOR_UUID = UUID.fromString("00002902-0000-1000-8000-00805f9b34fb");
+    private static final byte[] HEART_RATE = new byte[]{0x00, 0x48};
+
+    private SimulatedBluez bluez;
+    private BluetoothCentral central;
+
+    @BeforeEach
+    void setup() {
+        bluez = new SimulatedBluez();
+    }
+
+    @AfterEach
+    void teardown() {
+        if (central != null) central.stopScan();
+        bluez.close();
+    }
+
+    @Test
+    void When_scanning_then_all_advertising_devices_are_discovered() throws InterruptedException {
+        // Given
+        final int deviceCount = 50;
+        addHeartRateMonitors("5A:01", deviceCount, 0);
+        final DiscoveryCounter discoveries = new DiscoveryCounter(deviceCount);
+        central = new BluetoothCentral(discoveries, Collections.emptySet(), bluez.getAdapter());
+
+        // When
+        central.scanForPeripherals();
+
+        // Then
+        assertTrue(discoveries.all.await(5, TimeUnit.SECONDS));
+        assertEquals(deviceCount, discoveries.addresses.size());
+        assertEquals("Sim-0", discoveries.names.get("5A:01:00:00:00:00"));
+    }
+
+    @Test
+    void Given_a_connected_device_when_notifications_are_enabled_then_the_values_are_received() throws InterruptedException {
+        // Given
+        addHeartRateMonitors("5A:02", 1, 10);
+        final StreamingCounter streaming = new StreamingCounter(1, 50);
+        central = new BluetoothCentral(streaming, Collections.emptySet(), bluez.getAdapter());
+        central.setCallbackTracing(true);
+
+        // When
+        central.scanForPeripherals();
+
+        // Then
+        assertTrue(streaming.connected.await(5, TimeUnit.SECONDS));
+        assertTrue(streaming.notified.await(5, TimeUnit.SECONDS));
+        final BluetoothPeripheral peripheral = central.getPeripheral("5A:02:00:00:00:00");
+        assertNotNull(peripheral.getCharacteristic(HRS_SERVICE_UUID, HRM_MEASUREMENT_CHARACTERISTIC_UUID));
+        assertArrayEquals(HEART_RATE, streaming.lastValue);
+
+        final MetricsSnapshot metrics = central.getMetrics();
+        assertEquals(1, metrics.getConnectDurations().getCount());
+        assertEquals(1, metrics.getServiceDiscoveryDurations().getCount());
+        assertEquals(1, metrics.getCommandLatency(CommandType.SET_NOTIFY).getCount());
+        assertTrue(metrics.getNotificationCount() >= 10);
+        assertTrue(metrics.getStageLatency(LatencyStage.NOTIFICATION).getCount() >= 10);
+        assertTrue(metrics.getStageLatency(LatencyStage.SIGNAL_QUEUE).getCount() >= 10);
+        assertTrue(metrics.getStageLatency(LatencyStage.SCAN_RESULT).getCount() >= 1);
+        assertTrue(System.nanoTime() - streaming.lastReceivedNanos > 0);
+        assertEquals(0, metrics.getDbusFailures());
+        assertEquals(Collections.singleton("5A:02:00:00:00:00"), metrics.getQueueDepths().keySet());
+    }
+
+    @Test
+    void Given_per_peripheral_callback_dispatch_when_devices_stream_then_the_values_are_received_on_the_callback_pool() throws InterruptedException {
+        // Given
+        addHeartRateMonitors("5A:05", 2, 10);
+        final StreamingCounter streaming = new StreamingCounter(2, 20);
+        central = new BluetoothCentral(streaming, Collections.emptySet(), bluez.getAdapter());
+        central.setCallbackDispatch(CallbackDispatch.PER_PERIPHERAL);
+
+        // When
+        central.scanForPeripherals();
+
+        // Then
+        assertTrue(streaming.connected.await(5, TimeUnit.SECONDS));
+        assertTrue(streaming.notified.await(5, TimeUnit.SECONDS));
+        assertFalse(streaming.callbackThreads.isEmpty());
+        streaming.callbackThreads.forEach(thread -> assertTrue(thread.startsWith("Central-callback-"), thread));
+    }
+
+    @Test
+    void Given_acquired_notify_and_pooled_notifications_when_a_device_streams_then_the_values_are_read_from_the_socket() throws InterruptedException {
+        // Given
+        final SimulatedObject measurement = addHeartRateMonitors("5A:06", 1, 10).get(0).getChildren().get(0).getChildren().get(0);
+        final StreamingCounter streaming = new StreamingCounter(1, 20);
+        streaming.notifyType = NotifyType.acquired;
+        streaming.pooled = true;
+        central = new BluetoothCentral(streaming, Collections.emptySet(), bluez.getAdapter());
+
+        // When
+        central.scanForPeripherals();
+
+        // Then
+        assertTrue(streaming.connected.await(5, TimeUnit.SECONDS));
+        assertTrue(streaming.notified.await(5, TimeUnit.SECONDS));
+        assertArrayEquals(HEART_RATE, streaming.lastValue);
+        assertTrue(central.getPeripheral("5A:06:00:00:00:00").isPooledNotifications());
+        assertEquals(true, measurement.getProperty(BluetoothPeripheral.PROPERTY_NOTIFY_ACQUIRED));
+        assertEquals(false, measurement.getProperty(BluetoothPeripheral.PROPERTY_NOTIFYING));
+    }
+
+    @Test
+    void Given_a_device_that_fails_to_connect_when_connecting_then_the_connection_fails() throws InterruptedException {
+        // Given
+        addHeartRateMonitors("5A:03", 1, 0).get(0).setConnectFailureRate(1.0);
+        final StreamingCounter streaming = new StreamingCounter(1, 1);
+        central = new BluetoothCentral(streaming, Collections.emptySet(), bluez.getAdapter());
+
+        // When
+        central.scanForPeripherals();
+
+        // Then
+        assertTrue(streaming.failed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, streaming.connected.getCount());
+    }
+
+    /**
+     * Gateway scale: 500 devices advertising every 100 ms, of which 100 connect and notify every 50 ms. Connections are
+     * serialized by the central, so only run with -PloadTest.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "blessed.loadtest", matches = "true")
+    void Given_a_gateway_when_500_devices_advertise_and_100_stream_then_all_notifications_are_received() throws InterruptedException {
+        // Given
+        final int connectCount = 100;
+        addHeartRateMonitors("5A:04", 500, 50).forEach(device -> device.setAdvertisingInterval(100));
+        final StreamingCounter streaming = new StreamingCounter(connectCount, connectCount * 100);
+        central = new BluetoothCentral(streaming, Collections.emptySet(), bluez.getAdapter());
+
+        // When
+        final long start = System.nanoTime();
+        central.scanForPeripherals();
+
+        // Then
+        assertTrue(streaming.connected.await(120, TimeUnit.SECONDS));
+        assertTrue(streaming.notified.await(60, TimeUnit.SECONDS));
+        assertTrue(bluez.awaitSignals(10_000));
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final long notifications = streaming.notifications.get();
+        assertTrue(notifications >= connectCount * 100L, String.valueOf(notifications));
+        assertTrue(bluez.getSignalCount() >= notifications, String.valueOf(bluez.getSignalCount()));
+        logger.info(String.format("%d signals, %d notifications in %d ms", bluez.getSignalCount(), notifications, elapsedMillis));
+    }
+
+    @NotNull
+    private List<SimulatedDevice> addHeartRateMonitors(@NotNull String prefix, int count, long notificationInterval) {
+        final List<SimulatedDevice> devices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final String address = String.format("%s:00:00:%02X:%02X", prefix, i >> 8, i & 0xFF);
+            final SimulatedDevice device = bluez.addDevice(address)
+                    .setName("Sim-" + i)
+                    .setRssi(-50 - i % 40)
+                    .setServiceUuids(HRS_SERVICE_UUID)
+                    .setManufacturerData(0x00E0, new byte[]{(byte) i});
+            device.addService(HRS_SERVICE_UUID)
+                    .addCharacteristic(HRM_MEASUREMENT_CHARACTERISTIC_UUID, "notify")
+                    .setNotifications(notificationInterval, () -> HEART_RATE)
+                    .addDescriptor(CCC_DESCRIPTOR_UUID);
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    private static class DiscoveryCounter extends BluetoothCentralCallback {
+        final Set<String> addresses = ConcurrentHashMap.newKeySet();
+        final Map<String, String> names = new ConcurrentHashMap<>();
+        final CountDownLatch all;
+
+        DiscoveryCounter(int expected) {
+            all = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onDiscoveredPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull ScanResult scanResult) {
+            if (addresses.add(scanResult.getAddress())) {
+                if (scanResult.getName() != null) names.put(scanResult.getAddress(), scanResult.getName());
+                all.countDown();
+            }
+        }
+    }
+
+    /**
+     * Connects to discovered devices until the expected number is reached and enables notifications on each of them
+     */
+    private class StreamingCounter extends BluetoothCentralCallback {
+        final Set<String> connecting = ConcurrentHashMap.newKeySet();
+        final CountDownLatch connected;
+        final CountDownLatch failed;
+        final CountDownLatch notified;
+        final AtomicLong notifications = new AtomicLong();
+        final int connectCount;
+        volatile byte[] lastValue;
+        volatile long lastReceivedNanos;
+        final Set<String> callbackThreads = ConcurrentHashMap.newKeySet();
+        volatile NotifyType notifyType = NotifyType.signal;
+        volatile boolean pooled;
+
+        StreamingCounter(int connectCount, int notificationCount) {
+            this.connectCount = connectCount;
+            this.connected = new CountDownLatch(connectCount);
+            this.failed = new CountDownLatch(1);
+            this.notified = new CountDownLatch(notificationCount);
+        }
+
+        private final BluetoothPeripheralCallback peripheralCallback = new BluetoothPeripheralCallback() {
+            @Override
+            public void onServicesDiscovered(@NotNull BluetoothPeripheral peripheral) {
+                peripheral.setPooledNotifications(pooled);
+                peripheral.setNotify(Objects.requireNonNull(peripheral.getCharacteristic(HRS_SERVICE_UUID, HRM_MEASUREMENT_CHARACTERISTIC_UUID)), true, notifyType);
+            }
+
+            @Override
+            public void onCharacteristicUpdate(@NotNull BluetoothPeripheral peripheral, @NotNull byte[] value, @NotNull BluetoothGattCharacteristic characteristic, @NotNull BluetoothCommandStatus status) {
+                received(peripheral, value);
+            }
+
+            @Override
+            public boolean onPooledCharacteristicValue(@NotNull BluetoothPeripheral peripheral, @NotNull PooledValue value, @NotNull BluetoothGattCharacteristic characteristic) {
+                received(peripheral, value.toByteArray());
+                return true;
+            }
+        };
+
+        private void received(@NotNull BluetoothPeripheral peripheral, @NotNull byte[] value) {
+            lastValue = value;
+            lastReceivedNanos = peripheral.getValueReceivedNanos();
+            callbackThreads.add(Thread.currentThread().getName());
+            notifications.incrementAndGet();
+            notified.countDown();
+        }
+
+        @Override
+        public void onDiscoveredPeripheral(@NotNull BluetoothPeripheral peripheral, @NotNull ScanResult scanResult) {
+            if (connecting.size() < connectCount && connecting.add(peripheral.getAddress())) {
+                central.connectPeripheral(peripheral, peripheralCallback);
+            }
+        }
+
+        @Override
+        public void onConnectedPeripheral(@NotNull BluetoothPeripheral peripheral) {
+            connected.countDown();
+            if (connecting.size() < connectCount) {
+                central.scanForPeripherals();
+            }
+        }
+
+        @Override
+        public void onConnectionFailed(@NotNull BluetoothPeripheral peripheral, @NotNull BluetoothCommandStatus status) {
+            failed.countDown();
+        }
+    }
+}
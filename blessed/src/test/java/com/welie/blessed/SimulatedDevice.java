@@ -0,0 +1,252 @@
+package com.welie.blessed;
+
+import org.bluez.Device1;
+import org.bluez.exceptions.*;
+import org.freedesktop.dbus.DBusMap;
+import org.freedesktop.dbus.types.UInt16;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.welie.blessed.BluetoothPeripheral.*;
+
+/**
+ * A simulated peripheral. While the adapter is discovering it is announced once and then advertises its RSSI
+ * periodically. Connecting takes the programmed latency and fails with the programmed probability.
+ */
+class SimulatedDevice extends SimulatedObject implements Device1 {
+
+    private final AtomicInteger handleCounter = new AtomicInteger();
+    private volatile long advertisingInterval = 1000;
+    private volatile long connectLatency = 50;
+    private volatile long servicesResolveDelay = 20;
+    private volatile double connectFailureRate = 0.0;
+    private volatile short rssi = -60;
+    private boolean advertising;
+    private boolean announced;
+    private ScheduledFuture<?> advertisements;
+
+    SimulatedDevice(@NotNull SimulatedBluez bluez, @NotNull String path, @NotNull String address) {
+        super(bluez, path, BLUEZ_DEVICE_INTERFACE);
+        initProperty(PROPERTY_ADDRESS, new Variant<>(address));
+        initProperty("AddressType", new Variant<>("random"));
+        initProperty(PROPERTY_RSSI, new Variant<>(rssi));
+        initProperty(PROPERTY_SERVICE_UUIDS, new Variant<>(new ArrayList<String>(), "as"));
+        initProperty(PROPERTY_CONNECTED, new Variant<>(false));
+        initProperty(PROPERTY_SERVICES_RESOLVED, new Variant<>(false));
+        initProperty(PROPERTY_PAIRED, new Variant<>(false));
+        initProperty("Trusted", new Variant<>(false));
+        initProperty("Blocked", new Variant<>(false));
+    }
+
+    @NotNull
+    SimulatedDevice setName(@NotNull String name) {
+        initProperty(PROPERTY_NAME, new Variant<>(name));
+        initProperty("Alias", new Variant<>(name));
+        return this;
+    }
+
+    @NotNull
+    SimulatedDevice setRssi(int rssi) {
+        this.rssi = (short) rssi;
+        initProperty(PROPERTY_RSSI, new Variant<>(this.rssi));
+        return this;
+    }
+
+    @NotNull
+    SimulatedDevice setServiceUuids(@NotNull UUID... uuids) {
+        final ArrayList<String> serviceUuids = new ArrayList<>();
+        for (UUID uuid : uuids) {
+            serviceUuids.add(uuid.toString());
+        }
+        initProperty(PROPERTY_SERVICE_UUIDS, new Variant<>(serviceUuids, "as"));
+        return this;
+    }
+
+    /**
+     * Set the manufacturer data. It is sent when the device is announced and with every advertisement after that.
+     */
+    @NotNull
+    SimulatedDevice setManufacturerData(int companyId, @NotNull byte[] data) {
+        final DBusMap<UInt16, Variant<byte[]>> manufacturerData = new DBusMap<>(new Object[][]{{new UInt16(companyId), new Variant<>(data, "ay")}});
+        initProperty(PROPERTY_MANUFACTURER_DATA, new Variant<>(manufacturerData, "a{qv}"));
+        return this;
+    }
+
+    /**
+     * Set the time between advertisements while the adapter is discovering, or 0 to only advertise when
+     * {@link #advertise()} is called
+     */
+    @NotNull
+    SimulatedDevice setAdvertisingInterval(long intervalMillis) {
+        this.advertisingInterval = intervalMillis;
+        return this;
+    }
+
+    /**
+     * Set the time a Connect call blocks before the device is connected, like Bluez blocks until the link is up
+     */
+    @NotNull
+    SimulatedDevice setConnectLatency(long latencyMillis) {
+        this.connectLatency = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Set the time between being connected and the services being resolved
+     */
+    @NotNull
+    SimulatedDevice setServicesResolveDelay(long delayMillis) {
+        this.servicesResolveDelay = delayMillis;
+        return this;
+    }
+
+    /**
+     * Set the probability that a Connect call fails
+     *
+     * @param failureRate a probability from 0.0 (never fails) to 1.0 (always fails)
+     */
+    @NotNull
+    SimulatedDevice setConnectFailureRate(double failureRate) {
+        this.connectFailureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * Add a primary service to the GATT database of the device
+     */
+    @NotNull
+    SimulatedGattService addService(@NotNull UUID uuid) {
+        final String path = String.format("%s/service%04x", getObjectPath(), nextHandle());
+        final SimulatedGattService service = new SimulatedGattService(bluez, this, path, uuid);
+        addChild(service);
+        return service;
+    }
+
+    int nextHandle() {
+        return handleCounter.incrementAndGet();
+    }
+
+    boolean isConnected() {
+        return Boolean.TRUE.equals(getProperty(PROPERTY_CONNECTED));
+    }
+
+    synchronized void startAdvertising() {
+        if (advertising) return;
+
+        advertising = true;
+        // Like Bluez, a device is only added once and stays in the object tree when the discovery stops
+        if (!announced) {
+            announced = true;
+            bluez.emitInterfacesAdded(this);
+        }
+        if (advertisingInterval > 0) {
+            advertisements = bluez.scheduleAtFixedRate(this::advertise, advertisingInterval);
+        }
+    }
+
+    synchronized void stopAdvertising() {
+        advertising = false;
+        if (advertisements != null) {
+            advertisements.cancel(false);
+            advertisements = null;
+        }
+    }
+
+    /**
+     * Forget the device, so it is added again when it advertises
+     */
+    synchronized void remove() {
+        stopAdvertising();
+        announced = false;
+    }
+
+    /**
+     * Simulate a link loss, the device disconnects without a Disconnect call
+     */
+    void dropConnection() {
+        if (isConnected()) {
+            disconnected();
+        }
+    }
+
+    /**
+     * Send one advertisement, an RSSI with some jitter and the manufacturer data
+     */
+    void advertise() {
+        final int jitter = bluez.getRandom().nextInt(7) - 3;
+        setProperty(PROPERTY_RSSI, new Variant<>((short) (rssi + jitter)));
+        final Object manufacturerData = getProperty(PROPERTY_MANUFACTURER_DATA);
+        if (manufacturerData != null) {
+            setProperty(PROPERTY_MANUFACTURER_DATA, new Variant<>(manufacturerData, "a{qv}"));
+        }
+    }
+
+    private void disconnected() {
+        for (SimulatedObject service : getChildren()) {
+            for (SimulatedObject characteristic : service.getChildren()) {
+                ((SimulatedGattCharacteristic) characteristic).stopNotifications();
+            }
+        }
+        setProperty(PROPERTY_SERVICES_RESOLVED, new Variant<>(false));
+        setProperty(PROPERTY_CONNECTED, new Variant<>(false));
+    }
+
+    @Override
+    public void Connect() throws BluezNotReadyException, BluezFailedException, BluezInProgressException, BluezAlreadyConnectedException {
+        try {
+            Thread.sleep(connectLatency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BluezFailedException("Operation canceled");
+        }
+
+        if (isConnected()) {
+            throw new BluezAlreadyConnectedException("Already Connected");
+        }
+
+        if (bluez.getRandom().nextDouble() < connectFailureRate) {
+            throw new BluezFailedException("le-connection-abort-by-local");
+        }
+
+        stopAdvertising();
+        setProperty(PROPERTY_CONNECTED, new Variant<>(true));
+        bluez.schedule(() -> {
+            if (isConnected()) {
+                setProperty(PROPERTY_SERVICES_RESOLVED, new Variant<>(true));
+            }
+        }, servicesResolveDelay);
+    }
+
+    @Override
+    public void Disconnect() throws BluezNotConnectedException {
+        if (!isConnected()) {
+            throw new BluezNotConnectedException("Not Connected");
+        }
+        disconnected();
+    }
+
+    @Override
+    public void ConnectProfile(String _uuid) throws BluezNotAvailableException {
+        throw new BluezNotAvailableException("Operation currently not available");
+    }
+
+    @Override
+    public void DisconnectProfile(String _uuid) throws BluezNotSupportedException {
+        throw new BluezNotSupportedException("Operation is not supported");
+    }
+
+    @Override
+    public void Pair() throws BluezFailedException {
+        throw new BluezFailedException("Pairing is not simulated");
+    }
+
+    @Override
+    public void CancelPairing() throws BluezDoesNotExistException {
+        throw new BluezDoesNotExistException("No such pairing");
+    }
+}
@@ -0,0 +1,237 @@
+package com.welie.blessed;
+
+import jnr.constants.platform.ProtocolFamily;
+import jnr.constants.platform.Sock;
+import jnr.enxio.channels.NativeSocketChannel;
+import jnr.ffi.LibraryLoader;
+import org.bluez.GattCharacteristic1;
+import org.bluez.datatypes.TwoTuple;
+import org.bluez.exceptions.*;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.FileDescriptor;
+import org.freedesktop.dbus.types.UInt16;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.welie.blessed.BluetoothPeripheral.*;
+
+/**
+ * A simulated characteristic. Once notifications are started it notifies the programmed values at the programmed rate.
+ * <p>
+ * When notify is acquired, the notifications are written to a seqpacket socket instead of being sent as
+ * PropertiesChanged signals, one packet per notification like Bluez does. File descriptors can't be passed over the
+ * bus, so AcquireNotify is only supported when the objects are not exported.
+ */
+class SimulatedGattCharacteristic extends SimulatedObject implements GattCharacteristic1 {
+
+    private static final int ACQUIRED_MTU = 247;
+
+    private final SimulatedDevice device;
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong notificationCount = new AtomicLong();
+    private volatile long notificationInterval = 0;
+    private volatile Supplier<byte[]> notificationValues = () -> new byte[0];
+    private volatile double writeFailureRate = 0.0;
+    private ScheduledFuture<?> notifying;
+    private NativeSocketChannel notifySocket;
+    private final ByteBuffer notifyPacket = ByteBuffer.allocateDirect(512);
+
+    SimulatedGattCharacteristic(@NotNull SimulatedBluez bluez, @NotNull SimulatedDevice device, @NotNull String path, @NotNull UUID uuid, @NotNull List<String> flags) {
+        super(bluez, path, BLUEZ_CHARACTERISTIC_INTERFACE);
+        this.device = device;
+        initProperty("UUID", new Variant<>(uuid.toString()));
+        initProperty("Service", new Variant<>(new DBusPath(path.substring(0, path.lastIndexOf('/')))));
+        initProperty("Flags", new Variant<>(new ArrayList<>(flags), "as"));
+        initProperty(PROPERTY_NOTIFYING, new Variant<>(false));
+        initProperty(PROPERTY_MTU, new Variant<>(new UInt16(247)));
+        initProperty(PROPERTY_VALUE, new Variant<>(new byte[0], "ay"));
+    }
+
+    /**
+     * Add a descriptor to this characteristic
+     */
+    @NotNull
+    SimulatedGattDescriptor addDescriptor(@NotNull UUID uuid) {
+        final String path = String.format("%s/desc%04x", getObjectPath(), device.nextHandle());
+        final SimulatedGattDescriptor descriptor = new SimulatedGattDescriptor(bluez, device, path, getObjectPath(), uuid);
+        addChild(descriptor);
+        return descriptor;
+    }
+
+    /**
+     * Set the value that is returned when the characteristic is read
+     */
+    @NotNull
+    SimulatedGattCharacteristic setValue(@NotNull byte[] value) {
+        initProperty(PROPERTY_VALUE, new Variant<>(value, "ay"));
+        return this;
+    }
+
+    /**
+     * Set the rate and the values of the notifications that are sent while notifying
+     *
+     * @param intervalMillis the time between notifications, or 0 to only notify when {@link #notifyValue()} is called
+     * @param values         supplies the value of every notification
+     */
+    @NotNull
+    SimulatedGattCharacteristic setNotifications(long intervalMillis, @NotNull Supplier<byte[]> values) {
+        this.notificationInterval = intervalMillis;
+        this.notificationValues = Objects.requireNonNull(values, "no valid values provided");
+        return this;
+    }
+
+    /**
+     * Set the probability that a WriteValue call fails
+     *
+     * @param failureRate a probability from 0.0 (never fails) to 1.0 (always fails)
+     */
+    @NotNull
+    SimulatedGattCharacteristic setWriteFailureRate(double failureRate) {
+        this.writeFailureRate = failureRate;
+        return this;
+    }
+
+    long getWriteCount() {
+        return writeCount.get();
+    }
+
+    long getNotificationCount() {
+        return notificationCount.get();
+    }
+
+    synchronized void stopNotifications() {
+        if (notifying != null) {
+            notifying.cancel(false);
+            notifying = null;
+        }
+        if (notifySocket != null) {
+            try {
+                notifySocket.close();
+            } catch (IOException e) {
+                // Closed already
+            }
+            notifySocket = null;
+            initProperty(PROPERTY_NOTIFY_ACQUIRED, new Variant<>(false));
+        }
+    }
+
+    /**
+     * Send one notification with the next value of the supplier
+     */
+    void notifyValue() {
+        notificationCount.incrementAndGet();
+        synchronized (this) {
+            if (notifySocket != null) {
+                writeNotification(notificationValues.get());
+                return;
+            }
+        }
+        setProperty(PROPERTY_VALUE, new Variant<>(notificationValues.get(), "ay"));
+    }
+
+    private void writeNotification(@NotNull byte[] value) {
+        notifyPacket.clear();
+        notifyPacket.put(value).flip();
+        try {
+            notifySocket.write(notifyPacket);
+        } catch (IOException e) {
+            // The client released the notify socket
+            stopNotifications();
+        }
+    }
+
+    private void checkConnected() throws BluezFailedException {
+        if (!device.isConnected()) {
+            throw new BluezFailedException("Not connected");
+        }
+    }
+
+    @Override
+    public byte[] ReadValue(Map<String, Variant<?>> _options) throws BluezFailedException {
+        checkConnected();
+        final byte[] value = (byte[]) getProperty(PROPERTY_VALUE);
+        setProperty(PROPERTY_VALUE, new Variant<>(value, "ay"));
+        return value;
+    }
+
+    @Override
+    public void WriteValue(byte[] _value, Map<String, Variant<?>> _options) throws BluezFailedException {
+        checkConnected();
+        if (bluez.getRandom().nextDouble() < writeFailureRate) {
+            throw new BluezFailedException("Failed to initiate write");
+        }
+        writeCount.incrementAndGet();
+        initProperty(PROPERTY_VALUE, new Variant<>(_value, "ay"));
+    }
+
+    @Override
+    public TwoTuple<FileDescriptor, UInt16> AcquireWrite(Map<String, Variant<?>> _options) throws BluezNotSupportedException {
+        throw new BluezNotSupportedException("Operation is not supported");
+    }
+
+    @Override
+    public TwoTuple<FileDescriptor, UInt16> AcquireNotify(Map<String, Variant<?>> _options) throws BluezFailedException, BluezNotSupportedException {
+        if (bluez.isExported()) {
+            throw new BluezNotSupportedException("Operation is not supported");
+        }
+        checkConnected();
+        synchronized (this) {
+            if (notifySocket != null || notifying != null) {
+                throw new BluezFailedException("Notify already acquired");
+            }
+            final int[] sockets = new int[2];
+            if (LibC.INSTANCE.socketpair(ProtocolFamily.PF_UNIX.intValue(), Sock.SOCK_SEQPACKET.intValue(), 0, sockets) != 0) {
+                throw new BluezFailedException("Failed to create notify socket");
+            }
+            notifySocket = new NativeSocketChannel(sockets[1]);
+            initProperty(PROPERTY_NOTIFY_ACQUIRED, new Variant<>(true));
+            if (notificationInterval > 0) {
+                notifying = bluez.scheduleAtFixedRate(this::notifyValue, notificationInterval);
+            }
+            final TwoTuple<FileDescriptor, UInt16> result = new TwoTuple<>();
+            result.setFirstValue(new FileDescriptor(sockets[0]));
+            result.setSecondValue(new UInt16(ACQUIRED_MTU));
+            return result;
+        }
+    }
+
+    @Override
+    public void StartNotify() throws BluezFailedException, BluezInProgressException {
+        checkConnected();
+        synchronized (this) {
+            if (notifying != null) {
+                throw new BluezInProgressException("Operation already in progress");
+            }
+            setProperty(PROPERTY_NOTIFYING, new Variant<>(true));
+            if (notificationInterval > 0) {
+                notifying = bluez.scheduleAtFixedRate(this::notifyValue, notificationInterval);
+            }
+        }
+    }
+
+    @Override
+    public void StopNotify() throws BluezFailedException {
+        stopNotifications();
+        setProperty(PROPERTY_NOTIFYING, new Variant<>(false));
+    }
+
+    @Override
+    public void Confirm() {
+    }
+
+    /**
+     * The socketpair of libc, jnr-unixsocket only creates stream sockets
+     */
+    public interface LibC {
+        LibC INSTANCE = LibraryLoader.create(LibC.class).load("c");
+
+        int socketpair(int domain, int type, int protocol, int[] sockets);
+    }
+}
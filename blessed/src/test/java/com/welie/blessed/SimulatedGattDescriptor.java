@@ -0,0 +1,47 @@
+package com.welie.blessed;
+
+import org.bluez.GattDescriptor1;
+import org.bluez.exceptions.BluezFailedException;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A simulated descriptor of a {@link SimulatedGattCharacteristic}
+ */
+class SimulatedGattDescriptor extends SimulatedObject implements GattDescriptor1 {
+
+    static final String BLUEZ_DESCRIPTOR_INTERFACE = "org.bluez.GattDescriptor1";
+
+    private final SimulatedDevice device;
+
+    SimulatedGattDescriptor(@NotNull SimulatedBluez bluez, @NotNull SimulatedDevice device, @NotNull String path, @NotNull String characteristicPath, @NotNull UUID uuid) {
+        super(bluez, path, BLUEZ_DESCRIPTOR_INTERFACE);
+        this.device = device;
+        initProperty("UUID", new Variant<>(uuid.toString()));
+        initProperty("Characteristic", new Variant<>(new DBusPath(characteristicPath)));
+        initProperty("Flags", new Variant<>(new ArrayList<>(Arrays.asList("read", "write")), "as"));
+        initProperty("Value", new Variant<>(new byte[0], "ay"));
+    }
+
+    @Override
+    public byte[] ReadValue(Map<String, Variant<?>> _flags) throws BluezFailedException {
+        if (!device.isConnected()) {
+            throw new BluezFailedException("Not connected");
+        }
+        return (byte[]) getProperty("Value");
+    }
+
+    @Override
+    public void WriteValue(byte[] _value, Map<String, Variant<?>> _flags) throws BluezFailedException {
+        if (!device.isConnected()) {
+            throw new BluezFailedException("Not connected");
+        }
+        initProperty("Value", new Variant<>(_value, "ay"));
+    }
+}
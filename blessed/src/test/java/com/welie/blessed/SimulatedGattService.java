@@ -0,0 +1,41 @@
+package com.welie.blessed;
+
+import org.bluez.GattService1;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A simulated primary service of a {@link SimulatedDevice}
+ */
+class SimulatedGattService extends SimulatedObject implements GattService1 {
+
+    static final String BLUEZ_SERVICE_INTERFACE = "org.bluez.GattService1";
+
+    private final SimulatedDevice device;
+
+    SimulatedGattService(@NotNull SimulatedBluez bluez, @NotNull SimulatedDevice device, @NotNull String path, @NotNull UUID uuid) {
+        super(bluez, path, BLUEZ_SERVICE_INTERFACE);
+        this.device = device;
+        initProperty("UUID", new Variant<>(uuid.toString()));
+        initProperty("Primary", new Variant<>(true));
+        initProperty("Device", new Variant<>(new DBusPath(device.getObjectPath())));
+    }
+
+    /**
+     * Add a characteristic to this service
+     *
+     * @param uuid  the characteristic UUID
+     * @param flags the Bluez flags of the characteristic, for example "read", "write", "notify"
+     */
+    @NotNull
+    SimulatedGattCharacteristic addCharacteristic(@NotNull UUID uuid, @NotNull String... flags) {
+        final String path = String.format("%s/char%04x", getObjectPath(), device.nextHandle());
+        final SimulatedGattCharacteristic characteristic = new SimulatedGattCharacteristic(bluez, device, path, uuid, Arrays.asList(flags));
+        addChild(characteristic);
+        return characteristic;
+    }
+}
@@ -0,0 +1,140 @@
+package com.welie.blessed;
+
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.Introspectable;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.Variant;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base class of the in-memory Bluez objects of {@link SimulatedBluez}.
+ * <p>
+ * Holds the properties of the object and its child nodes, and implements the Properties and Introspectable
+ * interfaces the wrapper classes use to read them. Changing a property emits a PropertiesChanged signal.
+ */
+abstract class SimulatedObject implements Properties, Introspectable {
+
+    @NotNull
+    protected final SimulatedBluez bluez;
+
+    @NotNull
+    private final String path;
+
+    @NotNull
+    private final String interfaceName;
+
+    private final Map<String, Variant<?>> properties = new ConcurrentHashMap<>();
+    private final List<SimulatedObject> children = new CopyOnWriteArrayList<>();
+
+    SimulatedObject(@NotNull SimulatedBluez bluez, @NotNull String path, @NotNull String interfaceName) {
+        this.bluez = Objects.requireNonNull(bluez, "no valid bluez provided");
+        this.path = Objects.requireNonNull(path, "no valid path provided");
+        this.interfaceName = Objects.requireNonNull(interfaceName, "no valid interface name provided");
+        bluez.register(this);
+    }
+
+    @NotNull
+    String getInterfaceName() {
+        return interfaceName;
+    }
+
+    @NotNull
+    List<SimulatedObject> getChildren() {
+        return children;
+    }
+
+    void addChild(@NotNull SimulatedObject child) {
+        children.add(child);
+    }
+
+    /**
+     * Get the name of this object in the path of its parent, for example service0001
+     */
+    @NotNull
+    String getNodeName() {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Set a property without emitting a signal, for properties that are set before the object is announced
+     */
+    void initProperty(@NotNull String name, @NotNull Variant<?> value) {
+        properties.put(name, value);
+    }
+
+    /**
+     * Set a property and emit a PropertiesChanged signal for it
+     */
+    void setProperty(@NotNull String name, @NotNull Variant<?> value) {
+        properties.put(name, value);
+        bluez.emitPropertiesChanged(path, interfaceName, Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Get the value of a property
+     *
+     * @return the value or null if the object doesn't have the property
+     */
+    Object getProperty(@NotNull String name) {
+        final Variant<?> variant = properties.get(name);
+        return variant == null ? null : variant.getValue();
+    }
+
+    /**
+     * Get a copy of all properties, as they are sent in an InterfacesAdded signal
+     */
+    @NotNull
+    Map<String, Variant<?>> getProperties() {
+        return new HashMap<>(properties);
+    }
+
+    /**
+     * Handle a Set call of the wrapper class. Only the properties that Bluez allows to be written are accepted.
+     */
+    protected void handleSet(@NotNull String name, @NotNull Object value) {
+        throw new DBusExecutionException(String.format("Property '%s' is not writable", name));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A Get(String _interfaceName, String _propertyName) {
+        final Variant<?> variant = properties.get(_propertyName);
+        if (variant == null) {
+            throw new DBusExecutionException(String.format("No such property '%s'", _propertyName));
+        }
+        return (A) (bluez.isExported() ? variant : variant.getValue());
+    }
+
+    @Override
+    public <A> void Set(String _interfaceName, String _propertyName, A _value) {
+        handleSet(_propertyName, _value);
+    }
+
+    @Override
+    public Map<String, Variant<?>> GetAll(String _interfaceName) {
+        return getProperties();
+    }
+
+    @Override
+    public String Introspect() {
+        final StringBuilder xml = new StringBuilder("<node>");
+        for (SimulatedObject child : children) {
+            xml.append("<node name=\"").append(child.getNodeName()).append("\"/>");
+        }
+        return xml.append("</node>").toString();
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    @Override
+    public String getObjectPath() {
+        return path;
+    }
+}
@@ -0,0 +1,134 @@
+package com.welie.blessed.metrics;
+
+import org.junit.jupiter.api.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class LatencyHistogramTest {
+
+    @Test
+    void When_nothing_is_recorded_then_the_snapshot_is_empty() {
+        LatencySnapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMinNanos());
+        assertEquals(0, snapshot.getMaxNanos());
+        assertEquals(0, snapshot.getPercentileNanos(99));
+    }
+
+    @Test
+    void When_values_are_recorded_then_the_percentiles_are_within_the_bucket_precision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMinNanos());
+        assertEquals(1000000, snapshot.getMaxNanos());
+        assertEquals(500500, snapshot.getMeanNanos(), 0.1);
+        assertEquals(500000, snapshot.getPercentileNanos(50), 500000 * 0.0625);
+        assertEquals(990000, snapshot.getPercentileNanos(99), 990000 * 0.0625);
+        assertEquals(1000000, snapshot.getPercentileNanos(100));
+    }
+
+    @Test
+    void Given_any_value_then_it_falls_in_a_bucket_that_contains_it() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKET_COUNT);
+            assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            assertTrue(index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1));
+        }
+    }
+
+    @Test
+    void When_a_percentile_is_out_of_range_then_an_exception_is_thrown() {
+        LatencySnapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentileNanos(101));
+    }
+
+    @Test
+    void When_events_are_marked_then_the_total_is_counted() {
+        RateMeter meter = new RateMeter();
+        for (int i = 0; i < 100; i++) {
+            meter.mark();
+        }
+
+        assertEquals(100, meter.getTotal());
+        assertTrue(meter.getRatePerSecond() <= 100.0 / RateMeter.WINDOW_SECONDS);
+    }
+
+    @Test
+    void When_a_snapshot_is_taken_then_it_contains_every_command_type() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.recordCommand(CommandType.READ, 1000);
+        registry.recordDbusCall(true);
+        registry.recordDbusCall(false);
+        Map<String, Integer> queueDepths = new TreeMap<>();
+        queueDepths.put("12:34:56:65:43:21", 3);
+
+        MetricsSnapshot snapshot = registry.snapshot(queueDepths);
+
+        assertEquals(CommandType.values().length, snapshot.getCommandLatencies().size());
+        assertEquals(1, snapshot.getCommandLatency(CommandType.READ).getCount());
+        assertEquals(0, snapshot.getCommandLatency(CommandType.WRITE).getCount());
+        assertEquals(2, snapshot.getDbusCalls());
+        assertEquals(1, snapshot.getDbusFailures());
+        assertEquals(3, snapshot.getQueueDepths().get("12:34:56:65:43:21"));
+    }
+
+    @Test
+    void Given_callback_tracing_is_off_when_a_callback_is_traced_then_it_is_not_wrapped() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Runnable callback = () -> {
+        };
+
+        assertSame(callback, registry.traceCallback(LatencyStage.NOTIFICATION, System.nanoTime(), callback));
+        assertEquals(0, registry.snapshot(Collections.emptyMap()).getStageLatency(LatencyStage.CALLBACK).getCount());
+    }
+
+    @Test
+    void Given_callback_tracing_is_on_when_a_traced_callback_runs_then_its_stages_are_recorded() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.setCallbackTracing(true);
+        int[] runs = new int[1];
+
+        registry.traceCallback(LatencyStage.NOTIFICATION, System.nanoTime(), () -> runs[0]++).run();
+
+        MetricsSnapshot snapshot = registry.snapshot(Collections.emptyMap());
+        assertEquals(1, runs[0]);
+        assertEquals(1, snapshot.getStageLatency(LatencyStage.CALLBACK_QUEUE).getCount());
+        assertEquals(1, snapshot.getStageLatency(LatencyStage.CALLBACK).getCount());
+        assertEquals(1, snapshot.getStageLatency(LatencyStage.NOTIFICATION).getCount());
+    }
+
+    @Test
+    void When_the_metrics_are_registered_as_MXBean_then_the_attributes_can_be_read() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.recordNotification();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.welie.blessed:type=Test");
+
+        server.registerMBean(new MetricsMBean(() -> registry.snapshot(Collections.emptyMap())), name);
+        try {
+            assertEquals(1L, server.getAttribute(name, "NotificationCount"));
+            assertNotNull(server.getAttribute(name, "CommandLatencyP99Millis"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
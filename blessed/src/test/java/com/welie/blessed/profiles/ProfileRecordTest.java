@@ -0,0 +1,212 @@
+package com.welie.blessed.profiles;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.BluetoothBytesParser;
+import com.welie.blessed.schema.fitness.CscMeasurementRecord;
+import com.welie.blessed.schema.fitness.RscMeasurementRecord;
+import com.welie.blessed.schema.health.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class ProfileRecordTest {
+
+    private static final byte[] DATE_TIME = new byte[]{(byte) 0xE4, 0x07, 0x0A, 0x13, 0x0E, 0x1E, 0x2D};
+    private static final long TIMESTAMP = new BluetoothBytesParser(DATE_TIME).getDateTimeMillis();
+
+    @Test
+    void When_decoding_a_heart_rate_measurement_then_the_RR_intervals_are_decoded() {
+        HeartRateMeasurement record = decode(new HeartRateMeasurement(), new byte[]{0x19, 0x48, 0x00, 0x10, 0x00, 0x00, 0x04, 0x00, 0x02});
+
+        assertEquals(72, record.heartRate);
+        assertTrue(record.energyExpendedPresent);
+        assertEquals(16, record.energyExpended);
+        assertEquals(2, record.rrIntervalCount);
+        assertEquals(1000f, record.getRrIntervalMillis(0));
+        assertEquals(500f, record.getRrIntervalMillis(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> record.getRrIntervalMillis(2));
+
+        decode(record, new byte[]{0x06, 0x3C});
+
+        assertEquals(60, record.heartRate);
+        assertEquals(3, record.getSensorContactStatus());
+        assertFalse(record.energyExpendedPresent);
+        assertEquals(0, record.rrIntervalCount);
+    }
+
+    @Test
+    void When_a_heart_rate_measurement_has_many_RR_intervals_then_they_are_all_decoded() {
+        byte[] value = new byte[2 + 40];
+        value[0] = 0x10;
+        value[1] = 0x50;
+        for (int i = 0; i < 20; i++) {
+            value[2 + i * 2] = (byte) i;
+        }
+
+        HeartRateMeasurement record = decode(new HeartRateMeasurement(), value);
+
+        assertEquals(20, record.rrIntervalCount);
+        assertEquals(19, record.rrIntervals[19]);
+    }
+
+    @Test
+    void When_decoding_a_blood_pressure_measurement_then_all_fields_are_set() {
+        byte[] value = BluetoothBytesParser.mergeArrays(
+                new byte[]{0x1F, 0x79, 0x00, 0x50, 0x00, 0x5E, 0x00},
+                DATE_TIME,
+                new byte[]{0x48, 0x00, 0x01, 0x02, 0x00});
+
+        BloodPressureMeasurementRecord record = decode(new BloodPressureMeasurementRecord(), value);
+
+        assertFalse(record.isMMHG());
+        assertEquals(121.0f, record.systolic);
+        assertEquals(80.0f, record.diastolic);
+        assertEquals(94.0f, record.meanArterialPressure);
+        assertEquals(TIMESTAMP, record.timestamp);
+        assertEquals(72.0f, record.pulseRate);
+        assertEquals(1, record.userId);
+        assertEquals(2, record.measurementStatus);
+
+        decode(record, new byte[]{0x00, 0x79, 0x00, 0x50, 0x00, 0x5E, 0x00});
+
+        assertTrue(record.isMMHG());
+        assertFalse(record.timestampPresent);
+        assertTrue(Float.isNaN(record.pulseRate));
+        assertFalse(record.userIdPresent);
+        assertFalse(record.measurementStatusPresent);
+    }
+
+    @Test
+    void When_decoding_a_temperature_measurement_then_all_fields_are_set() {
+        byte[] value = BluetoothBytesParser.mergeArrays(new byte[]{0x06, 0x6D, 0x01, 0x00, (byte) 0xFF}, DATE_TIME, new byte[]{0x02});
+
+        TemperatureMeasurementRecord record = decode(new TemperatureMeasurementRecord(), value);
+
+        assertFalse(record.isFahrenheit());
+        assertEquals(36.5f, record.temperature, 0.0001f);
+        assertEquals(TIMESTAMP, record.timestamp);
+        assertEquals(2, record.temperatureType);
+    }
+
+    @Test
+    void When_decoding_a_PLX_spot_check_measurement_then_all_fields_are_set() {
+        byte[] value = BluetoothBytesParser.mergeArrays(
+                new byte[]{0x1F, 0x62, 0x00, 0x48, 0x00},
+                DATE_TIME,
+                new byte[]{0x00, 0x01, 0x01, 0x02, 0x03, 0x32, (byte) 0xF0});
+
+        PulseOximeterSpotMeasurementRecord record = decode(new PulseOximeterSpotMeasurementRecord(), value);
+
+        assertEquals(98f, record.spO2);
+        assertEquals(72f, record.pulseRate);
+        assertEquals(TIMESTAMP, record.timestamp);
+        assertEquals(0x0100, record.measurementStatus);
+        assertEquals(0x030201, record.sensorStatus);
+        assertEquals(5.0f, record.pulseAmplitudeIndex, 0.0001f);
+        assertFalse(record.isDeviceClockSet());
+    }
+
+    @Test
+    void When_decoding_a_PLX_continuous_measurement_then_all_fields_are_set() {
+        byte[] value = new byte[]{0x1F, 0x62, 0x00, 0x48, 0x00, 0x61, 0x00, 0x49, 0x00, 0x60, 0x00, 0x47, 0x00, 0x20, 0x00, 0x00, 0x00, 0x01, 0x32, (byte) 0xF0};
+
+        PulseOximeterContinuousMeasurementRecord record = decode(new PulseOximeterContinuousMeasurementRecord(), value);
+
+        assertEquals(98f, record.spO2);
+        assertEquals(72f, record.pulseRate);
+        assertEquals(97f, record.spO2Fast);
+        assertEquals(73f, record.pulseRateFast);
+        assertEquals(96f, record.spO2Slow);
+        assertEquals(71f, record.pulseRateSlow);
+        assertEquals(0x20, record.measurementStatus);
+        assertEquals(0x010000, record.sensorStatus);
+        assertEquals(5.0f, record.pulseAmplitudeIndex, 0.0001f);
+
+        decode(record, new byte[]{0x00, 0x62, 0x00, 0x48, 0x00});
+
+        assertTrue(Float.isNaN(record.spO2Fast));
+        assertTrue(Float.isNaN(record.spO2Slow));
+        assertFalse(record.sensorStatusPresent);
+        assertTrue(Float.isNaN(record.pulseAmplitudeIndex));
+    }
+
+    @Test
+    void When_decoding_a_weight_measurement_then_the_values_are_scaled() {
+        byte[] value = BluetoothBytesParser.mergeArrays(new byte[]{0x0E, (byte) 0x80, 0x3E}, DATE_TIME, new byte[]{0x01, (byte) 0xF5, 0x00, 0x08, 0x07});
+
+        WeightMeasurementRecord record = decode(new WeightMeasurementRecord(), value);
+
+        assertFalse(record.isImperial());
+        assertEquals(80.0, record.getWeight(), 0.001);
+        assertEquals(TIMESTAMP, record.timestamp);
+        assertEquals(1, record.userId);
+        assertEquals(24.5, record.getBmi(), 0.001);
+        assertEquals(1.8, record.getHeight(), 0.001);
+
+        decode(record, new byte[]{0x01, (byte) 0x80, 0x3E});
+
+        assertTrue(record.isImperial());
+        assertEquals(160.0, record.getWeight(), 0.001);
+        assertFalse(record.bmiPresent);
+        assertEquals(0, record.height);
+    }
+
+    @Test
+    void When_decoding_a_glucose_measurement_then_the_time_offset_is_applied() {
+        byte[] value = BluetoothBytesParser.mergeArrays(
+                new byte[]{0x1B, 0x05, 0x00},
+                DATE_TIME,
+                new byte[]{(byte) 0xE2, (byte) 0xFF, 0x5F, (byte) 0xB0, 0x21, 0x02, 0x00});
+
+        GlucoseMeasurement record = decode(new GlucoseMeasurement(), value);
+
+        assertEquals(5, record.sequenceNumber);
+        assertEquals(TIMESTAMP, record.baseTime);
+        assertEquals(-30, record.timeOffset);
+        assertEquals(TIMESTAMP - 30 * 60_000L, record.getTimestamp());
+        assertEquals(0.00095f, record.concentration, 0.0000001f);
+        assertFalse(record.isMolPerLiter());
+        assertEquals(1, record.type);
+        assertEquals(2, record.sampleLocation);
+        assertEquals(2, record.sensorStatusAnnunciation);
+        assertTrue(record.hasContextInformation());
+    }
+
+    @Test
+    void When_decoding_a_CSC_measurement_then_the_cumulative_wheel_revolutions_are_unsigned() {
+        CscMeasurementRecord record = decode(new CscMeasurementRecord(), new byte[]{0x03, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x00, 0x04, 0x0A, 0x00, 0x00, 0x08});
+
+        assertEquals(4294967295L, record.cumulativeWheelRevolutions);
+        assertEquals(1024, record.lastWheelEventTime);
+        assertEquals(10, record.cumulativeCrankRevolutions);
+        assertEquals(2048, record.lastCrankEventTime);
+
+        decode(record, new byte[]{0x02, 0x0B, 0x00, 0x00, 0x0C});
+
+        assertFalse(record.cumulativeWheelRevolutionsPresent);
+        assertEquals(0, record.cumulativeWheelRevolutions);
+        assertEquals(11, record.cumulativeCrankRevolutions);
+    }
+
+    @Test
+    void When_decoding_an_RSC_measurement_then_the_values_are_scaled() {
+        RscMeasurementRecord record = decode(new RscMeasurementRecord(), new byte[]{0x07, (byte) 0x80, 0x03, (byte) 0xAA, 0x78, 0x00, 0x39, 0x30, 0x00, 0x00});
+
+        assertEquals(3.5, record.getSpeed());
+        assertEquals(170, record.cadence);
+        assertEquals(1.2, record.getStrideLength(), 0.0001);
+        assertEquals(1234.5, record.getTotalDistance(), 0.0001);
+        assertTrue(record.isRunning());
+    }
+
+    @Test
+    void When_a_value_is_too_short_then_an_IndexOutOfBoundsException_is_thrown() {
+        assertThrows(IndexOutOfBoundsException.class, () -> decode(new BloodPressureMeasurementRecord(), new byte[]{0x02, 0x79, 0x00, 0x50, 0x00, 0x5E, 0x00}));
+    }
+
+    private static <T extends ProfileRecord> T decode(T record, byte[] value) {
+        record.decode(new BluetoothBufferParser().wrap(value));
+        return record;
+    }
+}
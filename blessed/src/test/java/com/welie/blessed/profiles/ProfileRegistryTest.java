@@ -0,0 +1,78 @@
+package com.welie.blessed.profiles;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.schema.health.BloodPressureMeasurementRecord;
+import com.welie.blessed.schema.health.BloodPressureMeasurementRecordDecoder;
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class ProfileRegistryTest {
+
+    private static final UUID INTERMEDIATE_CUFF_PRESSURE = UUID.fromString("00002a36-0000-1000-8000-00805f9b34fb");
+    private static final byte[] CUFF_PRESSURE = new byte[]{0x00, 0x10, 0x00, 0x00, 0x00, 0x00, 0x00};
+
+    @Test
+    void When_decoding_a_registered_characteristic_then_the_record_of_the_thread_is_reused() {
+        ProfileRegistry registry = ProfileRegistry.standard();
+
+        ProfileRecord first = registry.decode(INTERMEDIATE_CUFF_PRESSURE, CUFF_PRESSURE);
+        ProfileRecord second = registry.decode(INTERMEDIATE_CUFF_PRESSURE, CUFF_PRESSURE);
+
+        assertTrue(first instanceof BloodPressureMeasurementRecord);
+        assertSame(first, second);
+        assertEquals(16f, ((BloodPressureMeasurementRecord) first).systolic);
+    }
+
+    @Test
+    void When_decoding_on_another_thread_then_another_record_is_used() throws InterruptedException {
+        ProfileRegistry registry = ProfileRegistry.standard();
+        ProfileRecord record = registry.decode(INTERMEDIATE_CUFF_PRESSURE, CUFF_PRESSURE);
+        AtomicReference<ProfileRecord> otherRecord = new AtomicReference<>();
+
+        Thread thread = new Thread(() -> otherRecord.set(registry.decode(INTERMEDIATE_CUFF_PRESSURE, CUFF_PRESSURE)));
+        thread.start();
+        thread.join();
+
+        assertNotNull(otherRecord.get());
+        assertNotSame(record, otherRecord.get());
+    }
+
+    @Test
+    void When_decoding_a_buffer_then_its_position_is_not_changed() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CUFF_PRESSURE.length + 1);
+        buffer.put((byte) 0x55).put(CUFF_PRESSURE).flip().position(1);
+
+        ProfileRecord record = ProfileRegistry.standard().decode(INTERMEDIATE_CUFF_PRESSURE, buffer);
+
+        assertEquals(16f, ((BloodPressureMeasurementRecord) record).systolic);
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    void When_a_characteristic_is_not_registered_then_null_is_returned() {
+        ProfileRegistry registry = ProfileRegistry.standard();
+
+        registry.unregister(INTERMEDIATE_CUFF_PRESSURE);
+
+        assertFalse(registry.isRegistered(INTERMEDIATE_CUFF_PRESSURE));
+        assertNull(registry.decode(INTERMEDIATE_CUFF_PRESSURE, CUFF_PRESSURE));
+        assertTrue(registry.isRegistered(BloodPressureMeasurementRecordDecoder.CHARACTERISTIC_UUID));
+    }
+
+    @Test
+    void When_decoding_then_the_local_buffer_parser_of_the_thread_keeps_its_state() {
+        BluetoothBufferParser local = BluetoothBufferParser.local().wrap(new byte[]{0x01, 0x02, 0x03});
+        assertEquals(1, local.getUInt8());
+
+        ProfileRegistry.standard().decode(INTERMEDIATE_CUFF_PRESSURE, CUFF_PRESSURE);
+
+        assertEquals(1, local.getOffset());
+        assertEquals(2, local.getUInt8());
+    }
+}
@@ -0,0 +1,110 @@
+package com.welie.blessed.schema.health;
+
+import com.welie.blessed.BluetoothBufferParser;
+import com.welie.blessed.BluetoothBytesParser;
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class HealthRecordDecoderTest {
+
+    private static final byte[] DATE_TIME = new byte[]{(byte) 0xE4, 0x07, 0x0A, 0x13, 0x0E, 0x1E, 0x2D};
+
+    @Test
+    void When_decoding_a_blood_pressure_measurement_with_all_fields_then_all_fields_are_set() {
+        byte[] value = BluetoothBytesParser.mergeArrays(
+                new byte[]{0x1E, 0x79, 0x00, 0x50, 0x00, 0x5E, 0x00},
+                DATE_TIME,
+                new byte[]{0x48, 0x00, 0x01, 0x02, 0x00});
+
+        BloodPressureMeasurementRecord record = BloodPressureMeasurementRecordDecoder.decode(value, new BloodPressureMeasurementRecord());
+
+        assertTrue(record.isMMHG());
+        assertEquals(121.0f, record.systolic);
+        assertEquals(80.0f, record.diastolic);
+        assertEquals(94.0f, record.meanArterialPressure);
+        assertTrue(record.timestampPresent);
+        assertEquals(new BluetoothBytesParser(DATE_TIME).getDateTime().getTime(), record.timestamp);
+        assertEquals(72.0f, record.pulseRate);
+        assertEquals(1, record.userId);
+        assertEquals(2, record.measurementStatus);
+    }
+
+    @Test
+    void When_a_record_is_reused_then_absent_fields_are_reset() {
+        BloodPressureMeasurementRecord record = new BloodPressureMeasurementRecord();
+        byte[] full = BluetoothBytesParser.mergeArrays(new byte[]{0x0E, 0x79, 0x00, 0x50, 0x00, 0x5E, 0x00}, DATE_TIME, new byte[]{0x48, 0x00, 0x01});
+        byte[] minimal = new byte[]{0x01, 0x10, 0x00, 0x0B, 0x00, 0x0D, 0x00};
+
+        BloodPressureMeasurementRecordDecoder.decode(full, record);
+        BloodPressureMeasurementRecordDecoder.decode(ByteBuffer.wrap(minimal), record);
+
+        assertFalse(record.isMMHG());
+        assertEquals(16.0f, record.systolic);
+        assertFalse(record.timestampPresent);
+        assertTrue(Float.isNaN(record.pulseRate));
+        assertFalse(record.userIdPresent);
+        assertEquals(0, record.userId);
+    }
+
+    @Test
+    void When_decoding_a_heart_rate_with_the_uint16_flag_then_the_alternate_format_is_used() {
+        HeartRateMeasurementRecord record = new HeartRateMeasurementRecord();
+
+        HeartRateMeasurementRecordDecoder.decode(new byte[]{0x06, 0x48}, record);
+        assertEquals(72, record.heartRate);
+        assertEquals(3, record.getSensorContactStatus());
+        assertFalse(record.energyExpendedPresent);
+
+        HeartRateMeasurementRecordDecoder.decode(new byte[]{0x09, 0x2C, 0x01, 0x10, 0x00}, record);
+        assertEquals(300, record.heartRate);
+        assertTrue(record.energyExpendedPresent);
+        assertEquals(16, record.energyExpended);
+    }
+
+    @Test
+    void When_decoding_a_weight_measurement_then_the_values_are_scaled_by_unit() {
+        WeightMeasurementRecord record = WeightMeasurementRecordDecoder.decode(new byte[]{0x0D, (byte) 0xD0, 0x07, 0x01, (byte) 0xFA, 0x00, 0x4C, 0x04}, new WeightMeasurementRecord());
+
+        assertTrue(record.isImperial());
+        assertEquals(20.0, record.getWeight(), 0.0001);
+        assertEquals(1, record.userId);
+        assertEquals(25.0, record.getBmi(), 0.0001);
+        assertEquals(110.0, record.getHeight(), 0.0001);
+        assertFalse(record.timestampPresent);
+    }
+
+    @Test
+    void When_decoding_a_continuous_plx_measurement_then_the_24_bit_sensor_status_is_read() {
+        byte[] value = new byte[]{0x1C, 0x62, 0x00, 0x48, 0x00, 0x01, 0x00, 0x03, 0x02, 0x01, 0x15, (byte) 0xF0};
+
+        PulseOximeterContinuousMeasurementRecord record = PulseOximeterContinuousMeasurementRecordDecoder.decode(value, new PulseOximeterContinuousMeasurementRecord());
+
+        assertEquals(98.0f, record.spO2);
+        assertEquals(72.0f, record.pulseRate);
+        assertTrue(Float.isNaN(record.spO2Fast));
+        assertEquals(1, record.measurementStatus);
+        assertEquals(0x010203, record.sensorStatus);
+        assertEquals(2.1f, record.pulseAmplitudeIndex, 0.0001f);
+    }
+
+    @Test
+    void When_decoding_a_truncated_value_then_an_IndexOutOfBoundsException_is_thrown() {
+        assertThrows(IndexOutOfBoundsException.class, () -> TemperatureMeasurementRecordDecoder.decode(new byte[]{0x02, 0x01, 0x02, 0x03, 0x04}, new TemperatureMeasurementRecord()));
+    }
+
+    @Test
+    void When_decoding_then_the_local_buffer_parser_of_the_thread_keeps_its_state() {
+        BluetoothBufferParser local = BluetoothBufferParser.local().wrap(new byte[]{0x01, 0x02, 0x03});
+        assertEquals(1, local.getUInt8());
+
+        HeartRateMeasurementRecordDecoder.decode(new byte[]{0x00, 0x48}, new HeartRateMeasurementRecord());
+        HeartRateMeasurementRecordDecoder.decode(ByteBuffer.wrap(new byte[]{0x00, 0x49}), new HeartRateMeasurementRecord());
+
+        assertEquals(1, local.getOffset());
+        assertEquals(2, local.getUInt8());
+    }
+}
@@ -0,0 +1,122 @@
+package com.welie.blessed;
+
+import com.welie.blessed.metrics.CommandType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.welie.blessed.BluetoothCommandStatus.COMMAND_SUCCESS;
+import static com.welie.blessed.BluetoothPeripheral.STATE_CONNECTED;
+import static com.welie.blessed.BluetoothPeripheral.STATE_CONNECTING;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class FlightRecorderEventsTest {
+
+    private static final String ADDRESS = "12:34:56:65:43:21";
+    private static final UUID CHARACTERISTIC_UUID = UUID.fromString("00002a37-0000-1000-8000-00805f9b34fb");
+    private static final String CHARACTERISTIC_PATH = "/org/bluez/hci0/dev_12_34_56_65_43_21/service0010/char0011";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void Given_a_recording_with_the_events_enabled_when_events_are_emitted_then_they_can_be_read_back() throws IOException {
+        // Given
+        final Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FlightRecorderEvents.CommandEnqueuedEvent.class);
+            recording.enable(FlightRecorderEvents.CommandStartedEvent.class);
+            recording.enable(FlightRecorderEvents.CommandCompletedEvent.class);
+            recording.enable(FlightRecorderEvents.SignalDispatchEvent.class);
+            recording.enable(FlightRecorderEvents.ScanStateChangedEvent.class);
+            recording.enable(FlightRecorderEvents.ConnectionStateChangedEvent.class);
+            recording.start();
+
+            // When
+            FlightRecorderEvents.commandEnqueued(ADDRESS, CommandType.READ, CHARACTERISTIC_UUID, () -> 3);
+            FlightRecorderEvents.commandStarted(ADDRESS, CommandType.READ, CHARACTERISTIC_UUID);
+            FlightRecorderEvents.commandCompleted(ADDRESS, CommandType.READ, CHARACTERISTIC_UUID, COMMAND_SUCCESS, Duration.ofMillis(12).toNanos());
+            FlightRecorderEvents.signalDispatched(FlightRecorderEvents.signalDispatchStarted(), "PropertiesChanged", CHARACTERISTIC_PATH, "org.bluez.GattCharacteristic1");
+            FlightRecorderEvents.scanStateChanged("/org/bluez/hci0", true);
+            FlightRecorderEvents.connectionStateChanged(ADDRESS, STATE_CONNECTING, STATE_CONNECTED, COMMAND_SUCCESS);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        final List<RecordedEvent> events = readBlessedEvents(file);
+        assertEquals(6, events.size());
+
+        final RecordedEvent enqueued = event(events, "com.welie.blessed.CommandEnqueued");
+        assertEquals(ADDRESS, enqueued.getString("address"));
+        assertEquals("READ", enqueued.getString("command"));
+        assertEquals(CHARACTERISTIC_UUID.toString(), enqueued.getString("characteristic"));
+        assertEquals(3, enqueued.getInt("queueDepth"));
+
+        final RecordedEvent started = event(events, "com.welie.blessed.CommandStarted");
+        assertEquals("READ", started.getString("command"));
+
+        final RecordedEvent completed = event(events, "com.welie.blessed.CommandCompleted");
+        assertEquals("COMMAND_SUCCESS", completed.getString("status"));
+        assertEquals(Duration.ofMillis(12), completed.getDuration("latency"));
+
+        final RecordedEvent dispatch = event(events, "com.welie.blessed.SignalDispatch");
+        assertEquals("PropertiesChanged", dispatch.getString("signal"));
+        assertEquals(CHARACTERISTIC_PATH, dispatch.getString("path"));
+        assertEquals("org.bluez.GattCharacteristic1", dispatch.getString("interfaceName"));
+
+        final RecordedEvent scan = event(events, "com.welie.blessed.ScanStateChanged");
+        assertEquals("/org/bluez/hci0", scan.getString("adapter"));
+        assertTrue(scan.getBoolean("scanning"));
+
+        final RecordedEvent connection = event(events, "com.welie.blessed.ConnectionStateChanged");
+        assertEquals("CONNECTING", connection.getString("previousState"));
+        assertEquals("CONNECTED", connection.getString("newState"));
+    }
+
+    @Test
+    void Given_a_recording_without_the_events_enabled_when_events_are_emitted_then_nothing_is_recorded_or_computed() throws IOException {
+        // Given
+        final Path file = tempDir.resolve("disabled.jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+
+            // When
+            FlightRecorderEvents.commandEnqueued(ADDRESS, CommandType.READ, CHARACTERISTIC_UUID, () -> {
+                throw new AssertionError("queue depth computed for a disabled event");
+            });
+            assertNull(FlightRecorderEvents.signalDispatchStarted());
+            FlightRecorderEvents.scanStateChanged("/org/bluez/hci0", false);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        assertTrue(readBlessedEvents(file).isEmpty());
+    }
+
+    private static List<RecordedEvent> readBlessedEvents(Path file) throws IOException {
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.welie.blessed."))
+                .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent event(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no " + name + " event"));
+    }
+}
@@ -64,28 +64,30 @@ public class BluetoothHandler {
     private final BluetoothPeripheralCallback peripheralCallback = new BluetoothPeripheralCallback() {
         @Override
         public void onServicesDiscovered(@NotNull BluetoothPeripheral peripheral) {
-            peripheral.readCharacteristic(DIS_SERVICE_UUID, MANUFACTURER_NAME_CHARACTERISTIC_UUID);
-            peripheral.readCharacteristic(DIS_SERVICE_UUID, MODEL_NUMBER_CHARACTERISTIC_UUID);
+            BluetoothCommandBatch batch = peripheral.batch()
+                    .read(DIS_SERVICE_UUID, MANUFACTURER_NAME_CHARACTERISTIC_UUID)
+                    .read(DIS_SERVICE_UUID, MODEL_NUMBER_CHARACTERISTIC_UUID);
 
             BluetoothGattCharacteristic currentTimeCharacteristic = peripheral.getCharacteristic(CTS_SERVICE_UUID, CURRENT_TIME_CHARACTERISTIC_UUID);
             if (currentTimeCharacteristic != null) {
-                peripheral.setNotify(currentTimeCharacteristic, true);
+                batch.setNotify(currentTimeCharacteristic, true);
 
                 // If it has the write property we write the current time
                 if (currentTimeCharacteristic.supportsWritingWithResponse()) {
                     BluetoothBytesParser parser = new BluetoothBytesParser();
-                    parser.setCurrentTime(Calendar.getInstance());
-                    peripheral.writeCharacteristic(currentTimeCharacteristic, parser.getValue(), WriteType.withResponse);
+                    parser.setCurrentTime(System.currentTimeMillis());
+                    batch.write(currentTimeCharacteristic, parser.getValue(), WriteType.withResponse);
                 }
             }
 
-            peripheral.readCharacteristic(BTS_SERVICE_UUID, BATTERY_LEVEL_CHARACTERISTIC_UUID);
-            peripheral.setNotify(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, true);
-            peripheral.setNotify(HTS_SERVICE_UUID, TEMPERATURE_MEASUREMENT_CHARACTERISTIC_UUID, true);
-            peripheral.setNotify(PLX_SERVICE_UUID, PLX_CONTINUOUS_MEASUREMENT_CHAR_UUID, true);
-            peripheral.setNotify(PLX_SERVICE_UUID, PLX_SPOT_MEASUREMENT_CHAR_UUID, true);
-            peripheral.setNotify(HRS_SERVICE_UUID, HEARTRATE_MEASUREMENT_CHARACTERISTIC_UUID, true);
-            peripheral.setNotify(WSS_SERVICE_UUID, WSS_MEASUREMENT_CHAR_UUID, true);
+            batch.read(BTS_SERVICE_UUID, BATTERY_LEVEL_CHARACTERISTIC_UUID)
+                    .setNotify(BLP_SERVICE_UUID, BLOOD_PRESSURE_MEASUREMENT_CHARACTERISTIC_UUID, true)
+                    .setNotify(HTS_SERVICE_UUID, TEMPERATURE_MEASUREMENT_CHARACTERISTIC_UUID, true)
+                    .setNotify(PLX_SERVICE_UUID, PLX_CONTINUOUS_MEASUREMENT_CHAR_UUID, true)
+                    .setNotify(PLX_SERVICE_UUID, PLX_SPOT_MEASUREMENT_CHAR_UUID, true)
+                    .setNotify(HRS_SERVICE_UUID, HEARTRATE_MEASUREMENT_CHARACTERISTIC_UUID, true)
+                    .setNotify(WSS_SERVICE_UUID, WSS_MEASUREMENT_CHAR_UUID, true)
+                    .enqueue();
         }
 
         @Override